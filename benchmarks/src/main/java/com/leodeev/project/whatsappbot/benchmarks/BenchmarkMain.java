@@ -0,0 +1,35 @@
+package com.leodeev.project.whatsappbot.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada de los benchmarks: acepta las mismas opciones que JMH y
+ * agrega por defecto el perfilador de GC y la salida en JSON por commit
+ * (target/jmh-{benchmarks.commit}.json) para comparar resultados entre versiones.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine);
+
+        if (commandLine.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON)
+                    .result("target/jmh-" + System.getProperty("benchmarks.commit", "local") + ".json");
+        }
+
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,88 @@
+package com.leodeev.project.whatsappbot.benchmarks;
+
+import com.leodeev.project.whatsappbot.dto.response.ConversationResponse;
+import com.leodeev.project.whatsappbot.dto.response.MessageResponse;
+import com.leodeev.project.whatsappbot.dto.response.ProductResponse;
+import com.leodeev.project.whatsappbot.entity.Conversation;
+import com.leodeev.project.whatsappbot.entity.Customer;
+import com.leodeev.project.whatsappbot.entity.Message;
+import com.leodeev.project.whatsappbot.entity.Product;
+import com.leodeev.project.whatsappbot.mapper.ConversationMapper;
+import com.leodeev.project.whatsappbot.mapper.MessageMapper;
+import com.leodeev.project.whatsappbot.mapper.ProductMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mappers entre entidades y DTOs (webhook entrante, historial paginado, catálogo)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final MessageMapper messageMapper = new MessageMapper();
+    private final ConversationMapper conversationMapper = new ConversationMapper();
+    private final ProductMapper productMapper = new ProductMapper();
+
+    private Conversation conversation;
+    private Message message;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        Customer customer = Customer.builder().id(1L).phoneNumber("51999000111").name("Ana Torres").build();
+        conversation = Conversation.builder().id(10L).customer(customer).startedAt(now).createdAt(now).build();
+
+        message = messageMapper.createInboundMessage("wamid.HBgLNTE5OTkwMDAxMTEVAgASGBQzQUI1",
+                "Hola, tienen laptops de 16GB?", "51999000111", conversation);
+        message.setId(100L);
+        message.setSentAt(now);
+
+        products = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            products.add(Product.builder().id((long) i).name("Producto " + i).description("Descripción " + i)
+                    .price(BigDecimal.valueOf(1999 + i, 2)).category("Laptops").stock(i).sku("SKU-" + i)
+                    .active(true).createdAt(now).build());
+        }
+    }
+
+    @Benchmark
+    public Message createInboundMessage() {
+        return messageMapper.createInboundMessage("wamid.HBgLNTE5OTkwMDAxMTEVAgASGBQzQUI1",
+                "Hola, tienen laptops de 16GB?", "51999000111", conversation);
+    }
+
+    @Benchmark
+    public MessageResponse messageToResponse() {
+        return messageMapper.toResponse(message);
+    }
+
+    @Benchmark
+    public ConversationResponse conversationToResponse() {
+        return conversationMapper.toResponse(conversation, 42);
+    }
+
+    @Benchmark
+    public List<ProductResponse> productCatalogToResponse() {
+        return productMapper.toResponseList(products);
+    }
+}
@@ -0,0 +1,82 @@
+package com.leodeev.project.whatsappbot.benchmarks;
+
+import com.leodeev.project.whatsappbot.dto.response.ProductResponse;
+import com.leodeev.project.whatsappbot.service.ProductService;
+import com.leodeev.project.whatsappbot.service.serviceImpl.AIServiceImpl;
+import com.leodeev.project.whatsappbot.util.AIPromptBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contexto de productos para la IA según el tamaño del catálogo:
+ * searchRelevantProducts (se ejecuta en cada respuesta) y el prompt de ventas
+ * El catálogo sale de un ProductService en memoria: se mide el armado, no la base de datos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductContextBenchmark {
+
+    private static final String[] CATEGORIES = {"Laptops", "Celulares", "Accesorios", "Audio", "Monitores"};
+
+    @Param({"10", "1000", "50000"})
+    private int catalogSize;
+
+    private List<ProductResponse> products;
+    private AIServiceImpl aiService;
+
+    @Setup
+    public void setUp() {
+        products = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            products.add(ProductResponse.builder()
+                    .id((long) i)
+                    .name("Producto " + i + " " + CATEGORIES[i % CATEGORIES.length])
+                    .description("Descripción del producto " + i + " con garantía de 12 meses y envío a todo el país")
+                    .price(BigDecimal.valueOf(1999 + i, 2))
+                    .category(CATEGORIES[i % CATEGORIES.length])
+                    .stock(i % 50)
+                    .sku("SKU-" + i)
+                    .active(true)
+                    .build());
+        }
+
+        ProductService productService = (ProductService) Proxy.newProxyInstance(
+                ProductService.class.getClassLoader(), new Class<?>[]{ProductService.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getActiveProducts")) {
+                        return products;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        aiService = new AIServiceImpl(null, productService, null, null, null, null);
+    }
+
+    @Benchmark
+    public String searchRelevantProducts() {
+        return aiService.searchRelevantProducts("laptop de 16GB");
+    }
+
+    @Benchmark
+    public String salesAssistantPrompt() {
+        return AIPromptBuilder.buildSalesAssistantPrompt("LeoDeev", products);
+    }
+}
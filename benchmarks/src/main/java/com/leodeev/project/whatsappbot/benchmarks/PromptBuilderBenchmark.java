@@ -0,0 +1,61 @@
+package com.leodeev.project.whatsappbot.benchmarks;
+
+import com.leodeev.project.whatsappbot.util.AIPromptBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métodos de AIPromptBuilder que no dependen del catálogo
+ * (buildSalesAssistantPrompt está en ProductContextBenchmark)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptBuilderBenchmark {
+
+    private List<String> history;
+
+    @Setup
+    public void setUp() {
+        history = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            history.add(i % 2 == 0 ? "Cliente: quisiera saber el precio del producto " + i
+                    : "Bot: el producto " + i + " cuesta S/ 1999 y tenemos stock disponible");
+        }
+    }
+
+    @Benchmark
+    public String productSearchPrompt() {
+        return AIPromptBuilder.buildProductSearchPrompt("laptop de 16GB para diseño");
+    }
+
+    @Benchmark
+    public String greetingPrompt() {
+        return AIPromptBuilder.buildGreetingPrompt("LeoDeev", "Ana");
+    }
+
+    @Benchmark
+    public String farewellPrompt() {
+        return AIPromptBuilder.buildFarewellPrompt();
+    }
+
+    @Benchmark
+    public String conversationContext() {
+        return AIPromptBuilder.buildConversationContext(history);
+    }
+}
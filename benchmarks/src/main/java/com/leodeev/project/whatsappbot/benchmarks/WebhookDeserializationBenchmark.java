@@ -0,0 +1,58 @@
+package com.leodeev.project.whatsappbot.benchmarks;
+
+import com.leodeev.project.whatsappbot.dto.request.WhatsAppWebhookRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialización de WhatsAppWebhookRequest (cada webhook recibido o releído del diario)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebhookDeserializationBenchmark {
+
+    private static final byte[] TEXT_MESSAGE = ("""
+            {"object":"whatsapp_business_account","entry":[{"id":"826716346942695","changes":[{"field":"messages",
+            "value":{"messaging_product":"whatsapp","metadata":{"display_phone_number":"51999000000","phone_number_id":"886295827904210"},
+            "contacts":[{"profile":{"name":"Ana Torres"},"wa_id":"51999000111"}],
+            "messages":[{"from":"51999000111","id":"wamid.HBgLNTE5OTkwMDAxMTEVAgASGBQzQUI1","timestamp":"1700000000","type":"text",
+            "text":{"body":"Hola, tienen laptops de 16GB de RAM? Quisiera saber precios y si hacen envíos a Arequipa"}}]}}]}]}
+            """).getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] STATUS_BATCH = ("""
+            {"object":"whatsapp_business_account","entry":[{"id":"826716346942695","changes":[{"field":"messages",
+            "value":{"messaging_product":"whatsapp","metadata":{"display_phone_number":"51999000000","phone_number_id":"886295827904210"},
+            "statuses":[
+            {"id":"wamid.OUT1","status":"sent","timestamp":"1700000001","recipient_id":"51999000111"},
+            {"id":"wamid.OUT1","status":"delivered","timestamp":"1700000002","recipient_id":"51999000111"},
+            {"id":"wamid.OUT2","status":"read","timestamp":"1700000003","recipient_id":"51999000222"},
+            {"id":"wamid.OUT3","status":"failed","timestamp":"1700000004","recipient_id":"51999000333"}]}}]}]}
+            """).getBytes(StandardCharsets.UTF_8);
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    @Benchmark
+    public WhatsAppWebhookRequest textMessage() {
+        return jsonMapper.readValue(TEXT_MESSAGE, WhatsAppWebhookRequest.class);
+    }
+
+    @Benchmark
+    public WhatsAppWebhookRequest statusBatch() {
+        return jsonMapper.readValue(STATUS_BATCH, WhatsAppWebhookRequest.class);
+    }
+}
@@ -0,0 +1,62 @@
+package com.leodeev.project.whatsappbot.benchmarks;
+
+import com.leodeev.project.whatsappbot.util.WhatsAppUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utilidades de teléfonos y mensajes de WhatsAppUtil
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WhatsAppUtilBenchmark {
+
+    private String phone = "+51 999-000-111";
+    private String localPhone = "999000111";
+    private String message = "  Hola!!   quisiera   saber el precio\n\n\n de la laptop   ";
+    private String longMessage = "Este producto es excelente. ".repeat(200);
+    private String command = "/productos laptops";
+
+    @Benchmark
+    public String formatPhoneNumber() {
+        return WhatsAppUtil.formatPhoneNumber(phone);
+    }
+
+    @Benchmark
+    public boolean isValidPhoneNumber() {
+        return WhatsAppUtil.isValidPhoneNumber(phone);
+    }
+
+    @Benchmark
+    public String addCountryCode() {
+        return WhatsAppUtil.addCountryCode(localPhone, "51");
+    }
+
+    @Benchmark
+    public String cleanMessage() {
+        return WhatsAppUtil.cleanMessage(message);
+    }
+
+    @Benchmark
+    public String truncateMessage() {
+        return WhatsAppUtil.truncateMessage(longMessage);
+    }
+
+    @Benchmark
+    public String extractCommand() {
+        return WhatsAppUtil.isCommand(command) ? WhatsAppUtil.extractCommand(command) : null;
+    }
+}
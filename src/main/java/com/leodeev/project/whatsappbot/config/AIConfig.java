@@ -1,5 +1,6 @@
 package com.leodeev.project.whatsappbot.config;
 
+import io.micrometer.observation.ObservationRegistry;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -51,9 +52,10 @@ public class AIConfig {
     
     /**
      * Bean de WebClient para hacer llamadas HTTP a las APIs de IA
+     * Observado: cada llamada es un span hijo del activo y propaga traceparent
      */
     @Bean
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+    public WebClient.Builder webClientBuilder(ObservationRegistry observationRegistry) {
+        return WebClient.builder().observationRegistry(observationRegistry);
     }
 }
@@ -0,0 +1,68 @@
+package com.leodeev.project.whatsappbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuración del registro de uso y costo de la IA
+ * Lee las propiedades desde application.properties con prefijo "ai.usage"
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "ai.usage")
+public class AIUsageConfig {
+
+    /**
+     * Si está desactivado no se registra el uso
+     */
+    private Boolean enabled = true;
+
+    /**
+     * Intervalo entre escrituras del lote (ms)
+     */
+    private Long flushIntervalMs = 1000L;
+
+    /**
+     * Con más llamadas pendientes se escribe de inmediato (memoria acotada)
+     */
+    private Integer maxPending = 10000;
+
+    /**
+     * Precios en USD por millón de tokens, por modelo
+     */
+    private Map<String, Price> prices = new HashMap<>();
+
+    @Data
+    public static class Price {
+        private Double input = 0.0;
+        private Double cachedInput = 0.0;
+        private Double output = 0.0;
+    }
+
+    /**
+     * Costo en millonésimas de USD: el precio por millón de tokens es el costo por token en micro-USD
+     * El modelo de la respuesta lleva fecha (gpt-4o-mini-2024-07-18): gana el precio con el prefijo más largo
+     */
+    public long costMicros(String model, int promptTokens, int cachedTokens, int completionTokens) {
+        if (model == null) {
+            return 0;
+        }
+
+        Price price = prices.entrySet().stream()
+                .filter(entry -> model.startsWith(entry.getKey()))
+                .max(Map.Entry.comparingByKey((a, b) -> Integer.compare(a.length(), b.length())))
+                .map(Map.Entry::getValue)
+                .orElse(null);
+        if (price == null) {
+            return 0;
+        }
+
+        return Math.round((promptTokens - cachedTokens) * price.getInput()
+                + cachedTokens * price.getCachedInput()
+                + completionTokens * price.getOutput());
+    }
+}
@@ -0,0 +1,76 @@
+package com.leodeev.project.whatsappbot.config;
+
+import com.leodeev.project.whatsappbot.exception.UnauthorizedException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Autenticación de los endpoints de administración (/api/admin/**)
+ * Lee las propiedades desde application.properties con prefijo "admin.api"
+ *
+ * Estos endpoints archivan datos y descargan grabaciones JFR: sin token
+ * configurado quedan cerrados. El token se envía en "X-Admin-Token" o como
+ * "Authorization: Bearer ...".
+ */
+@Slf4j
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "admin.api")
+public class AdminApiConfig implements WebMvcConfigurer {
+
+    public static final String TOKEN_HEADER = "X-Admin-Token";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    /**
+     * Token compartido de administración (vacío = endpoints deshabilitados)
+     */
+    private String token;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!StringUtils.hasText(token)) {
+            log.warn("admin.api.token no está configurado: /api/admin/** responderá 401");
+        }
+
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                // El preflight de CORS no lleva credenciales
+                if (handler instanceof HandlerMethod && !isAuthorized(request)) {
+                    throw new UnauthorizedException("Token de administración inválido o ausente");
+                }
+                return true;
+            }
+        }).addPathPatterns("/api/admin/**");
+    }
+
+    private boolean isAuthorized(HttpServletRequest request) {
+        if (!StringUtils.hasText(token)) {
+            return false;
+        }
+
+        String provided = request.getHeader(TOKEN_HEADER);
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (provided == null && authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+            provided = authorization.substring(BEARER_PREFIX.length());
+        }
+
+        // Comparación en tiempo constante
+        return provided != null && MessageDigest.isEqual(
+                provided.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+}
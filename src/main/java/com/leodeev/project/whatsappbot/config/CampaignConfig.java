@@ -0,0 +1,61 @@
+package com.leodeev.project.whatsappbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuración del motor de campañas
+ * Lee las propiedades desde application.properties con prefijo "campaigns"
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "campaigns")
+public class CampaignConfig {
+
+    private Boolean enabled = true;
+
+    /**
+     * Intervalo entre pasadas de preparación y despacho (ms)
+     */
+    private Long pollIntervalMs = 500L;
+
+    /**
+     * Clientes volcados a campaign_recipients por transacción (checkpoint)
+     */
+    private Integer chunkSize = 5000;
+
+    /**
+     * Destinatarios reclamados por pasada de despacho
+     */
+    private Integer batchSize = 500;
+
+    /**
+     * Latencia esperada de un envío a la API de WhatsApp
+     * Envíos simultáneos = tasa del nivel del número × esta latencia (ley de Little):
+     * justo los hilos necesarios para sostener la tasa sin dejar permisos sin usar
+     */
+    private Duration expectedSendLatency = Duration.ofMillis(250);
+
+    /**
+     * Tope de envíos simultáneos (niveles altos)
+     */
+    private Integer maxConcurrency = 64;
+
+    /**
+     * Tiempo que un lote reclamado queda reservado para la réplica que lo envía
+     */
+    private Duration lease = Duration.ofMinutes(5);
+
+    /**
+     * Envíos simultáneos necesarios para sostener una tasa
+     * @param rate Mensajes por segundo del número
+     * @return Hilos de envío, entre 1 y maxConcurrency
+     */
+    public int concurrencyFor(int rate) {
+        int needed = (int) Math.ceil(rate * expectedSendLatency.toMillis() / 1000.0);
+        return Math.max(1, Math.min(maxConcurrency, needed));
+    }
+}
@@ -0,0 +1,37 @@
+package com.leodeev.project.whatsappbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración del archivo frío de conversaciones
+ * Lee las propiedades desde application.properties con prefijo "archive.cold"
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "archive.cold")
+public class ColdArchiveConfig {
+
+    private Boolean enabled = true;
+
+    /**
+     * Antigüedad mínima (desde el cierre) para archivar una conversación
+     */
+    private Integer minAgeDays = 365;
+
+    /**
+     * Conversaciones por segmento (una transacción por segmento)
+     */
+    private Integer batchSize = 5000;
+
+    /**
+     * Conversaciones por bloque comprimido; el índice disperso tiene una entrada por bloque
+     */
+    private Integer blockSize = 64;
+
+    /**
+     * Intervalo entre lecturas de la lista de segmentos (nuevos segmentos de otras réplicas)
+     */
+    private Long refreshMs = 60000L;
+}
@@ -0,0 +1,81 @@
+package com.leodeev.project.whatsappbot.config;
+
+import com.leodeev.project.whatsappbot.util.AdaptiveConcurrencyLimiter;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuración de los límites adaptativos de concurrencia hacia servicios externos
+ * Lee las propiedades desde application.properties con prefijo "upstream.concurrency"
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "upstream.concurrency")
+public class ConcurrencyLimitConfig {
+
+    private Limit whatsapp = new Limit();
+    private Limit openai = new Limit(4, 1, 16, Duration.ofSeconds(10), 50);
+
+    @Data
+    public static class Limit {
+
+        /**
+         * Llamadas simultáneas al arrancar, mínimo y máximo del límite adaptativo
+         */
+        private Integer initialLimit = 8;
+        private Integer minLimit = 1;
+        private Integer maxLimit = 32;
+
+        /**
+         * Espera máxima por un turno y llamadas que pueden esperar a la vez
+         */
+        private Duration maxWait = Duration.ofSeconds(5);
+        private Integer maxQueued = 200;
+
+        /**
+         * Latencia tolerada respecto de la de referencia antes de reducir el límite
+         */
+        private Double latencyTolerance = 2.0;
+
+        /**
+         * Factor de reducción ante 429/503/504 o timeout
+         */
+        private Double backoffRatio = 0.5;
+
+        public Limit() {
+        }
+
+        Limit(int initialLimit, int minLimit, int maxLimit, Duration maxWait, int maxQueued) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.maxWait = maxWait;
+            this.maxQueued = maxQueued;
+        }
+
+        AdaptiveConcurrencyLimiter toLimiter(String name) {
+            return new AdaptiveConcurrencyLimiter(name, initialLimit, minLimit, maxLimit,
+                    maxWait, maxQueued, latencyTolerance, backoffRatio);
+        }
+    }
+
+    /**
+     * Límite de llamadas a la Graph API de WhatsApp
+     */
+    @Bean
+    public AdaptiveConcurrencyLimiter whatsAppLimiter() {
+        return whatsapp.toLimiter("whatsapp");
+    }
+
+    /**
+     * Límite de llamadas a OpenAI
+     */
+    @Bean
+    public AdaptiveConcurrencyLimiter openAiLimiter() {
+        return openai.toLimiter("openai");
+    }
+}
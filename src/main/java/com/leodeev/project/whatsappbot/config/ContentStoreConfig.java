@@ -0,0 +1,27 @@
+package com.leodeev.project.whatsappbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración del almacenamiento deduplicado de contenidos salientes
+ * Lee las propiedades desde application.properties con prefijo "messages.content-store"
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "messages.content-store")
+public class ContentStoreConfig {
+
+    private Boolean enabled = true;
+
+    /**
+     * Textos más cortos se guardan en la fila: la referencia (64 caracteres) no ahorraría espacio
+     */
+    private Integer minLength = 64;
+
+    /**
+     * Hashes recientes que se sabe que ya existen en message_contents
+     */
+    private Integer internCacheSize = 10000;
+}
@@ -0,0 +1,64 @@
+package com.leodeev.project.whatsappbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuración de la grabación continua de Java Flight Recorder
+ * Lee las propiedades desde application.properties con prefijo "jfr"
+ *
+ * La grabación usa la configuración "default" del JDK (costo típico bajo el 1%),
+ * sin los eventos con variables de entorno, propiedades o argumentos, y se descarta por
+ * antigüedad y tamaño: siempre hay una ventana reciente lista para descargar
+ * desde /api/admin/jfr/recording (requiere admin.api.token).
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "jfr")
+public class FlightRecorderConfig {
+
+    /**
+     * Grabar desde el arranque
+     */
+    private Boolean enabled = true;
+
+    /**
+     * Antigüedad máxima de la ventana grabada
+     */
+    private Duration maxAge = Duration.ofMinutes(30);
+
+    /**
+     * Tamaño máximo en disco de la ventana grabada
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(256);
+
+    private Alerts alerts = new Alerts();
+
+    /**
+     * Alertas en el proceso a partir de los eventos de JFR (streaming, sin agentes externos)
+     */
+    @Data
+    public static class Alerts {
+
+        private Boolean enabled = true;
+
+        /**
+         * Etapa del pipeline más lenta que esto (la llamada a la IA tiene su propio umbral)
+         */
+        private Duration slowStage = Duration.ofSeconds(2);
+
+        /**
+         * Llamada a OpenAI más lenta que esto (incluye la espera del límite de concurrencia)
+         */
+        private Duration slowAiCall = Duration.ofSeconds(20);
+
+        /**
+         * Pausa del recolector de basura más larga que esto
+         */
+        private Duration gcPause = Duration.ofMillis(200);
+    }
+}
@@ -0,0 +1,65 @@
+package com.leodeev.project.whatsappbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuración de la ventana de agrupación de mensajes entrantes
+ * Lee las propiedades desde application.properties con prefijo "messages.coalescing"
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "messages.coalescing")
+public class InboundCoalescingConfig {
+
+    /**
+     * Si está desactivado, cada mensaje entrante se responde de inmediato
+     */
+    private Boolean enabled = true;
+
+    /**
+     * Espera tras el primer mensaje de una ráfaga (aún no se conoce el ritmo del cliente)
+     */
+    private Duration window = Duration.ofMillis(1500);
+
+    /**
+     * Límites de la ventana adaptada al ritmo de escritura
+     */
+    private Duration minWindow = Duration.ofMillis(500);
+    private Duration maxWindow = Duration.ofSeconds(4);
+
+    /**
+     * Ventana = intervalo promedio entre mensajes de la ráfaga x este factor
+     */
+    private Double cadenceFactor = 1.5;
+
+    /**
+     * Espera máxima desde el primer mensaje: una ráfaga larga no posterga la respuesta indefinidamente
+     */
+    private Duration maxHold = Duration.ofSeconds(8);
+
+    /**
+     * Mensajes que cierran la ráfaga sin esperar la ventana
+     */
+    private Integer maxMessages = 10;
+
+    /**
+     * Hilos que generan respuestas (llamadas a la IA) fuera del hilo del webhook
+     */
+    private Integer replyThreads = 8;
+
+    /**
+     * Tiempo sin respuesta en el outbox tras el cual un mensaje guardado se vuelve a
+     * responder (réplica caída o error al encolar). Debe superar maxHold más lo que
+     * tarda una respuesta: antes, la ráfaga puede seguir en curso en otra réplica
+     */
+    private Duration recoverAfter = Duration.ofMinutes(5);
+
+    /**
+     * Mensajes sin respuesta retomados por pasada
+     */
+    private Integer recoveryBatchSize = 100;
+}
@@ -0,0 +1,55 @@
+package com.leodeev.project.whatsappbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuración del diario local de webhooks entrantes
+ * Lee las propiedades desde application.properties con prefijo "messages.journal"
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "messages.journal")
+public class InboundJournalConfig {
+
+    /**
+     * Si está desactivado, el webhook se procesa en el hilo de la solicitud
+     */
+    private Boolean enabled = true;
+
+    /**
+     * Directorio local de los segmentos y el checkpoint
+     */
+    private String directory = "data/journal";
+
+    /**
+     * Tamaño de cada segmento en MB (se mapea completo en memoria)
+     */
+    private Integer segmentSizeMb = 64;
+
+    /**
+     * Responder a WhatsApp solo cuando el webhook está en disco (fsync agrupado)
+     */
+    private Boolean sync = true;
+
+    /**
+     * Webhooks leídos del diario por lote antes de guardar el checkpoint
+     */
+    private Integer batchSize = 100;
+
+    /**
+     * Pausa base y máxima entre intentos (backoff exponencial con jitter)
+     * Ante un error transitorio (base caída, timeout) el webhook se reintenta hasta
+     * procesarlo o hasta el apagado: el checkpoint no pasa de una entrada sin procesar
+     */
+    private Duration retryDelay = Duration.ofSeconds(2);
+    private Duration maxRetryDelay = Duration.ofMinutes(1);
+
+    /**
+     * Intentos ante cualquier otro error antes de apartar el webhook en dead-letter.jsonl
+     */
+    private Integer maxAttempts = 5;
+}
@@ -0,0 +1,31 @@
+package com.leodeev.project.whatsappbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuración del asesor de índices (EXPLAIN de las consultas de los repositorios)
+ * Lee las propiedades desde application.properties con prefijo "db.index-advisor"
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "db.index-advisor")
+public class IndexAdvisorConfig {
+
+    private Boolean enabled = true;
+
+    /**
+     * Ejecutar el análisis al arrancar la aplicación y registrar advertencias (solo para desarrollo:
+     * cada réplica invocaría todos los repositorios en cada arranque)
+     */
+    private Boolean runOnStartup = false;
+
+    /**
+     * Tablas pequeñas donde un Seq Scan es aceptable (ej: catálogo de productos)
+     */
+    private List<String> ignoredTables = new ArrayList<>();
+}
@@ -0,0 +1,51 @@
+package com.leodeev.project.whatsappbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Configuración del muestreo de los logs INFO del camino de cada mensaje
+ * Lee las propiedades desde application.properties con prefijo "logging.sampling"
+ *
+ * Solo se muestrean las líneas INFO de rutina: advertencias, errores, respuestas
+ * de contingencia y respuestas lentas se registran siempre.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "logging.sampling")
+public class LogSamplingConfig {
+
+    /**
+     * Fracción de eventos registrados por etapa (0.0 - 1.0); sin valor se registran todos
+     */
+    private Map<Point, Double> rates = new EnumMap<>(Point.class);
+
+    /**
+     * Una respuesta más lenta que esto se registra siempre
+     */
+    private Duration slowReply = Duration.ofSeconds(10);
+
+    /**
+     * Decidir si se registra este evento
+     */
+    public boolean sample(Point point) {
+        Double rate = rates.get(point);
+        return rate == null || rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    /**
+     * Etapas con líneas INFO de rutina
+     */
+    public enum Point {
+        WEBHOOK,    // Webhook recibido
+        REPLY,      // Línea de resumen por mensaje (o ráfaga) respondido
+        OUTBOX,     // Lote despachado del outbox
+        SEND        // Mensaje aceptado por la Graph API
+    }
+}
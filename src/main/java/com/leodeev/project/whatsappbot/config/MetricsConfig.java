@@ -0,0 +1,21 @@
+package com.leodeev.project.whatsappbot.config;
+
+import com.leodeev.project.whatsappbot.util.PipelineMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Métricas de la aplicación expuestas por Actuator (/actuator/metrics y /actuator/prometheus)
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Timers por etapa del procesamiento de mensajes
+     */
+    @Bean
+    public PipelineMetrics pipelineMetrics(MeterRegistry meterRegistry) {
+        return new PipelineMetrics(meterRegistry);
+    }
+}
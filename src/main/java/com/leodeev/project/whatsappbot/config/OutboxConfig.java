@@ -0,0 +1,39 @@
+package com.leodeev.project.whatsappbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuración del despachador de envíos salientes (outbox)
+ * Lee las propiedades desde application.properties con prefijo "messages.outbox"
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "messages.outbox")
+public class OutboxConfig {
+
+    private Boolean enabled = true;
+
+    /**
+     * Intervalo entre pasadas del despachador (ms)
+     */
+    private Long pollIntervalMs = 200L;
+
+    /**
+     * Envíos reclamados por pasada
+     */
+    private Integer batchSize = 100;
+
+    /**
+     * Llamadas simultáneas a la API de WhatsApp
+     */
+    private Integer concurrency = 8;
+
+    /**
+     * Tiempo que un envío reclamado queda reservado para la réplica que lo despacha
+     */
+    private Duration lease = Duration.ofMinutes(2);
+}
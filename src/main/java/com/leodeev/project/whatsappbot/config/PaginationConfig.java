@@ -0,0 +1,30 @@
+package com.leodeev.project.whatsappbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de paginación de los listados REST
+ * Lee las propiedades desde application.properties con prefijo "pagination"
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "pagination")
+public class PaginationConfig {
+
+    private Integer defaultSize = 20;
+    private Integer maxSize = 100;
+
+    /**
+     * Normalizar el tamaño de página pedido por el cliente
+     * @param requested Tamaño solicitado (puede ser null)
+     * @return Tamaño entre 1 y maxSize
+     */
+    public int resolveSize(Integer requested) {
+        if (requested == null || requested < 1) {
+            return defaultSize;
+        }
+        return Math.min(requested, maxSize);
+    }
+}
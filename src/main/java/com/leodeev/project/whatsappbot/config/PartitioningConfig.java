@@ -0,0 +1,43 @@
+package com.leodeev.project.whatsappbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración del particionado mensual de la tabla messages
+ * Lee las propiedades desde application.properties con prefijo "messages.partitioning"
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "messages.partitioning")
+public class PartitioningConfig {
+
+    private Boolean enabled = true;
+
+    /**
+     * Meses futuros con partición ya creada
+     */
+    private Integer monthsAhead = 3;
+
+    /**
+     * Meses que permanecen en la tabla caliente; los anteriores se desacoplan
+     */
+    private Integer retentionMonths = 12;
+
+    /**
+     * Esquema donde se mueven las particiones desacopladas
+     */
+    private String archiveSchema = "archive";
+
+    /**
+     * Tablespace opcional (ej: disco lento) para las particiones archivadas
+     */
+    private String archiveTablespace;
+
+    /**
+     * Días que se conservan los IDs de mensajes entrantes ya registrados (inbound_wamids);
+     * debe cubrir la ventana de reenvíos de Meta y la reproducción del diario
+     */
+    private Integer inboundIdRetentionDays = 30;
+}
@@ -0,0 +1,56 @@
+package com.leodeev.project.whatsappbot.config;
+
+import com.leodeev.project.whatsappbot.dto.response.PipelineLoad;
+import com.leodeev.project.whatsappbot.service.PipelineHealthService;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuración de la salud del pipeline (cola de respuestas, OpenAI, Postgres, outbox)
+ * Lee las propiedades desde application.properties con prefijo "pipeline.health"
+ *
+ * El indicador "pipeline" forma parte del grupo readiness
+ * (/actuator/health/readiness): con retraso sobre el umbral la réplica responde
+ * 503 y el balanceador deja de enviarle webhooks hasta que se ponga al día.
+ * Solo cuenta el retraso propio de la réplica; el outbox (compartido) se
+ * informa pero no la saca de servicio.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "pipeline.health")
+public class PipelineHealthConfig {
+
+    /**
+     * Retraso máximo de un mensaje aceptado sin respuesta (diario + ráfagas + respuestas)
+     */
+    private Duration maxIngestLag = Duration.ofSeconds(30);
+
+    /**
+     * Intervalo entre lecturas del tamaño del outbox (consulta a Postgres)
+     */
+    private Long outboxRefreshMs = 5000L;
+
+    /**
+     * Indicador de salud "pipeline": OUT_OF_SERVICE con retraso sobre el umbral
+     */
+    @Bean
+    public HealthIndicator pipelineHealthIndicator(PipelineHealthService pipelineHealthService) {
+        return () -> {
+            PipelineLoad load = pipelineHealthService.getLoad();
+            Health.Builder health = load.getReasons().isEmpty() ? Health.up() : Health.outOfService()
+                    .withDetail("reasons", load.getReasons());
+            return health
+                    .withDetail("ingestLagMs", load.getIngestLagMs())
+                    .withDetail("outboxLagMs", load.getOutboxLagMs())
+                    .withDetail("aiInFlight", load.getAiInFlight())
+                    .withDetail("aiLimit", load.getAiLimit())
+                    .build();
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.leodeev.project.whatsappbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de respuestas largas divididas en varias partes
+ * Lee las propiedades desde application.properties con prefijo "messages.chunking"
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "messages.chunking")
+public class ReplyChunkingConfig {
+
+    /**
+     * Largo máximo de una parte (límite de WhatsApp para texto)
+     */
+    private Integer maxLength = 4096;
+
+    /**
+     * Largo desde el cual un fin de párrafo cierra la parte y se encola
+     */
+    private Integer softLength = 1500;
+
+    /**
+     * Generar la respuesta en streaming: la primera parte se envía mientras
+     * se generan las siguientes
+     */
+    private Boolean streaming = true;
+}
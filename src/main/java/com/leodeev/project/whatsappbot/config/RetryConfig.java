@@ -0,0 +1,48 @@
+package com.leodeev.project.whatsappbot.config;
+
+import com.leodeev.project.whatsappbot.util.RetryBackoff;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Política de reintentos de los envíos fallidos (outbox y campañas)
+ * Lee las propiedades desde application.properties con prefijo "messages.retry"
+ *
+ * Cada despachador guarda el próximo intento en su propia fila (locked_until);
+ * aquí solo se decide si se reintenta y cuándo.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "messages.retry")
+public class RetryConfig {
+
+    private Boolean enabled = true;
+
+    /**
+     * Intentos totales de envío, incluido el primero
+     */
+    private Integer maxAttempts = 5;
+
+    /**
+     * Espera base y máxima entre intentos (backoff exponencial con jitter)
+     */
+    private Duration baseDelay = Duration.ofSeconds(2);
+    private Duration maxDelay = Duration.ofMinutes(10);
+
+    /**
+     * Próximo intento tras un envío fallido
+     * @param attempts Intentos ya realizados
+     * @param error Error del último intento
+     * @return Momento del reintento, o null si no se reintenta
+     */
+    public LocalDateTime nextAttemptAt(int attempts, Throwable error) {
+        if (!Boolean.TRUE.equals(enabled) || attempts >= maxAttempts || RetryBackoff.isPermanent(error)) {
+            return null;
+        }
+        return LocalDateTime.now().plus(RetryBackoff.delay(attempts, baseDelay, maxDelay));
+    }
+}
@@ -0,0 +1,12 @@
+package com.leodeev.project.whatsappbot.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (@Scheduled) de mantenimiento
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
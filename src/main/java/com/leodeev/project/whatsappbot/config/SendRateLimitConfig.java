@@ -0,0 +1,60 @@
+package com.leodeev.project.whatsappbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuración de la tasa de envío por número de WhatsApp (niveles de throughput de Meta)
+ * Lee las propiedades desde application.properties con prefijo "whatsapp.rate-limit"
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "whatsapp.rate-limit")
+public class SendRateLimitConfig {
+
+    private Boolean enabled = true;
+
+    /**
+     * Nivel por defecto de los números sin nivel propio
+     */
+    private String tier = "standard";
+
+    /**
+     * Mensajes por segundo de cada nivel
+     */
+    private Map<String, Integer> tiers = new HashMap<>(Map.of("standard", 80, "high", 1000));
+
+    /**
+     * Nivel de números concretos (phone number id -> nivel)
+     */
+    private Map<String, String> phoneTiers = new HashMap<>();
+
+    /**
+     * Segundos de ráfaga acumulables (capacidad del bucket = tasa * burstSeconds)
+     */
+    private Double burstSeconds = 1.0;
+
+    /**
+     * Espera máxima de un envío bloqueante por su turno
+     */
+    private Duration maxWait = Duration.ofSeconds(10);
+
+    /**
+     * Mensajes por segundo permitidos para un número
+     * @param phoneNumberId ID del número de WhatsApp Business
+     * @return Tasa del nivel del número
+     */
+    public int resolveRate(String phoneNumberId) {
+        String phoneTier = phoneTiers.getOrDefault(phoneNumberId, tier);
+        Integer rate = tiers.get(phoneTier);
+        if (rate == null) {
+            throw new IllegalStateException("Nivel de envío no configurado: " + phoneTier);
+        }
+        return rate;
+    }
+}
@@ -0,0 +1,121 @@
+package com.leodeev.project.whatsappbot.config;
+
+import com.leodeev.project.whatsappbot.service.SqlStatsService;
+import com.leodeev.project.whatsappbot.util.QueryScope;
+import com.leodeev.project.whatsappbot.util.QueryStatsListener;
+import com.leodeev.project.whatsappbot.util.RowCountingResultSetProxyLogicFactory;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Data;
+import net.ttddyy.observation.boot.autoconfigure.ProxyDataSourceBuilderCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Configuración del conteo de SQL por operación lógica
+ * Lee las propiedades desde application.properties con prefijo "sql.monitoring"
+ *
+ * Se apoya en el proxy de datasource-proxy que ya agrega datasource-micrometer
+ * (no se envuelve el DataSource otra vez). Cada endpoint REST es una operación
+ * ("GET /api/products/{id}"); el webhook abre una por mensaje y otra por
+ * respuesta de la IA. Reemplaza a spring.jpa.show-sql: no se imprime el SQL de
+ * rutina, solo las consultas lentas y las repetidas (N+1).
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "sql.monitoring")
+public class SqlMonitoringConfig {
+
+    private static final String SCOPE_ATTRIBUTE = QueryScope.class.getName();
+
+    /**
+     * Contar sentencias, filas y tiempo por operación
+     */
+    private Boolean enabled = true;
+
+    /**
+     * Una sentencia más lenta que esto se registra como consulta lenta
+     */
+    private Duration slowQuery = Duration.ofMillis(500);
+
+    /**
+     * Veces que la misma consulta puede ejecutarse en una operación antes de informarse como posible N+1
+     */
+    private Integer repeatedQueryThreshold = 5;
+
+    /**
+     * Hallazgos recientes que se conservan para /api/admin/sql-stats
+     */
+    private Integer recentFindings = 100;
+
+    /**
+     * Agregar el listener y el conteo de filas al proxy del DataSource
+     */
+    @Bean
+    public ProxyDataSourceBuilderCustomizer sqlStatsProxyCustomizer(SqlStatsService sqlStatsService) {
+        return (builder, dataSource, dataSourceName, beanName) -> {
+            if (!Boolean.TRUE.equals(enabled)) {
+                return;
+            }
+            builder.listener(new QueryStatsListener(sqlStatsService, slowQuery.toMillis(), repeatedQueryThreshold))
+                    .proxyResultSet(new RowCountingResultSetProxyLogicFactory());
+        };
+    }
+
+    /**
+     * Una operación por llamada a un endpoint REST, con el patrón de la ruta como nombre
+     */
+    @Bean
+    public WebMvcConfigurer sqlStatsInterceptorConfigurer(SqlStatsService sqlStatsService) {
+        AsyncHandlerInterceptor interceptor = new AsyncHandlerInterceptor() {
+
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                // El despacho asíncrono (ej: descarga en streaming) no abre una segunda operación
+                if (handler instanceof HandlerMethod && request.getDispatcherType() != DispatcherType.ASYNC) {
+                    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                    String operation = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+                    request.setAttribute(SCOPE_ATTRIBUTE, sqlStatsService.open(operation));
+                }
+                return true;
+            }
+
+            @Override
+            public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                                       Object handler) {
+                close(request);
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                        Exception ex) {
+                close(request);
+            }
+
+            private void close(HttpServletRequest request) {
+                if (request.getAttribute(SCOPE_ATTRIBUTE) instanceof QueryScope scope) {
+                    request.removeAttribute(SCOPE_ATTRIBUTE);
+                    scope.close();
+                }
+            }
+        };
+
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                if (Boolean.TRUE.equals(enabled)) {
+                    registry.addInterceptor(interceptor).addPathPatterns("/api/**");
+                }
+            }
+        };
+    }
+}
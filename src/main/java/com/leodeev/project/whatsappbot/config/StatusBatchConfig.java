@@ -0,0 +1,35 @@
+package com.leodeev.project.whatsappbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración del procesamiento por lotes de estados de entrega/lectura
+ * Lee las propiedades desde application.properties con prefijo "messages.status-batch"
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "messages.status-batch")
+public class StatusBatchConfig {
+
+    /**
+     * Intervalo entre escrituras del lote (ms)
+     */
+    private Long flushIntervalMs = 1000L;
+
+    /**
+     * Con más estados pendientes se escribe de inmediato (memoria acotada)
+     */
+    private Integer maxPending = 50000;
+
+    /**
+     * Solo se buscan mensajes enviados en los últimos N días (poda de particiones)
+     */
+    private Integer lookbackDays = 30;
+
+    /**
+     * Intentos para estados cuyo mensaje aún no está confirmado en la base
+     */
+    private Integer maxAttempts = 5;
+}
@@ -0,0 +1,90 @@
+package com.leodeev.project.whatsappbot.config;
+
+import com.leodeev.project.whatsappbot.util.JsonLinesSpanExporter;
+import com.leodeev.project.whatsappbot.util.PipelineTracing;
+import io.micrometer.observation.ObservationPredicate;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.Data;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Configuración de las trazas por mensaje (OpenTelemetry vía Micrometer Tracing)
+ * Lee las propiedades desde application.properties con prefijo "tracing"
+ *
+ * El muestreo y el envío a un colector OTLP se configuran con las propiedades
+ * estándar (management.tracing.*, management.opentelemetry.tracing.export.*)
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "tracing")
+public class TracingConfig {
+
+    private File file = new File();
+
+    @Data
+    public static class File {
+
+        /**
+         * Escribir los spans en un archivo local (revisar trazas sin colector)
+         */
+        private Boolean enabled = false;
+
+        /**
+         * Archivo de spans, uno por línea en JSON
+         */
+        private String path = "data/traces/spans.jsonl";
+
+        /**
+         * Tamaño en MB al que el archivo rota a {path}.1
+         */
+        private Integer maxSizeMb = 100;
+    }
+
+    @Bean
+    public PipelineTracing pipelineTracing(ObjectProvider<Tracer> tracer, ObjectProvider<Propagator> propagator,
+                                           ObservationRegistry observationRegistry) {
+        return new PipelineTracing(tracer.getIfAvailable(() -> Tracer.NOOP),
+                propagator.getIfAvailable(() -> Propagator.NOOP), observationRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.file.enabled", havingValue = "true")
+    public SpanExporter spanFileExporter(JsonMapper jsonMapper) throws IOException {
+        return new JsonLinesSpanExporter(Path.of(file.getPath()), file.getMaxSizeMb() * 1024L * 1024L, jsonMapper);
+    }
+
+    /**
+     * No se observan las pasadas de @Scheduled (outbox, estados, reintentos cada
+     * pocos cientos de ms), las consultas JDBC fuera de una traza ni los scrapes
+     * de Actuator: serían trazas sueltas que tapan las de los mensajes. El
+     * despachador del outbox continúa por su cuenta la traza de cada respuesta.
+     */
+    @Bean
+    public ObservationPredicate tracedWorkOnly(ObjectProvider<Tracer> tracer) {
+        return (name, context) -> {
+            if (name.equals("tasks.scheduled.execution")) {
+                return false;
+            }
+            if (name.startsWith("jdbc.")) {
+                Tracer current = tracer.getIfAvailable();
+                return current != null && current.currentSpan() != null;
+            }
+            if (context instanceof ServerRequestObservationContext request) {
+                return !request.getCarrier().getRequestURI().startsWith("/actuator");
+            }
+            return true;
+        };
+    }
+}
@@ -1,8 +1,10 @@
 package com.leodeev.project.whatsappbot.config;
 
 import lombok.Data;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
 
 /**
  * Configuración de WhatsApp Business API
@@ -11,13 +13,28 @@ import org.springframework.context.annotation.Configuration;
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "whatsapp")
-public class WhatsAppConfig {
+public class WhatsAppConfig implements InitializingBean {
     
     private Phone phone;
     private Business business;
     private String accessToken;
     private Api api;
+    private App app;
     private Webhook webhook;
+    private ReadReceipt readReceipt = new ReadReceipt();
+    
+    /**
+     * Con la firma obligatoria y sin app secret, todos los webhooks responderían 401:
+     * mejor no arrancar que perder mensajes en silencio
+     */
+    @Override
+    public void afterPropertiesSet() {
+        boolean signatureRequired = webhook == null || Boolean.TRUE.equals(webhook.getSignature().getRequired());
+        if (signatureRequired && (app == null || !StringUtils.hasText(app.getSecret()))) {
+            throw new IllegalStateException("whatsapp.webhook.signature.required=true pero whatsapp.app.secret "
+                    + "(WHATSAPP_APP_SECRET) está vacío: configura el secret o desactiva la firma (solo en desarrollo local)");
+        }
+    }
     
     @Data
     public static class Phone {
@@ -49,13 +66,40 @@ public class WhatsAppConfig {
         }
     }
     
+    /**
+     * App de Meta: su secret firma los webhooks (X-Hub-Signature-256)
+     */
+    @Data
+    public static class App {
+        private String secret;
+    }
+    
     @Data
     public static class Webhook {
         private Verify verify;
+        private Signature signature = new Signature();
         
         @Data
         public static class Verify {
             private String token;
         }
+        
+        /**
+         * Rechazar los webhooks sin firma válida; desactivar solo en desarrollo local
+         */
+        @Data
+        public static class Signature {
+            private Boolean required = true;
+        }
+    }
+    
+    /**
+     * Confirmación de lectura (doble check azul) e indicador "escribiendo..."
+     * enviados al aceptar un mensaje entrante, antes de generar la respuesta
+     */
+    @Data
+    public static class ReadReceipt {
+        private Boolean enabled = true;
+        private Boolean typingIndicator = true;
     }
 }
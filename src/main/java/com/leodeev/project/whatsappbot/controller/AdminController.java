@@ -0,0 +1,139 @@
+package com.leodeev.project.whatsappbot.controller;
+
+import com.leodeev.project.whatsappbot.dto.response.AIUsageTotal;
+import com.leodeev.project.whatsappbot.dto.response.QueryPlanReport;
+import com.leodeev.project.whatsappbot.dto.response.SqlStatsReport;
+import com.leodeev.project.whatsappbot.entity.AIUsageDaily;
+import com.leodeev.project.whatsappbot.service.AIUsageService;
+import com.leodeev.project.whatsappbot.service.ColdArchiveService;
+import com.leodeev.project.whatsappbot.service.FlightRecorderService;
+import com.leodeev.project.whatsappbot.service.IndexAdvisorService;
+import com.leodeev.project.whatsappbot.service.SqlStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST para tareas de administración y diagnóstico
+ * SOLID: Single Responsibility Principle - Solo expone endpoints de administración
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private static final DateTimeFormatter JFR_FILENAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final IndexAdvisorService indexAdvisorService;
+    private final ColdArchiveService coldArchiveService;
+    private final AIUsageService aiUsageService;
+    private final FlightRecorderService flightRecorderService;
+    private final SqlStatsService sqlStatsService;
+
+    /**
+     * Planes de ejecución de las consultas de los repositorios
+     * GET /api/admin/query-plans?flaggedOnly=true
+     */
+    @GetMapping("/query-plans")
+    public ResponseEntity<List<QueryPlanReport>> getQueryPlans(
+            @RequestParam(defaultValue = "false") boolean flaggedOnly) {
+        log.info("Solicitud para analizar planes de ejecución");
+
+        List<QueryPlanReport> response = indexAdvisorService.analyzeRepositoryQueries();
+
+        if (flaggedOnly) {
+            response = response.stream()
+                    .filter(report -> Boolean.TRUE.equals(report.getFlagged()))
+                    .toList();
+        }
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Ejecutar el archivado en frío sin esperar a la tarea programada
+     * POST /api/admin/cold-archive
+     */
+    @PostMapping("/cold-archive")
+    public ResponseEntity<Map<String, Integer>> runColdArchive() {
+        log.info("Solicitud para archivar conversaciones cerradas");
+
+        int archived = coldArchiveService.archiveClosedConversations();
+
+        return ResponseEntity.ok(Map.of("archived", archived));
+    }
+
+    /**
+     * Mayores consumidores de la IA en una ventana de días (por defecto los últimos 7)
+     * GET /api/admin/ai-usage/top?dimension=CUSTOMER&rankBy=COST&from=2026-01-01&to=2026-01-31&limit=20
+     */
+    @GetMapping("/ai-usage/top")
+    public ResponseEntity<List<AIUsageTotal>> getTopAIConsumers(
+            @RequestParam(defaultValue = "CUSTOMER") AIUsageDaily.Dimension dimension,
+            @RequestParam(defaultValue = "COST") AIUsageService.Ranking rankBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "20") int limit) {
+        log.info("Solicitud de mayores consumidores de IA por {} ({})", dimension, rankBy);
+
+        LocalDate windowEnd = to != null ? to : LocalDate.now();
+        LocalDate windowStart = from != null ? from : windowEnd.minusDays(Math.max(days, 1) - 1L);
+
+        if (windowStart.isAfter(windowEnd) || limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(aiUsageService.getTopConsumers(dimension, windowStart, windowEnd, rankBy,
+                Math.min(limit, 500)));
+    }
+
+    /**
+     * Sentencias, filas y tiempo de SQL por operación, con las últimas consultas lentas o repetidas (N+1)
+     * GET /api/admin/sql-stats
+     */
+    @GetMapping("/sql-stats")
+    public ResponseEntity<SqlStatsReport> getSqlStats() {
+        log.info("Solicitud de estadísticas de SQL");
+
+        return ResponseEntity.ok(sqlStatsService.getReport());
+    }
+
+    /**
+     * Descargar la ventana reciente de la grabación continua de JFR (abrir con JDK Mission Control)
+     * GET /api/admin/jfr/recording
+     */
+    @GetMapping("/jfr/recording")
+    public ResponseEntity<StreamingResponseBody> downloadFlightRecording() {
+        log.info("Solicitud de la grabación de JFR");
+
+        Path file = flightRecorderService.dumpRecording();
+        String filename = "chatbot-" + LocalDateTime.now().format(JFR_FILENAME_FORMAT) + ".jfr";
+
+        StreamingResponseBody body = output -> {
+            try {
+                Files.copy(file, output);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(body);
+    }
+}
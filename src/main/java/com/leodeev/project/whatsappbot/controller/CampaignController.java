@@ -0,0 +1,77 @@
+package com.leodeev.project.whatsappbot.controller;
+
+import com.leodeev.project.whatsappbot.dto.request.CampaignRequest;
+import com.leodeev.project.whatsappbot.dto.response.CampaignResponse;
+import com.leodeev.project.whatsappbot.service.CampaignService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST para campañas de plantillas
+ * SOLID: Single Responsibility Principle - Solo maneja endpoints de campañas
+ * SOLID: Dependency Inversion - Depende de CampaignService (interface)
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/campaigns")
+@RequiredArgsConstructor
+public class CampaignController {
+
+    private final CampaignService campaignService;
+
+    /**
+     * Crear una campaña en borrador
+     * POST /api/campaigns
+     */
+    @PostMapping
+    public ResponseEntity<CampaignResponse> createCampaign(@Valid @RequestBody CampaignRequest request) {
+        log.info("Solicitud para crear campaña: {}", request.getName());
+
+        CampaignResponse response = campaignService.createCampaign(request);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Obtener campaña y su avance
+     * GET /api/campaigns/{id}
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<CampaignResponse> getCampaign(@PathVariable Long id) {
+        log.info("Solicitud para obtener campaña con ID: {}", id);
+
+        CampaignResponse response = campaignService.getCampaign(id);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Iniciar campaña
+     * POST /api/campaigns/{id}/start
+     */
+    @PostMapping("/{id}/start")
+    public ResponseEntity<CampaignResponse> startCampaign(@PathVariable Long id) {
+        log.info("Solicitud para iniciar campaña con ID: {}", id);
+
+        CampaignResponse response = campaignService.startCampaign(id);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * Cancelar campaña
+     * POST /api/campaigns/{id}/cancel
+     */
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<CampaignResponse> cancelCampaign(@PathVariable Long id) {
+        log.info("Solicitud para cancelar campaña con ID: {}", id);
+
+        CampaignResponse response = campaignService.cancelCampaign(id);
+
+        return ResponseEntity.ok(response);
+    }
+}
@@ -2,14 +2,15 @@
 package com.leodeev.project.whatsappbot.controller;
 
 import com.leodeev.project.whatsappbot.dto.response.ConversationResponse;
+import com.leodeev.project.whatsappbot.dto.response.MessageResponse;
+import com.leodeev.project.whatsappbot.dto.response.PageResponse;
 import com.leodeev.project.whatsappbot.service.ConversationService;
+import com.leodeev.project.whatsappbot.service.MessageService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 /**
  * Controlador REST para gestión de Conversaciones
  * SOLID: Single Responsibility Principle - Solo maneja endpoints de conversaciones
@@ -22,6 +23,7 @@ import java.util.List;
 public class ConversationController {
     
     private final ConversationService conversationService;
+    private final MessageService messageService;
     
     /**
      * Obtener conversación por ID
@@ -37,27 +39,49 @@ public class ConversationController {
     }
     
     /**
-     * Obtener conversaciones de un cliente por ID del cliente
-     * GET /api/conversations/customer/{customerId}
+     * Obtener mensajes de una conversación (paginado por cursor, orden cronológico)
+     * GET /api/conversations/{id}/messages?size=50&cursor=...
+     */
+    @GetMapping("/{id}/messages")
+    public ResponseEntity<PageResponse<MessageResponse>> getConversationMessages(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("Solicitud para obtener mensajes de la conversación ID: {}", id);
+        
+        PageResponse<MessageResponse> response = messageService.getMessagesByConversationId(id, cursor, size);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Obtener conversaciones de un cliente por ID del cliente (paginado por cursor)
+     * GET /api/conversations/customer/{customerId}?size=20&cursor=...
      */
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<ConversationResponse>> getConversationsByCustomerId(@PathVariable Long customerId) {
+    public ResponseEntity<PageResponse<ConversationResponse>> getConversationsByCustomerId(
+            @PathVariable Long customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         log.info("Solicitud para obtener conversaciones del cliente ID: {}", customerId);
         
-        List<ConversationResponse> response = conversationService.getConversationsByCustomerId(customerId);
+        PageResponse<ConversationResponse> response = conversationService.getConversationsByCustomerId(customerId, cursor, size);
         
         return ResponseEntity.ok(response);
     }
     
     /**
-     * Obtener conversaciones por número de teléfono
-     * GET /api/conversations/phone/{phoneNumber}
+     * Obtener conversaciones por número de teléfono (paginado por cursor)
+     * GET /api/conversations/phone/{phoneNumber}?size=20&cursor=...
      */
     @GetMapping("/phone/{phoneNumber}")
-    public ResponseEntity<List<ConversationResponse>> getConversationsByPhoneNumber(@PathVariable String phoneNumber) {
+    public ResponseEntity<PageResponse<ConversationResponse>> getConversationsByPhoneNumber(
+            @PathVariable String phoneNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         log.info("Solicitud para obtener conversaciones del teléfono: {}", phoneNumber);
         
-        List<ConversationResponse> response = conversationService.getConversationsByPhoneNumber(phoneNumber);
+        PageResponse<ConversationResponse> response = conversationService.getConversationsByPhoneNumber(phoneNumber, cursor, size);
         
         return ResponseEntity.ok(response);
     }
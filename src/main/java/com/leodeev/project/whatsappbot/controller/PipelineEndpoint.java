@@ -0,0 +1,27 @@
+package com.leodeev.project.whatsappbot.controller;
+
+import com.leodeev.project.whatsappbot.dto.response.PipelineLoad;
+import com.leodeev.project.whatsappbot.service.PipelineHealthService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Endpoint de Actuator con la carga del pipeline de la réplica
+ * SOLID: Single Responsibility Principle - Solo expone PipelineHealthService
+ *
+ * GET /actuator/pipeline (para escalar por saturación real, no por CPU)
+ */
+@Component
+@Endpoint(id = "pipeline")
+@RequiredArgsConstructor
+public class PipelineEndpoint {
+
+    private final PipelineHealthService pipelineHealthService;
+
+    @ReadOperation
+    public PipelineLoad load() {
+        return pipelineHealthService.getLoad();
+    }
+}
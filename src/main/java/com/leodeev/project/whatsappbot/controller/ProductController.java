@@ -1,6 +1,7 @@
 package com.leodeev.project.whatsappbot.controller;
 
 import com.leodeev.project.whatsappbot.dto.request.ProductRequest;
+import com.leodeev.project.whatsappbot.dto.response.PageResponse;
 import com.leodeev.project.whatsappbot.dto.response.ProductResponse;
 import com.leodeev.project.whatsappbot.service.ProductService;
 import jakarta.validation.Valid;
@@ -52,14 +53,16 @@ public class ProductController {
     }
     
     /**
-     * Obtener todos los productos
-     * GET /api/products
+     * Obtener todos los productos (paginado por cursor)
+     * GET /api/products?size=20&cursor=...
      */
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        log.info("Solicitud para obtener todos los productos");
+    public ResponseEntity<PageResponse<ProductResponse>> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("Solicitud para obtener productos, tamaño de página: {}", size);
         
-        List<ProductResponse> response = productService.getAllProducts();
+        PageResponse<ProductResponse> response = productService.getAllProducts(cursor, size);
         
         return ResponseEntity.ok(response);
     }
@@ -1,14 +1,21 @@
 package com.leodeev.project.whatsappbot.controller;
 
+import com.leodeev.project.whatsappbot.config.LogSamplingConfig;
+import com.leodeev.project.whatsappbot.config.WhatsAppConfig;
 import com.leodeev.project.whatsappbot.dto.request.MessageRequest;
 import com.leodeev.project.whatsappbot.dto.request.WhatsAppWebhookRequest;
 import com.leodeev.project.whatsappbot.dto.response.WhatsAppMessageResponse;
+import com.leodeev.project.whatsappbot.service.InboundJournalService;
 import com.leodeev.project.whatsappbot.service.WhatsAppService;
+import com.leodeev.project.whatsappbot.util.LogRedactor;
+import com.leodeev.project.whatsappbot.util.WebhookSignature;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
 
 /**
  * Controlador REST para Webhooks de WhatsApp
@@ -24,6 +31,10 @@ import org.springframework.web.bind.annotation.*;
 public class WebhookController {
     
     private final WhatsAppService whatsAppService;
+    private final InboundJournalService inboundJournalService;
+    private final LogSamplingConfig logSamplingConfig;
+    private final WhatsAppConfig whatsAppConfig;
+    private final JsonMapper jsonMapper;
     
     /**
      * Verificar webhook (GET request de WhatsApp)
@@ -38,7 +49,7 @@ public class WebhookController {
             @RequestParam(name = "hub.challenge") String challenge) {
         
         log.info("Solicitud de verificación de webhook recibida");
-        log.debug("Mode: {}, Token: {}, Challenge: {}", mode, token, challenge);
+        log.debug("Mode: {}", mode);
         
         String result = whatsAppService.verifyWebhook(mode, token, challenge);
         
@@ -54,16 +65,36 @@ public class WebhookController {
     /**
      * Recibir webhook (POST request de WhatsApp)
      * WhatsApp envía este request cuando hay mensajes nuevos
+     * El cuerpo se guarda tal cual en el diario local y se procesa en segundo plano.
+     * Antes se verifica la firma (401) y que sea un webhook válido (400): al diario
+     * solo entra lo que el consumidor puede procesar
      * 
      * POST /api/webhook
      */
     @PostMapping
-    public ResponseEntity<String> receiveWebhook(@RequestBody WhatsAppWebhookRequest request) {
-        log.info("Webhook recibido de WhatsApp");
+    public ResponseEntity<String> receiveWebhook(
+            @RequestBody byte[] payload,
+            @RequestHeader(name = WebhookSignature.HEADER, required = false) String signature) {
+        if (logSamplingConfig.sample(LogSamplingConfig.Point.WEBHOOK)) {
+            log.info("Webhook recibido de WhatsApp ({} bytes)", payload.length);
+        }
+        
+        if (Boolean.TRUE.equals(whatsAppConfig.getWebhook().getSignature().getRequired())
+                && !WebhookSignature.matches(payload, signature, whatsAppConfig.getApp().getSecret())) {
+            log.warn("Webhook rechazado: firma {} inválida o ausente", WebhookSignature.HEADER);
+            return ResponseEntity.status(401).body("Invalid signature");
+        }
+        
+        try {
+            jsonMapper.readValue(payload, WhatsAppWebhookRequest.class);
+        } catch (JacksonException e) {
+            log.warn("Webhook rechazado: cuerpo inválido ({})", e.getOriginalMessage());
+            return ResponseEntity.badRequest().body("Invalid payload");
+        }
         
         try {
-            // Procesar webhook de forma asíncrona para responder rápido a WhatsApp
-            whatsAppService.processWebhook(request);
+            // Guardar en el diario (durable) y procesar de forma asíncrona para responder rápido a WhatsApp
+            inboundJournalService.accept(payload);
             
             // WhatsApp espera un 200 OK rápido
             return ResponseEntity.ok("EVENT_RECEIVED");
@@ -82,7 +113,7 @@ public class WebhookController {
      */
     @PostMapping("/send")
     public ResponseEntity<WhatsAppMessageResponse> sendMessage(@Valid @RequestBody MessageRequest request) {
-        log.info("Solicitud para enviar mensaje manual a: {}", request.getPhoneNumber());
+        log.info("Solicitud para enviar mensaje manual a: {}", LogRedactor.phone(request.getPhoneNumber()));
         
         WhatsAppMessageResponse response = whatsAppService.sendMessage(request);
         
@@ -0,0 +1,35 @@
+package com.leodeev.project.whatsappbot.dto.request;
+
+import com.leodeev.project.whatsappbot.entity.Campaign;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para crear campañas de plantillas
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignRequest {
+
+    @NotBlank(message = "El nombre de la campaña es obligatorio")
+    @Size(max = 100, message = "El nombre no puede exceder 100 caracteres")
+    private String name;
+
+    @NotBlank(message = "La plantilla es obligatoria")
+    @Size(max = 100, message = "El nombre de la plantilla no puede exceder 100 caracteres")
+    private String templateName;
+
+    @Size(max = 10, message = "El código de idioma no puede exceder 10 caracteres")
+    private String languageCode;
+
+    @NotNull(message = "El segmento es obligatorio")
+    private Campaign.Segment segment;
+
+    @Min(value = 1, message = "Los días del segmento deben ser al menos 1")
+    private Integer segmentDays;
+}
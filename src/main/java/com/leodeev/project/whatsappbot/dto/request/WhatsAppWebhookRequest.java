@@ -164,5 +164,19 @@ public class WhatsAppWebhookRequest {
         private String timestamp;
         @JsonProperty("recipient_id")
         private String recipientId;
+        @JsonProperty("errors")
+        private List<StatusError> errors;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StatusError {
+        @JsonProperty("code")
+        private Integer code;
+        @JsonProperty("title")
+        private String title;
+        @JsonProperty("message")
+        private String message;
     }
 }
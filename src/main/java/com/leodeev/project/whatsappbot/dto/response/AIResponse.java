@@ -16,6 +16,21 @@ public class AIResponse {
 
     private String content;
     private String model;
-    private Integer tokensUsed;
     private String finishReason;
+
+    /**
+     * Uso de tokens reportado por el proveedor (null si no lo informa)
+     */
+    private Integer promptTokens;
+    private Integer completionTokens;
+
+    /**
+     * Parte de promptTokens servida desde la caché de prompts (más barata)
+     */
+    private Integer cachedTokens;
+
+    /**
+     * Duración de la llamada, incluida la espera del límite de concurrencia
+     */
+    private Long latencyMs;
 }
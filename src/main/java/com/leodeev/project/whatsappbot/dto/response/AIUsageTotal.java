@@ -0,0 +1,35 @@
+package com.leodeev.project.whatsappbot.dto.response;
+
+import com.leodeev.project.whatsappbot.entity.AIUsageDaily;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO con el uso de la IA acumulado de un cliente, conversación, operación o modelo en una ventana
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIUsageTotal {
+
+    private AIUsageDaily.Dimension dimension;
+    private String key;
+
+    /**
+     * Teléfono del cliente (dimensiones CUSTOMER y CONVERSATION)
+     */
+    private String label;
+
+    private Long calls;
+    private Long promptTokens;
+    private Long completionTokens;
+    private Long cachedTokens;
+    private BigDecimal costUsd;
+    private Long avgLatencyMs;
+    private Long maxLatencyMs;
+}
@@ -0,0 +1,25 @@
+package com.leodeev.project.whatsappbot.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Conversación archivada en frío junto con sus mensajes
+ * Es la unidad que se guarda en los segmentos del archivo
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedConversation {
+
+    private ConversationResponse conversation;
+
+    @Builder.Default
+    private List<MessageResponse> messages = new ArrayList<>();
+}
@@ -0,0 +1,32 @@
+package com.leodeev.project.whatsappbot.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO de respuesta para campañas
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignResponse {
+
+    private Long id;
+    private String name;
+    private String templateName;
+    private String languageCode;
+    private String segment;
+    private Integer segmentDays;
+    private String status;
+    private Integer totalRecipients;
+    private Map<String, Long> recipientsByStatus;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime createdAt;
+}
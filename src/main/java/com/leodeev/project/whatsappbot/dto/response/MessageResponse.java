@@ -0,0 +1,34 @@
+package com.leodeev.project.whatsappbot.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de respuesta para mensajes
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageResponse {
+
+    private Long id;
+    private Long conversationId;
+    private String whatsappMessageId;
+    private String type;
+    private String direction;
+    private String content;
+    private String senderPhone;
+    private String recipientPhone;
+    private String status;
+    private String errorMessage;
+    private Long replyToMessageId;
+    private Integer chunkIndex;
+    private LocalDateTime sentAt;
+    private LocalDateTime deliveredAt;
+    private LocalDateTime readAt;
+}
@@ -0,0 +1,47 @@
+package com.leodeev.project.whatsappbot.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * DTO de respuesta paginada (paginación keyset por cursor)
+ * nextCursor se envía en la siguiente petición como ?cursor=...
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageResponse<T> {
+
+    private List<T> items;
+    private Integer size;
+    private Boolean hasMore;
+    private String nextCursor;
+
+    /**
+     * Construir una página a partir de filas consultadas con límite size + 1
+     * La fila extra solo indica que hay más resultados y no se devuelve
+     *
+     * @param rows Filas consultadas (hasta size + 1)
+     * @param size Tamaño de página solicitado
+     * @param mapper Conversión de entity a DTO
+     * @param cursorOf Cursor de una fila (se usa con la última devuelta)
+     * @return Página de DTOs
+     */
+    public static <E, T> PageResponse<T> of(List<E> rows, int size, Function<E, T> mapper, Function<E, String> cursorOf) {
+        boolean hasMore = rows.size() > size;
+        List<E> pageRows = hasMore ? rows.subList(0, size) : rows;
+
+        return PageResponse.<T>builder()
+                .items(pageRows.stream().map(mapper).toList())
+                .size(pageRows.size())
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? cursorOf.apply(pageRows.get(pageRows.size() - 1)) : null)
+                .build();
+    }
+}
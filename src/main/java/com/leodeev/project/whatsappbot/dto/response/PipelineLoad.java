@@ -0,0 +1,70 @@
+package com.leodeev.project.whatsappbot.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con la carga del pipeline de la réplica (GET /actuator/pipeline)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PipelineLoad {
+
+    /**
+     * Webhooks en el diario aún no procesados
+     */
+    private Long journalLagBytes;
+    private Long journalLagMs;
+
+    /**
+     * Cola de respuestas: ráfagas abiertas, en espera de un hilo y en curso
+     */
+    private Integer openBursts;
+    private Integer queuedReplies;
+    private Integer activeReplies;
+    private Integer pendingMessages;
+
+    /**
+     * Mayor retraso de un mensaje aceptado sin respuesta (diario o cola de respuestas)
+     */
+    private Long ingestLagMs;
+
+    /**
+     * Llamadas a OpenAI en curso y en espera frente al límite adaptativo
+     */
+    private Integer aiInFlight;
+    private Integer aiWaiting;
+    private Integer aiLimit;
+
+    /**
+     * Igual para la Graph API de WhatsApp
+     */
+    private Integer whatsappInFlight;
+    private Integer whatsappWaiting;
+    private Integer whatsappLimit;
+
+    /**
+     * Pool de Hikari: conexiones en uso, hilos esperando una y espera máxima reciente
+     */
+    private Integer dbActiveConnections;
+    private Integer dbMaxConnections;
+    private Integer dbPendingThreads;
+    private Double dbAcquireMaxMs;
+
+    /**
+     * Envíos pendientes en el outbox y antigüedad del más antiguo (última lectura)
+     */
+    private Long outboxBacklog;
+    private Long outboxLagMs;
+
+    /**
+     * Umbrales superados; vacío si la réplica está lista
+     */
+    private List<String> reasons;
+}
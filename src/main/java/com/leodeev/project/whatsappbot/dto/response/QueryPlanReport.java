@@ -0,0 +1,26 @@
+package com.leodeev.project.whatsappbot.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con el plan de ejecución de una consulta de repositorio
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueryPlanReport {
+
+    private String repository;
+    private String method;
+    private String sql;
+    private String plan;
+    private List<String> sequentialScans;
+    private Boolean flagged;
+    private String error;
+}
@@ -0,0 +1,38 @@
+package com.leodeev.project.whatsappbot.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de una consulta lenta o repetida (N+1) detectada
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SqlFinding {
+
+    private Type type;
+    private String operation;
+    private String sql;
+
+    /**
+     * Ejecuciones en la operación (REPEATED_QUERY)
+     */
+    private Integer executions;
+
+    /**
+     * Duración de la sentencia (SLOW_QUERY)
+     */
+    private Long elapsedMs;
+    private LocalDateTime detectedAt;
+
+    public enum Type {
+        REPEATED_QUERY,
+        SLOW_QUERY
+    }
+}
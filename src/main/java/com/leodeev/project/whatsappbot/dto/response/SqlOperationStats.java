@@ -0,0 +1,33 @@
+package com.leodeev.project.whatsappbot.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el SQL acumulado de una operación lógica desde el arranque
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SqlOperationStats {
+
+    private String operation;
+    private Long executions;
+    private Long statements;
+    private Double avgStatements;
+    private Long maxStatements;
+    private Long rowsRead;
+    private Long rowsWritten;
+    private Double dbTimeMs;
+    private Double avgDbTimeMs;
+    private Double maxDbTimeMs;
+
+    /**
+     * Consultas repetidas por encima del umbral de N+1
+     */
+    private Long repeatedQueries;
+    private Long slowQueries;
+}
@@ -0,0 +1,28 @@
+package com.leodeev.project.whatsappbot.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con el SQL por operación y los últimos hallazgos
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SqlStatsReport {
+
+    /**
+     * Operaciones ordenadas por tiempo total en la base de datos
+     */
+    private List<SqlOperationStats> operations;
+
+    /**
+     * Últimas consultas lentas o repetidas, de la más reciente a la más antigua
+     */
+    private List<SqlFinding> recentFindings;
+}
@@ -0,0 +1,75 @@
+package com.leodeev.project.whatsappbot.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa una llamada a la IA con su uso de tokens, costo y duración
+ * Se escribe por lotes (AIUsageService) junto con los acumulados de AIUsageDaily
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "ai_usage", indexes = {
+        // Detalle de una conversación: WHERE conversation_id = ? ORDER BY created_at
+        @Index(name = "idx_ai_usage_conversation_created_at", columnList = "conversation_id, created_at"),
+        @Index(name = "idx_ai_usage_created_at", columnList = "created_at")
+})
+public class AIUsage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Sin FK: las conversaciones cerradas se archivan y borran
+     */
+    @Column(name = "conversation_id")
+    private Long conversationId;
+
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    /**
+     * Mensaje entrante respondido (el último de la ráfaga)
+     */
+    @Column(name = "message_id")
+    private Long messageId;
+
+    /**
+     * Tipo de llamada / prompt (ej: products_reply)
+     */
+    @Column(nullable = false, length = 50)
+    private String operation;
+
+    @Column(length = 100)
+    private String model;
+
+    @Column(name = "prompt_tokens")
+    private Integer promptTokens;
+
+    @Column(name = "completion_tokens")
+    private Integer completionTokens;
+
+    @Column(name = "cached_tokens")
+    private Integer cachedTokens;
+
+    @Column(name = "latency_ms")
+    private Long latencyMs;
+
+    /**
+     * Costo estimado en millonésimas de USD según ai.usage.prices
+     */
+    @Column(name = "cost_micros")
+    private Long costMicros;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,91 @@
+package com.leodeev.project.whatsappbot.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa el uso de la IA acumulado por día y dimensión
+ * (cliente, conversación, tipo de llamada o modelo)
+ * Se actualiza con sumas incrementales (INSERT ... ON CONFLICT DO UPDATE); los
+ * rankings por ventana suman días de esta tabla, no las llamadas de ai_usage
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(AIUsageDaily.Key.class)
+@Table(name = "ai_usage_daily", indexes = {
+        // Ranking de una dimensión en una ventana: WHERE dimension = ? AND day BETWEEN ? AND ?
+        @Index(name = "idx_ai_usage_daily_dimension_day", columnList = "dimension, day")
+})
+public class AIUsageDaily {
+
+    @Id
+    private LocalDate day;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Dimension dimension;
+
+    /**
+     * ID del cliente o conversación, nombre de la operación o del modelo
+     */
+    @Id
+    @Column(name = "dimension_key", length = 100)
+    private String dimensionKey;
+
+    @Column(nullable = false)
+    private Long calls;
+
+    @Column(name = "prompt_tokens", nullable = false)
+    private Long promptTokens;
+
+    @Column(name = "completion_tokens", nullable = false)
+    private Long completionTokens;
+
+    @Column(name = "cached_tokens", nullable = false)
+    private Long cachedTokens;
+
+    @Column(name = "cost_micros", nullable = false)
+    private Long costMicros;
+
+    /**
+     * Suma de duraciones (el promedio es latencyMs / calls)
+     */
+    @Column(name = "latency_ms", nullable = false)
+    private Long latencyMs;
+
+    @Column(name = "max_latency_ms", nullable = false)
+    private Long maxLatencyMs;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public enum Dimension {
+        CUSTOMER,
+        CONVERSATION,
+        OPERATION,
+        MODEL
+    }
+
+    /**
+     * Clave compuesta (day, dimension, dimensionKey)
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private Dimension dimension;
+        private String dimensionKey;
+    }
+}
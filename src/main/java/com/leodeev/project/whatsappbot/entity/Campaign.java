@@ -0,0 +1,109 @@
+package com.leodeev.project.whatsappbot.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa una Campaña de mensajes de plantilla a un segmento de clientes
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "campaigns", indexes = {
+        // Campañas a preparar/despachar por la tarea programada
+        @Index(name = "idx_campaigns_status", columnList = "status")
+})
+public class Campaign {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 100)
+    private String name;
+    
+    /**
+     * Plantilla aprobada en WhatsApp Business Manager
+     */
+    @Column(name = "template_name", nullable = false, length = 100)
+    private String templateName;
+    
+    @Column(name = "language_code", nullable = false, length = 10)
+    private String languageCode;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Segment segment;
+    
+    /**
+     * Días de referencia del segmento (RECENT / INACTIVE)
+     */
+    @Column(name = "segment_days")
+    private Integer segmentDays;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private CampaignStatus status = CampaignStatus.DRAFT;
+    
+    /**
+     * Checkpoint de la preparación: último customer_id ya volcado a campaign_recipients
+     */
+    @Column(name = "last_customer_id")
+    @Builder.Default
+    private Long lastCustomerId = 0L;
+    
+    @Column(name = "total_recipients")
+    @Builder.Default
+    private Integer totalRecipients = 0;
+    
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    /**
+     * Segmento de clientes destinatarios
+     */
+    public enum Segment {
+        ALL,         // Todos los clientes
+        RECENT,      // Con interacción en los últimos segmentDays días
+        INACTIVE     // Sin interacción en los últimos segmentDays días
+    }
+    
+    /**
+     * Estado de la campaña
+     */
+    public enum CampaignStatus {
+        DRAFT,       // Creada, sin iniciar
+        PREPARING,   // Volcando el segmento a campaign_recipients
+        RUNNING,     // Enviando
+        COMPLETED,   // Sin destinatarios pendientes
+        CANCELLED    // Cancelada
+    }
+}
@@ -0,0 +1,87 @@
+package com.leodeev.project.whatsappbot.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un destinatario de una campaña y el estado de su envío
+ * Las filas se crean y actualizan por lotes con SQL nativo (CampaignService)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "campaign_recipients", uniqueConstraints = {
+        // Preparación idempotente: INSERT ... ON CONFLICT DO NOTHING al reanudar
+        @UniqueConstraint(name = "uk_campaign_recipients_campaign_customer", columnNames = {"campaign_id", "customer_id"})
+}, indexes = {
+        // Despacho: WHERE campaign_id = ? AND status = 'PENDING' ORDER BY id
+        @Index(name = "idx_campaign_recipients_campaign_status", columnList = "campaign_id, status, id"),
+        // Callbacks de estado de WhatsApp
+        @Index(name = "idx_campaign_recipients_whatsapp_message_id", columnList = "whatsapp_message_id")
+})
+public class CampaignRecipient {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "campaign_id", nullable = false)
+    @ToString.Exclude
+    private Campaign campaign;
+    
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+    
+    @Column(name = "phone_number", nullable = false, length = 20)
+    private String phoneNumber;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private RecipientStatus status = RecipientStatus.PENDING;
+    
+    @Column(name = "whatsapp_message_id", length = 100)
+    private String whatsappMessageId;
+    
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+    
+    @Column(name = "attempt_count")
+    @Builder.Default
+    private Integer attemptCount = 0;
+    
+    /**
+     * Reservado por una réplica (o en espera de reintento) hasta este momento
+     */
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+    
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    /**
+     * Estado del envío (el orden es el avance del estado)
+     */
+    public enum RecipientStatus {
+        PENDING,     // Por enviar
+        SENT,        // Aceptado por WhatsApp
+        DELIVERED,   // Entregado
+        READ,        // Leído
+        FAILED       // Falló
+    }
+}
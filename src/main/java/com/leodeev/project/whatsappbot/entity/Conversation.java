@@ -18,7 +18,12 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "conversations")
+@Table(name = "conversations", indexes = {
+        // Listado paginado por cliente: WHERE customer_id = ? ORDER BY started_at DESC, id DESC
+        @Index(name = "idx_conversations_customer_started_at", columnList = "customer_id, started_at, id"),
+        // Conversación activa de un cliente: WHERE customer_id = ? AND status = ? ORDER BY started_at DESC
+        @Index(name = "idx_conversations_customer_status_started_at", columnList = "customer_id, status, started_at")
+})
 public class Conversation {
 
     @Id
@@ -18,7 +18,10 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", indexes = {
+        // Segmentos de clientes recientes/inactivos por última interacción
+        @Index(name = "idx_customers_last_interaction", columnList = "last_interaction")
+})
 public class Customer {
 
     @Id
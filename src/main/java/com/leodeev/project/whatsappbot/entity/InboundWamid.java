@@ -0,0 +1,35 @@
+package com.leodeev.project.whatsappbot.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad con los IDs de WhatsApp de los mensajes entrantes ya registrados
+ * messages está particionada por mes y no puede tener un UNIQUE sobre el ID de
+ * WhatsApp: esta tabla (sin particionar) es la que impide procesar dos veces un
+ * reenvío de Meta o una reproducción del diario, aunque lleguen a la vez a dos réplicas.
+ * Se inserta con ON CONFLICT DO NOTHING en la transacción del mensaje.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "inbound_wamids", indexes = {
+        // Depuración diaria: WHERE received_at < ?
+        @Index(name = "idx_inbound_wamids_received_at", columnList = "received_at")
+})
+public class InboundWamid {
+
+    @Id
+    @Column(length = 100)
+    private String wamid;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+}
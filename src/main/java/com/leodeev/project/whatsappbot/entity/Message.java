@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
@@ -16,7 +18,17 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        // Historial paginado de una conversación: WHERE conversation_id = ? ORDER BY sent_at, id
+        @Index(name = "idx_messages_conversation_sent_at", columnList = "conversation_id, sent_at, id"),
+        // Mensajes entrantes de un teléfono: WHERE sender_phone = ? AND direction = ? ORDER BY sent_at DESC
+        @Index(name = "idx_messages_sender_direction_sent_at", columnList = "sender_phone, direction, sent_at"),
+        // Mensajes por estado (ej: FAILED) ordenados por fecha
+        @Index(name = "idx_messages_status_sent_at", columnList = "status, sent_at"),
+        // La tabla está particionada por sent_at: un índice único global no es posible,
+        // la deduplicación de entrantes se valida en MessageService
+        @Index(name = "idx_messages_whatsapp_message_id", columnList = "whatsapp_message_id")
+})
 public class Message {
     
     @Id
@@ -28,7 +40,7 @@ public class Message {
     @JoinColumn(name = "conversation_id", nullable = false)
     private Conversation conversation;
     
-    @Column(name = "whatsapp_message_id", unique = true, length = 100)
+    @Column(name = "whatsapp_message_id", length = 100)
     private String whatsappMessageId;
     
     @Enumerated(EnumType.STRING)
@@ -39,9 +51,28 @@ public class Message {
     @Column(nullable = false, length = 20)
     private MessageDirection direction;
     
-    @Column(columnDefinition = "TEXT", nullable = false)
+    /**
+     * Contenido visible para los llamadores; se persiste en una de dos formas:
+     * - inlineContent: texto en la propia fila (mensajes entrantes y textos cortos)
+     * - contentHash: referencia a message_contents (respuestas del bot repetidas)
+     */
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private String content;
     
+    @Column(name = "content", columnDefinition = "TEXT")
+    private String inlineContent;
+    
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "content_hash", insertable = false, updatable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private MessageContent sharedContent;
+    
     @Column(name = "sender_phone", length = 20)
     private String senderPhone;
     
@@ -56,6 +87,25 @@ public class Message {
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
     
+    /**
+     * Envíos intentados a la API de WhatsApp (solo mensajes salientes)
+     */
+    @Column(name = "attempt_count")
+    @Builder.Default
+    private Integer attemptCount = 0;
+    
+    /**
+     * Mensaje entrante al que responde; las partes de una respuesta larga lo comparten
+     */
+    @Column(name = "reply_to_message_id")
+    private Long replyToMessageId;
+
+    /**
+     * Posición de la parte dentro de la respuesta (0 = primera)
+     */
+    @Column(name = "chunk_index")
+    private Integer chunkIndex;
+    
     @Column(name = "sent_at")
     private LocalDateTime sentAt;
     
@@ -71,8 +121,40 @@ public class Message {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    /**
+     * Resuelve el contenido compartido la primera vez que se lee
+     */
+    public String getContent() {
+        if (content == null) {
+            content = inlineContent != null ? inlineContent
+                    : sharedContent != null ? sharedContent.getContent() : null;
+        }
+        return content;
+    }
+    
+    /**
+     * Asignar un contenido explícito lo guarda en la propia fila
+     */
+    public void setContent(String content) {
+        this.content = content;
+        this.inlineContent = content;
+        this.contentHash = null;
+        this.sharedContent = null;
+    }
+    
+    /**
+     * Guardar el contenido como referencia a message_contents
+     * El texto sigue disponible en memoria para los llamadores
+     */
+    public void shareContent(String hash) {
+        getContent();
+        this.contentHash = hash;
+        this.inlineContent = null;
+    }
+    
     @PrePersist
     protected void onCreate() {
+        syncInlineContent();
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
         if (sentAt == null) {
@@ -88,6 +170,15 @@ public class Message {
         updatedAt = LocalDateTime.now();
     }
     
+    /**
+     * El builder asigna el campo directamente: pasar el texto a la columna al insertar
+     */
+    private void syncInlineContent() {
+        if (contentHash == null && content != null) {
+            inlineContent = content;
+        }
+    }
+    
     /**
      * Tipo de mensaje
      */
@@ -113,6 +204,7 @@ public class Message {
      * Estado del mensaje
      */
     public enum MessageStatus {
+        QUEUED,      // En el outbox, aún no enviado a WhatsApp
         SENT,        // Enviado
         DELIVERED,   // Entregado
         READ,        // Leído
@@ -0,0 +1,77 @@
+package com.leodeev.project.whatsappbot.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un envío pendiente a la API de WhatsApp (outbox)
+ * Se escribe en la misma transacción que el Message saliente; el despachador
+ * la borra cuando registra el resultado del envío. El texto no se copia: se lee
+ * de messages (o de message_contents si está deduplicado) al reclamar el envío
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "message_outbox", indexes = {
+        // Orden por destinatario: solo se despacha el envío más antiguo de cada teléfono
+        @Index(name = "idx_message_outbox_recipient_id", columnList = "recipient_phone, id")
+})
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Mensaje saliente (sin FK: la clave de messages particionada es (id, sent_at))
+     */
+    @Column(name = "message_id", nullable = false)
+    private Long messageId;
+
+    @Column(name = "message_sent_at", nullable = false)
+    private LocalDateTime messageSentAt;
+
+    @Column(name = "recipient_phone", nullable = false, length = 20)
+    private String recipientPhone;
+
+    /**
+     * Momento en que el cliente envió el mensaje que se responde; solo en la
+     * primera parte de una respuesta (mide la latencia de punta a punta al enviarla)
+     */
+    @Column(name = "reply_origin_at")
+    private LocalDateTime replyOriginAt;
+
+    /**
+     * traceparent W3C de la respuesta: el despachador continúa la traza del mensaje
+     */
+    @Column(name = "trace_parent", length = 64)
+    private String traceParent;
+
+    /**
+     * Reservado por una réplica hasta este momento; null si está libre.
+     * Tras un fallo transitorio marca el próximo intento (backoff)
+     */
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    /**
+     * Intentos de envío fallidos; null equivale a 0
+     */
+    @Column(name = "attempt_count")
+    private Integer attemptCount;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,45 @@
+package com.leodeev.project.whatsappbot.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que marca un mensaje entrante aún sin respuesta en el outbox
+ * Se inserta en la misma transacción que el mensaje y se borra cuando la
+ * respuesta de su ráfaga quedó encolada. Las ráfagas viven en memoria: si la
+ * réplica cae antes de responder, la marca sigue aquí y otra pasada la retoma.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "pending_replies", indexes = {
+        // Retomar las vencidas: WHERE due_at < ?
+        @Index(name = "idx_pending_replies_due_at", columnList = "due_at"),
+        // Borrar las respondidas: WHERE phone_number = ? AND message_id <= ?
+        @Index(name = "idx_pending_replies_phone_message", columnList = "phone_number, message_id")
+})
+public class PendingReply {
+
+    /**
+     * Mensaje entrante (sin FK: la clave de messages particionada es (id, sent_at))
+     */
+    @Id
+    @Column(name = "message_id")
+    private Long messageId;
+
+    @Column(name = "phone_number", nullable = false, length = 20)
+    private String phoneNumber;
+
+    /**
+     * Desde este momento se considera abandonada y se puede retomar; al retomarla se posterga
+     */
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+}
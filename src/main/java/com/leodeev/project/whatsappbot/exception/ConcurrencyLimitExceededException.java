@@ -0,0 +1,12 @@
+package com.leodeev.project.whatsappbot.exception;
+
+/**
+ * Excepción cuando una llamada a un servicio externo no obtiene turno
+ * dentro del límite de concurrencia (cola llena o espera vencida)
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+    
+    public ConcurrencyLimitExceededException(String message) {
+        super(message);
+    }
+}
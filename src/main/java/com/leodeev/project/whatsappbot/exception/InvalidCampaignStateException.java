@@ -0,0 +1,11 @@
+package com.leodeev.project.whatsappbot.exception;
+
+/**
+ * Excepción cuando una operación no es válida en el estado actual de la campaña (409)
+ */
+public class InvalidCampaignStateException extends RuntimeException {
+    
+    public InvalidCampaignStateException(String message) {
+        super(message);
+    }
+}
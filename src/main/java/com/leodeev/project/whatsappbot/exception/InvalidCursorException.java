@@ -0,0 +1,15 @@
+package com.leodeev.project.whatsappbot.exception;
+
+/**
+ * Excepción para cursores de paginación inválidos o manipulados (400)
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
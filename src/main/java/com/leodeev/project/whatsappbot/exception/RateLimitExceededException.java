@@ -0,0 +1,12 @@
+package com.leodeev.project.whatsappbot.exception;
+
+/**
+ * Excepción cuando un envío superaría la tasa permitida del número de WhatsApp
+ * dentro de la espera máxima configurada
+ */
+public class RateLimitExceededException extends RuntimeException {
+    
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.leodeev.project.whatsappbot.exception;
+
+/**
+ * Excepción para peticiones sin credenciales válidas (401)
+ */
+public class UnauthorizedException extends RuntimeException {
+
+    public UnauthorizedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,64 @@
+package com.leodeev.project.whatsappbot.mapper;
+
+import com.leodeev.project.whatsappbot.dto.request.CampaignRequest;
+import com.leodeev.project.whatsappbot.dto.response.CampaignResponse;
+import com.leodeev.project.whatsappbot.entity.Campaign;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Mapper para convertir entre Campaign Entity y DTOs
+ */
+@Component
+public class CampaignMapper {
+
+    private static final String DEFAULT_LANGUAGE = "es";
+
+    /**
+     * Convierte CampaignRequest a Campaign Entity
+     * @param request DTO de request
+     * @return Campaign entity
+     */
+    public Campaign toEntity(CampaignRequest request) {
+        if (request == null) {
+            return null;
+        }
+
+        return Campaign.builder()
+                .name(request.getName())
+                .templateName(request.getTemplateName())
+                .languageCode(request.getLanguageCode() != null ? request.getLanguageCode() : DEFAULT_LANGUAGE)
+                .segment(request.getSegment())
+                .segmentDays(request.getSegmentDays())
+                .status(Campaign.CampaignStatus.DRAFT)
+                .build();
+    }
+
+    /**
+     * Convierte Campaign Entity a CampaignResponse
+     * @param campaign Entity
+     * @param recipientsByStatus Destinatarios por estado ya contados
+     * @return CampaignResponse DTO
+     */
+    public CampaignResponse toResponse(Campaign campaign, Map<String, Long> recipientsByStatus) {
+        if (campaign == null) {
+            return null;
+        }
+
+        return CampaignResponse.builder()
+                .id(campaign.getId())
+                .name(campaign.getName())
+                .templateName(campaign.getTemplateName())
+                .languageCode(campaign.getLanguageCode())
+                .segment(campaign.getSegment() != null ? campaign.getSegment().name() : null)
+                .segmentDays(campaign.getSegmentDays())
+                .status(campaign.getStatus() != null ? campaign.getStatus().name() : null)
+                .totalRecipients(campaign.getTotalRecipients())
+                .recipientsByStatus(recipientsByStatus)
+                .startedAt(campaign.getStartedAt())
+                .completedAt(campaign.getCompletedAt())
+                .createdAt(campaign.getCreatedAt())
+                .build();
+    }
+}
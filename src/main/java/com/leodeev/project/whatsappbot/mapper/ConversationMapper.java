@@ -23,6 +23,21 @@ public class ConversationMapper {
             return null;
         }
 
+        return toResponse(conversation, conversation.getMessages() != null ? conversation.getMessages().size() : 0);
+    }
+
+    /**
+     * Convierte Conversation Entity a ConversationResponse con un conteo de mensajes ya calculado
+     * Evita inicializar la colección de mensajes (útil en listados paginados)
+     * @param conversation Entity
+     * @param messageCount Cantidad de mensajes de la conversación
+     * @return ConversationResponse DTO
+     */
+    public ConversationResponse toResponse(Conversation conversation, Integer messageCount) {
+        if (conversation == null) {
+            return null;
+        }
+
         return ConversationResponse.builder()
                 .id(conversation.getId())
                 .customerId(conversation.getCustomer() != null ? conversation.getCustomer().getId() : null)
@@ -32,7 +47,7 @@ public class ConversationMapper {
                 .endedAt(conversation.getEndedAt())
                 .status(conversation.getStatus() != null ? conversation.getStatus().name() : null)
                 .topic(conversation.getTopic())
-                .messageCount(conversation.getMessages() != null ? conversation.getMessages().size() : 0)
+                .messageCount(messageCount)
                 .createdAt(conversation.getCreatedAt())
                 .updatedAt(conversation.getUpdatedAt())
                 .build();
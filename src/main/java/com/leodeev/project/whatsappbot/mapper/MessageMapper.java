@@ -1,14 +1,13 @@
 package com.leodeev.project.whatsappbot.mapper;
 
+import com.leodeev.project.whatsappbot.dto.response.MessageResponse;
 import com.leodeev.project.whatsappbot.entity.Conversation;
 import com.leodeev.project.whatsappbot.entity.Message;
 import org.springframework.stereotype.Component;
 
 /**
  * Mapper para convertir entre Message Entity y DTOs
- * 
- * Nota: No hay MessageResponse en la estructura original,
- * pero este mapper es útil para crear entities desde webhooks
+ * También crea entities desde webhooks
  */
 @Component
 public class MessageMapper {
@@ -111,9 +110,33 @@ public class MessageMapper {
         }
         message.setWhatsappMessageId(whatsappMessageId);
     }
-}
-
-
-
 
+    /**
+     * Convierte Message Entity a MessageResponse
+     * @param message Entity
+     * @return MessageResponse DTO
+     */
+    public MessageResponse toResponse(Message message) {
+        if (message == null) {
+            return null;
+        }
 
+        return MessageResponse.builder()
+                .id(message.getId())
+                .conversationId(message.getConversation() != null ? message.getConversation().getId() : null)
+                .whatsappMessageId(message.getWhatsappMessageId())
+                .type(message.getType() != null ? message.getType().name() : null)
+                .direction(message.getDirection() != null ? message.getDirection().name() : null)
+                .content(message.getContent())
+                .senderPhone(message.getSenderPhone())
+                .recipientPhone(message.getRecipientPhone())
+                .status(message.getStatus() != null ? message.getStatus().name() : null)
+                .errorMessage(message.getErrorMessage())
+                .replyToMessageId(message.getReplyToMessageId())
+                .chunkIndex(message.getChunkIndex())
+                .sentAt(message.getSentAt())
+                .deliveredAt(message.getDeliveredAt())
+                .readAt(message.getReadAt())
+                .build();
+    }
+}
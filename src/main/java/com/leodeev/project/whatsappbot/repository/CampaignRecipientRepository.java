@@ -0,0 +1,23 @@
+package com.leodeev.project.whatsappbot.repository;
+
+import com.leodeev.project.whatsappbot.entity.CampaignRecipient;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio para la entidad CampaignRecipient
+ */
+@Repository
+public interface CampaignRecipientRepository extends JpaRepository<CampaignRecipient, Long> {
+    
+    /**
+     * Contar destinatarios de una campaña por estado
+     * Devuelve pares [estado, cantidad]
+     */
+    @Query("SELECT r.status, COUNT(r) FROM CampaignRecipient r WHERE r.campaign.id = :campaignId GROUP BY r.status")
+    List<Object[]> countByStatus(@Param("campaignId") Long campaignId);
+}
@@ -0,0 +1,20 @@
+package com.leodeev.project.whatsappbot.repository;
+
+import com.leodeev.project.whatsappbot.entity.Campaign;
+import com.leodeev.project.whatsappbot.entity.Campaign.CampaignStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio para la entidad Campaign
+ */
+@Repository
+public interface CampaignRepository extends JpaRepository<Campaign, Long> {
+    
+    /**
+     * Buscar campañas por estado
+     */
+    List<Campaign> findByStatus(CampaignStatus status);
+}
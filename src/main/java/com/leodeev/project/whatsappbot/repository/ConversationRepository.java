@@ -2,6 +2,7 @@ package com.leodeev.project.whatsappbot.repository;
 
 import com.leodeev.project.whatsappbot.entity.Conversation;
 import com.leodeev.project.whatsappbot.entity.Conversation.ConversationStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -18,9 +19,21 @@ import java.util.Optional;
 public interface ConversationRepository extends JpaRepository<Conversation, Long> {
     
     /**
-     * Buscar conversaciones por ID de cliente
+     * Primera página de conversaciones de un cliente (keyset por started_at, id descendente)
      */
-    List<Conversation> findByCustomerId(Long customerId);
+    @Query("SELECT c FROM Conversation c JOIN FETCH c.customer WHERE c.customer.id = :customerId " +
+           "ORDER BY c.startedAt DESC, c.id DESC")
+    List<Conversation> findPageByCustomerId(@Param("customerId") Long customerId, Limit limit);
+    
+    /**
+     * Página siguiente de conversaciones de un cliente a partir del cursor (started_at, id)
+     */
+    @Query("SELECT c FROM Conversation c JOIN FETCH c.customer WHERE c.customer.id = :customerId " +
+           "AND (c.startedAt, c.id) < (:startedAt, :id) ORDER BY c.startedAt DESC, c.id DESC")
+    List<Conversation> findPageByCustomerIdBefore(@Param("customerId") Long customerId,
+                                                  @Param("startedAt") LocalDateTime startedAt,
+                                                  @Param("id") Long id,
+                                                  Limit limit);
     
     /**
      * Buscar conversaciones activas de un cliente
@@ -46,10 +59,21 @@ public interface ConversationRepository extends JpaRepository<Conversation, Long
                                        @Param("endDate") LocalDateTime endDate);
     
     /**
-     * Buscar conversaciones por número de teléfono del cliente
+     * Primera página de conversaciones por número de teléfono del cliente
+     */
+    @Query("SELECT c FROM Conversation c JOIN FETCH c.customer cu WHERE cu.phoneNumber = :phoneNumber " +
+           "ORDER BY c.startedAt DESC, c.id DESC")
+    List<Conversation> findPageByCustomerPhoneNumber(@Param("phoneNumber") String phoneNumber, Limit limit);
+    
+    /**
+     * Página siguiente de conversaciones por número de teléfono a partir del cursor (started_at, id)
      */
-    @Query("SELECT c FROM Conversation c WHERE c.customer.phoneNumber = :phoneNumber ORDER BY c.startedAt DESC")
-    List<Conversation> findByCustomerPhoneNumber(@Param("phoneNumber") String phoneNumber);
+    @Query("SELECT c FROM Conversation c JOIN FETCH c.customer cu WHERE cu.phoneNumber = :phoneNumber " +
+           "AND (c.startedAt, c.id) < (:startedAt, :id) ORDER BY c.startedAt DESC, c.id DESC")
+    List<Conversation> findPageByCustomerPhoneNumberBefore(@Param("phoneNumber") String phoneNumber,
+                                                           @Param("startedAt") LocalDateTime startedAt,
+                                                           @Param("id") Long id,
+                                                           Limit limit);
     
     /**
      * Contar conversaciones activas
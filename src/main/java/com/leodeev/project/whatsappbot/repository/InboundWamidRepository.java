@@ -0,0 +1,25 @@
+package com.leodeev.project.whatsappbot.repository;
+
+import com.leodeev.project.whatsappbot.entity.InboundWamid;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio para la entidad InboundWamid
+ * La carga inicial y la depuración las hace el mantenimiento de messages (MessagePartitionServiceImpl)
+ */
+@Repository
+public interface InboundWamidRepository extends JpaRepository<InboundWamid, String> {
+
+    /**
+     * Registrar el ID; si otra transacción lo está registrando, espera a que termine
+     * @return 1 si se registró, 0 si ya existía
+     */
+    @Modifying
+    @Query(value = "INSERT INTO inbound_wamids (wamid, received_at) VALUES (:wamid, now()) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("wamid") String wamid);
+}
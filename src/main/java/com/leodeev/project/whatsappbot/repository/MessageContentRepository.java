@@ -0,0 +1,24 @@
+package com.leodeev.project.whatsappbot.repository;
+
+import com.leodeev.project.whatsappbot.entity.MessageContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio para la entidad MessageContent
+ */
+@Repository
+public interface MessageContentRepository extends JpaRepository<MessageContent, String> {
+
+    /**
+     * Insertar un contenido si su hash aún no existe
+     * Idempotente y sin carrera entre instancias: no requiere leer antes de escribir
+     */
+    @Modifying
+    @Query(value = "INSERT INTO message_contents (hash, content, created_at) VALUES (:hash, :content, now()) " +
+                   "ON CONFLICT (hash) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("hash") String hash, @Param("content") String content);
+}
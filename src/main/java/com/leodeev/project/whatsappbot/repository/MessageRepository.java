@@ -4,6 +4,7 @@ import com.leodeev.project.whatsappbot.entity.Message;
 import com.leodeev.project.whatsappbot.entity.Message.MessageDirection;
 import com.leodeev.project.whatsappbot.entity.Message.MessageStatus;
 import com.leodeev.project.whatsappbot.entity.Message.MessageType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -22,13 +23,24 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     /**
      * Buscar mensajes por ID de conversación
      */
-    List<Message> findByConversationId(Long conversationId);
+    List<Message> findByConversationId(Long conversationId, Limit limit);
     
     /**
-     * Buscar mensajes por ID de conversación ordenados por fecha
+     * Primera página de mensajes de una conversación (keyset por sent_at, id)
      */
-    @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId ORDER BY m.sentAt ASC")
-    List<Message> findByConversationIdOrderBySentAt(@Param("conversationId") Long conversationId);
+    @Query("SELECT m FROM Message m LEFT JOIN FETCH m.sharedContent " +
+           "WHERE m.conversation.id = :conversationId ORDER BY m.sentAt ASC, m.id ASC")
+    List<Message> findPageByConversation(@Param("conversationId") Long conversationId, Limit limit);
+    
+    /**
+     * Página siguiente de mensajes de una conversación a partir del cursor (sent_at, id)
+     */
+    @Query("SELECT m FROM Message m LEFT JOIN FETCH m.sharedContent WHERE m.conversation.id = :conversationId " +
+           "AND (m.sentAt, m.id) > (:sentAt, :id) ORDER BY m.sentAt ASC, m.id ASC")
+    List<Message> findPageByConversationAfter(@Param("conversationId") Long conversationId,
+                                              @Param("sentAt") LocalDateTime sentAt,
+                                              @Param("id") Long id,
+                                              Limit limit);
     
     /**
      * Buscar mensaje por ID de WhatsApp
@@ -38,30 +50,31 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     /**
      * Buscar mensajes por dirección
      */
-    List<Message> findByDirection(MessageDirection direction);
+    List<Message> findByDirection(MessageDirection direction, Limit limit);
     
     /**
      * Buscar mensajes por estado
      */
-    List<Message> findByStatus(MessageStatus status);
+    List<Message> findByStatus(MessageStatus status, Limit limit);
     
     /**
      * Buscar mensajes por tipo
      */
-    List<Message> findByType(MessageType type);
+    List<Message> findByType(MessageType type, Limit limit);
     
     /**
      * Buscar mensajes fallidos
      */
-    @Query("SELECT m FROM Message m WHERE m.status = 'FAILED' ORDER BY m.sentAt DESC")
-    List<Message> findFailedMessages();
+    @Query("SELECT m FROM Message m WHERE m.status = 'FAILED' ORDER BY m.sentAt DESC, m.id DESC")
+    List<Message> findFailedMessages(Limit limit);
     
     /**
      * Buscar mensajes en un rango de fechas
      */
-    @Query("SELECT m FROM Message m WHERE m.sentAt BETWEEN :startDate AND :endDate ORDER BY m.sentAt DESC")
+    @Query("SELECT m FROM Message m WHERE m.sentAt BETWEEN :startDate AND :endDate ORDER BY m.sentAt DESC, m.id DESC")
     List<Message> findByDateRange(@Param("startDate") LocalDateTime startDate, 
-                                  @Param("endDate") LocalDateTime endDate);
+                                  @Param("endDate") LocalDateTime endDate,
+                                  Limit limit);
     
     /**
      * Contar mensajes por conversación
@@ -71,12 +84,25 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     /**
      * Buscar últimos N mensajes de una conversación
      */
-    @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId ORDER BY m.sentAt DESC")
-    List<Message> findLastMessagesByConversation(@Param("conversationId") Long conversationId);
+    @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId ORDER BY m.sentAt DESC, m.id DESC")
+    List<Message> findLastMessagesByConversation(@Param("conversationId") Long conversationId, Limit limit);
     
     /**
      * Buscar mensajes entrantes de un teléfono
      */
-    @Query("SELECT m FROM Message m WHERE m.senderPhone = :phoneNumber AND m.direction = 'INBOUND' ORDER BY m.sentAt DESC")
-    List<Message> findInboundMessagesByPhone(@Param("phoneNumber") String phoneNumber);
+    @Query("SELECT m FROM Message m WHERE m.senderPhone = :phoneNumber AND m.direction = 'INBOUND' ORDER BY m.sentAt DESC, m.id DESC")
+    List<Message> findInboundMessagesByPhone(@Param("phoneNumber") String phoneNumber, Limit limit);
+    
+    /**
+     * Buscar mensajes con su conversación, en orden de llegada (se usan fuera de una transacción)
+     */
+    @Query("SELECT m FROM Message m JOIN FETCH m.conversation WHERE m.id IN :ids ORDER BY m.id")
+    List<Message> findWithConversationByIdIn(@Param("ids") List<Long> ids);
+    
+    /**
+     * Contar mensajes de varias conversaciones en una sola consulta
+     * Devuelve pares [conversationId, cantidad]
+     */
+    @Query("SELECT m.conversation.id, COUNT(m) FROM Message m WHERE m.conversation.id IN :conversationIds GROUP BY m.conversation.id")
+    List<Object[]> countByConversationIds(@Param("conversationIds") List<Long> conversationIds);
 }
@@ -0,0 +1,13 @@
+package com.leodeev.project.whatsappbot.repository;
+
+import com.leodeev.project.whatsappbot.entity.OutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio para la entidad OutboxMessage
+ * El despachador reclama y borra filas con SQL nativo (FOR UPDATE SKIP LOCKED)
+ */
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+}
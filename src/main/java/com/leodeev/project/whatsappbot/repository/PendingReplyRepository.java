@@ -0,0 +1,26 @@
+package com.leodeev.project.whatsappbot.repository;
+
+import com.leodeev.project.whatsappbot.entity.PendingReply;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio para la entidad PendingReply
+ * Las marcas vencidas se reclaman con SQL nativo (FOR UPDATE SKIP LOCKED)
+ */
+@Repository
+public interface PendingReplyRepository extends JpaRepository<PendingReply, Long> {
+
+    /**
+     * Borrar las marcas de un remitente hasta el último mensaje respondido
+     * Las respuestas de un remitente no se solapan: las anteriores ya se respondieron
+     * @return Marcas borradas
+     */
+    @Modifying
+    @Query(value = "DELETE FROM pending_replies WHERE phone_number = :phoneNumber AND message_id <= :messageId",
+            nativeQuery = true)
+    int deleteAnswered(@Param("phoneNumber") String phoneNumber, @Param("messageId") Long messageId);
+}
@@ -1,6 +1,7 @@
 package com.leodeev.project.whatsappbot.repository;
 
 import com.leodeev.project.whatsappbot.entity.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,6 +16,18 @@ import java.util.Optional;
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     
+    /**
+     * Primera página de productos (keyset por id)
+     */
+    @Query("SELECT p FROM Product p ORDER BY p.id ASC")
+    List<Product> findPage(Limit limit);
+    
+    /**
+     * Página siguiente de productos a partir del cursor (id)
+     */
+    @Query("SELECT p FROM Product p WHERE p.id > :id ORDER BY p.id ASC")
+    List<Product> findPageAfter(@Param("id") Long id, Limit limit);
+    
     /**
      * Buscar productos activos
      */
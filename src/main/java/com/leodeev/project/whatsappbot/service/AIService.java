@@ -3,6 +3,7 @@ package com.leodeev.project.whatsappbot.service;
 import com.leodeev.project.whatsappbot.dto.response.AIResponse;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Interfaz del servicio de IA
@@ -27,6 +28,15 @@ public interface AIService {
      */
     AIResponse generateResponseWithProducts(String userMessage, String productsContext);
     
+    /**
+     * Generar respuesta de IA con contexto de productos en streaming
+     * @param userMessage Mensaje del usuario
+     * @param productsContext Contexto de productos disponibles
+     * @param onDelta Recibe cada fragmento de texto a medida que se genera (en el hilo que llama)
+     * @return Respuesta completa de la IA
+     */
+    AIResponse streamResponseWithProducts(String userMessage, String productsContext, Consumer<String> onDelta);
+    
     /**
      * Buscar productos relevantes según la consulta del usuario
      * @param userQuery Consulta del usuario
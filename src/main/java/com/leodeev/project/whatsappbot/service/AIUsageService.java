@@ -0,0 +1,47 @@
+package com.leodeev.project.whatsappbot.service;
+
+import com.leodeev.project.whatsappbot.dto.response.AIResponse;
+import com.leodeev.project.whatsappbot.dto.response.AIUsageTotal;
+import com.leodeev.project.whatsappbot.entity.AIUsageDaily;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Interfaz del registro de uso y costo de la IA
+ * SOLID: Dependency Inversion Principle (DIP)
+ */
+public interface AIUsageService {
+
+    /**
+     * Registrar una llamada en memoria; se escribe en el próximo lote
+     * @param operation Tipo de llamada / prompt (ej: products_reply)
+     * @param response Respuesta con modelo, tokens y duración
+     * @param conversationId Conversación respondida
+     * @param customerId Cliente de la conversación
+     * @param messageId Mensaje entrante respondido
+     */
+    void record(String operation, AIResponse response, Long conversationId, Long customerId, Long messageId);
+
+    /**
+     * Escribir las llamadas pendientes y sumarlas a los acumulados diarios en una transacción
+     * @return Llamadas escritas
+     */
+    int flush();
+
+    /**
+     * Mayores consumidores de una dimensión en una ventana de días (inclusive)
+     */
+    List<AIUsageTotal> getTopConsumers(AIUsageDaily.Dimension dimension, LocalDate from, LocalDate to,
+                                       Ranking rankBy, int limit);
+
+    /**
+     * Criterio del ranking
+     */
+    enum Ranking {
+        COST,
+        TOKENS,
+        CALLS,
+        LATENCY
+    }
+}
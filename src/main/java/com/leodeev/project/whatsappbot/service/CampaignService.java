@@ -0,0 +1,45 @@
+package com.leodeev.project.whatsappbot.service;
+
+import com.leodeev.project.whatsappbot.dto.request.CampaignRequest;
+import com.leodeev.project.whatsappbot.dto.response.CampaignResponse;
+
+/**
+ * Interfaz del servicio de Campañas (envío de plantillas a segmentos de clientes)
+ * SOLID: Dependency Inversion Principle (DIP)
+ */
+public interface CampaignService {
+
+    /**
+     * Crear una campaña en borrador
+     * @param request Datos de la campaña
+     * @return Campaña creada
+     */
+    CampaignResponse createCampaign(CampaignRequest request);
+
+    /**
+     * Obtener una campaña con sus destinatarios por estado
+     * @param id ID de la campaña
+     * @return Campaña
+     */
+    CampaignResponse getCampaign(Long id);
+
+    /**
+     * Iniciar una campaña: se prepara el segmento y se despacha en segundo plano
+     * @param id ID de la campaña
+     * @return Campaña
+     */
+    CampaignResponse startCampaign(Long id);
+
+    /**
+     * Cancelar una campaña; los destinatarios pendientes no se envían
+     * @param id ID de la campaña
+     * @return Campaña
+     */
+    CampaignResponse cancelCampaign(Long id);
+
+    /**
+     * Avanzar las campañas en curso: preparar un tramo del segmento y despachar un lote
+     * @return Envíos aceptados por WhatsApp en esta pasada
+     */
+    int processCampaigns();
+}
@@ -0,0 +1,46 @@
+package com.leodeev.project.whatsappbot.service;
+
+import com.leodeev.project.whatsappbot.dto.response.ArchivedConversation;
+import com.leodeev.project.whatsappbot.dto.response.ConversationResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Interfaz del archivo frío de conversaciones (segmentos comprimidos en el esquema de archivo)
+ * SOLID: Dependency Inversion Principle (DIP)
+ */
+public interface ColdArchiveService {
+
+    /**
+     * Mover a segmentos las conversaciones cerradas más antiguas que la antigüedad configurada
+     * @return Conversaciones archivadas
+     */
+    int archiveClosedConversations();
+
+    /**
+     * Buscar una conversación archivada con sus mensajes
+     * @param conversationId ID de la conversación
+     * @return Conversación archivada, si existe
+     */
+    Optional<ArchivedConversation> findConversation(Long conversationId);
+
+    /**
+     * Conversaciones archivadas de un cliente, de la más reciente a la más antigua
+     * @param customerId ID del cliente
+     * @param beforeStartedAt Clave del cursor (null para empezar por la más reciente)
+     * @param beforeId Desempate del cursor
+     * @param limit Máximo de conversaciones
+     * @return Conversaciones con (startedAt, id) menor que el cursor
+     */
+    List<ConversationResponse> findConversationsByCustomer(Long customerId, LocalDateTime beforeStartedAt,
+                                                           Long beforeId, int limit);
+
+    /**
+     * Inicio más reciente entre las conversaciones archivadas: una página de la base
+     * llena y posterior a este valor no necesita consultar el archivo
+     * @return Fecha de inicio, o null si el archivo está vacío
+     */
+    LocalDateTime getNewestStartedAt();
+}
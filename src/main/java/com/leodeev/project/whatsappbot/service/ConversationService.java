@@ -1,11 +1,10 @@
 package com.leodeev.project.whatsappbot.service;
 
 import com.leodeev.project.whatsappbot.dto.response.ConversationResponse;
+import com.leodeev.project.whatsappbot.dto.response.PageResponse;
 import com.leodeev.project.whatsappbot.entity.Conversation;
 import com.leodeev.project.whatsappbot.entity.Customer;
 
-import java.util.List;
-
 /**
  * Interfaz del servicio de Conversaciones
  * SOLID: Dependency Inversion Principle (DIP)
@@ -41,18 +40,22 @@ public interface ConversationService {
     ConversationResponse getConversationById(Long id);
 
     /**
-     * Obtener todas las conversaciones de un cliente
+     * Obtener las conversaciones de un cliente (paginado por cursor, más recientes primero)
      * @param customerId ID del cliente
-     * @return Lista de conversaciones
+     * @param cursor Cursor de la página anterior (null para la primera)
+     * @param size Tamaño de página solicitado
+     * @return Página de conversaciones
      */
-    List<ConversationResponse> getConversationsByCustomerId(Long customerId);
+    PageResponse<ConversationResponse> getConversationsByCustomerId(Long customerId, String cursor, Integer size);
 
     /**
-     * Obtener conversaciones por número de teléfono
+     * Obtener conversaciones por número de teléfono (paginado por cursor, más recientes primero)
      * @param phoneNumber Número de teléfono
-     * @return Lista de conversaciones
+     * @param cursor Cursor de la página anterior (null para la primera)
+     * @param size Tamaño de página solicitado
+     * @return Página de conversaciones
      */
-    List<ConversationResponse> getConversationsByPhoneNumber(String phoneNumber);
+    PageResponse<ConversationResponse> getConversationsByPhoneNumber(String phoneNumber, String cursor, Integer size);
 
     /**
      * Cerrar una conversación
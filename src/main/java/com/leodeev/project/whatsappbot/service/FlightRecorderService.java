@@ -0,0 +1,17 @@
+package com.leodeev.project.whatsappbot.service;
+
+import java.nio.file.Path;
+
+/**
+ * Interfaz de la grabación continua de Java Flight Recorder
+ * SOLID: Dependency Inversion Principle (DIP)
+ */
+public interface FlightRecorderService {
+
+    /**
+     * Copiar la ventana grabada hasta ahora a un archivo temporal (la grabación sigue)
+     * @return Archivo .jfr; quien lo recibe debe borrarlo
+     * @throws com.leodeev.project.whatsappbot.exception.ResourceNotFoundException si no hay grabación activa
+     */
+    Path dumpRecording();
+}
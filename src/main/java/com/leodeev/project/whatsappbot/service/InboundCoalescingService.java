@@ -0,0 +1,66 @@
+package com.leodeev.project.whatsappbot.service;
+
+import com.leodeev.project.whatsappbot.entity.Message;
+import com.leodeev.project.whatsappbot.util.StageTimings;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Interfaz del servicio de agrupación de mensajes entrantes por conversación
+ * SOLID: Dependency Inversion Principle (DIP)
+ */
+public interface InboundCoalescingService {
+
+    /**
+     * Agregar un mensaje entrante (ya guardado) a la ráfaga de su remitente.
+     * Cuando la ráfaga se cierra, onReady recibe todos sus mensajes en un hilo
+     * de respuestas; si se envían más mensajes dentro de la ventana, se espera.
+     * @param phoneNumber Teléfono del remitente (clave de la ráfaga)
+     * @param inboundMessage Mensaje entrante guardado
+     * @param content Contenido del mensaje
+     * @param acceptedAt Momento en que se aceptó el mensaje (System.nanoTime())
+     * @param sentAt Momento en que el cliente envió el mensaje (timestamp de WhatsApp, puede ser null)
+     * @param timings Tiempos de las etapas del webhook (se suman a los de la ráfaga)
+     * @param onReady Genera la respuesta para la ráfaga completa
+     */
+    void submit(String phoneNumber, Message inboundMessage, String content, long acceptedAt, Instant sentAt,
+                StageTimings timings, Consumer<Burst> onReady);
+
+    /**
+     * Mensajes aceptados que aún esperan su respuesta: en ráfagas abiertas, en la
+     * cola del hilo de respuestas o con la respuesta en curso
+     */
+    Backlog getBacklog();
+
+    /**
+     * Ráfaga de mensajes de un cliente, respondida con una sola llamada a la IA
+     * @param contents Contenidos en orden de llegada
+     * @param lastMessage Último mensaje entrante (la respuesta se vincula a él)
+     * @param acceptedAt Momento en que se aceptó el primer mensaje (System.nanoTime())
+     * @param sentAt Momento en que el cliente envió el primer mensaje (puede ser null)
+     * @param timings Tiempos por etapa de todos sus mensajes (la respuesta agrega los suyos)
+     */
+    record Burst(List<String> contents, Message lastMessage, long acceptedAt, Instant sentAt, StageTimings timings) {
+
+        /**
+         * Mensajes unidos como una sola consulta para la IA
+         */
+        public String mergedContent() {
+            return String.join("\n", contents);
+        }
+    }
+
+    /**
+     * Cola de respuestas de la réplica
+     * @param openBursts Ráfagas esperando que se cierre su ventana
+     * @param queuedReplies Ráfagas cerradas esperando un hilo de respuestas
+     * @param activeReplies Respuestas en curso (IA, guardado de las partes)
+     * @param pendingMessages Mensajes en todas las anteriores
+     * @param oldestAge Tiempo desde que se aceptó el mensaje más antiguo sin respuesta
+     */
+    record Backlog(int openBursts, int queuedReplies, int activeReplies, int pendingMessages, Duration oldestAge) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.leodeev.project.whatsappbot.service;
+
+import java.time.Duration;
+
+/**
+ * Interfaz del servicio de recepción durable de webhooks
+ * SOLID: Dependency Inversion Principle (DIP)
+ */
+public interface InboundJournalService {
+
+    /**
+     * Aceptar un webhook de WhatsApp: se agrega al diario local (ya en disco al
+     * retornar) y se procesa en segundo plano. Si el diario está desactivado,
+     * se procesa en el hilo actual.
+     * @param payload Cuerpo del webhook tal como llegó
+     */
+    void accept(byte[] payload);
+
+    /**
+     * Webhooks en el diario aún no procesados (bytes); 0 si el diario está desactivado
+     */
+    long getLagBytes();
+
+    /**
+     * Tiempo que lleva en el diario el webhook más antiguo aún no procesado
+     * @return Duration.ZERO si no hay pendientes
+     */
+    Duration getOldestPendingAge();
+}
@@ -0,0 +1,19 @@
+package com.leodeev.project.whatsappbot.service;
+
+import com.leodeev.project.whatsappbot.dto.response.QueryPlanReport;
+
+import java.util.List;
+
+/**
+ * Interfaz del asesor de índices
+ * SOLID: Dependency Inversion Principle (DIP)
+ */
+public interface IndexAdvisorService {
+
+    /**
+     * Ejecutar EXPLAIN de cada consulta de lectura declarada en los repositorios
+     * contra el esquema real y marcar las que terminan en Seq Scan
+     * @return Un reporte por método de repositorio
+     */
+    List<QueryPlanReport> analyzeRepositoryQueries();
+}
@@ -0,0 +1,15 @@
+package com.leodeev.project.whatsappbot.service;
+
+/**
+ * Interfaz del almacenamiento de contenidos direccionado por hash
+ * SOLID: Dependency Inversion Principle (DIP)
+ */
+public interface MessageContentService {
+
+    /**
+     * Guardar un contenido una sola vez y obtener su hash
+     * @param content Texto del mensaje
+     * @return SHA-256 en hexadecimal, o null si el texto debe guardarse en la propia fila
+     */
+    String store(String content);
+}
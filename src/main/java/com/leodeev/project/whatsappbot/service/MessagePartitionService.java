@@ -0,0 +1,28 @@
+package com.leodeev.project.whatsappbot.service;
+
+import java.util.List;
+
+/**
+ * Interfaz del servicio de particionado de mensajes
+ * SOLID: Dependency Inversion Principle (DIP)
+ */
+public interface MessagePartitionService {
+
+    /**
+     * Ejecutar el mantenimiento completo: convertir la tabla si aún no está
+     * particionada, crear particiones futuras y aplicar la retención
+     */
+    void runMaintenance();
+
+    /**
+     * Crear las particiones mensuales del mes actual y los siguientes
+     * @return Particiones creadas
+     */
+    List<String> createFuturePartitions();
+
+    /**
+     * Desacoplar las particiones más antiguas que la retención y moverlas al esquema de archivo
+     * @return Particiones archivadas
+     */
+    List<String> archiveExpiredPartitions();
+}
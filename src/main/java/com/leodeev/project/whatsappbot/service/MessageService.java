@@ -1,9 +1,11 @@
 package com.leodeev.project.whatsappbot.service;
 
+import com.leodeev.project.whatsappbot.dto.response.MessageResponse;
+import com.leodeev.project.whatsappbot.dto.response.PageResponse;
 import com.leodeev.project.whatsappbot.entity.Conversation;
 import com.leodeev.project.whatsappbot.entity.Message;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 /**
  * Interfaz del servicio de Mensajes
@@ -38,11 +40,27 @@ public interface MessageService {
     Message createOutboundMessage(String content, String recipientPhone, Conversation conversation);
 
     /**
-     * Obtener mensajes de una conversación
+     * Guardar un mensaje saliente como QUEUED junto con su envío en el outbox
+     * (misma transacción: el despachador lo envía después del commit)
+     * @param content Contenido
+     * @param recipientPhone Teléfono del destinatario
+     * @param conversation Conversación
+     * @param replyToMessageId ID del mensaje entrante al que responde (opcional)
+     * @param chunkIndex Posición de la parte en una respuesta dividida (opcional)
+     * @param replyOriginAt Momento en que el cliente envió el mensaje respondido (opcional)
+     * @return Mensaje guardado
+     */
+    Message queueOutboundMessage(String content, String recipientPhone, Conversation conversation,
+                                 Long replyToMessageId, Integer chunkIndex, LocalDateTime replyOriginAt);
+
+    /**
+     * Obtener mensajes de una conversación (paginado por cursor, orden cronológico)
      * @param conversationId ID de la conversación
-     * @return Lista de mensajes
+     * @param cursor Cursor de la página anterior (null para la primera)
+     * @param size Tamaño de página solicitado
+     * @return Página de mensajes
      */
-    List<Message> getMessagesByConversationId(Long conversationId);
+    PageResponse<MessageResponse> getMessagesByConversationId(Long conversationId, String cursor, Integer size);
 
     /**
      * Actualizar estado de mensaje
@@ -57,4 +75,13 @@ public interface MessageService {
      * @param whatsappMessageId ID de WhatsApp
      */
     void updateWhatsAppMessageId(Long messageId, String whatsappMessageId);
+
+    /**
+     * Reservar el ID de WhatsApp de un mensaje entrante (reintentos del webhook, reproducción del diario)
+     * Debe llamarse en la transacción que guarda el mensaje: si se revierte, el ID queda libre.
+     * Con dos réplicas a la vez, la segunda espera a que la primera confirme y recibe false.
+     * @param whatsappMessageId ID de WhatsApp
+     * @return true si es la primera vez que se registra
+     */
+    boolean claimInboundMessageId(String whatsappMessageId);
 }
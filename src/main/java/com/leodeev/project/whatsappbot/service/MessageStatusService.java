@@ -0,0 +1,27 @@
+package com.leodeev.project.whatsappbot.service;
+
+import com.leodeev.project.whatsappbot.entity.Message;
+
+import java.time.LocalDateTime;
+
+/**
+ * Interfaz del procesamiento de estados de mensajes (callbacks de WhatsApp)
+ * SOLID: Dependency Inversion Principle (DIP)
+ */
+public interface MessageStatusService {
+
+    /**
+     * Registrar un estado en memoria; se combina con los pendientes del mismo mensaje
+     * @param whatsappMessageId ID de WhatsApp del mensaje
+     * @param status Nuevo estado
+     * @param timestamp Momento del evento
+     * @param errorMessage Detalle del error (solo FAILED)
+     */
+    void enqueue(String whatsappMessageId, Message.MessageStatus status, LocalDateTime timestamp, String errorMessage);
+
+    /**
+     * Escribir todos los estados pendientes en un solo UPDATE
+     * @return Mensajes actualizados
+     */
+    int flush();
+}
@@ -0,0 +1,14 @@
+package com.leodeev.project.whatsappbot.service;
+
+/**
+ * Interfaz del despachador de envíos salientes (outbox)
+ * SOLID: Dependency Inversion Principle (DIP)
+ */
+public interface OutboxDispatcherService {
+
+    /**
+     * Reclamar un lote del outbox, enviarlo y registrar los resultados
+     * @return Mensajes enviados con éxito
+     */
+    int dispatch();
+}
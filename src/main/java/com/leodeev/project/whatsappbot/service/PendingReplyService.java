@@ -0,0 +1,33 @@
+package com.leodeev.project.whatsappbot.service;
+
+import com.leodeev.project.whatsappbot.entity.Message;
+
+import java.util.List;
+
+/**
+ * Interfaz del servicio de respuestas pendientes (marca durable por mensaje entrante)
+ * SOLID: Dependency Inversion Principle (DIP)
+ */
+public interface PendingReplyService {
+
+    /**
+     * Marcar un mensaje entrante como pendiente de respuesta
+     * Se llama dentro de la transacción que guarda el mensaje
+     * @param inboundMessage Mensaje entrante ya guardado
+     */
+    void markPending(Message inboundMessage);
+
+    /**
+     * Quitar las marcas de un remitente cuya respuesta ya está en el outbox
+     * @param phoneNumber Teléfono del remitente
+     * @param lastMessageId Último mensaje entrante de la ráfaga respondida
+     */
+    void markAnswered(String phoneNumber, Long lastMessageId);
+
+    /**
+     * Reclamar las marcas vencidas (respuestas abandonadas por una réplica caída o
+     * por un error al encolarlas) y postergarlas para que ninguna otra réplica las tome
+     * @return Mensajes entrantes a responder, con su conversación, en orden de llegada
+     */
+    List<Message> claimAbandoned();
+}
@@ -0,0 +1,15 @@
+package com.leodeev.project.whatsappbot.service;
+
+import com.leodeev.project.whatsappbot.dto.response.PipelineLoad;
+
+/**
+ * Interfaz del servicio de salud y saturación del pipeline
+ * SOLID: Dependency Inversion Principle (DIP)
+ */
+public interface PipelineHealthService {
+
+    /**
+     * Carga actual de la réplica; reasons indica los umbrales superados
+     */
+    PipelineLoad getLoad();
+}
@@ -1,6 +1,7 @@
 package com.leodeev.project.whatsappbot.service;
 
 import com.leodeev.project.whatsappbot.dto.request.ProductRequest;
+import com.leodeev.project.whatsappbot.dto.response.PageResponse;
 import com.leodeev.project.whatsappbot.dto.response.ProductResponse;
 
 import java.util.List;
@@ -26,10 +27,12 @@ public interface ProductService {
     ProductResponse getProductById(Long id);
 
     /**
-     * Obtener todos los productos
-     * @return Lista de productos
+     * Obtener todos los productos (paginado por cursor)
+     * @param cursor Cursor de la página anterior (null para la primera)
+     * @param size Tamaño de página solicitado
+     * @return Página de productos
      */
-    List<ProductResponse> getAllProducts();
+    PageResponse<ProductResponse> getAllProducts(String cursor, Integer size);
 
     /**
      * Obtener productos activos
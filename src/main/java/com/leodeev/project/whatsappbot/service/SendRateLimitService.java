@@ -0,0 +1,31 @@
+package com.leodeev.project.whatsappbot.service;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Interfaz del limitador de tasa de envío por número de WhatsApp
+ * SOLID: Dependency Inversion Principle (DIP)
+ */
+public interface SendRateLimitService {
+
+    /**
+     * Esperar (bloqueando el hilo) un permiso de envío
+     * @param phoneNumberId ID del número de WhatsApp Business que envía
+     * @throws com.leodeev.project.whatsappbot.exception.RateLimitExceededException si la espera supera maxWait
+     */
+    void acquire(String phoneNumberId);
+
+    /**
+     * Tomar un permiso solo si está disponible ahora
+     * @param phoneNumberId ID del número de WhatsApp Business que envía
+     * @return true si se obtuvo el permiso
+     */
+    boolean tryAcquire(String phoneNumberId);
+
+    /**
+     * Permiso de envío para llamadores reactivos: completa cuando es su turno, sin ocupar un hilo
+     * @param phoneNumberId ID del número de WhatsApp Business que envía
+     * @return Mono que completa al obtener el permiso, o falla con RateLimitExceededException
+     */
+    Mono<Void> acquireAsync(String phoneNumberId);
+}
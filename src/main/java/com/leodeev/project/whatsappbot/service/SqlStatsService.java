@@ -0,0 +1,23 @@
+package com.leodeev.project.whatsappbot.service;
+
+import com.leodeev.project.whatsappbot.dto.response.SqlStatsReport;
+import com.leodeev.project.whatsappbot.util.QueryScope;
+import com.leodeev.project.whatsappbot.util.QueryStatsListener;
+
+/**
+ * Interfaz de las estadísticas de SQL por operación lógica
+ * SOLID: Dependency Inversion Principle (DIP)
+ */
+public interface SqlStatsService extends QueryStatsListener.Sink {
+
+    /**
+     * Abrir una operación en el hilo actual; al cerrarse se publican sus contadores
+     * @param operation Nombre de la operación (ej: webhook_message, "GET /api/products")
+     */
+    QueryScope open(String operation);
+
+    /**
+     * Acumulado por operación desde el arranque y últimos hallazgos
+     */
+    SqlStatsReport getReport();
+}
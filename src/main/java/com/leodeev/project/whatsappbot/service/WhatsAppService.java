@@ -16,6 +16,13 @@ public interface WhatsAppService {
      */
     void processWebhook(WhatsAppWebhookRequest request);
 
+    /**
+     * Volver a responder los mensajes entrantes guardados cuya respuesta no llegó
+     * al outbox (réplica caída con la ráfaga en memoria, error al encolarla)
+     * @return Mensajes retomados
+     */
+    int recoverPendingReplies();
+
     /**
      * Enviar mensaje de texto a WhatsApp
      * @param phoneNumber Número de teléfono destino
@@ -24,6 +31,15 @@ public interface WhatsAppService {
      */
     WhatsAppMessageResponse sendTextMessage(String phoneNumber, String message);
 
+    /**
+     * Enviar mensaje de plantilla aprobada a WhatsApp (campañas, fuera de la ventana de 24 h)
+     * @param phoneNumber Número de teléfono destino
+     * @param templateName Nombre de la plantilla
+     * @param languageCode Código de idioma de la plantilla (ej: es)
+     * @return Respuesta de WhatsApp API
+     */
+    WhatsAppMessageResponse sendTemplateMessage(String phoneNumber, String templateName, String languageCode);
+
     /**
      * Enviar mensaje manual (desde API REST)
      * @param request Request con datos del mensaje
@@ -6,16 +6,27 @@ import com.leodeev.project.whatsappbot.dto.response.ProductResponse;
 import com.leodeev.project.whatsappbot.exception.AIServiceException;
 import com.leodeev.project.whatsappbot.service.AIService;
 import com.leodeev.project.whatsappbot.service.ProductService;
+import com.leodeev.project.whatsappbot.util.AdaptiveConcurrencyLimiter;
+import com.leodeev.project.whatsappbot.util.FlightEvents;
+import com.leodeev.project.whatsappbot.util.LogRedactor;
+import com.leodeev.project.whatsappbot.util.PipelineTracing;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
+import reactor.core.publisher.Flux;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Implementación del servicio de IA usando OpenAI (GPT-3.5-turbo)
@@ -27,16 +38,25 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class AIServiceImpl implements AIService {
     
+    private static final String DEFAULT_OPENAI_URL = "https://api.openai.com/v1/chat/completions";
+    private static final String DEFAULT_OPENAI_MODEL = "gpt-4o-mini";
+    
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+            new ParameterizedTypeReference<>() {};
+    
     private final AIConfig aiConfig;
     private final ProductService productService;
     private final WebClient.Builder webClientBuilder;
+    private final AdaptiveConcurrencyLimiter openAiLimiter;
+    private final JsonMapper jsonMapper;
+    private final PipelineTracing pipelineTracing;
     
     /**
      * Generar respuesta de IA basada en el mensaje del usuario
      */
     @Override
     public AIResponse generateResponse(String userMessage, List<String> conversationHistory) {
-        log.info("Generando respuesta de IA para mensaje: {}", userMessage);
+        log.debug("Generando respuesta de IA para mensaje: {}", LogRedactor.text(userMessage));
         
         try {
             // Construir mensajes de conversación
@@ -60,7 +80,7 @@ public class AIServiceImpl implements AIService {
             messages.add(currentMessage);
             
             // Llamar a OpenAI API
-            return callOpenAIAPI(messages, null);
+            return traceChat(false, () -> callOpenAIAPI(messages, null));
             
         } catch (Exception e) {
             log.error("Error generando respuesta de IA: {}", e.getMessage(), e);
@@ -73,7 +93,7 @@ public class AIServiceImpl implements AIService {
      */
     @Override
     public AIResponse generateResponseWithProducts(String userMessage, String productsContext) {
-        log.info("Generando respuesta de IA con contexto de productos");
+        log.debug("Generando respuesta de IA con contexto de productos");
         
         try {
             // Construir prompt del sistema con contexto de productos
@@ -87,7 +107,7 @@ public class AIServiceImpl implements AIService {
             messages.add(userMsg);
             
             // Llamar a OpenAI API con system prompt
-            return callOpenAIAPI(messages, systemPrompt);
+            return traceChat(false, () -> callOpenAIAPI(messages, systemPrompt));
             
         } catch (Exception e) {
             log.error("Error generando respuesta de IA con productos: {}", e.getMessage(), e);
@@ -95,12 +115,35 @@ public class AIServiceImpl implements AIService {
         }
     }
     
+    /**
+     * Generar respuesta de IA con contexto de productos en streaming
+     */
+    @Override
+    public AIResponse streamResponseWithProducts(String userMessage, String productsContext, Consumer<String> onDelta) {
+        log.debug("Generando respuesta de IA en streaming con contexto de productos");
+        
+        try {
+            List<Map<String, String>> messages = new ArrayList<>();
+            Map<String, String> userMsg = new HashMap<>();
+            userMsg.put("role", "user");
+            userMsg.put("content", userMessage);
+            messages.add(userMsg);
+            
+            String systemPrompt = buildSystemPromptWithProducts(productsContext);
+            return traceChat(true, () -> streamOpenAIAPI(messages, systemPrompt, onDelta));
+            
+        } catch (Exception e) {
+            log.error("Error generando respuesta de IA en streaming: {}", e.getMessage(), e);
+            throw new AIServiceException("Error al generar respuesta de IA", e);
+        }
+    }
+    
     /**
      * Buscar productos relevantes según la consulta del usuario
      */
     @Override
     public String searchRelevantProducts(String userQuery) {
-        log.info("Buscando productos relevantes para: {}", userQuery);
+        log.debug("Buscando productos relevantes para: {}", LogRedactor.text(userQuery));
         
         try {
             // Obtener todos los productos activos
@@ -163,51 +206,86 @@ public class AIServiceImpl implements AIService {
            "10. Tu propósito principal es vender productos de LeoDeev y brindar asistencia al cliente.\n";
     }
     
+    /**
+     * Span de la llamada al modelo con atributos de gen_ai (convenciones de OpenTelemetry),
+     * evento de JFR y duración de la llamada en la respuesta
+     */
+    private AIResponse traceChat(boolean streaming, Supplier<AIResponse> call) {
+        return pipelineTracing.inSpan("openai.chat", span -> {
+            span.tag("gen_ai.system", "openai");
+            span.tag("gen_ai.operation.name", "chat");
+            span.tag("gen_ai.request.model", openAiModel());
+            span.tag("chatbot.streaming", streaming);
+            
+            FlightEvents.AICallEvent event = new FlightEvents.AICallEvent();
+            event.model = openAiModel();
+            event.streaming = streaming;
+            event.begin();
+            long start = System.nanoTime();
+            AIResponse response;
+            try {
+                response = call.get();
+            } catch (RuntimeException e) {
+                // Una llamada fallida también se registra (con su duración)
+                event.commit();
+                throw e;
+            }
+            response.setLatencyMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            recordFlightEvent(event, response);
+            
+            if (response.getModel() != null) {
+                span.tag("gen_ai.response.model", response.getModel());
+            }
+            if (response.getPromptTokens() != null) {
+                span.tag("gen_ai.usage.input_tokens", response.getPromptTokens());
+            }
+            if (response.getCompletionTokens() != null) {
+                span.tag("gen_ai.usage.output_tokens", response.getCompletionTokens());
+            }
+            if (response.getFinishReason() != null) {
+                span.tag("gen_ai.response.finish_reasons", response.getFinishReason());
+            }
+            return response;
+        });
+    }
+    
+    private static void recordFlightEvent(FlightEvents.AICallEvent event, AIResponse response) {
+        if (!event.isEnabled()) {
+            return;
+        }
+        if (response.getModel() != null) {
+            event.model = response.getModel();
+        }
+        event.promptTokens = response.getPromptTokens() != null ? response.getPromptTokens() : 0;
+        event.completionTokens = response.getCompletionTokens() != null ? response.getCompletionTokens() : 0;
+        event.cachedTokens = response.getCachedTokens() != null ? response.getCachedTokens() : 0;
+        event.finishReason = response.getFinishReason();
+        event.succeeded = true;
+        event.commit();
+    }
+    
     /**
      * Llamar a OpenAI API (GPT-3.5-turbo)
      */
     private AIResponse callOpenAIAPI(List<Map<String, String>> messages, String systemPrompt) {
-        log.info("Llamando a OpenAI API");
+        log.debug("Llamando a OpenAI API");
         
         try {
             WebClient webClient = webClientBuilder.build();
             
-            // Agregar system prompt si existe
-            List<Map<String, String>> messagesWithSystem = new ArrayList<>();
-            if (systemPrompt != null && !systemPrompt.isEmpty()) {
-                Map<String, String> systemMessage = new HashMap<>();
-                systemMessage.put("role", "system");
-                systemMessage.put("content", systemPrompt);
-                messagesWithSystem.add(systemMessage);
-            }
-            messagesWithSystem.addAll(messages);
-            
-            // Construir request body para OpenAI
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", "gpt-4o-mini");
-            requestBody.put("max_tokens", aiConfig.getClaude().getMax().getTokens());
-            requestBody.put("messages", messagesWithSystem);
-            requestBody.put("temperature", 0.7);
-            
-            // Hacer llamada a OpenAI API
-            String openaiApiKey = System.getenv("OPENAI_API_KEY");
-            if (openaiApiKey == null || openaiApiKey.isEmpty()) {
-                throw new AIServiceException("OPENAI_API_KEY no configurada");
-            }
+            Map<String, Object> requestBody = buildRequestBody(messages, systemPrompt);
+            String openaiApiKey = resolveApiKey();
             
             @SuppressWarnings("unchecked")
-            Map<String, Object> response = (Map<String, Object>) webClient.post()
-                    .uri("https://api.openai.com/v1/chat/completions")
+            // Límite adaptativo: los errores deben llegar al limitador (no se silencian)
+            Map<String, Object> response = (Map<String, Object>) openAiLimiter.execute(() -> webClient.post()
+                    .uri(openAiUrl())
                     .header("Authorization", "Bearer " + openaiApiKey)
                     .header("content-type", "application/json")
                     .bodyValue(requestBody)
                     .retrieve()
                     .bodyToMono(Map.class)
-                    .onErrorResume(e -> {
-                        log.error("Error en llamada a OpenAI API: {}", e.getMessage(), e);
-                        return Mono.empty();
-                    })
-                    .block();
+                    .block());
             
             if (response == null) {
                 throw new AIServiceException("Respuesta vacía de OpenAI API");
@@ -218,23 +296,20 @@ public class AIServiceImpl implements AIService {
             
             // Extraer información adicional
             String model = (String) response.get("model");
-            @SuppressWarnings("unchecked")
-            Map<String, Object> usage = (Map<String, Object>) response.get("usage");
-            Integer tokensUsed = usage != null ? (Integer) usage.get("completion_tokens") : null;
-            
             @SuppressWarnings("unchecked")
             List<Map<String, Object>> choices = (List<Map<String, Object>>) response.get("choices");
             String finishReason = choices != null && !choices.isEmpty() ? 
                     (String) choices.get(0).get("finish_reason") : null;
             
-            log.info("Respuesta de IA generada exitosamente");
+            log.debug("Respuesta de IA generada exitosamente");
             
-            return AIResponse.builder()
+            AIResponse aiResponse = AIResponse.builder()
                     .content(content)
                     .model(model)
-                    .tokensUsed(tokensUsed)
                     .finishReason(finishReason)
                     .build();
+            applyUsage(aiResponse, jsonMapper.valueToTree(response).path("usage"));
+            return aiResponse;
             
         } catch (Exception e) {
             log.error("Error llamando a OpenAI API: {}", e.getMessage(), e);
@@ -242,6 +317,145 @@ public class AIServiceImpl implements AIService {
         }
     }
     
+    /**
+     * Llamar a OpenAI API en streaming (Server-Sent Events)
+     * Los fragmentos se consumen en el hilo que llama, no en el event loop de
+     * WebClient: onDelta puede escribir en la base de datos
+     */
+    private AIResponse streamOpenAIAPI(List<Map<String, String>> messages, String systemPrompt, Consumer<String> onDelta) {
+        log.debug("Llamando a OpenAI API en streaming");
+        
+        try {
+            Map<String, Object> requestBody = buildRequestBody(messages, systemPrompt);
+            requestBody.put("stream", true);
+            // El último evento trae el uso de tokens
+            requestBody.put("stream_options", Map.of("include_usage", true));
+            String openaiApiKey = resolveApiKey();
+            
+            Flux<ServerSentEvent<String>> events = webClientBuilder.build().post()
+                    .uri(openAiUrl())
+                    .header("Authorization", "Bearer " + openaiApiKey)
+                    .header("content-type", "application/json")
+                    .bodyValue(requestBody)
+                    .retrieve()
+                    .bodyToFlux(SSE_TYPE);
+            
+            // El turno dura todo el stream; la latencia del límite es la del primer fragmento
+            return openAiLimiter.executeStreaming(firstChunk -> {
+                StringBuilder content = new StringBuilder();
+                String model = null;
+                JsonNode usage = null;
+                String finishReason = null;
+                
+                for (ServerSentEvent<String> event : events.toIterable()) {
+                    String data = event.data();
+                    if (data == null || data.isBlank()) {
+                        continue;
+                    }
+                    if ("[DONE]".equals(data.trim())) {
+                        break;
+                    }
+                    
+                    JsonNode chunk = jsonMapper.readTree(data);
+                    if (model == null && chunk.path("model").isString()) {
+                        model = chunk.path("model").stringValue();
+                    }
+                    if (chunk.path("usage").isObject()) {
+                        usage = chunk.path("usage");
+                    }
+                    
+                    JsonNode choice = chunk.path("choices").path(0);
+                    if (choice.path("finish_reason").isString()) {
+                        finishReason = choice.path("finish_reason").stringValue();
+                    }
+                    
+                    JsonNode delta = choice.path("delta").path("content");
+                    if (delta.isString() && !delta.stringValue().isEmpty()) {
+                        firstChunk.run();
+                        content.append(delta.stringValue());
+                        onDelta.accept(delta.stringValue());
+                    }
+                }
+                
+                log.debug("Respuesta de IA generada en streaming ({} caracteres)", content.length());
+                
+                AIResponse aiResponse = AIResponse.builder()
+                        .content(content.toString())
+                        .model(model)
+                        .finishReason(finishReason)
+                        .build();
+                if (usage != null) {
+                    applyUsage(aiResponse, usage);
+                }
+                return aiResponse;
+            });
+            
+        } catch (Exception e) {
+            log.error("Error en streaming de OpenAI API: {}", e.getMessage(), e);
+            throw new AIServiceException("Error al llamar a OpenAI API", e);
+        }
+    }
+    
+    /**
+     * Copiar el uso de tokens de OpenAI: prompt_tokens, completion_tokens y
+     * prompt_tokens_details.cached_tokens (prompt servido desde la caché)
+     */
+    private static void applyUsage(AIResponse response, JsonNode usage) {
+        if (usage.path("prompt_tokens").isNumber()) {
+            response.setPromptTokens(usage.path("prompt_tokens").intValue());
+        }
+        if (usage.path("completion_tokens").isNumber()) {
+            response.setCompletionTokens(usage.path("completion_tokens").intValue());
+        }
+        if (usage.path("prompt_tokens_details").path("cached_tokens").isNumber()) {
+            response.setCachedTokens(usage.path("prompt_tokens_details").path("cached_tokens").intValue());
+        }
+    }
+    
+    /**
+     * Construir request body para OpenAI (con system prompt si existe)
+     */
+    private Map<String, Object> buildRequestBody(List<Map<String, String>> messages, String systemPrompt) {
+        List<Map<String, String>> messagesWithSystem = new ArrayList<>();
+        if (systemPrompt != null && !systemPrompt.isEmpty()) {
+            Map<String, String> systemMessage = new HashMap<>();
+            systemMessage.put("role", "system");
+            systemMessage.put("content", systemPrompt);
+            messagesWithSystem.add(systemMessage);
+        }
+        messagesWithSystem.addAll(messages);
+        
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", openAiModel());
+        requestBody.put("max_tokens", aiConfig.getClaude().getMax().getTokens());
+        requestBody.put("messages", messagesWithSystem);
+        requestBody.put("temperature", 0.7);
+        return requestBody;
+    }
+    
+    /**
+     * URL de chat completions (ai.openai.api.url); permite apuntar a un servidor local
+     */
+    private String openAiUrl() {
+        AIConfig.Openai openai = aiConfig.getOpenai();
+        String url = openai != null && openai.getApi() != null ? openai.getApi().getUrl() : null;
+        return url == null || url.isBlank() ? DEFAULT_OPENAI_URL : url;
+    }
+    
+    private String openAiModel() {
+        AIConfig.Openai openai = aiConfig.getOpenai();
+        return openai == null || openai.getModel() == null || openai.getModel().isBlank()
+                ? DEFAULT_OPENAI_MODEL : openai.getModel();
+    }
+    
+    private String resolveApiKey() {
+        String openaiApiKey = System.getenv("OPENAI_API_KEY");
+        if (openaiApiKey == null || openaiApiKey.isEmpty()) {
+            throw new AIServiceException("OPENAI_API_KEY no configurada");
+        }
+        return openaiApiKey;
+    }
+    
     /**
      * Extraer contenido de la respuesta de OpenAI
      */
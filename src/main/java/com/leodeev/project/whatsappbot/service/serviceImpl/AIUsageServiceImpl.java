@@ -0,0 +1,332 @@
+package com.leodeev.project.whatsappbot.service.serviceImpl;
+
+import com.leodeev.project.whatsappbot.config.AIUsageConfig;
+import com.leodeev.project.whatsappbot.dto.response.AIResponse;
+import com.leodeev.project.whatsappbot.dto.response.AIUsageTotal;
+import com.leodeev.project.whatsappbot.entity.AIUsage;
+import com.leodeev.project.whatsappbot.entity.AIUsageDaily;
+import com.leodeev.project.whatsappbot.service.AIUsageService;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implementación del registro de uso y costo de la IA
+ * SOLID: Single Responsibility Principle - Solo acumula y escribe el uso
+ *
+ * Cada llamada queda en memoria hasta el próximo intervalo. En una transacción
+ * se insertan todas en ai_usage con un INSERT ... SELECT FROM unnest(...) y se
+ * suman a ai_usage_daily (por cliente, conversación, operación y modelo) con un
+ * único INSERT ... ON CONFLICT DO UPDATE: los totales nunca se recalculan
+ * recorriendo ai_usage. Si la réplica cae se pierde como mucho un intervalo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AIUsageServiceImpl implements AIUsageService, DisposableBean {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO ai_usage (conversation_id, customer_id, message_id, operation, model, prompt_tokens,
+                completion_tokens, cached_tokens, latency_ms, cost_micros, created_at)
+            SELECT * FROM unnest(?::bigint[], ?::bigint[], ?::bigint[], ?::text[], ?::text[], ?::int[],
+                ?::int[], ?::int[], ?::bigint[], ?::bigint[], ?::timestamp[])
+            """;
+
+    private static final String ROLLUP_SQL = """
+            INSERT INTO ai_usage_daily AS d (day, dimension, dimension_key, calls, prompt_tokens, completion_tokens,
+                cached_tokens, cost_micros, latency_ms, max_latency_ms, updated_at)
+            SELECT s.*, now() FROM unnest(?::date[], ?::text[], ?::text[], ?::bigint[], ?::bigint[], ?::bigint[],
+                ?::bigint[], ?::bigint[], ?::bigint[], ?::bigint[]) AS s
+            ON CONFLICT (day, dimension, dimension_key) DO UPDATE SET
+                calls = d.calls + excluded.calls,
+                prompt_tokens = d.prompt_tokens + excluded.prompt_tokens,
+                completion_tokens = d.completion_tokens + excluded.completion_tokens,
+                cached_tokens = d.cached_tokens + excluded.cached_tokens,
+                cost_micros = d.cost_micros + excluded.cost_micros,
+                latency_ms = d.latency_ms + excluded.latency_ms,
+                max_latency_ms = GREATEST(d.max_latency_ms, excluded.max_latency_ms),
+                updated_at = now()
+            """;
+
+    private static final String TOP_SQL = """
+            SELECT dimension_key, SUM(calls), SUM(prompt_tokens), SUM(completion_tokens), SUM(cached_tokens),
+                SUM(cost_micros), SUM(latency_ms), MAX(max_latency_ms)
+            FROM ai_usage_daily
+            WHERE dimension = ? AND day BETWEEN ? AND ?
+            GROUP BY dimension_key
+            ORDER BY %s DESC, dimension_key
+            LIMIT ?
+            """;
+
+    private static final Comparator<AIUsageDaily.Key> KEY_ORDER = Comparator
+            .comparing(AIUsageDaily.Key::getDay)
+            .thenComparing(key -> key.getDimension().name())
+            .thenComparing(AIUsageDaily.Key::getDimensionKey);
+
+    private static final String CUSTOMER_LABELS_SQL = "SELECT id, phone_number FROM customers WHERE id = ANY(?)";
+
+    private static final String CONVERSATION_LABELS_SQL = """
+            SELECT cv.id, c.phone_number FROM conversations cv
+            JOIN customers c ON c.id = cv.customer_id
+            WHERE cv.id = ANY(?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AIUsageConfig aiUsageConfig;
+
+    private final Queue<AIUsage> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Override
+    public void record(String operation, AIResponse response, Long conversationId, Long customerId, Long messageId) {
+        if (!Boolean.TRUE.equals(aiUsageConfig.getEnabled()) || response == null) {
+            return;
+        }
+
+        int promptTokens = valueOrZero(response.getPromptTokens());
+        int cachedTokens = valueOrZero(response.getCachedTokens());
+        int completionTokens = valueOrZero(response.getCompletionTokens());
+
+        pending.add(AIUsage.builder()
+                .conversationId(conversationId)
+                .customerId(customerId)
+                .messageId(messageId)
+                .operation(operation)
+                .model(response.getModel())
+                .promptTokens(promptTokens)
+                .completionTokens(completionTokens)
+                .cachedTokens(cachedTokens)
+                .latencyMs(response.getLatencyMs() != null ? response.getLatencyMs() : 0L)
+                .costMicros(aiUsageConfig.costMicros(response.getModel(), promptTokens, cachedTokens, completionTokens))
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        // Memoria acotada: escribir antes del intervalo. Corre en el hilo de la
+        // respuesta: un error de la base no debe llegar al cliente (el lote vuelve
+        // a la cola y lo reintenta el próximo intervalo)
+        if (pendingCount.incrementAndGet() >= aiUsageConfig.getMaxPending() && flushLock.tryLock()) {
+            try {
+                drainAndWrite();
+            } catch (Exception e) {
+                log.error("Error escribiendo el uso de la IA: {}", e.getMessage(), e);
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ai.usage.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Error escribiendo el uso de la IA: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int flush() {
+        flushLock.lock();
+        try {
+            return drainAndWrite();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Al apagar no se pierde el uso pendiente
+     */
+    @Override
+    public void destroy() {
+        flush();
+    }
+
+    @Override
+    public List<AIUsageTotal> getTopConsumers(AIUsageDaily.Dimension dimension, LocalDate from, LocalDate to,
+                                              Ranking rankBy, int limit) {
+        String orderBy = switch (rankBy) {
+            case COST -> "SUM(cost_micros)";
+            case TOKENS -> "SUM(prompt_tokens + completion_tokens)";
+            case CALLS -> "SUM(calls)";
+            case LATENCY -> "SUM(latency_ms) / SUM(calls)";
+        };
+
+        List<AIUsageTotal> totals = jdbcTemplate.query(TOP_SQL.formatted(orderBy), (rs, rowNum) -> {
+            long calls = rs.getLong(2);
+            return AIUsageTotal.builder()
+                    .dimension(dimension)
+                    .key(rs.getString(1))
+                    .calls(calls)
+                    .promptTokens(rs.getLong(3))
+                    .completionTokens(rs.getLong(4))
+                    .cachedTokens(rs.getLong(5))
+                    .costUsd(BigDecimal.valueOf(rs.getLong(6), 6))
+                    .avgLatencyMs(calls > 0 ? rs.getLong(7) / calls : 0)
+                    .maxLatencyMs(rs.getLong(8))
+                    .build();
+        }, dimension.name(), Date.valueOf(from), Date.valueOf(to), limit);
+
+        addLabels(dimension, totals);
+        return totals;
+    }
+
+    private int drainAndWrite() {
+        List<AIUsage> batch = new ArrayList<>();
+        AIUsage usage;
+        while ((usage = pending.poll()) != null) {
+            batch.add(usage);
+        }
+        pendingCount.addAndGet(-batch.size());
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                insertCalls(batch);
+                addToDailyTotals(batch);
+            });
+        } catch (RuntimeException e) {
+            // Devolver el lote para el próximo intervalo
+            pending.addAll(batch);
+            pendingCount.addAndGet(batch.size());
+            throw e;
+        }
+
+        log.debug("Uso de la IA: {} llamadas registradas", batch.size());
+        return batch.size();
+    }
+
+    private void insertCalls(List<AIUsage> batch) {
+        jdbcTemplate.update(INSERT_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setArray(1, connection.createArrayOf("bigint", batch.stream().map(AIUsage::getConversationId).toArray()));
+            ps.setArray(2, connection.createArrayOf("bigint", batch.stream().map(AIUsage::getCustomerId).toArray()));
+            ps.setArray(3, connection.createArrayOf("bigint", batch.stream().map(AIUsage::getMessageId).toArray()));
+            ps.setArray(4, connection.createArrayOf("text", batch.stream().map(AIUsage::getOperation).toArray()));
+            ps.setArray(5, connection.createArrayOf("text", batch.stream().map(AIUsage::getModel).toArray()));
+            ps.setArray(6, connection.createArrayOf("int", batch.stream().map(AIUsage::getPromptTokens).toArray()));
+            ps.setArray(7, connection.createArrayOf("int", batch.stream().map(AIUsage::getCompletionTokens).toArray()));
+            ps.setArray(8, connection.createArrayOf("int", batch.stream().map(AIUsage::getCachedTokens).toArray()));
+            ps.setArray(9, connection.createArrayOf("bigint", batch.stream().map(AIUsage::getLatencyMs).toArray()));
+            ps.setArray(10, connection.createArrayOf("bigint", batch.stream().map(AIUsage::getCostMicros).toArray()));
+            ps.setArray(11, connection.createArrayOf("timestamp",
+                    batch.stream().map(call -> Timestamp.valueOf(call.getCreatedAt())).toArray()));
+        });
+    }
+
+    /**
+     * Sumar el lote en memoria por (día, dimensión, clave) y aplicarlo en un solo upsert.
+     * Las filas van ordenadas por la clave única: dos réplicas que escriben a la vez
+     * toman los locks en el mismo orden y no se bloquean mutuamente (deadlock)
+     */
+    private void addToDailyTotals(List<AIUsage> batch) {
+        Map<AIUsageDaily.Key, Totals> totals = new TreeMap<>(KEY_ORDER);
+        for (AIUsage call : batch) {
+            LocalDate day = call.getCreatedAt().toLocalDate();
+            add(totals, day, AIUsageDaily.Dimension.CUSTOMER, call.getCustomerId(), call);
+            add(totals, day, AIUsageDaily.Dimension.CONVERSATION, call.getConversationId(), call);
+            add(totals, day, AIUsageDaily.Dimension.OPERATION, call.getOperation(), call);
+            add(totals, day, AIUsageDaily.Dimension.MODEL, call.getModel(), call);
+        }
+
+        List<AIUsageDaily.Key> keys = new ArrayList<>(totals.keySet());
+        List<Totals> values = new ArrayList<>(totals.values());
+        jdbcTemplate.update(ROLLUP_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setArray(1, connection.createArrayOf("date", keys.stream().map(key -> Date.valueOf(key.getDay())).toArray()));
+            ps.setArray(2, connection.createArrayOf("text", keys.stream().map(key -> key.getDimension().name()).toArray()));
+            ps.setArray(3, connection.createArrayOf("text", keys.stream().map(AIUsageDaily.Key::getDimensionKey).toArray()));
+            ps.setArray(4, connection.createArrayOf("bigint", values.stream().map(Totals::getCalls).toArray()));
+            ps.setArray(5, connection.createArrayOf("bigint", values.stream().map(Totals::getPromptTokens).toArray()));
+            ps.setArray(6, connection.createArrayOf("bigint", values.stream().map(Totals::getCompletionTokens).toArray()));
+            ps.setArray(7, connection.createArrayOf("bigint", values.stream().map(Totals::getCachedTokens).toArray()));
+            ps.setArray(8, connection.createArrayOf("bigint", values.stream().map(Totals::getCostMicros).toArray()));
+            ps.setArray(9, connection.createArrayOf("bigint", values.stream().map(Totals::getLatencyMs).toArray()));
+            ps.setArray(10, connection.createArrayOf("bigint", values.stream().map(Totals::getMaxLatencyMs).toArray()));
+        });
+    }
+
+    private static void add(Map<AIUsageDaily.Key, Totals> totals, LocalDate day, AIUsageDaily.Dimension dimension,
+                            Object key, AIUsage call) {
+        if (key != null) {
+            totals.computeIfAbsent(new AIUsageDaily.Key(day, dimension, key.toString()), k -> new Totals()).add(call);
+        }
+    }
+
+    /**
+     * Teléfono del cliente para las dimensiones con ID de cliente o conversación
+     */
+    private void addLabels(AIUsageDaily.Dimension dimension, List<AIUsageTotal> totals) {
+        String sql = switch (dimension) {
+            case CUSTOMER -> CUSTOMER_LABELS_SQL;
+            case CONVERSATION -> CONVERSATION_LABELS_SQL;
+            default -> null;
+        };
+        if (sql == null || totals.isEmpty()) {
+            return;
+        }
+
+        Long[] ids = totals.stream().map(total -> Long.valueOf(total.getKey())).toArray(Long[]::new);
+        Map<String, String> labels = new HashMap<>();
+        jdbcTemplate.query(sql, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)),
+                rs -> {
+                    labels.put(rs.getString(1), rs.getString(2));
+                });
+        totals.forEach(total -> total.setLabel(labels.get(total.getKey())));
+    }
+
+    private static int valueOrZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    /**
+     * Suma de un lote para una clave de ai_usage_daily
+     */
+    @Getter
+    private static final class Totals {
+
+        private long calls;
+        private long promptTokens;
+        private long completionTokens;
+        private long cachedTokens;
+        private long costMicros;
+        private long latencyMs;
+        private long maxLatencyMs;
+
+        private void add(AIUsage call) {
+            calls++;
+            promptTokens += call.getPromptTokens();
+            completionTokens += call.getCompletionTokens();
+            cachedTokens += call.getCachedTokens();
+            costMicros += call.getCostMicros();
+            latencyMs += call.getLatencyMs();
+            maxLatencyMs = Math.max(maxLatencyMs, call.getLatencyMs());
+        }
+    }
+}
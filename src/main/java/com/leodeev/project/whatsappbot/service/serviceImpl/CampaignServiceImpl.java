@@ -0,0 +1,434 @@
+package com.leodeev.project.whatsappbot.service.serviceImpl;
+
+import com.leodeev.project.whatsappbot.config.CampaignConfig;
+import com.leodeev.project.whatsappbot.config.RetryConfig;
+import com.leodeev.project.whatsappbot.config.SendRateLimitConfig;
+import com.leodeev.project.whatsappbot.config.WhatsAppConfig;
+import com.leodeev.project.whatsappbot.dto.request.CampaignRequest;
+import com.leodeev.project.whatsappbot.dto.response.CampaignResponse;
+import com.leodeev.project.whatsappbot.entity.Campaign;
+import com.leodeev.project.whatsappbot.exception.InvalidCampaignStateException;
+import com.leodeev.project.whatsappbot.exception.ResourceNotFoundException;
+import com.leodeev.project.whatsappbot.mapper.CampaignMapper;
+import com.leodeev.project.whatsappbot.repository.CampaignRecipientRepository;
+import com.leodeev.project.whatsappbot.repository.CampaignRepository;
+import com.leodeev.project.whatsappbot.service.CampaignService;
+import com.leodeev.project.whatsappbot.service.WhatsAppService;
+import com.leodeev.project.whatsappbot.util.RetryBackoff;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementación del servicio de Campañas
+ * SOLID: Single Responsibility Principle - Solo maneja campañas de plantillas
+ *
+ * Una campaña avanza en dos etapas, ambas reanudables tras un reinicio:
+ * 1. Preparación: el segmento se vuelca a campaign_recipients con
+ *    INSERT ... SELECT por tramos de customer_id (keyset). Los clientes nunca
+ *    pasan por la JVM y cada tramo confirma su checkpoint (last_customer_id)
+ *    junto con las filas insertadas.
+ * 2. Despacho: cada pasada reclama un lote de destinatarios PENDING con
+ *    FOR UPDATE SKIP LOCKED y un lease, envía las plantillas en paralelo
+ *    (la tasa la impone el limitador del número) y registra los resultados
+ *    con un UPDATE ... FROM unnest(...) por lote.
+ * Las pasadas corren en un hilo propio (campaign-dispatcher), no en el scheduler
+ * compartido: un lote tarda lo que permite la tasa del número y no debe demorar
+ * al outbox ni a los reintentos.
+ * Los estados de entrega/lectura llegan por los callbacks de WhatsApp
+ * (MessageStatusService) y se aplican por whatsapp_message_id.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CampaignServiceImpl implements CampaignService, SmartInitializingSingleton, DisposableBean {
+
+    private static final String LOCK_PREPARING_SQL = """
+            SELECT segment, segment_days, started_at, last_customer_id FROM campaigns
+            WHERE id = ? AND status = 'PREPARING'
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String PREPARE_CHUNK_SQL = """
+            WITH batch AS (
+                SELECT id, phone_number FROM customers
+                WHERE id > ? AND %s
+                ORDER BY id
+                LIMIT ?
+            ), inserted AS (
+                INSERT INTO campaign_recipients
+                    (campaign_id, customer_id, phone_number, status, attempt_count, created_at, updated_at)
+                SELECT ?, id, phone_number, 'PENDING', 0, now(), now() FROM batch
+                ON CONFLICT (campaign_id, customer_id) DO NOTHING
+                RETURNING 1
+            )
+            SELECT (SELECT count(*) FROM batch), (SELECT max(id) FROM batch), (SELECT count(*) FROM inserted)
+            """;
+
+    private static final String CHECKPOINT_SQL = """
+            UPDATE campaigns SET last_customer_id = ?, total_recipients = total_recipients + ?,
+                status = ?, updated_at = now()
+            WHERE id = ?
+            """;
+
+    private static final String CLAIM_SQL = """
+            UPDATE campaign_recipients r SET locked_until = ?, attempt_count = r.attempt_count + 1, updated_at = now()
+            FROM (
+                SELECT cr.id FROM campaign_recipients cr
+                JOIN campaigns c ON c.id = cr.campaign_id
+                WHERE c.status = 'RUNNING'
+                  AND cr.status = 'PENDING'
+                  AND (cr.locked_until IS NULL OR cr.locked_until < ?)
+                ORDER BY cr.id
+                LIMIT ?
+                FOR UPDATE OF cr SKIP LOCKED
+            ) claimed, campaigns c
+            WHERE r.id = claimed.id AND c.id = r.campaign_id
+            RETURNING r.id, r.phone_number, r.attempt_count, c.template_name, c.language_code
+            """;
+
+    private static final String SENT_SQL = """
+            UPDATE campaign_recipients r SET status = 'SENT', whatsapp_message_id = s.whatsapp_message_id,
+                error_message = NULL, locked_until = NULL, sent_at = now(), updated_at = now()
+            FROM unnest(?::bigint[], ?::text[]) AS s(id, whatsapp_message_id)
+            WHERE r.id = s.id
+            """;
+
+    private static final String FAILED_SQL = """
+            UPDATE campaign_recipients r SET status = s.status, error_message = s.error_message,
+                locked_until = s.next_attempt_at, updated_at = now()
+            FROM unnest(?::bigint[], ?::text[], ?::text[], ?::timestamp[])
+                 AS s(id, status, error_message, next_attempt_at)
+            WHERE r.id = s.id
+            """;
+
+    private static final String COMPLETE_SQL = """
+            UPDATE campaigns c SET status = 'COMPLETED', completed_at = now(), updated_at = now()
+            WHERE c.status = 'RUNNING'
+              AND NOT EXISTS (SELECT 1 FROM campaign_recipients r WHERE r.campaign_id = c.id AND r.status = 'PENDING')
+            RETURNING c.id
+            """;
+
+    private final CampaignRepository campaignRepository;
+    private final CampaignRecipientRepository campaignRecipientRepository;
+    private final CampaignMapper campaignMapper;
+    private final WhatsAppService whatsAppService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CampaignConfig campaignConfig;
+    private final RetryConfig retryConfig;
+    private final SendRateLimitConfig sendRateLimitConfig;
+    private final WhatsAppConfig whatsAppConfig;
+
+    private ScheduledExecutorService dispatcher;
+    private ExecutorService senders;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        int rate = sendRateLimitConfig.resolveRate(whatsAppConfig.getPhone().getNumber().getId());
+        int concurrency = campaignConfig.concurrencyFor(rate);
+        senders = Executors.newFixedThreadPool(concurrency);
+
+        if (Boolean.TRUE.equals(campaignConfig.getEnabled())) {
+            dispatcher = Executors.newSingleThreadScheduledExecutor(task -> new Thread(task, "campaign-dispatcher"));
+            dispatcher.scheduleWithFixedDelay(this::scheduledProcessing, campaignConfig.getPollIntervalMs(),
+                    campaignConfig.getPollIntervalMs(), TimeUnit.MILLISECONDS);
+            log.info("Campañas: {} envíos simultáneos ({} mensajes/s × {} ms)",
+                    concurrency, rate, campaignConfig.getExpectedSendLatency().toMillis());
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+            dispatcher.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        if (senders != null) {
+            senders.shutdown();
+            senders.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Crear campaña
+     */
+    @Override
+    @Transactional
+    public CampaignResponse createCampaign(CampaignRequest request) {
+        log.info("Creando campaña: {}", request.getName());
+
+        if (request.getSegment() != Campaign.Segment.ALL && request.getSegmentDays() == null) {
+            throw new InvalidCampaignStateException("El segmento " + request.getSegment() + " requiere segmentDays");
+        }
+
+        Campaign campaign = campaignRepository.save(campaignMapper.toEntity(request));
+
+        log.info("Campaña creada con ID: {}", campaign.getId());
+
+        return campaignMapper.toResponse(campaign, Map.of());
+    }
+
+    /**
+     * Obtener campaña con destinatarios por estado
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CampaignResponse getCampaign(Long id) {
+        Campaign campaign = findCampaign(id);
+        return campaignMapper.toResponse(campaign, countRecipients(id));
+    }
+
+    /**
+     * Iniciar campaña (DRAFT -> PREPARING)
+     */
+    @Override
+    @Transactional
+    public CampaignResponse startCampaign(Long id) {
+        log.info("Iniciando campaña ID: {}", id);
+
+        Campaign campaign = findCampaign(id);
+        if (campaign.getStatus() != Campaign.CampaignStatus.DRAFT) {
+            throw new InvalidCampaignStateException("La campaña " + id + " ya fue iniciada (" + campaign.getStatus() + ")");
+        }
+
+        campaign.setStatus(Campaign.CampaignStatus.PREPARING);
+        campaign.setStartedAt(LocalDateTime.now());
+        campaignRepository.save(campaign);
+
+        return campaignMapper.toResponse(campaign, Map.of());
+    }
+
+    /**
+     * Cancelar campaña
+     */
+    @Override
+    @Transactional
+    public CampaignResponse cancelCampaign(Long id) {
+        log.info("Cancelando campaña ID: {}", id);
+
+        Campaign campaign = findCampaign(id);
+        if (campaign.getStatus() == Campaign.CampaignStatus.COMPLETED
+                || campaign.getStatus() == Campaign.CampaignStatus.CANCELLED) {
+            throw new InvalidCampaignStateException("La campaña " + id + " ya terminó (" + campaign.getStatus() + ")");
+        }
+
+        campaign.setStatus(Campaign.CampaignStatus.CANCELLED);
+        campaign.setCompletedAt(LocalDateTime.now());
+        campaignRepository.save(campaign);
+
+        return campaignMapper.toResponse(campaign, countRecipients(id));
+    }
+
+    private void scheduledProcessing() {
+        try {
+            processCampaigns();
+        } catch (Exception e) {
+            log.error("Error procesando campañas: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int processCampaigns() {
+        for (Campaign campaign : campaignRepository.findByStatus(Campaign.CampaignStatus.PREPARING)) {
+            prepareChunk(campaign.getId());
+        }
+
+        int sent = dispatchBatch();
+
+        List<Long> completed = jdbcTemplate.queryForList(COMPLETE_SQL, Long.class);
+        completed.forEach(id -> log.info("Campaña ID: {} completada", id));
+
+        return sent;
+    }
+
+    /**
+     * Volcar un tramo del segmento a campaign_recipients y guardar el checkpoint
+     * en la misma transacción. Una sola réplica prepara cada campaña (SKIP LOCKED).
+     */
+    private void prepareChunk(Long campaignId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Map<String, Object>> locked = jdbcTemplate.queryForList(LOCK_PREPARING_SQL, campaignId);
+            if (locked.isEmpty()) {
+                return;
+            }
+
+            Map<String, Object> campaign = locked.get(0);
+            Campaign.Segment segment = Campaign.Segment.valueOf((String) campaign.get("segment"));
+            long lastCustomerId = ((Number) campaign.get("last_customer_id")).longValue();
+            int chunkSize = campaignConfig.getChunkSize();
+
+            List<Object> params = new ArrayList<>();
+            params.add(lastCustomerId);
+            if (segment != Campaign.Segment.ALL) {
+                // Referencia fija (inicio de la campaña): el segmento no cambia entre tramos
+                LocalDateTime startedAt = ((Timestamp) campaign.get("started_at")).toLocalDateTime();
+                int days = ((Number) campaign.get("segment_days")).intValue();
+                params.add(Timestamp.valueOf(startedAt.minusDays(days)));
+            }
+            params.add(chunkSize);
+            params.add(campaignId);
+
+            long[] chunk = jdbcTemplate.queryForObject(
+                    PREPARE_CHUNK_SQL.formatted(segmentCondition(segment)),
+                    (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)},
+                    params.toArray());
+
+            long scanned = chunk[0];
+            long nextCheckpoint = scanned > 0 ? chunk[1] : lastCustomerId;
+            boolean finished = scanned < chunkSize;
+
+            jdbcTemplate.update(CHECKPOINT_SQL, nextCheckpoint, chunk[2],
+                    finished ? Campaign.CampaignStatus.RUNNING.name() : Campaign.CampaignStatus.PREPARING.name(),
+                    campaignId);
+
+            log.info("Campaña ID: {} preparada hasta customer_id {} (+{} destinatarios){}",
+                    campaignId, nextCheckpoint, chunk[2], finished ? ", iniciando envíos" : "");
+        });
+    }
+
+    private static String segmentCondition(Campaign.Segment segment) {
+        return switch (segment) {
+            case ALL -> "TRUE";
+            case RECENT -> "last_interaction >= ?";
+            case INACTIVE -> "(last_interaction < ? OR last_interaction IS NULL)";
+        };
+    }
+
+    /**
+     * Reclamar, enviar y registrar un lote de destinatarios
+     */
+    private int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ClaimedRecipient> claimed = jdbcTemplate.query(CLAIM_SQL, ps -> {
+            ps.setTimestamp(1, Timestamp.valueOf(now.plus(campaignConfig.getLease())));
+            ps.setTimestamp(2, Timestamp.valueOf(now));
+            ps.setInt(3, campaignConfig.getBatchSize());
+        }, (rs, rowNum) -> new ClaimedRecipient(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getInt(3),
+                rs.getString(4),
+                rs.getString(5)));
+
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<SendResult>> futures = claimed.stream()
+                .map(recipient -> CompletableFuture.supplyAsync(() -> send(recipient), senders))
+                .toList();
+        List<SendResult> results = futures.stream().map(CompletableFuture::join).toList();
+
+        List<SendResult> sent = results.stream().filter(SendResult::succeeded).toList();
+        recordSent(sent);
+        recordFailed(results.stream().filter(result -> !result.succeeded()).toList());
+
+        log.info("Campañas: {} destinatarios despachados, {} enviados", results.size(), sent.size());
+        return sent.size();
+    }
+
+    private SendResult send(ClaimedRecipient recipient) {
+        try {
+            String whatsappMessageId = whatsAppService.sendTemplateMessage(
+                    recipient.phoneNumber(), recipient.templateName(), recipient.languageCode())
+                    .getMessages().get(0).getId();
+            return new SendResult(recipient, whatsappMessageId, null);
+        } catch (Exception e) {
+            return new SendResult(recipient, null, e);
+        }
+    }
+
+    private void recordSent(List<SendResult> sent) {
+        if (sent.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(SENT_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setArray(1, connection.createArrayOf("bigint",
+                    sent.stream().map(result -> result.recipient().id()).toArray(Long[]::new)));
+            ps.setArray(2, connection.createArrayOf("text",
+                    sent.stream().map(SendResult::whatsappMessageId).toArray(String[]::new)));
+        });
+    }
+
+    /**
+     * Errores transitorios vuelven a PENDING con espera (backoff); los permanentes
+     * o agotados quedan FAILED
+     */
+    private void recordFailed(List<SendResult> failed) {
+        if (failed.isEmpty()) {
+            return;
+        }
+
+        int size = failed.size();
+        Long[] ids = new Long[size];
+        String[] statuses = new String[size];
+        String[] errors = new String[size];
+        Timestamp[] nextAttempts = new Timestamp[size];
+
+        for (int i = 0; i < size; i++) {
+            SendResult result = failed.get(i);
+            LocalDateTime nextAttemptAt = retryConfig.nextAttemptAt(result.recipient().attempts(), result.error());
+            ids[i] = result.recipient().id();
+            statuses[i] = nextAttemptAt != null ? "PENDING" : "FAILED";
+            errors[i] = RetryBackoff.describe(result.error());
+            nextAttempts[i] = nextAttemptAt != null ? Timestamp.valueOf(nextAttemptAt) : null;
+        }
+
+        jdbcTemplate.update(FAILED_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setArray(1, connection.createArrayOf("bigint", ids));
+            ps.setArray(2, connection.createArrayOf("text", statuses));
+            ps.setArray(3, connection.createArrayOf("text", errors));
+            ps.setArray(4, connection.createArrayOf("timestamp", nextAttempts));
+        });
+    }
+
+    private Campaign findCampaign(Long id) {
+        return campaignRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Campaña no encontrada con ID: " + id));
+    }
+
+    private Map<String, Long> countRecipients(Long campaignId) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Object[] row : campaignRecipientRepository.countByStatus(campaignId)) {
+            counts.put(row[0].toString(), (Long) row[1]);
+        }
+        return counts;
+    }
+
+    /**
+     * Destinatario reservado por esta réplica
+     */
+    private record ClaimedRecipient(Long id, String phoneNumber, int attempts, String templateName, String languageCode) {
+    }
+
+    /**
+     * Resultado de un envío: ID de WhatsApp o error
+     */
+    private record SendResult(ClaimedRecipient recipient, String whatsappMessageId, Exception error) {
+
+        boolean succeeded() {
+            return error == null;
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.leodeev.project.whatsappbot.service.serviceImpl;
+
+import com.leodeev.project.whatsappbot.config.ColdArchiveConfig;
+import com.leodeev.project.whatsappbot.config.PartitioningConfig;
+import com.leodeev.project.whatsappbot.dto.response.ArchivedConversation;
+import com.leodeev.project.whatsappbot.dto.response.ConversationResponse;
+import com.leodeev.project.whatsappbot.dto.response.MessageResponse;
+import com.leodeev.project.whatsappbot.service.ColdArchiveService;
+import com.leodeev.project.whatsappbot.util.ArchiveSegmentReader;
+import com.leodeev.project.whatsappbot.util.ArchiveSegmentWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Implementación del archivo frío de conversaciones
+ * SOLID: Single Responsibility Principle - Solo archiva y consulta el archivo frío
+ *
+ * Cada ejecución toma un lote de conversaciones cerradas (CLOSED o RESOLVED) antiguas,
+ * lee sus mensajes de la tabla caliente y de las particiones desacopladas, escribe un
+ * segmento inmutable y borra esas filas de PostgreSQL en la misma transacción.
+ * Los segmentos se guardan como bytea en el esquema de archivo (cold_segments), así que
+ * sobreviven a un redespliegue y todas las réplicas los leen: cada una conserva en memoria
+ * solo el índice y trae por rangos los bloques que necesita una consulta.
+ *
+ * Las consultas no tocan la tabla de segmentos: la lista se refresca cada
+ * archive.cold.refresh-ms (y al archivar en esta réplica). Otra réplica ve un
+ * segmento nuevo con ese retraso; lo archivado tiene al menos min-age-days.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ColdArchiveServiceImpl implements ColdArchiveService, SmartInitializingSingleton {
+
+    private static final String SEGMENTS_TABLE = "cold_segments";
+
+    private static final String CANDIDATES_SQL = """
+            SELECT c.id, c.customer_id, cu.phone_number, cu.name, c.started_at, c.ended_at,
+                   c.status, c.topic, c.created_at, c.updated_at
+            FROM conversations c
+            JOIN customers cu ON cu.id = c.customer_id
+            WHERE c.status <> 'ACTIVE'
+              AND COALESCE(c.ended_at, c.updated_at, c.started_at) < ?
+            ORDER BY c.id
+            LIMIT ?
+            """;
+
+    private static final String MESSAGE_COLUMNS = "m.id, m.conversation_id, m.whatsapp_message_id, m.type, m.direction, "
+            + "m.sender_phone, m.recipient_phone, m.status, m.error_message, m.sent_at, m.delivered_at, m.read_at";
+
+    private static final Comparator<ConversationResponse> NEWEST_FIRST = Comparator
+            .comparing(ConversationResponse::getStartedAt)
+            .thenComparing(ConversationResponse::getId)
+            .reversed();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ColdArchiveConfig coldArchiveConfig;
+    private final PartitioningConfig partitioningConfig;
+
+    // Del segmento más antiguo al más reciente
+    private final List<ArchiveSegmentReader> segments = new CopyOnWriteArrayList<>();
+
+    // ID del último segmento cargado; el lock de archivado serializa las inserciones
+    private volatile long lastSegmentId;
+
+    // Inicio más reciente entre los segmentos cargados (null = archivo vacío)
+    private volatile LocalDateTime newestStartedAt;
+
+    /**
+     * Crear la tabla de segmentos y cargar los índices existentes antes de aceptar tráfico
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!Boolean.TRUE.equals(coldArchiveConfig.getEnabled())) {
+            return;
+        }
+
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + partitioningConfig.getArchiveSchema());
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + segmentsTable() + " ("
+                + "id BIGSERIAL PRIMARY KEY, "
+                + "created_at TIMESTAMP NOT NULL DEFAULT now(), "
+                + "conversation_count INTEGER NOT NULL, "
+                + "data BYTEA NOT NULL)");
+        // Los bloques ya van comprimidos: sin compresión TOAST, substring() lee solo los trozos pedidos
+        jdbcTemplate.execute("ALTER TABLE " + segmentsTable() + " ALTER COLUMN data SET STORAGE EXTERNAL");
+
+        loadNewSegments();
+        log.info("Archivo frío: {} segmentos cargados desde {}", segments.size(), segmentsTable());
+    }
+
+    @Scheduled(cron = "${archive.cold.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        try {
+            archiveClosedConversations();
+        } catch (Exception e) {
+            log.error("Error archivando conversaciones: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${archive.cold.refresh-ms:60000}")
+    public void scheduledRefresh() {
+        try {
+            loadNewSegments();
+        } catch (Exception e) {
+            log.warn("No se pudo refrescar la lista de segmentos: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int archiveClosedConversations() {
+        if (!Boolean.TRUE.equals(coldArchiveConfig.getEnabled())) {
+            return 0;
+        }
+
+        int total = 0;
+        int archived;
+        do {
+            archived = archiveBatch();
+            total += archived;
+        } while (archived == coldArchiveConfig.getBatchSize());
+
+        if (total > 0) {
+            log.info("Archivo frío: {} conversaciones archivadas", total);
+        }
+        return total;
+    }
+
+    @Override
+    public Optional<ArchivedConversation> findConversation(Long conversationId) {
+        // Del más reciente al más antiguo: ante un duplicado gana la última copia
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Optional<ArchivedConversation> found = segments.get(i).findConversation(conversationId);
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<ConversationResponse> findConversationsByCustomer(Long customerId, LocalDateTime beforeStartedAt,
+                                                                  Long beforeId, int limit) {
+        if (segments.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<Long, ConversationResponse> byId = new LinkedHashMap<>();
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            for (ArchivedConversation archived : segments.get(i).findByCustomer(customerId)) {
+                byId.putIfAbsent(archived.getConversation().getId(), archived.getConversation());
+            }
+        }
+
+        return byId.values().stream()
+                .filter(conversation -> beforeStartedAt == null
+                        || conversation.getStartedAt().isBefore(beforeStartedAt)
+                        || (conversation.getStartedAt().isEqual(beforeStartedAt) && conversation.getId() < beforeId))
+                .sorted(NEWEST_FIRST)
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public LocalDateTime getNewestStartedAt() {
+        return newestStartedAt;
+    }
+
+    // ========== ARCHIVADO ==========
+
+    /**
+     * Archivar un lote: guardar el segmento y borrar las filas en una sola transacción
+     */
+    private int archiveBatch() {
+        Integer archived = transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(hashtext('cold_archive'))", Boolean.class);
+            if (!Boolean.TRUE.equals(locked)) {
+                return 0;
+            }
+
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(coldArchiveConfig.getMinAgeDays());
+            List<ConversationResponse> conversations = jdbcTemplate.query(CANDIDATES_SQL,
+                    (rs, rowNum) -> mapConversation(rs), cutoff, coldArchiveConfig.getBatchSize());
+            if (conversations.isEmpty()) {
+                return 0;
+            }
+
+            Long[] ids = conversations.stream().map(ConversationResponse::getId).toArray(Long[]::new);
+            List<String> messageTables = messageTables();
+            List<ArchivedConversation> records = loadMessages(conversations, ids, messageTables);
+
+            byte[] segment;
+            try {
+                segment = ArchiveSegmentWriter.write(records, coldArchiveConfig.getBlockSize());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            jdbcTemplate.update("INSERT INTO " + segmentsTable() + " (conversation_count, data) VALUES (?, ?)",
+                    conversations.size(), segment);
+
+            for (String table : messageTables) {
+                jdbcTemplate.update("DELETE FROM " + table + " WHERE conversation_id = ANY(?)", idsParameter(ids));
+            }
+            jdbcTemplate.update("DELETE FROM conversations WHERE id = ANY(?)", idsParameter(ids));
+            dropEmptyArchivedPartitions(messageTables);
+
+            return conversations.size();
+        });
+
+        if (archived != null && archived > 0) {
+            loadNewSegments();
+            return archived;
+        }
+        return 0;
+    }
+
+    /**
+     * Cargar el índice de los segmentos guardados desde la última carga (propios o de otra réplica)
+     */
+    private synchronized void loadNewSegments() {
+        if (!Boolean.TRUE.equals(coldArchiveConfig.getEnabled())) {
+            return;
+        }
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, octet_length(data) AS size FROM " + segmentsTable() + " WHERE id > ? ORDER BY id",
+                lastSegmentId);
+
+        for (Map<String, Object> row : rows) {
+            long id = ((Number) row.get("id")).longValue();
+            long size = ((Number) row.get("size")).longValue();
+            try {
+                ArchiveSegmentReader segment = ArchiveSegmentReader.open(segmentsTable() + "#" + id, size,
+                        (offset, length) -> jdbcTemplate.queryForObject("SELECT substring(data FROM ? FOR ?) FROM "
+                                + segmentsTable() + " WHERE id = ?", byte[].class, Math.toIntExact(offset) + 1, length, id));
+                segments.add(segment);
+                // Segmento sin el dato (formato anterior): cualquier fecha puede estar archivada
+                LocalDateTime newest = segment.getNewestStartedAt().orElse(LocalDateTime.MAX);
+                if (newestStartedAt == null || newest.isAfter(newestStartedAt)) {
+                    newestStartedAt = newest;
+                }
+            } catch (IOException e) {
+                log.error("No se pudo abrir el segmento {}: {}", id, e.getMessage());
+            }
+            lastSegmentId = id;
+        }
+    }
+
+    private String segmentsTable() {
+        return partitioningConfig.getArchiveSchema() + "." + SEGMENTS_TABLE;
+    }
+
+    /**
+     * Tabla caliente + particiones desacopladas al esquema de archivo
+     */
+    private List<String> messageTables() {
+        List<String> tables = new ArrayList<>();
+        tables.add("messages");
+        tables.addAll(jdbcTemplate.queryForList(
+                "SELECT format('%I.%I', schemaname, tablename) FROM pg_tables "
+                        + "WHERE schemaname = ? AND tablename LIKE 'messages\\_p%' ORDER BY tablename",
+                String.class, partitioningConfig.getArchiveSchema()));
+        return tables;
+    }
+
+    private List<ArchivedConversation> loadMessages(List<ConversationResponse> conversations, Long[] ids,
+                                                    List<String> messageTables) {
+        Map<Long, List<MessageResponse>> messagesByConversation = new HashMap<>();
+
+        for (String table : messageTables) {
+            // Las particiones desacopladas antes de existir content_hash solo tienen texto propio
+            String content = hasColumn(table, "content_hash")
+                    ? "COALESCE(m.content, mc.content) AS content FROM " + table + " m "
+                            + "LEFT JOIN message_contents mc ON mc.hash = m.content_hash"
+                    : "m.content FROM " + table + " m";
+
+            jdbcTemplate.query("SELECT " + MESSAGE_COLUMNS + ", " + content + " WHERE m.conversation_id = ANY(?)",
+                    idsParameter(ids),
+                    rs -> {
+                        MessageResponse message = mapMessage(rs);
+                        messagesByConversation.computeIfAbsent(message.getConversationId(), id -> new ArrayList<>())
+                                .add(message);
+                    });
+        }
+
+        Comparator<MessageResponse> chronological = Comparator
+                .comparing(MessageResponse::getSentAt)
+                .thenComparing(MessageResponse::getId);
+
+        return conversations.stream()
+                .map(conversation -> {
+                    List<MessageResponse> messages = messagesByConversation.getOrDefault(conversation.getId(), new ArrayList<>());
+                    messages.sort(chronological);
+                    conversation.setMessageCount(messages.size());
+                    return ArchivedConversation.builder()
+                            .conversation(conversation)
+                            .messages(messages)
+                            .build();
+                })
+                .toList();
+    }
+
+    /**
+     * Una partición archivada sin filas ya no aporta nada: se elimina
+     */
+    private void dropEmptyArchivedPartitions(List<String> messageTables) {
+        for (String table : messageTables.subList(1, messageTables.size())) {
+            Boolean empty = jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM " + table + ")", Boolean.class);
+            if (Boolean.TRUE.equals(empty)) {
+                jdbcTemplate.execute("DROP TABLE " + table);
+                log.info("Partición archivada vacía eliminada: {}", table);
+            }
+        }
+    }
+
+    private boolean hasColumn(String table, String column) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_attribute WHERE attrelid = ?::regclass AND attname = ? AND NOT attisdropped)",
+                Boolean.class, table, column));
+    }
+
+    private PreparedStatementSetter idsParameter(Long[] ids) {
+        return ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids));
+    }
+
+    private ConversationResponse mapConversation(ResultSet rs) throws SQLException {
+        return ConversationResponse.builder()
+                .id(rs.getLong("id"))
+                .customerId(rs.getLong("customer_id"))
+                .customerPhoneNumber(rs.getString("phone_number"))
+                .customerName(rs.getString("name"))
+                .startedAt(rs.getObject("started_at", LocalDateTime.class))
+                .endedAt(rs.getObject("ended_at", LocalDateTime.class))
+                .status(rs.getString("status"))
+                .topic(rs.getString("topic"))
+                .createdAt(rs.getObject("created_at", LocalDateTime.class))
+                .updatedAt(rs.getObject("updated_at", LocalDateTime.class))
+                .build();
+    }
+
+    private MessageResponse mapMessage(ResultSet rs) throws SQLException {
+        return MessageResponse.builder()
+                .id(rs.getLong("id"))
+                .conversationId(rs.getLong("conversation_id"))
+                .whatsappMessageId(rs.getString("whatsapp_message_id"))
+                .type(rs.getString("type"))
+                .direction(rs.getString("direction"))
+                .content(rs.getString("content"))
+                .senderPhone(rs.getString("sender_phone"))
+                .recipientPhone(rs.getString("recipient_phone"))
+                .status(rs.getString("status"))
+                .errorMessage(rs.getString("error_message"))
+                .sentAt(rs.getObject("sent_at", LocalDateTime.class))
+                .deliveredAt(rs.getObject("delivered_at", LocalDateTime.class))
+                .readAt(rs.getObject("read_at", LocalDateTime.class))
+                .build();
+    }
+}
@@ -1,20 +1,34 @@
 package com.leodeev.project.whatsappbot.service.serviceImpl;
 
+import com.leodeev.project.whatsappbot.config.PaginationConfig;
+import com.leodeev.project.whatsappbot.dto.response.ArchivedConversation;
 import com.leodeev.project.whatsappbot.dto.response.ConversationResponse;
+import com.leodeev.project.whatsappbot.dto.response.PageResponse;
 import com.leodeev.project.whatsappbot.entity.Conversation;
 import com.leodeev.project.whatsappbot.entity.Customer;
 import com.leodeev.project.whatsappbot.exception.ResourceNotFoundException;
 import com.leodeev.project.whatsappbot.mapper.ConversationMapper;
 import com.leodeev.project.whatsappbot.repository.ConversationRepository;
+import com.leodeev.project.whatsappbot.repository.CustomerRepository;
+import com.leodeev.project.whatsappbot.repository.MessageRepository;
+import com.leodeev.project.whatsappbot.service.ColdArchiveService;
 import com.leodeev.project.whatsappbot.service.ConversationService;
+import com.leodeev.project.whatsappbot.util.CursorCodec;
+import com.leodeev.project.whatsappbot.util.LogRedactor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Implementación del servicio de Conversaciones
@@ -26,8 +40,17 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class ConversationServiceImpl implements ConversationService {
     
+    private static final Comparator<ConversationResponse> NEWEST_FIRST = Comparator
+            .comparing(ConversationResponse::getStartedAt)
+            .thenComparing(ConversationResponse::getId)
+            .reversed();
+    
     private final ConversationRepository conversationRepository;
     private final ConversationMapper conversationMapper;
+    private final MessageRepository messageRepository;
+    private final CustomerRepository customerRepository;
+    private final ColdArchiveService coldArchiveService;
+    private final PaginationConfig paginationConfig;
     
     /**
      * Crear una nueva conversación
@@ -35,7 +58,7 @@ public class ConversationServiceImpl implements ConversationService {
     @Override
     @Transactional
     public Conversation createConversation(Customer customer) {
-        log.info("Creating new conversation for customer ID: {}", customer.getId());
+        log.debug("Creating new conversation for customer ID: {}", customer.getId());
         
         Conversation conversation = Conversation.builder()
                 .customer(customer)
@@ -45,7 +68,7 @@ public class ConversationServiceImpl implements ConversationService {
         
         Conversation savedConversation = conversationRepository.save(conversation);
         
-        log.info("Conversation created successfully with ID: {}", savedConversation.getId());
+        log.debug("Conversation created successfully with ID: {}", savedConversation.getId());
         
         return savedConversation;
     }
@@ -56,7 +79,7 @@ public class ConversationServiceImpl implements ConversationService {
     @Override
     @Transactional(readOnly = true)
     public Conversation getActiveConversation(Long customerId) {
-        log.info("Fetching active conversation for customer ID: {}", customerId);
+        log.debug("Fetching active conversation for customer ID: {}", customerId);
         
         Optional<Conversation> conversation = conversationRepository
                 .findActiveConversationByCustomerId(customerId);
@@ -70,61 +93,115 @@ public class ConversationServiceImpl implements ConversationService {
     @Override
     @Transactional
     public Conversation getOrCreateActiveConversation(Customer customer) {
-        log.info("Getting or creating active conversation for customer ID: {}", customer.getId());
+        log.debug("Getting or creating active conversation for customer ID: {}", customer.getId());
         
         // Buscar conversación activa existente
         Conversation activeConversation = getActiveConversation(customer.getId());
         
         // Si existe, retornarla
         if (activeConversation != null) {
-            log.info("Found existing active conversation with ID: {}", activeConversation.getId());
+            log.debug("Found existing active conversation with ID: {}", activeConversation.getId());
             return activeConversation;
         }
         
         // Si no existe, crear una nueva
-        log.info("No active conversation found, creating new one");
+        log.debug("No active conversation found, creating new one");
         return createConversation(customer);
     }
     
     /**
-     * Obtener conversación por ID
+     * Obtener conversación por ID (si no está en la base, se busca en el archivo frío)
      */
     @Override
     @Transactional(readOnly = true)
     public ConversationResponse getConversationById(Long id) {
         log.info("Fetching conversation with ID: {}", id);
         
-        Conversation conversation = conversationRepository.findById(id)
+        return conversationRepository.findById(id)
+                .map(conversationMapper::toResponse)
+                .or(() -> coldArchiveService.findConversation(id).map(ArchivedConversation::getConversation))
                 .orElseThrow(() -> new ResourceNotFoundException("Conversación no encontrada con ID: " + id));
-        
-        return conversationMapper.toResponse(conversation);
     }
     
     /**
-     * Obtener todas las conversaciones de un cliente
+     * Obtener las conversaciones de un cliente (paginado por cursor)
      */
     @Override
     @Transactional(readOnly = true)
-    public List<ConversationResponse> getConversationsByCustomerId(Long customerId) {
-        log.info("Fetching conversations for customer ID: {}", customerId);
-        
-        List<Conversation> conversations = conversationRepository.findByCustomerId(customerId);
-        
-        return conversationMapper.toResponseList(conversations);
+    public PageResponse<ConversationResponse> getConversationsByCustomerId(Long customerId, String cursor, Integer size) {
+        int pageSize = paginationConfig.resolveSize(size);
+        CursorCodec.Cursor before = CursorCodec.decode(cursor);
+        log.info("Fetching conversations page for customer ID: {}, size: {}", customerId, pageSize);
+        
+        // Se pide una fila extra para saber si hay más páginas
+        Limit limit = Limit.of(pageSize + 1);
+        List<Conversation> conversations = before == null
+                ? conversationRepository.findPageByCustomerId(customerId, limit)
+                : conversationRepository.findPageByCustomerIdBefore(
+                        customerId, before.requireTimestamp().timestamp(), before.id(), limit);
+        
+        return toConversationPage(conversations, pageSize, customerId, before);
     }
     
     /**
-     * Obtener conversaciones por número de teléfono
+     * Obtener conversaciones por número de teléfono (paginado por cursor)
      */
     @Override
     @Transactional(readOnly = true)
-    public List<ConversationResponse> getConversationsByPhoneNumber(String phoneNumber) {
-        log.info("Fetching conversations for phone number: {}", phoneNumber);
+    public PageResponse<ConversationResponse> getConversationsByPhoneNumber(String phoneNumber, String cursor, Integer size) {
+        int pageSize = paginationConfig.resolveSize(size);
+        CursorCodec.Cursor before = CursorCodec.decode(cursor);
+        log.info("Fetching conversations page for phone number: {}, size: {}", LogRedactor.phone(phoneNumber), pageSize);
+        
+        Limit limit = Limit.of(pageSize + 1);
+        List<Conversation> conversations = before == null
+                ? conversationRepository.findPageByCustomerPhoneNumber(phoneNumber, limit)
+                : conversationRepository.findPageByCustomerPhoneNumberBefore(
+                        phoneNumber, before.requireTimestamp().timestamp(), before.id(), limit);
+        
+        Long customerId = conversations.isEmpty()
+                ? customerRepository.findByPhoneNumber(phoneNumber).map(Customer::getId).orElse(null)
+                : conversations.get(0).getCustomer().getId();
+        
+        return toConversationPage(conversations, pageSize, customerId, before);
+    }
+    
+    /**
+     * Convertir una página de conversaciones a DTOs
+     * Los conteos de mensajes se obtienen en una sola consulta agrupada
+     * en lugar de inicializar la colección de mensajes de cada conversación.
+     * Las filas del archivo frío se mezclan con las de la base por la clave del cursor
+     * (startedAt, id) en cada página: una conversación activa antigua puede seguir en la
+     * base aunque otras más recientes ya se hayan archivado. Si la página de la base ya
+     * está llena y su última fila es posterior a todo lo archivado, no se consulta el archivo.
+     */
+    private PageResponse<ConversationResponse> toConversationPage(List<Conversation> conversations, int pageSize,
+                                                                  Long customerId, CursorCodec.Cursor before) {
+        Map<Long, Integer> messageCounts = new HashMap<>();
+        
+        if (!conversations.isEmpty()) {
+            List<Long> ids = conversations.stream().map(Conversation::getId).toList();
+            for (Object[] row : messageRepository.countByConversationIds(ids)) {
+                messageCounts.put((Long) row[0], ((Long) row[1]).intValue());
+            }
+        }
         
-        List<Conversation> conversations = conversationRepository
-                .findByCustomerPhoneNumber(phoneNumber);
+        List<ConversationResponse> rows = new ArrayList<>(conversations.stream()
+                .map(conversation -> conversationMapper.toResponse(conversation,
+                        messageCounts.getOrDefault(conversation.getId(), 0)))
+                .toList());
+        
+        LocalDateTime archivedUpTo = coldArchiveService.getNewestStartedAt();
+        boolean archiveMayContribute = customerId != null && archivedUpTo != null
+                && (conversations.size() <= pageSize || !conversations.get(pageSize).getStartedAt().isAfter(archivedUpTo));
+        if (archiveMayContribute) {
+            rows.addAll(coldArchiveService.findConversationsByCustomer(customerId,
+                    before != null ? before.timestamp() : null, before != null ? before.id() : null, pageSize + 1));
+            rows.sort(NEWEST_FIRST);
+        }
         
-        return conversationMapper.toResponseList(conversations);
+        return PageResponse.of(rows, pageSize, Function.identity(),
+                conversation -> CursorCodec.encode(conversation.getStartedAt(), conversation.getId()));
     }
     
     /**
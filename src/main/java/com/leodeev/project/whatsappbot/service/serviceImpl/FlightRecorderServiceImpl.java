@@ -0,0 +1,188 @@
+package com.leodeev.project.whatsappbot.service.serviceImpl;
+
+import com.leodeev.project.whatsappbot.config.FlightRecorderConfig;
+import com.leodeev.project.whatsappbot.exception.ResourceNotFoundException;
+import com.leodeev.project.whatsappbot.service.FlightRecorderService;
+import com.leodeev.project.whatsappbot.util.FlightEvents;
+import com.leodeev.project.whatsappbot.util.PipelineMetrics.Stage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación de la grabación continua de Java Flight Recorder
+ * SOLID: Single Responsibility Principle - Solo maneja las grabaciones
+ *
+ * Al arrancar inicia una grabación con ventana móvil (jfr.max-age / jfr.max-size)
+ * que incluye los eventos del chatbot (FlightEvents) y los del JDK (GC, locks,
+ * E/S, CPU). En paralelo, un RecordingStream lee los eventos en el mismo proceso
+ * y registra una advertencia y chatbot.jfr.alerts{event=...} cuando una etapa,
+ * una llamada a OpenAI o una pausa de GC supera su umbral (jfr.alerts.*).
+ *
+ * La configuración "default" graba las variables de entorno, las propiedades del
+ * sistema y de seguridad, los argumentos de la app y las líneas de comando de los
+ * procesos del host (OPENAI_API_KEY, tokens, contraseñas): esos eventos se
+ * desactivan, porque la grabación se descarga por HTTP. Los flags de la JVM
+ * siguen en los eventos jdk.*Flag.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FlightRecorderServiceImpl implements FlightRecorderService, SmartInitializingSingleton, DisposableBean {
+
+    private static final String GC_EVENT = "jdk.GarbageCollection";
+    private static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable",
+            "jdk.InitialSystemProperty",
+            "jdk.InitialSecurityProperty",
+            "jdk.JVMInformation",
+            "jdk.SystemProcess");
+
+    private final FlightRecorderConfig flightRecorderConfig;
+    private final MeterRegistry meterRegistry;
+
+    private volatile Recording recording;
+    private volatile RecordingStream alertStream;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!Boolean.TRUE.equals(flightRecorderConfig.getEnabled())) {
+            return;
+        }
+        if (!FlightRecorder.isAvailable()) {
+            log.warn("Java Flight Recorder no está disponible en esta JVM, no se graba");
+            return;
+        }
+
+        try {
+            Recording continuous = new Recording(recordingSettings());
+            continuous.setName("chatbot");
+            continuous.setToDisk(true);
+            continuous.setMaxAge(flightRecorderConfig.getMaxAge());
+            continuous.setMaxSize(flightRecorderConfig.getMaxSize().toBytes());
+            continuous.start();
+            recording = continuous;
+            log.info("Grabación de JFR iniciada (ventana de {}, máximo {} MB)",
+                    flightRecorderConfig.getMaxAge(), flightRecorderConfig.getMaxSize().toMegabytes());
+        } catch (IOException | ParseException e) {
+            log.warn("No se pudo iniciar la grabación de JFR: {}", e.getMessage());
+        }
+
+        if (Boolean.TRUE.equals(flightRecorderConfig.getAlerts().getEnabled())) {
+            startAlerts(flightRecorderConfig.getAlerts());
+        }
+    }
+
+    /**
+     * Configuración "default" del JDK sin los eventos que contienen secretos
+     */
+    private static Map<String, String> recordingSettings() throws IOException, ParseException {
+        Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+        SENSITIVE_EVENTS.forEach(event -> settings.put(event + "#enabled", "false"));
+        return settings;
+    }
+
+    /**
+     * Umbrales sobre los eventos en streaming (se leen en lotes de ~1 segundo)
+     * Se filtra en cada handler: la grabación continua registra todos los eventos
+     * (umbral 0) y el stream recibe lo mismo que ella.
+     */
+    private void startAlerts(FlightRecorderConfig.Alerts alerts) {
+        Counter slowStages = alertCounter("stage");
+        Counter slowAiCalls = alertCounter("ai_call");
+        Counter longGcPauses = alertCounter("gc_pause");
+        long slowStageNanos = alerts.getSlowStage().toNanos();
+        Duration slowAiCall = alerts.getSlowAiCall();
+        Duration gcPause = alerts.getGcPause();
+
+        RecordingStream stream = new RecordingStream();
+        stream.enable(FlightEvents.STAGE);
+        stream.enable(FlightEvents.AI_CALL);
+        stream.enable(GC_EVENT);
+
+        stream.onEvent(FlightEvents.STAGE, event -> {
+            // La duración de la etapa va en el campo elapsed (ver FlightEvents.StageEvent)
+            String stage = event.getString("stage");
+            if (event.getLong("elapsed") > slowStageNanos && !Stage.AI_CALL.tag().equals(stage)) {
+                slowStages.increment();
+                log.warn("Etapa lenta: {} tardó {} ms", stage, event.getDuration("elapsed").toMillis());
+            }
+        });
+        stream.onEvent(FlightEvents.AI_CALL, event -> {
+            if (event.getDuration().compareTo(slowAiCall) > 0) {
+                slowAiCalls.increment();
+                log.warn("Llamada a la IA lenta: {} ms, modelo {}, {} tokens de entrada, {} de salida{}",
+                        event.getDuration().toMillis(), event.getString("model"), event.getInt("promptTokens"),
+                        event.getInt("completionTokens"), event.getBoolean("succeeded") ? "" : " (falló)");
+            }
+        });
+        stream.onEvent(GC_EVENT, event -> {
+            Duration pause = longestPause(event);
+            if (pause.compareTo(gcPause) > 0) {
+                longGcPauses.increment();
+                log.warn("Pausa de GC larga: {} ms ({}, {})", pause.toMillis(),
+                        event.getString("name"), event.getString("cause"));
+            }
+        });
+
+        stream.startAsync();
+        alertStream = stream;
+    }
+
+    private Counter alertCounter(String event) {
+        return Counter.builder("chatbot.jfr.alerts")
+                .description("Eventos de JFR que superaron su umbral de alerta")
+                .tag("event", event)
+                .register(meterRegistry);
+    }
+
+    private static Duration longestPause(RecordedEvent event) {
+        return event.hasField("longestPause") ? event.getDuration("longestPause") : event.getDuration();
+    }
+
+    @Override
+    public Path dumpRecording() {
+        Recording current = recording;
+        if (current == null) {
+            throw new ResourceNotFoundException("No hay una grabación de JFR activa");
+        }
+
+        try {
+            Path file = Files.createTempFile("chatbot-", ".jfr");
+            current.dump(file);
+            log.info("Grabación de JFR copiada a {} ({} bytes)", file, Files.size(file));
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo copiar la grabación de JFR", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (alertStream != null) {
+            alertStream.close();
+        }
+        if (recording != null) {
+            recording.close();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.leodeev.project.whatsappbot.service.serviceImpl;
+
+import com.leodeev.project.whatsappbot.config.InboundCoalescingConfig;
+import com.leodeev.project.whatsappbot.entity.Message;
+import com.leodeev.project.whatsappbot.service.InboundCoalescingService;
+import com.leodeev.project.whatsappbot.util.LogRedactor;
+import com.leodeev.project.whatsappbot.util.PipelineTracing;
+import com.leodeev.project.whatsappbot.util.StageTimings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.TraceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Implementación de la agrupación de mensajes entrantes (debounce por remitente)
+ * SOLID: Single Responsibility Principle - Solo decide cuándo se cierra una ráfaga
+ *
+ * Los clientes suelen escribir varios mensajes cortos seguidos ("hola",
+ * "tienen laptops?", "de 16gb"). Cada mensaje se guarda al llegar, pero la
+ * respuesta espera una ventana: si llega otro mensaje, la ventana se reinicia y
+ * al cerrarse se hace una sola llamada a la IA con todos los mensajes.
+ *
+ * La ventana se adapta al ritmo del cliente: tras el segundo mensaje es el
+ * intervalo promedio entre mensajes (EWMA) por cadenceFactor, acotado entre
+ * minWindow y maxWindow. maxHold y maxMessages cierran ráfagas largas.
+ *
+ * Las respuestas de un mismo remitente no se solapan: mientras una está en
+ * curso, la ráfaga siguiente queda abierta aunque venza su ventana (sigue
+ * sumando mensajes) y se despacha como continuación al terminar la anterior.
+ *
+ * La respuesta continúa la traza del último mensaje de la ráfaga (enlazada a
+ * las de los anteriores) aunque se genere en un hilo de respuestas.
+ *
+ * Las ráfagas viven en memoria de la réplica que recibe el webhook; si la
+ * réplica cae antes de responder, los mensajes quedan guardados con su marca
+ * en pending_replies y se vuelven a enviar aquí al vencer (PendingReplyService).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InboundCoalescingServiceImpl implements InboundCoalescingService, SmartInitializingSingleton, DisposableBean {
+
+    private final InboundCoalescingConfig coalescingConfig;
+    private final MeterRegistry meterRegistry;
+    private final PipelineTracing pipelineTracing;
+
+    private final Map<String, PendingBurst> bursts = new ConcurrentHashMap<>();
+
+    /**
+     * Ráfaga cerrada de cada remitente hasta terminar su respuesta (en cola o en curso)
+     * Solo se modifica dentro de bursts.compute de la misma clave
+     */
+    private final Map<String, PendingBurst> replying = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService timers;
+    private ThreadPoolExecutor repliers;
+    private DistributionSummary burstSize;
+    private Counter aiRequestsSaved;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        timers = Executors.newSingleThreadScheduledExecutor();
+        repliers = new ThreadPoolExecutor(coalescingConfig.getReplyThreads(), coalescingConfig.getReplyThreads(),
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        burstSize = DistributionSummary.builder("chatbot.inbound.burst.size")
+                .description("Mensajes entrantes respondidos con una sola llamada a la IA")
+                .register(meterRegistry);
+        aiRequestsSaved = Counter.builder("chatbot.ai.requests.saved")
+                .description("Llamadas a la IA evitadas al agrupar mensajes entrantes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Al apagar se responden las ráfagas pendientes sin esperar su ventana
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (timers == null) {
+            return;
+        }
+        timers.shutdownNow();
+        bursts.forEach(this::close);
+        repliers.shutdown();
+        repliers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void submit(String phoneNumber, Message inboundMessage, String content, long acceptedAt, Instant sentAt,
+                       StageTimings timings, Consumer<Burst> onReady) {
+        TraceContext trace = pipelineTracing.currentContext();
+        if (!Boolean.TRUE.equals(coalescingConfig.getEnabled())) {
+            Burst burst = new Burst(List.of(content), inboundMessage, acceptedAt, sentAt, timings);
+            pipelineTracing.reply(trace != null ? List.of(trace) : List.of(), () -> onReady.accept(burst));
+            return;
+        }
+
+        bursts.compute(phoneNumber, (key, burst) -> {
+            PendingBurst pending = burst != null ? burst : new PendingBurst(acceptedAt, sentAt, onReady);
+            if (pending.timer != null) {
+                pending.timer.cancel(false);
+            }
+
+            long delay = pending.add(content, inboundMessage, trace, timings, System.nanoTime());
+            pending.timer = timers.schedule(() -> close(key, pending), delay, TimeUnit.NANOSECONDS);
+            return pending;
+        });
+    }
+
+    /**
+     * Cerrar la ráfaga y generar su respuesta en un hilo de respuestas
+     * Si el remitente ya tiene una respuesta en curso, la ráfaga queda como continuación
+     */
+    private void close(String phoneNumber, PendingBurst burst) {
+        PendingBurst[] ready = new PendingBurst[1];
+        bursts.compute(phoneNumber, (key, current) -> {
+            // Si otro mensaje la reemplazó o ya se cerró, no hay nada que hacer
+            if (current != burst) {
+                return current;
+            }
+            if (replying.containsKey(key)) {
+                burst.followUp = true;
+                return current;
+            }
+            replying.put(key, burst);
+            ready[0] = burst;
+            return null;
+        });
+
+        if (ready[0] != null) {
+            reply(phoneNumber, ready[0]);
+        }
+    }
+
+    /**
+     * Al terminar una respuesta se despacha la continuación pendiente del remitente, si la hay
+     */
+    private void finish(String phoneNumber) {
+        PendingBurst[] next = new PendingBurst[1];
+        bursts.compute(phoneNumber, (key, current) -> {
+            replying.remove(key);
+            if (current == null || !current.followUp) {
+                return current;
+            }
+            if (current.timer != null) {
+                current.timer.cancel(false);
+            }
+            replying.put(key, current);
+            next[0] = current;
+            return null;
+        });
+
+        if (next[0] != null) {
+            reply(phoneNumber, next[0]);
+        }
+    }
+
+    private void reply(String phoneNumber, PendingBurst burst) {
+        int size = burst.contents.size();
+        burstSize.record(size);
+        if (size > 1) {
+            aiRequestsSaved.increment(size - 1);
+            log.debug("Ráfaga de {} mensajes de {} respondida con una sola llamada a la IA",
+                    size, LogRedactor.phone(phoneNumber));
+        }
+
+        Burst ready = new Burst(List.copyOf(burst.contents), burst.lastMessage, burst.acceptedAt, burst.sentAt,
+                burst.timings);
+        List<TraceContext> traces = List.copyOf(burst.traces);
+        Runnable task = () -> {
+            try {
+                pipelineTracing.reply(traces, () -> burst.onReady.accept(ready));
+            } catch (Exception e) {
+                log.error("Error respondiendo la ráfaga de {}: {}", LogRedactor.phone(phoneNumber), e.getMessage(), e);
+            } finally {
+                finish(phoneNumber);
+            }
+        };
+
+        try {
+            repliers.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Apagando: la continuación se responde en el hilo que terminó la anterior
+            task.run();
+        }
+    }
+
+    @Override
+    public Backlog getBacklog() {
+        long now = System.nanoTime();
+        long oldest = now;
+        int pendingMessages = 0;
+        for (PendingBurst burst : bursts.values()) {
+            oldest = Math.min(oldest, burst.acceptedAt);
+            pendingMessages += burst.size;
+        }
+        for (PendingBurst burst : replying.values()) {
+            oldest = Math.min(oldest, burst.acceptedAt);
+            pendingMessages += burst.size;
+        }
+
+        int queued = repliers != null ? repliers.getQueue().size() : 0;
+        int active = repliers != null ? repliers.getActiveCount() : 0;
+        return new Backlog(bursts.size(), queued, active, pendingMessages, Duration.ofNanos(now - oldest));
+    }
+
+    /**
+     * Ráfaga abierta de un remitente; solo se modifica dentro de bursts.compute
+     */
+    private final class PendingBurst {
+
+        private final long acceptedAt;
+        private final Instant sentAt;
+        private final Consumer<Burst> onReady;
+        private final List<String> contents = new ArrayList<>();
+        private final List<TraceContext> traces = new ArrayList<>();
+        private final StageTimings timings = new StageTimings();
+        private Message lastMessage;
+        private volatile int size;
+        private long lastArrival;
+        private long cadence;
+        private ScheduledFuture<?> timer;
+        private boolean followUp;
+
+        private PendingBurst(long acceptedAt, Instant sentAt, Consumer<Burst> onReady) {
+            this.acceptedAt = acceptedAt;
+            this.sentAt = sentAt;
+            this.onReady = onReady;
+        }
+
+        /**
+         * Agregar un mensaje
+         * @return Espera hasta cerrar la ráfaga (ns)
+         */
+        private long add(String content, Message message, TraceContext trace, StageTimings messageTimings,
+                         long now) {
+            contents.add(content);
+            size = contents.size();
+            lastMessage = message;
+            if (trace != null) {
+                traces.add(trace);
+            }
+            timings.addAll(messageTimings);
+
+            if (lastArrival != 0) {
+                long gap = now - lastArrival;
+                cadence = cadence == 0 ? gap : (cadence + gap) / 2;
+            }
+            lastArrival = now;
+
+            if (contents.size() >= coalescingConfig.getMaxMessages()) {
+                return 0;
+            }
+
+            long window = cadence == 0
+                    ? coalescingConfig.getWindow().toNanos()
+                    : Math.max(coalescingConfig.getMinWindow().toNanos(),
+                            Math.min(coalescingConfig.getMaxWindow().toNanos(),
+                                    (long) (cadence * coalescingConfig.getCadenceFactor())));
+
+            long remainingHold = coalescingConfig.getMaxHold().toNanos() - (now - acceptedAt);
+            return Math.max(0, Math.min(window, remainingHold));
+        }
+    }
+}
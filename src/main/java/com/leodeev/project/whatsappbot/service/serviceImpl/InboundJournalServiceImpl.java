@@ -0,0 +1,286 @@
+package com.leodeev.project.whatsappbot.service.serviceImpl;
+
+import com.leodeev.project.whatsappbot.config.InboundJournalConfig;
+import com.leodeev.project.whatsappbot.dto.request.WhatsAppWebhookRequest;
+import com.leodeev.project.whatsappbot.service.InboundJournalService;
+import com.leodeev.project.whatsappbot.service.WhatsAppService;
+import com.leodeev.project.whatsappbot.util.InboundJournal;
+import com.leodeev.project.whatsappbot.util.RetryBackoff;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementación de la recepción durable de webhooks
+ * SOLID: Single Responsibility Principle - Solo acepta webhooks y los entrega a WhatsAppService
+ *
+ * El webhook se agrega al diario local antes de responder 200 a WhatsApp; un
+ * hilo lo lee desde el checkpoint y llama a processWebhook. Si la réplica cae,
+ * al iniciar se reprocesa todo lo posterior al checkpoint: la entrega es al
+ * menos una vez y processWebhook ya ignora mensajes repetidos (wamid) y
+ * estados que no avanzan. El checkpoint cubre el mensaje guardado, no su
+ * respuesta (se genera después, en memoria): de ella se encarga la marca de
+ * respuesta pendiente que se guarda con el mensaje (PendingReplyService).
+ *
+ * Un webhook que falla por un error transitorio (la base no responde, timeout)
+ * se reintenta con backoff hasta procesarlo o hasta el apagado, sin avanzar el
+ * checkpoint: una caída de la base no descarta nada. Cualquier otro error se
+ * reintenta como mucho maxAttempts veces: un webhook que siempre falla no puede
+ * frenar la recepción. Ese y un cuerpo que no se puede parsear (no se arregla
+ * reintentando) se apartan en dead-letter.jsonl, junto al diario, y se sigue
+ * con el siguiente.
+ *
+ * Para medir el retraso del consumidor se guarda en memoria cuándo se agregó
+ * cada entrada pendiente (los webhooks reprocesados al iniciar cuentan desde
+ * el inicio).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InboundJournalServiceImpl implements InboundJournalService, SmartInitializingSingleton, DisposableBean {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final String DEAD_LETTER_FILE = "dead-letter.jsonl";
+
+    private final InboundJournalConfig journalConfig;
+    private final WhatsAppService whatsAppService;
+    private final JsonMapper jsonMapper;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Entradas aún no confirmadas, en orden de llegada
+     */
+    private final Queue<Appended> pendingEntries = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Interrumpe la espera entre reintentos al apagar
+     */
+    private final CountDownLatch stopping = new CountDownLatch(1);
+
+    private InboundJournal journal;
+    private Thread consumer;
+    private Timer appendLatency;
+    private volatile boolean running;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!Boolean.TRUE.equals(journalConfig.getEnabled())) {
+            return;
+        }
+
+        try {
+            journal = InboundJournal.open(Path.of(journalConfig.getDirectory()),
+                    journalConfig.getSegmentSizeMb() * 1024 * 1024, Boolean.TRUE.equals(journalConfig.getSync()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el diario de webhooks en " + journalConfig.getDirectory(), e);
+        }
+
+        long pending = journal.getWriteOffset() - journal.getCheckpoint();
+        if (pending > 0) {
+            log.info("Reprocesando {} bytes de webhooks pendientes del diario", pending);
+            pendingEntries.add(new Appended(journal.getWriteOffset(), System.nanoTime()));
+        }
+
+        appendLatency = Timer.builder("chatbot.journal.append")
+                .description("Tiempo en agregar un webhook al diario (incluye el fsync agrupado)")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("chatbot.journal.lag.bytes", this, InboundJournalServiceImpl::getLagBytes)
+                .description("Webhooks en el diario aún no procesados")
+                .register(meterRegistry);
+
+        running = true;
+        consumer = new Thread(this::consume, "inbound-journal");
+        consumer.start();
+    }
+
+    /**
+     * Al apagar se termina el webhook en curso; el resto queda en el diario
+     */
+    @Override
+    public void destroy() throws IOException, InterruptedException {
+        if (journal == null || !running) {
+            return;
+        }
+        running = false;
+        stopping.countDown();
+        consumer.join(TimeUnit.SECONDS.toMillis(30));
+        journal.close();
+    }
+
+    @Override
+    public void accept(byte[] payload) {
+        if (journal == null) {
+            process(payload);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            long end = journal.append(payload);
+            pendingEntries.add(new Appended(end, start));
+            appendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (IOException e) {
+            // Sin diario no hay durabilidad, pero el webhook no se pierde si se procesa ahora
+            log.error("No se pudo agregar el webhook al diario, procesando en línea: {}", e.getMessage(), e);
+            process(payload);
+        }
+    }
+
+    /**
+     * Leer el diario desde el checkpoint y procesar en orden de llegada
+     */
+    private void consume() {
+        long position = journal.getCheckpoint();
+        while (running) {
+            try {
+                if (!journal.awaitEntries(position, POLL_TIMEOUT)) {
+                    continue;
+                }
+
+                List<InboundJournal.Entry> entries = journal.read(position, journalConfig.getBatchSize());
+                for (InboundJournal.Entry entry : entries) {
+                    if (!processWithRetry(entry)) {
+                        break;
+                    }
+                    position = entry.nextOffset();
+                }
+                journal.commit(position);
+                Appended oldest;
+                while ((oldest = pendingEntries.peek()) != null && oldest.end() <= position) {
+                    pendingEntries.poll();
+                }
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Error leyendo el diario de webhooks: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * @return false si se está apagando: el webhook queda en el diario para el próximo inicio
+     */
+    private boolean processWithRetry(InboundJournal.Entry entry) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                WhatsAppWebhookRequest request;
+                try {
+                    request = jsonMapper.readValue(entry.payload(), WhatsAppWebhookRequest.class);
+                } catch (JacksonException e) {
+                    deadLetter(entry, e.getOriginalMessage());
+                    log.error("Webhook en offset {} no es JSON válido, apartado en {}: {}",
+                            entry.offset(), DEAD_LETTER_FILE, e.getOriginalMessage());
+                    return true;
+                }
+                whatsAppService.processWebhook(request);
+                return true;
+
+            } catch (Exception e) {
+                if (!running) {
+                    return false;
+                }
+                if (!isTransient(e) && attempt >= journalConfig.getMaxAttempts()) {
+                    try {
+                        deadLetter(entry, e.toString());
+                        log.error("Webhook en offset {} falló {} veces, apartado en {}: {}",
+                                entry.offset(), attempt, DEAD_LETTER_FILE, e.getMessage(), e);
+                        return true;
+                    } catch (IOException deadLetterError) {
+                        log.error("No se pudo apartar el webhook en offset {}: {}",
+                                entry.offset(), deadLetterError.getMessage());
+                    }
+                }
+                Duration delay = RetryBackoff.delay(attempt, journalConfig.getRetryDelay(), journalConfig.getMaxRetryDelay());
+                log.warn("Error procesando webhook en offset {} (intento {}), reintento en {} ms: {}",
+                        entry.offset(), attempt, delay.toMillis(), e.getMessage());
+                if (stopping.await(delay.toMillis(), TimeUnit.MILLISECONDS)) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Errores que se arreglan solos (base caída o saturada): se reintentan sin límite
+     */
+    private static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Apartar un webhook que no se puede procesar; si no se puede escribir, se reintenta
+     */
+    private void deadLetter(InboundJournal.Entry entry, String error) throws IOException {
+        ObjectNode record = jsonMapper.createObjectNode()
+                .put("offset", entry.offset())
+                .put("error", error)
+                .put("payload", Base64.getEncoder().encodeToString(entry.payload()));
+
+        Files.writeString(Path.of(journalConfig.getDirectory()).resolve(DEAD_LETTER_FILE),
+                jsonMapper.writeValueAsString(record) + System.lineSeparator(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private void process(byte[] payload) {
+        whatsAppService.processWebhook(jsonMapper.readValue(payload, WhatsAppWebhookRequest.class));
+    }
+
+    @Override
+    public long getLagBytes() {
+        return journal != null ? journal.getWriteOffset() - journal.getCheckpoint() : 0;
+    }
+
+    @Override
+    public Duration getOldestPendingAge() {
+        Appended oldest = pendingEntries.peek();
+        return oldest != null ? Duration.ofNanos(System.nanoTime() - oldest.appendedAt()) : Duration.ZERO;
+    }
+
+    /**
+     * @param end Offset siguiente a la entrada
+     * @param appendedAt Momento en que se agregó (System.nanoTime())
+     */
+    private record Appended(long end, long appendedAt) {
+    }
+}
@@ -0,0 +1,371 @@
+package com.leodeev.project.whatsappbot.service.serviceImpl;
+
+import com.leodeev.project.whatsappbot.config.IndexAdvisorConfig;
+import com.leodeev.project.whatsappbot.dto.response.QueryPlanReport;
+import com.leodeev.project.whatsappbot.service.IndexAdvisorService;
+import com.leodeev.project.whatsappbot.util.SqlCapture;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.Repository;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementación del asesor de índices
+ * SOLID: Single Responsibility Principle - Solo analiza planes de ejecución
+ *
+ * Para cada método de lectura de los repositorios del proyecto:
+ * 1. Lo invoca con argumentos de ejemplo mientras SqlCapture captura el SQL
+ *    (la ejecución real se anula con "WHERE 1 = 0", no lee filas)
+ * 2. Prepara ese SQL en PostgreSQL, que infiere el tipo de cada parámetro
+ * 3. Ejecuta EXPLAIN con valores de ejemplo y enable_seqscan = off:
+ *    si aun así el plan usa Seq Scan, no hay índice utilizable
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IndexAdvisorServiceImpl implements IndexAdvisorService {
+
+    private static final String REPOSITORY_PACKAGE = "com.leodeev.project.whatsappbot.repository";
+    private static final String STATEMENT_NAME = "index_advisor_stmt";
+    private static final Pattern SEQ_SCAN_PATTERN = Pattern.compile("Seq Scan on (\\w+)");
+
+    private final ApplicationContext applicationContext;
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final IndexAdvisorConfig indexAdvisorConfig;
+
+    /**
+     * Analizar las consultas al arrancar y advertir las que no usan índices
+     * Desactivado por defecto (db.index-advisor.run-on-startup): invoca todos los
+     * repositorios; en producción se usa GET /api/admin/query-plans
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void analyzeOnStartup() {
+        if (!Boolean.TRUE.equals(indexAdvisorConfig.getEnabled())
+                || !Boolean.TRUE.equals(indexAdvisorConfig.getRunOnStartup())) {
+            return;
+        }
+
+        try {
+            List<QueryPlanReport> reports = analyzeRepositoryQueries();
+            long flagged = reports.stream().filter(report -> Boolean.TRUE.equals(report.getFlagged())).count();
+
+            for (QueryPlanReport report : reports) {
+                if (Boolean.TRUE.equals(report.getFlagged())) {
+                    log.warn("Consulta sin índice utilizable: {}.{} -> Seq Scan en {}",
+                            report.getRepository(), report.getMethod(), report.getSequentialScans());
+                } else if (report.getError() != null) {
+                    log.warn("No se pudo analizar {}.{}: {}", report.getRepository(), report.getMethod(), report.getError());
+                }
+            }
+
+            log.info("Asesor de índices: {} consultas analizadas, {} con Seq Scan", reports.size(), flagged);
+
+        } catch (Exception e) {
+            log.error("Error ejecutando el asesor de índices: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ejecutar EXPLAIN de cada consulta de lectura de los repositorios
+     */
+    @Override
+    public List<QueryPlanReport> analyzeRepositoryQueries() {
+        log.info("Analizando planes de ejecución de los repositorios");
+
+        List<QueryPlanReport> reports = new ArrayList<>();
+
+        // Los repositorios usan, en este hilo, una sesión propia con SqlCapture como
+        // inspector: el resto de las sesiones no pasa por él
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        try (Session captureSession = sessionFactory.withOptions().statementInspector(new SqlCapture()).openSession()) {
+            TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(captureSession));
+            try {
+                for (Object repository : applicationContext.getBeansOfType(Repository.class).values()) {
+                    for (Class<?> repositoryInterface : AopProxyUtils.proxiedUserInterfaces(repository)) {
+                        if (!repositoryInterface.getPackageName().equals(REPOSITORY_PACKAGE)) {
+                            continue;
+                        }
+
+                        Arrays.stream(repositoryInterface.getDeclaredMethods())
+                                .filter(this::isAnalyzable)
+                                .sorted(Comparator.comparing(Method::getName))
+                                .forEach(method -> reports.add(analyze(repository, repositoryInterface, method)));
+                    }
+                }
+            } finally {
+                TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            }
+        }
+
+        reports.sort(Comparator.comparing(QueryPlanReport::getRepository).thenComparing(QueryPlanReport::getMethod));
+        return reports;
+    }
+
+    /**
+     * Solo se analizan métodos abstractos de lectura
+     */
+    private boolean isAnalyzable(Method method) {
+        return !method.isDefault()
+                && !Modifier.isStatic(method.getModifiers())
+                && !method.isAnnotationPresent(Modifying.class);
+    }
+
+    /**
+     * Capturar el SQL de un método y obtener su plan
+     */
+    private QueryPlanReport analyze(Object repository, Class<?> repositoryInterface, Method method) {
+        QueryPlanReport.QueryPlanReportBuilder report = QueryPlanReport.builder()
+                .repository(repositoryInterface.getSimpleName())
+                .method(method.getName())
+                .flagged(false);
+
+        List<String> captured;
+        String invocationError = null;
+        SqlCapture.start();
+        try {
+            Object result = method.invoke(repository, sampleArguments(method));
+            if (result instanceof Stream<?> stream) {
+                stream.close();
+            }
+        } catch (InvocationTargetException e) {
+            // Ej: un count primitivo recibe null porque la consulta anulada no devuelve filas;
+            // el SQL ya fue capturado y se puede analizar igual
+            invocationError = e.getTargetException().getMessage();
+        } catch (Exception e) {
+            invocationError = e.getMessage();
+        } finally {
+            captured = SqlCapture.stop();
+        }
+
+        if (captured.isEmpty()) {
+            return report.error(invocationError != null ? invocationError : "No se generó SQL").build();
+        }
+
+        String sql = captured.get(0);
+        report.sql(sql);
+
+        try {
+            String plan = explain(sql);
+            List<String> sequentialScans = findSequentialScans(plan);
+
+            return report
+                    .plan(plan)
+                    .sequentialScans(sequentialScans)
+                    .flagged(!sequentialScans.isEmpty())
+                    .build();
+
+        } catch (Exception e) {
+            return report.error(e.getMessage()).build();
+        }
+    }
+
+    /**
+     * Tablas con Seq Scan en el plan, excluyendo las ignoradas por configuración
+     */
+    private List<String> findSequentialScans(String plan) {
+        Set<String> tables = new LinkedHashSet<>();
+        Matcher matcher = SEQ_SCAN_PATTERN.matcher(plan);
+
+        while (matcher.find()) {
+            String table = matcher.group(1);
+            if (!indexAdvisorConfig.getIgnoredTables().contains(table)) {
+                tables.add(table);
+            }
+        }
+
+        return new ArrayList<>(tables);
+    }
+
+    /**
+     * PREPARE + EXPLAIN EXECUTE en una conexión propia, siempre con rollback
+     */
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET LOCAL enable_seqscan = off");
+                statement.execute("PREPARE " + STATEMENT_NAME + " AS " + toPositionalParameters(sql));
+
+                List<String> parameterTypes = new ArrayList<>();
+                try (ResultSet rs = statement.executeQuery(
+                        "SELECT unnest(parameter_types)::text FROM pg_prepared_statements WHERE name = '" + STATEMENT_NAME + "'")) {
+                    while (rs.next()) {
+                        parameterTypes.add(rs.getString(1));
+                    }
+                }
+
+                String arguments = parameterTypes.stream()
+                        .map(this::sampleLiteral)
+                        .collect(Collectors.joining(", "));
+
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rs = statement.executeQuery("EXPLAIN EXECUTE " + STATEMENT_NAME
+                        + (parameterTypes.isEmpty() ? "" : "(" + arguments + ")"))) {
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append("\n");
+                    }
+                }
+
+                return plan.toString();
+
+            } finally {
+                connection.rollback();
+                deallocate(connection);
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+    }
+
+    /**
+     * Los prepared statements sobreviven al rollback: liberar explícitamente
+     */
+    private void deallocate(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DO $$ BEGIN IF EXISTS (SELECT 1 FROM pg_prepared_statements WHERE name = '"
+                    + STATEMENT_NAME + "') THEN DEALLOCATE " + STATEMENT_NAME + "; END IF; END $$");
+            connection.commit();
+        }
+    }
+
+    /**
+     * Reemplazar los parámetros JDBC "?" por "$1..$n" (fuera de literales de texto)
+     */
+    private String toPositionalParameters(String sql) {
+        StringBuilder result = new StringBuilder(sql.length() + 16);
+        boolean inLiteral = false;
+        int position = 0;
+
+        for (char c : sql.toCharArray()) {
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            }
+            if (c == '?' && !inLiteral) {
+                result.append('$').append(++position);
+            } else {
+                result.append(c);
+            }
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Valor de ejemplo según el tipo inferido por PostgreSQL
+     * Los literales sin tipo se convierten al tipo del parámetro
+     */
+    private String sampleLiteral(String type) {
+        if (type.endsWith("[]")) {
+            return "'{1}'";
+        }
+        if (type.contains("int") || type.equals("numeric") || type.startsWith("double") || type.equals("real")) {
+            return "'1'";
+        }
+        if (type.equals("boolean")) {
+            return "'t'";
+        }
+        if (type.startsWith("timestamp") || type.equals("date")) {
+            return "'" + LocalDateTime.now().minusDays(1) + "'";
+        }
+        if (type.equals("text") || type.contains("char")) {
+            return "'x'";
+        }
+        return "NULL";
+    }
+
+    /**
+     * Argumentos de ejemplo según el tipo Java de cada parámetro del método
+     */
+    private Object[] sampleArguments(Method method) {
+        Parameter[] parameters = method.getParameters();
+        Object[] arguments = new Object[parameters.length];
+
+        for (int i = 0; i < parameters.length; i++) {
+            arguments[i] = sampleArgument(parameters[i].getType(), parameters[i].getParameterizedType());
+        }
+
+        return arguments;
+    }
+
+    private Object sampleArgument(Class<?> type, Type genericType) {
+        if (type == Long.class || type == long.class) {
+            return 1L;
+        }
+        if (type == Integer.class || type == int.class) {
+            return 1;
+        }
+        if (type == String.class) {
+            return "x";
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return true;
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now().minusDays(1);
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.now().minusDays(1);
+        }
+        if (type == Double.class || type == double.class) {
+            return 1.0;
+        }
+        if (type == BigDecimal.class) {
+            return BigDecimal.ONE;
+        }
+        if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        }
+        if (type == Limit.class) {
+            return Limit.of(1);
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            Class<?> elementType = Long.class;
+            if (genericType instanceof ParameterizedType parameterized
+                    && parameterized.getActualTypeArguments()[0] instanceof Class<?> element) {
+                elementType = element;
+            }
+            return List.of(sampleArgument(elementType, elementType));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,101 @@
+package com.leodeev.project.whatsappbot.service.serviceImpl;
+
+import com.leodeev.project.whatsappbot.config.ContentStoreConfig;
+import com.leodeev.project.whatsappbot.repository.MessageContentRepository;
+import com.leodeev.project.whatsappbot.service.MessageContentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Implementación del almacenamiento de contenidos direccionado por hash
+ * SOLID: Single Responsibility Principle - Solo deduplica contenidos
+ *
+ * Las respuestas del bot se repiten mucho: cada texto distinto se inserta una vez
+ * en message_contents y los mensajes guardan solo su SHA-256. La caché LRU de hashes
+ * evita el INSERT ... ON CONFLICT para los textos más frecuentes; un hash entra en la
+ * caché solo cuando su transacción confirma, para no referenciar filas revertidas.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MessageContentServiceImpl implements MessageContentService, SmartInitializingSingleton {
+
+    private final MessageContentRepository messageContentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ContentStoreConfig contentStoreConfig;
+
+    // LRU en orden de acceso
+    private final Map<String, Boolean> internedHashes = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > contentStoreConfig.getInternCacheSize();
+                }
+            });
+
+    /**
+     * ddl-auto=update no relaja restricciones: las filas que referencian
+     * message_contents no tienen texto propio
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        Boolean notNull = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM information_schema.columns WHERE table_schema = current_schema() "
+                        + "AND table_name = 'messages' AND column_name = 'content' AND is_nullable = 'NO')",
+                Boolean.class);
+
+        if (Boolean.TRUE.equals(notNull)) {
+            jdbcTemplate.execute("ALTER TABLE messages ALTER COLUMN content DROP NOT NULL");
+            log.info("Columna messages.content ahora admite NULL (contenido por referencia)");
+        }
+    }
+
+    @Override
+    @Transactional
+    public String store(String content) {
+        if (!Boolean.TRUE.equals(contentStoreConfig.getEnabled())
+                || content == null
+                || content.length() < contentStoreConfig.getMinLength()) {
+            return null;
+        }
+
+        String hash = sha256(content);
+        if (internedHashes.containsKey(hash)) {
+            return hash;
+        }
+
+        messageContentRepository.insertIfAbsent(hash, content);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                internedHashes.put(hash, Boolean.TRUE);
+            }
+        });
+
+        return hash;
+    }
+
+    private String sha256(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.leodeev.project.whatsappbot.service.serviceImpl;
+
+import com.leodeev.project.whatsappbot.config.PartitioningConfig;
+import com.leodeev.project.whatsappbot.service.MessagePartitionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Implementación del particionado mensual de la tabla messages
+ * SOLID: Single Responsibility Principle - Solo administra particiones
+ *
+ * La tabla la crea Hibernate (ddl-auto) como tabla normal; al arrancar se
+ * convierte, una sola vez, en tabla particionada por RANGE (sent_at):
+ * - La PK pasa a ser (id, sent_at): PostgreSQL exige la clave de partición en los índices únicos
+ * - whatsapp_message_id deja de ser único globalmente (índice normal; la deduplicación la hace inbound_wamids)
+ * - Una partición DEFAULT recibe filas fuera de los meses creados
+ *
+ * El mantenimiento (al arrancar y cada día) crea los meses siguientes y desacopla
+ * los meses fuera de la retención al esquema de archivo, sin DELETE masivo.
+ * También depura inbound_wamids (IDs de WhatsApp de los mensajes entrantes).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MessagePartitionServiceImpl implements MessagePartitionService, SmartInitializingSingleton {
+
+    private static final String TABLE = "messages";
+    private static final String LEGACY_TABLE = "messages_unpartitioned";
+    private static final String DEFAULT_PARTITION = "messages_default";
+    private static final String INBOUND_IDS_TABLE = "inbound_wamids";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("messages_p(\\d{4})_(\\d{2})");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PartitioningConfig partitioningConfig;
+
+    /**
+     * Se ejecuta cuando Hibernate ya creó el esquema y antes de que el servidor web acepte tráfico
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        runMaintenance();
+    }
+
+    @Scheduled(cron = "${messages.partitioning.cron:0 0 3 * * *}")
+    public void scheduledMaintenance() {
+        runMaintenance();
+    }
+
+    @Override
+    public void runMaintenance() {
+        if (!Boolean.TRUE.equals(partitioningConfig.getEnabled())) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Con varias réplicas solo una ejecuta el mantenimiento
+                if (!tryMaintenanceLock()) {
+                    log.info("Mantenimiento de particiones en curso en otra instancia");
+                    return;
+                }
+
+                if (!isPartitioned()) {
+                    convertToPartitioned();
+                }
+                createFuturePartitions();
+                archiveExpiredPartitions();
+                maintainInboundMessageIds();
+            });
+        } catch (Exception e) {
+            log.error("Error en el mantenimiento de particiones de mensajes: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Al estrenar inbound_wamids se carga con los mensajes entrantes recientes (los
+     * reenvíos de mensajes anteriores al cambio también se descartan); luego se
+     * borran los IDs fuera de la retención
+     */
+    private void maintainInboundMessageIds() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(partitioningConfig.getInboundIdRetentionDays()));
+
+        Boolean empty = jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM " + INBOUND_IDS_TABLE + ")",
+                Boolean.class);
+        if (Boolean.TRUE.equals(empty)) {
+            int loaded = jdbcTemplate.update("INSERT INTO " + INBOUND_IDS_TABLE + " (wamid, received_at) "
+                    + "SELECT whatsapp_message_id, max(sent_at) FROM " + TABLE
+                    + " WHERE direction = 'INBOUND' AND whatsapp_message_id IS NOT NULL AND sent_at >= ?"
+                    + " GROUP BY whatsapp_message_id ON CONFLICT DO NOTHING", cutoff);
+            if (loaded > 0) {
+                log.info("IDs de mensajes entrantes cargados en {}: {}", INBOUND_IDS_TABLE, loaded);
+            }
+        }
+
+        int purged = jdbcTemplate.update("DELETE FROM " + INBOUND_IDS_TABLE + " WHERE received_at < ?", cutoff);
+        if (purged > 0) {
+            log.info("IDs de mensajes entrantes depurados: {}", purged);
+        }
+    }
+
+    @Override
+    public List<String> createFuturePartitions() {
+        YearMonth current = YearMonth.now();
+        List<String> created = new ArrayList<>();
+
+        for (int i = 0; i <= partitioningConfig.getMonthsAhead(); i++) {
+            if (createPartition(current.plusMonths(i))) {
+                created.add(partitionName(current.plusMonths(i)));
+            }
+        }
+
+        if (!created.isEmpty()) {
+            log.info("Particiones de mensajes creadas: {}", created);
+        }
+        return created;
+    }
+
+    @Override
+    public List<String> archiveExpiredPartitions() {
+        YearMonth oldestRetained = YearMonth.now().minusMonths(partitioningConfig.getRetentionMonths());
+        String archiveSchema = partitioningConfig.getArchiveSchema();
+        List<String> archived = new ArrayList<>();
+
+        for (String partition : listPartitions()) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.isBefore(oldestRetained)) {
+                continue;
+            }
+
+            jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + archiveSchema);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition);
+            jdbcTemplate.execute("ALTER TABLE " + partition + " SET SCHEMA " + archiveSchema);
+
+            // El archivo no debe bloquear borrados de conversaciones
+            dropForeignKeys(archiveSchema, partition);
+
+            if (partitioningConfig.getArchiveTablespace() != null && !partitioningConfig.getArchiveTablespace().isBlank()) {
+                jdbcTemplate.execute("ALTER TABLE " + archiveSchema + "." + partition
+                        + " SET TABLESPACE " + partitioningConfig.getArchiveTablespace());
+            }
+
+            archived.add(archiveSchema + "." + partition);
+        }
+
+        if (!archived.isEmpty()) {
+            log.info("Particiones de mensajes archivadas: {}", archived);
+        }
+        return archived;
+    }
+
+    // ========== CONVERSIÓN INICIAL ==========
+
+    /**
+     * Recrear messages como tabla particionada conservando columnas, restricciones,
+     * índices y datos, todo dentro de la transacción del mantenimiento
+     */
+    private void convertToPartitioned() {
+        log.info("Convirtiendo la tabla {} a tabla particionada por mes", TABLE);
+
+        // Definiciones a recrear; se leen antes de renombrar para que apunten a "messages"
+        List<String> foreignKeys = jdbcTemplate.queryForList(
+                "SELECT 'ALTER TABLE " + TABLE + " ADD CONSTRAINT ' || quote_ident(conname) || ' ' || pg_get_constraintdef(oid) "
+                        + "FROM pg_constraint WHERE conrelid = '" + TABLE + "'::regclass AND contype = 'f'",
+                String.class);
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT pg_get_indexdef(indexrelid) FROM pg_index "
+                        + "WHERE indrelid = '" + TABLE + "'::regclass AND NOT indisprimary AND NOT indisunique",
+                String.class);
+
+        jdbcTemplate.execute("UPDATE " + TABLE + " SET sent_at = created_at WHERE sent_at IS NULL");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO " + LEGACY_TABLE);
+        jdbcTemplate.execute("CREATE TABLE " + TABLE + " (LIKE " + LEGACY_TABLE
+                + " INCLUDING DEFAULTS INCLUDING IDENTITY INCLUDING CONSTRAINTS) PARTITION BY RANGE (sent_at)");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ALTER COLUMN sent_at SET NOT NULL");
+
+        // Un mes por cada mes con datos existentes
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(sent_at) FROM " + LEGACY_TABLE, Timestamp.class);
+        if (oldest != null) {
+            YearMonth month = YearMonth.from(oldest.toLocalDateTime());
+            while (month.isBefore(YearMonth.now())) {
+                createPartition(month);
+                month = month.plusMonths(1);
+            }
+        }
+        createFuturePartitions();
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION + " PARTITION OF " + TABLE + " DEFAULT");
+
+        int copied = jdbcTemplate.update("INSERT INTO " + TABLE + " SELECT * FROM " + LEGACY_TABLE);
+        jdbcTemplate.execute("DROP TABLE " + LEGACY_TABLE);
+
+        // Con la tabla anterior eliminada los nombres originales quedan libres
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT " + TABLE + "_pkey PRIMARY KEY (id, sent_at)");
+        foreignKeys.forEach(jdbcTemplate::execute);
+        indexes.forEach(jdbcTemplate::execute);
+        jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence('" + TABLE + "', 'id'), "
+                + "COALESCE(MAX(id), 0) + 1, false) FROM " + TABLE, Long.class);
+
+        log.info("Tabla {} particionada ({} mensajes migrados)", TABLE, copied);
+    }
+
+    // ========== AUXILIARES ==========
+
+    private boolean tryMaintenanceLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext('messages_partition_maintenance'))", Boolean.class));
+    }
+
+    private boolean isPartitioned() {
+        String kind = jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass('" + TABLE + "')", String.class);
+        return "p".equals(kind);
+    }
+
+    /**
+     * Crear la partición de un mes si no existe
+     * @return true si se creó
+     */
+    private boolean createPartition(YearMonth month) {
+        String name = partitionName(month);
+        Boolean exists = jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+        if (Boolean.TRUE.equals(exists)) {
+            return false;
+        }
+
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        jdbcTemplate.execute("CREATE TABLE " + name + " PARTITION OF " + TABLE
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        return true;
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT child.relname::text FROM pg_inherits i "
+                        + "JOIN pg_class child ON child.oid = i.inhrelid "
+                        + "WHERE i.inhparent = '" + TABLE + "'::regclass ORDER BY child.relname",
+                String.class);
+    }
+
+    private void dropForeignKeys(String schema, String table) {
+        List<String> constraints = jdbcTemplate.queryForList(
+                "SELECT quote_ident(conname) FROM pg_constraint "
+                        + "WHERE conrelid = to_regclass(?) AND contype = 'f'",
+                String.class, schema + "." + table);
+
+        for (String constraint : constraints) {
+            jdbcTemplate.execute("ALTER TABLE " + schema + "." + table + " DROP CONSTRAINT " + constraint);
+        }
+    }
+
+    private String partitionName(YearMonth month) {
+        return TABLE + "_p" + month.format(PARTITION_SUFFIX);
+    }
+}
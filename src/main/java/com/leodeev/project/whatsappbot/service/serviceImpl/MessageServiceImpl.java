@@ -1,18 +1,33 @@
 package com.leodeev.project.whatsappbot.service.serviceImpl;
 
-
+import com.leodeev.project.whatsappbot.config.PaginationConfig;
+import com.leodeev.project.whatsappbot.dto.response.ArchivedConversation;
+import com.leodeev.project.whatsappbot.dto.response.MessageResponse;
+import com.leodeev.project.whatsappbot.dto.response.PageResponse;
 import com.leodeev.project.whatsappbot.entity.Conversation;
 import com.leodeev.project.whatsappbot.entity.Message;
+import com.leodeev.project.whatsappbot.entity.OutboxMessage;
 import com.leodeev.project.whatsappbot.exception.ResourceNotFoundException;
 import com.leodeev.project.whatsappbot.mapper.MessageMapper;
+import com.leodeev.project.whatsappbot.repository.InboundWamidRepository;
 import com.leodeev.project.whatsappbot.repository.MessageRepository;
+import com.leodeev.project.whatsappbot.repository.OutboxMessageRepository;
+import com.leodeev.project.whatsappbot.service.ColdArchiveService;
+import com.leodeev.project.whatsappbot.service.MessageContentService;
 import com.leodeev.project.whatsappbot.service.MessageService;
+import com.leodeev.project.whatsappbot.util.CursorCodec;
+import com.leodeev.project.whatsappbot.util.LogRedactor;
+import com.leodeev.project.whatsappbot.util.PipelineTracing;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Implementación del servicio de Mensajes
@@ -25,7 +40,13 @@ import java.util.List;
 public class MessageServiceImpl implements MessageService {
     
     private final MessageRepository messageRepository;
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final InboundWamidRepository inboundWamidRepository;
     private final MessageMapper messageMapper;
+    private final MessageContentService messageContentService;
+    private final ColdArchiveService coldArchiveService;
+    private final PaginationConfig paginationConfig;
+    private final PipelineTracing pipelineTracing;
     
     /**
      * Guardar un mensaje
@@ -33,11 +54,12 @@ public class MessageServiceImpl implements MessageService {
     @Override
     @Transactional
     public Message saveMessage(Message message) {
-        log.info("Guardando mensaje en la base de datos");
+        log.debug("Guardando mensaje en la base de datos");
         
+        deduplicateOutboundContent(message);
         Message savedMessage = messageRepository.save(message);
         
-        log.info("Mensaje guardado exitosamente con ID: {}", savedMessage.getId());
+        log.debug("Mensaje guardado exitosamente con ID: {}", savedMessage.getId());
         
         return savedMessage;
     }
@@ -48,7 +70,7 @@ public class MessageServiceImpl implements MessageService {
     @Override
     @Transactional
     public Message createInboundMessage(String whatsappMessageId, String content, String senderPhone, Conversation conversation) {
-        log.info("Creando mensaje entrante desde teléfono: {}", senderPhone);
+        log.debug("Creando mensaje entrante desde teléfono: {}", LogRedactor.phone(senderPhone));
         
         // Crear mensaje usando el mapper
         Message message = messageMapper.createInboundMessage(
@@ -61,7 +83,7 @@ public class MessageServiceImpl implements MessageService {
         // Guardar en BD
         Message savedMessage = messageRepository.save(message);
         
-        log.info("Mensaje entrante guardado con ID: {} para conversación ID: {}", 
+        log.debug("Mensaje entrante guardado con ID: {} para conversación ID: {}", 
                 savedMessage.getId(), conversation.getId());
         
         return savedMessage;
@@ -73,7 +95,7 @@ public class MessageServiceImpl implements MessageService {
     @Override
     @Transactional
     public Message createOutboundMessage(String content, String recipientPhone, Conversation conversation) {
-        log.info("Creando mensaje saliente hacia teléfono: {}", recipientPhone);
+        log.debug("Creando mensaje saliente hacia teléfono: {}", LogRedactor.phone(recipientPhone));
         
         // Crear mensaje usando el mapper
         Message message = messageMapper.createOutboundMessage(
@@ -82,28 +104,87 @@ public class MessageServiceImpl implements MessageService {
                 conversation
         );
         
-        // Guardar en BD
+        // Guardar en BD (el texto se guarda una sola vez en message_contents)
+        deduplicateOutboundContent(message);
         Message savedMessage = messageRepository.save(message);
         
-        log.info("Mensaje saliente guardado con ID: {} para conversación ID: {}", 
+        log.debug("Mensaje saliente guardado con ID: {} para conversación ID: {}", 
                 savedMessage.getId(), conversation.getId());
         
         return savedMessage;
     }
     
     /**
-     * Obtener mensajes de una conversación
+     * Guardar mensaje saliente y su envío pendiente en el outbox
      */
     @Override
-    @Transactional(readOnly = true)
-    public List<Message> getMessagesByConversationId(Long conversationId) {
-        log.info("Obteniendo mensajes de la conversación ID: {}", conversationId);
+    @Transactional
+    public Message queueOutboundMessage(String content, String recipientPhone, Conversation conversation,
+                                        Long replyToMessageId, Integer chunkIndex, LocalDateTime replyOriginAt) {
+        log.debug("Encolando mensaje saliente hacia teléfono: {}", LogRedactor.phone(recipientPhone));
+        
+        Message message = messageMapper.createOutboundMessage(
+                content,
+                recipientPhone,
+                conversation
+        );
+        messageMapper.updateMessageStatus(message, Message.MessageStatus.QUEUED);
+        message.setReplyToMessageId(replyToMessageId);
+        message.setChunkIndex(chunkIndex);
+        
+        deduplicateOutboundContent(message);
+        Message savedMessage = messageRepository.save(message);
         
-        List<Message> messages = messageRepository.findByConversationIdOrderBySentAt(conversationId);
+        outboxMessageRepository.save(OutboxMessage.builder()
+                .messageId(savedMessage.getId())
+                .messageSentAt(savedMessage.getSentAt())
+                .recipientPhone(recipientPhone)
+                .replyOriginAt(replyOriginAt)
+                .traceParent(pipelineTracing.currentTraceParent())
+                .build());
+        
+        log.debug("Mensaje saliente ID: {} en el outbox", savedMessage.getId());
+        
+        return savedMessage;
+    }
+    
+    /**
+     * Obtener mensajes de una conversación (paginado por cursor)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<MessageResponse> getMessagesByConversationId(Long conversationId, String cursor, Integer size) {
+        int pageSize = paginationConfig.resolveSize(size);
+        CursorCodec.Cursor after = CursorCodec.decode(cursor);
+        log.info("Obteniendo página de mensajes de la conversación ID: {}, tamaño: {}", conversationId, pageSize);
+        
+        // Se pide una fila extra para saber si hay más páginas
+        Limit limit = Limit.of(pageSize + 1);
+        List<Message> messages = after == null
+                ? messageRepository.findPageByConversation(conversationId, limit)
+                : messageRepository.findPageByConversationAfter(
+                        conversationId, after.requireTimestamp().timestamp(), after.id(), limit);
         
         log.info("Se encontraron {} mensajes", messages.size());
         
-        return messages;
+        // Sin mensajes en la base: la conversación puede estar en el archivo frío
+        if (messages.isEmpty()) {
+            Optional<ArchivedConversation> archived = coldArchiveService.findConversation(conversationId);
+            if (archived.isPresent()) {
+                List<MessageResponse> archivedMessages = archived.get().getMessages().stream()
+                        .filter(message -> after == null
+                                || message.getSentAt().isAfter(after.timestamp())
+                                || (message.getSentAt().isEqual(after.timestamp()) && message.getId() > after.id()))
+                        .limit(pageSize + 1L)
+                        .toList();
+                
+                return PageResponse.of(archivedMessages, pageSize, Function.identity(),
+                        message -> CursorCodec.encode(message.getSentAt(), message.getId()));
+            }
+        }
+        
+        return PageResponse.of(messages, pageSize, messageMapper::toResponse,
+                message -> CursorCodec.encode(message.getSentAt(), message.getId()));
     }
     
     /**
@@ -112,7 +193,7 @@ public class MessageServiceImpl implements MessageService {
     @Override
     @Transactional
     public void updateMessageStatus(Long messageId, Message.MessageStatus status) {
-        log.info("Actualizando estado del mensaje ID: {} a {}", messageId, status);
+        log.debug("Actualizando estado del mensaje ID: {} a {}", messageId, status);
         
         Message message = messageRepository.findById(messageId)
                 .orElseThrow(() -> new ResourceNotFoundException("Mensaje no encontrado con ID: " + messageId));
@@ -123,7 +204,7 @@ public class MessageServiceImpl implements MessageService {
         // Guardar cambios
         messageRepository.save(message);
         
-        log.info("Estado del mensaje actualizado exitosamente");
+        log.debug("Estado del mensaje actualizado exitosamente");
     }
     
     /**
@@ -132,7 +213,7 @@ public class MessageServiceImpl implements MessageService {
     @Override
     @Transactional
     public void updateWhatsAppMessageId(Long messageId, String whatsappMessageId) {
-        log.info("Actualizando WhatsApp Message ID para mensaje interno ID: {}", messageId);
+        log.debug("Actualizando WhatsApp Message ID para mensaje interno ID: {}", messageId);
         
         Message message = messageRepository.findById(messageId)
                 .orElseThrow(() -> new ResourceNotFoundException("Mensaje no encontrado con ID: " + messageId));
@@ -143,6 +224,29 @@ public class MessageServiceImpl implements MessageService {
         // Guardar cambios
         messageRepository.save(message);
         
-        log.info("WhatsApp Message ID actualizado a: {}", whatsappMessageId);
+        log.debug("WhatsApp Message ID actualizado a: {}", whatsappMessageId);
+    }
+    
+    /**
+     * Reservar el ID de WhatsApp de un mensaje entrante (PRIMARY KEY de inbound_wamids)
+     */
+    @Override
+    @Transactional
+    public boolean claimInboundMessageId(String whatsappMessageId) {
+        return whatsappMessageId == null || inboundWamidRepository.insertIfAbsent(whatsappMessageId) > 0;
+    }
+    
+    /**
+     * Las respuestas del bot se repiten: guardarlas por referencia a su hash
+     */
+    private void deduplicateOutboundContent(Message message) {
+        if (message.getDirection() != Message.MessageDirection.OUTBOUND || message.getContentHash() != null) {
+            return;
+        }
+        
+        String hash = messageContentService.store(message.getContent());
+        if (hash != null) {
+            message.shareContent(hash);
+        }
     }
 }
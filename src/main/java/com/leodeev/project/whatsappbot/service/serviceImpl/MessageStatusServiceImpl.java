@@ -0,0 +1,256 @@
+package com.leodeev.project.whatsappbot.service.serviceImpl;
+
+import com.leodeev.project.whatsappbot.config.StatusBatchConfig;
+import com.leodeev.project.whatsappbot.entity.CampaignRecipient;
+import com.leodeev.project.whatsappbot.entity.Message;
+import com.leodeev.project.whatsappbot.service.MessageStatusService;
+import com.leodeev.project.whatsappbot.util.PipelineMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Implementación del procesamiento por lotes de estados de mensajes
+ * SOLID: Single Responsibility Principle - Solo combina y escribe estados
+ *
+ * Los callbacks de estado llegan ~3 por cada mensaje entrante. En lugar de
+ * findById + save por evento, se combinan en memoria por whatsappMessageId
+ * (queda el estado más avanzado y las primeras fechas de entrega/lectura)
+ * y se escriben con un único UPDATE ... FROM unnest(...) por intervalo.
+ * El UPDATE nunca retrocede un estado (ej: DELIVERED tardío después de READ).
+ * Los envíos de campañas no están en messages: lo que no coincide ahí se
+ * aplica a campaign_recipients con el mismo criterio.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MessageStatusServiceImpl implements MessageStatusService, DisposableBean {
+
+    // El orden del enum es el avance del estado: QUEUED < SENT < DELIVERED < READ < FAILED
+    private static final String STATUS_ORDER = Arrays.stream(Message.MessageStatus.values())
+            .map(status -> "'" + status.name() + "'")
+            .collect(Collectors.joining(",", "ARRAY[", "]"));
+
+    private static final String UPDATE_SQL = """
+            UPDATE messages m SET
+                status = CASE WHEN array_position(%1$s, s.status) > array_position(%1$s, m.status)
+                              THEN s.status ELSE m.status END,
+                delivered_at = COALESCE(m.delivered_at, s.delivered_at, s.read_at),
+                read_at = COALESCE(m.read_at, s.read_at),
+                error_message = COALESCE(s.error_message, m.error_message),
+                updated_at = now()
+            FROM unnest(?::text[], ?::text[], ?::timestamp[], ?::timestamp[], ?::text[])
+                 AS s(whatsapp_message_id, status, delivered_at, read_at, error_message)
+            WHERE m.whatsapp_message_id = s.whatsapp_message_id
+              AND m.sent_at >= ?
+            RETURNING m.whatsapp_message_id
+            """.formatted(STATUS_ORDER);
+
+    private static final String RECIPIENT_STATUS_ORDER = Arrays.stream(CampaignRecipient.RecipientStatus.values())
+            .map(status -> "'" + status.name() + "'")
+            .collect(Collectors.joining(",", "ARRAY[", "]"));
+
+    private static final String CAMPAIGN_UPDATE_SQL = """
+            UPDATE campaign_recipients r SET
+                status = CASE WHEN array_position(%1$s, s.status) > array_position(%1$s, r.status)
+                              THEN s.status ELSE r.status END,
+                error_message = COALESCE(s.error_message, r.error_message),
+                updated_at = now()
+            FROM unnest(?::text[], ?::text[], ?::text[]) AS s(whatsapp_message_id, status, error_message)
+            WHERE r.whatsapp_message_id = s.whatsapp_message_id
+            RETURNING r.whatsapp_message_id
+            """.formatted(RECIPIENT_STATUS_ORDER);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StatusBatchConfig statusBatchConfig;
+    private final PipelineMetrics pipelineMetrics;
+
+    private final Map<String, PendingStatus> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Override
+    public void enqueue(String whatsappMessageId, Message.MessageStatus status, LocalDateTime timestamp, String errorMessage) {
+        if (whatsappMessageId == null || status == null) {
+            return;
+        }
+
+        pending.merge(whatsappMessageId, PendingStatus.of(status, timestamp, errorMessage), PendingStatus::merge);
+
+        // Ráfaga de callbacks: escribir antes del intervalo para acotar la memoria
+        if (pending.size() >= statusBatchConfig.getMaxPending() && flushLock.tryLock()) {
+            try {
+                drainAndWrite();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${messages.status-batch.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Error escribiendo estados de mensajes: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int flush() {
+        flushLock.lock();
+        try {
+            return drainAndWrite();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Al apagar no se pierden los estados pendientes
+     */
+    @Override
+    public void destroy() {
+        flush();
+    }
+
+    private int drainAndWrite() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, PendingStatus> batch = new LinkedHashMap<>();
+        for (String whatsappMessageId : pending.keySet()) {
+            PendingStatus status = pending.remove(whatsappMessageId);
+            if (status != null) {
+                batch.put(whatsappMessageId, status);
+            }
+        }
+
+        List<String> updated;
+        try {
+            updated = pipelineMetrics.time(PipelineMetrics.Stage.STATUS_UPDATE, () -> write(batch));
+        } catch (RuntimeException e) {
+            // Devolver el lote para el próximo intervalo
+            batch.forEach((id, status) -> pending.merge(id, status, PendingStatus::merge));
+            throw e;
+        }
+
+        requeueUnmatched(batch, new HashSet<>(updated));
+
+        log.debug("Estados de mensajes: {} recibidos, {} actualizados", batch.size(), updated.size());
+        return updated.size();
+    }
+
+    private List<String> write(Map<String, PendingStatus> batch) {
+        int size = batch.size();
+        String[] ids = new String[size];
+        String[] statuses = new String[size];
+        Timestamp[] deliveredAt = new Timestamp[size];
+        Timestamp[] readAt = new Timestamp[size];
+        String[] errors = new String[size];
+
+        int i = 0;
+        for (Map.Entry<String, PendingStatus> entry : batch.entrySet()) {
+            PendingStatus status = entry.getValue();
+            ids[i] = entry.getKey();
+            statuses[i] = status.status().name();
+            deliveredAt[i] = status.deliveredAt() != null ? Timestamp.valueOf(status.deliveredAt()) : null;
+            readAt[i] = status.readAt() != null ? Timestamp.valueOf(status.readAt()) : null;
+            errors[i] = status.errorMessage();
+            i++;
+        }
+
+        Timestamp since = Timestamp.valueOf(LocalDateTime.now().minusDays(statusBatchConfig.getLookbackDays()));
+
+        List<String> updated = new ArrayList<>(jdbcTemplate.query(UPDATE_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setArray(1, connection.createArrayOf("text", ids));
+            ps.setArray(2, connection.createArrayOf("text", statuses));
+            ps.setArray(3, connection.createArrayOf("timestamp", deliveredAt));
+            ps.setArray(4, connection.createArrayOf("timestamp", readAt));
+            ps.setArray(5, connection.createArrayOf("text", errors));
+            ps.setTimestamp(6, since);
+        }, (rs, rowNum) -> rs.getString(1)));
+
+        // Lo que no es un mensaje de conversación puede ser un envío de campaña
+        if (updated.size() < size) {
+            updated.addAll(jdbcTemplate.query(CAMPAIGN_UPDATE_SQL, ps -> {
+                Connection connection = ps.getConnection();
+                ps.setArray(1, connection.createArrayOf("text", ids));
+                ps.setArray(2, connection.createArrayOf("text", statuses));
+                ps.setArray(3, connection.createArrayOf("text", errors));
+            }, (rs, rowNum) -> rs.getString(1)));
+        }
+
+        return updated;
+    }
+
+    /**
+     * Un callback puede llegar antes de que se confirme el mensaje saliente con su
+     * whatsappMessageId: se reintenta en los siguientes intervalos hasta maxAttempts
+     */
+    private void requeueUnmatched(Map<String, PendingStatus> batch, Set<String> updated) {
+        batch.forEach((whatsappMessageId, status) -> {
+            if (updated.contains(whatsappMessageId)) {
+                return;
+            }
+            if (status.attempts() + 1 < statusBatchConfig.getMaxAttempts()) {
+                pending.merge(whatsappMessageId, status.retried(), PendingStatus::merge);
+            } else {
+                log.debug("Estado descartado, mensaje no encontrado: {}", whatsappMessageId);
+            }
+        });
+    }
+
+    /**
+     * Estado combinado de un mensaje
+     */
+    private record PendingStatus(Message.MessageStatus status, LocalDateTime deliveredAt, LocalDateTime readAt,
+                                 String errorMessage, int attempts) {
+
+        static PendingStatus of(Message.MessageStatus status, LocalDateTime timestamp, String errorMessage) {
+            return new PendingStatus(status,
+                    status == Message.MessageStatus.DELIVERED ? timestamp : null,
+                    status == Message.MessageStatus.READ ? timestamp : null,
+                    errorMessage,
+                    0);
+        }
+
+        PendingStatus merge(PendingStatus other) {
+            return new PendingStatus(
+                    other.status.compareTo(status) > 0 ? other.status : status,
+                    earliest(deliveredAt, other.deliveredAt),
+                    earliest(readAt, other.readAt),
+                    other.errorMessage != null ? other.errorMessage : errorMessage,
+                    Math.max(attempts, other.attempts));
+        }
+
+        PendingStatus retried() {
+            return new PendingStatus(status, deliveredAt, readAt, errorMessage, attempts + 1);
+        }
+
+        private static LocalDateTime earliest(LocalDateTime a, LocalDateTime b) {
+            if (a == null) {
+                return b;
+            }
+            return b == null || a.isBefore(b) ? a : b;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.leodeev.project.whatsappbot.service.serviceImpl;
+
+import com.leodeev.project.whatsappbot.config.LogSamplingConfig;
+import com.leodeev.project.whatsappbot.config.OutboxConfig;
+import com.leodeev.project.whatsappbot.config.RetryConfig;
+import com.leodeev.project.whatsappbot.entity.Message;
+import com.leodeev.project.whatsappbot.service.OutboxDispatcherService;
+import com.leodeev.project.whatsappbot.service.WhatsAppService;
+import com.leodeev.project.whatsappbot.util.PipelineMetrics;
+import com.leodeev.project.whatsappbot.util.PipelineTracing;
+import com.leodeev.project.whatsappbot.util.RetryBackoff;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementación del despachador de envíos salientes (outbox)
+ * SOLID: Single Responsibility Principle - Solo reclama, envía y registra resultados
+ *
+ * El mensaje saliente y su fila en message_outbox se escriben en la misma
+ * transacción, así una caída nunca deja un envío sin registro. Cada pasada:
+ * 1. Reclama con FOR UPDATE SKIP LOCKED solo el envío más antiguo de cada
+ *    destinatario (los siguientes esperan a que ese se borre): el orden por
+ *    teléfono se mantiene aunque haya varias réplicas y envíos en paralelo.
+ *    El texto se lee en la misma sentencia desde messages / message_contents:
+ *    el outbox no guarda una segunda copia.
+ * 2. Envía el lote con concurrencia acotada (la tasa la regula sendTextMessage).
+ * 3. Registra todos los resultados en una transacción: un UPDATE ... FROM
+ *    unnest(...) por cada tipo de resultado y un DELETE de los envíos terminados.
+ * Un fallo transitorio deja la fila en el outbox con locked_until = próximo intento
+ * (backoff) y attempt_count + 1: los envíos siguientes al mismo teléfono siguen
+ * esperando detrás. Solo un error permanente o el último intento la sacan del
+ * outbox y dejan el mensaje en FAILED. Si la réplica cae entre el envío y el
+ * registro, el envío se repite al vencer el lease (entrega al menos una vez).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxDispatcherServiceImpl implements OutboxDispatcherService, SmartInitializingSingleton, DisposableBean {
+
+    private static final String CLAIM_SQL = """
+            UPDATE message_outbox o SET locked_until = ?
+            FROM (
+                SELECT c.id FROM message_outbox c
+                WHERE (c.locked_until IS NULL OR c.locked_until < ?)
+                  AND NOT EXISTS (SELECT 1 FROM message_outbox p
+                                  WHERE p.recipient_phone = c.recipient_phone AND p.id < c.id)
+                ORDER BY c.id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            ) claimed
+            WHERE o.id = claimed.id
+            RETURNING o.id, o.message_id, o.message_sent_at, o.recipient_phone,
+                (SELECT COALESCE(m.content, (SELECT mc.content FROM message_contents mc WHERE mc.hash = m.content_hash))
+                 FROM messages m WHERE m.id = o.message_id AND m.sent_at = o.message_sent_at),
+                o.reply_origin_at, o.trace_parent, COALESCE(o.attempt_count, 0)
+            """;
+
+    private static final String SENT_SQL = """
+            UPDATE messages m SET status = 'SENT', whatsapp_message_id = s.whatsapp_message_id,
+                attempt_count = COALESCE(m.attempt_count, 0) + 1, updated_at = now()
+            FROM unnest(?::bigint[], ?::timestamp[], ?::text[]) AS s(id, sent_at, whatsapp_message_id)
+            WHERE m.id = s.id AND m.sent_at = s.sent_at
+            """;
+
+    private static final String RETRY_OUTBOX_SQL = """
+            UPDATE message_outbox o SET locked_until = s.next_attempt_at,
+                attempt_count = COALESCE(o.attempt_count, 0) + 1
+            FROM unnest(?::bigint[], ?::timestamp[]) AS s(id, next_attempt_at)
+            WHERE o.id = s.id
+            """;
+
+    private static final String RETRY_SQL = """
+            UPDATE messages m SET error_message = s.error_message,
+                attempt_count = COALESCE(m.attempt_count, 0) + 1, updated_at = now()
+            FROM unnest(?::bigint[], ?::timestamp[], ?::text[]) AS s(id, sent_at, error_message)
+            WHERE m.id = s.id AND m.sent_at = s.sent_at
+            """;
+
+    private static final String FAILED_SQL = """
+            UPDATE messages m SET status = 'FAILED', error_message = s.error_message,
+                attempt_count = COALESCE(m.attempt_count, 0) + 1, updated_at = now()
+            FROM unnest(?::bigint[], ?::timestamp[], ?::text[]) AS s(id, sent_at, error_message)
+            WHERE m.id = s.id AND m.sent_at = s.sent_at
+            """;
+
+    private static final String DELETE_SQL = "DELETE FROM message_outbox WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final WhatsAppService whatsAppService;
+    private final OutboxConfig outboxConfig;
+    private final RetryConfig retryConfig;
+    private final PipelineMetrics pipelineMetrics;
+    private final PipelineTracing pipelineTracing;
+    private final LogSamplingConfig logSamplingConfig;
+
+    private ExecutorService senders;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        senders = Executors.newFixedThreadPool(outboxConfig.getConcurrency());
+        syncStatusConstraint();
+        dropContentCopy();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (senders != null) {
+            senders.shutdown();
+            senders.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${messages.outbox.poll-interval-ms:200}")
+    public void scheduledDispatch() {
+        if (!Boolean.TRUE.equals(outboxConfig.getEnabled())) {
+            return;
+        }
+        try {
+            dispatch();
+        } catch (Exception e) {
+            log.error("Error despachando el outbox: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int dispatch() {
+        List<OutboxEntry> claimed = claim();
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        // Como mucho un envío por destinatario en el lote: el paralelismo no altera el orden
+        List<CompletableFuture<SendResult>> futures = claimed.stream()
+                .map(entry -> CompletableFuture.supplyAsync(() -> send(entry), senders))
+                .toList();
+        List<SendResult> results = futures.stream().map(CompletableFuture::join).toList();
+
+        record(results);
+
+        long sent = results.stream().filter(SendResult::succeeded).count();
+        // Los fallos ya se registran uno a uno como advertencia
+        if (logSamplingConfig.sample(LogSamplingConfig.Point.OUTBOX)) {
+            log.info("Outbox: {} despachados, {} enviados, {} fallidos", results.size(), sent, results.size() - sent);
+        }
+        return (int) sent;
+    }
+
+    private List<OutboxEntry> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.query(CLAIM_SQL, ps -> {
+            ps.setTimestamp(1, Timestamp.valueOf(now.plus(outboxConfig.getLease())));
+            ps.setTimestamp(2, Timestamp.valueOf(now));
+            ps.setInt(3, outboxConfig.getBatchSize());
+        }, (rs, rowNum) -> new OutboxEntry(
+                rs.getLong(1),
+                rs.getLong(2),
+                rs.getTimestamp(3),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getTimestamp(6),
+                rs.getString(7),
+                rs.getInt(8)));
+    }
+
+    private SendResult send(OutboxEntry entry) {
+        return pipelineTracing.continueFrom(entry.traceParent(), "outbox.dispatch", span -> doSend(entry));
+    }
+
+    private SendResult doSend(OutboxEntry entry) {
+        if (entry.content() == null) {
+            return new SendResult(entry, null,
+                    new IllegalStateException("Mensaje ID: " + entry.messageId() + " no encontrado en messages"));
+        }
+        try {
+            String whatsappMessageId = whatsAppService.sendTextMessage(entry.recipientPhone(), entry.content())
+                    .getMessages().get(0).getId();
+            if (entry.replyOriginAt() != null) {
+                pipelineMetrics.recordEndToEnd(entry.replyOriginAt().toLocalDateTime()
+                        .atZone(ZoneId.systemDefault()).toInstant());
+            }
+            return new SendResult(entry, whatsappMessageId, null);
+        } catch (Exception e) {
+            return new SendResult(entry, null, e);
+        }
+    }
+
+    /**
+     * Registrar los resultados del lote en una sola transacción
+     */
+    private void record(List<SendResult> results) {
+        List<SendResult> sent = new ArrayList<>();
+        List<SendResult> retried = new ArrayList<>();
+        List<Timestamp> nextAttempts = new ArrayList<>();
+        List<SendResult> failed = new ArrayList<>();
+
+        for (SendResult result : results) {
+            if (result.succeeded()) {
+                sent.add(result);
+                continue;
+            }
+
+            int attempts = result.entry().attempts() + 1;
+            // Sin el mensaje no hay texto que enviar: reintentar no lo arregla
+            LocalDateTime nextAttemptAt = result.entry().content() != null
+                    ? retryConfig.nextAttemptAt(attempts, result.error())
+                    : null;
+            if (nextAttemptAt != null) {
+                retried.add(result);
+                nextAttempts.add(Timestamp.valueOf(nextAttemptAt));
+                log.warn("Envío fallido del mensaje ID: {} (intento {}), próximo intento: {}",
+                        result.entry().messageId(), attempts, nextAttemptAt);
+            } else {
+                failed.add(result);
+                log.warn("Envío del mensaje ID: {} descartado tras {} intentos: {}",
+                        result.entry().messageId(), attempts, RetryBackoff.describe(result.error()));
+            }
+        }
+
+        // Los reintentos siguen en el outbox; el resto ya terminó
+        Long[] finishedIds = Stream.concat(sent.stream(), failed.stream())
+                .map(result -> result.entry().id())
+                .toArray(Long[]::new);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sent.isEmpty()) {
+                jdbcTemplate.update(SENT_SQL, ps -> {
+                    Connection connection = ps.getConnection();
+                    ps.setArray(1, connection.createArrayOf("bigint", messageIds(sent)));
+                    ps.setArray(2, connection.createArrayOf("timestamp", sentAts(sent)));
+                    ps.setArray(3, connection.createArrayOf("text",
+                            sent.stream().map(SendResult::whatsappMessageId).toArray(String[]::new)));
+                });
+            }
+
+            if (!retried.isEmpty()) {
+                jdbcTemplate.update(RETRY_OUTBOX_SQL, ps -> {
+                    Connection connection = ps.getConnection();
+                    ps.setArray(1, connection.createArrayOf("bigint",
+                            retried.stream().map(result -> result.entry().id()).toArray(Long[]::new)));
+                    ps.setArray(2, connection.createArrayOf("timestamp", nextAttempts.toArray()));
+                });
+                jdbcTemplate.update(RETRY_SQL, ps -> {
+                    Connection connection = ps.getConnection();
+                    ps.setArray(1, connection.createArrayOf("bigint", messageIds(retried)));
+                    ps.setArray(2, connection.createArrayOf("timestamp", sentAts(retried)));
+                    ps.setArray(3, connection.createArrayOf("text", errors(retried)));
+                });
+            }
+
+            if (!failed.isEmpty()) {
+                jdbcTemplate.update(FAILED_SQL, ps -> {
+                    Connection connection = ps.getConnection();
+                    ps.setArray(1, connection.createArrayOf("bigint", messageIds(failed)));
+                    ps.setArray(2, connection.createArrayOf("timestamp", sentAts(failed)));
+                    ps.setArray(3, connection.createArrayOf("text", errors(failed)));
+                });
+            }
+
+            if (finishedIds.length > 0) {
+                jdbcTemplate.update(DELETE_SQL, ps -> ps.setArray(1,
+                        ps.getConnection().createArrayOf("bigint", finishedIds)));
+            }
+        });
+    }
+
+    /**
+     * ddl-auto=update no actualiza el CHECK de un enum ampliado (QUEUED)
+     */
+    private void syncStatusConstraint() {
+        List<String> definitions = jdbcTemplate.queryForList(
+                "SELECT pg_get_constraintdef(oid) FROM pg_constraint "
+                        + "WHERE conrelid = 'messages'::regclass AND conname = 'messages_status_check'",
+                String.class);
+
+        boolean outdated = definitions.stream().anyMatch(definition -> Arrays.stream(Message.MessageStatus.values())
+                .anyMatch(status -> !definition.contains("'" + status.name() + "'")));
+
+        if (outdated) {
+            String values = Arrays.stream(Message.MessageStatus.values())
+                    .map(status -> "'" + status.name() + "'")
+                    .collect(Collectors.joining(", "));
+            jdbcTemplate.execute("ALTER TABLE messages DROP CONSTRAINT messages_status_check, "
+                    + "ADD CONSTRAINT messages_status_check CHECK (status IN (" + values + "))");
+            log.info("Restricción messages_status_check actualizada: {}", values);
+        }
+    }
+
+    /**
+     * message_outbox ya no guarda el texto; ddl-auto=update no borra la columna
+     * NOT NULL creada por versiones anteriores (los pendientes tienen su texto en messages)
+     */
+    private void dropContentCopy() {
+        jdbcTemplate.execute("ALTER TABLE message_outbox DROP COLUMN IF EXISTS content");
+    }
+
+    private static Long[] messageIds(List<SendResult> results) {
+        return results.stream().map(result -> result.entry().messageId()).toArray(Long[]::new);
+    }
+
+    private static Timestamp[] sentAts(List<SendResult> results) {
+        return results.stream().map(result -> result.entry().messageSentAt()).toArray(Timestamp[]::new);
+    }
+
+    private static String[] errors(List<SendResult> results) {
+        return results.stream().map(result -> RetryBackoff.describe(result.error())).toArray(String[]::new);
+    }
+
+    /**
+     * Envío reservado por esta réplica
+     * @param replyOriginAt Envío del mensaje del cliente, solo en la primera parte de una respuesta
+     * @param traceParent Traza de la respuesta (null en envíos sin mensaje de origen)
+     * @param content Texto del mensaje; null si el mensaje ya no existe
+     * @param attempts Intentos fallidos anteriores
+     */
+    private record OutboxEntry(Long id, Long messageId, Timestamp messageSentAt, String recipientPhone, String content,
+                               Timestamp replyOriginAt, String traceParent, int attempts) {
+    }
+
+    /**
+     * Resultado de un envío: ID de WhatsApp o error
+     */
+    private record SendResult(OutboxEntry entry, String whatsappMessageId, Exception error) {
+
+        boolean succeeded() {
+            return error == null;
+        }
+    }
+}
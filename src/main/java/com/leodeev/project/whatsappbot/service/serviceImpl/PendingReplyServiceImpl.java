@@ -0,0 +1,92 @@
+package com.leodeev.project.whatsappbot.service.serviceImpl;
+
+import com.leodeev.project.whatsappbot.config.InboundCoalescingConfig;
+import com.leodeev.project.whatsappbot.entity.Message;
+import com.leodeev.project.whatsappbot.entity.PendingReply;
+import com.leodeev.project.whatsappbot.repository.MessageRepository;
+import com.leodeev.project.whatsappbot.repository.PendingReplyRepository;
+import com.leodeev.project.whatsappbot.service.PendingReplyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Implementación de las respuestas pendientes
+ * SOLID: Single Responsibility Principle - Solo registra qué mensajes esperan respuesta
+ *
+ * El diario avanza su checkpoint cuando el mensaje está guardado, pero la
+ * respuesta se genera después, en la ráfaga en memoria. La marca se guarda con
+ * el mensaje y se borra cuando la respuesta está en el outbox: lo que quede
+ * marcado más de recoverAfter se vuelve a responder (al menos una vez; si la
+ * réplica cae justo después de encolar la respuesta, se repite).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PendingReplyServiceImpl implements PendingReplyService {
+
+    private static final String CLAIM_SQL = """
+            UPDATE pending_replies p SET due_at = ?
+            FROM (
+                SELECT d.message_id FROM pending_replies d
+                WHERE d.due_at < ?
+                ORDER BY d.message_id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            ) due
+            WHERE p.message_id = due.message_id
+            RETURNING p.message_id
+            """;
+
+    private final PendingReplyRepository pendingReplyRepository;
+    private final MessageRepository messageRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final InboundCoalescingConfig coalescingConfig;
+
+    @Override
+    public void markPending(Message inboundMessage) {
+        pendingReplyRepository.save(PendingReply.builder()
+                .messageId(inboundMessage.getId())
+                .phoneNumber(inboundMessage.getSenderPhone())
+                .dueAt(LocalDateTime.now().plus(coalescingConfig.getRecoverAfter()))
+                .build());
+    }
+
+    @Override
+    @Transactional
+    public void markAnswered(String phoneNumber, Long lastMessageId) {
+        pendingReplyRepository.deleteAnswered(phoneNumber, lastMessageId);
+    }
+
+    @Override
+    public List<Message> claimAbandoned() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = jdbcTemplate.query(CLAIM_SQL, ps -> {
+            ps.setTimestamp(1, Timestamp.valueOf(now.plus(coalescingConfig.getRecoverAfter())));
+            ps.setTimestamp(2, Timestamp.valueOf(now));
+            ps.setInt(3, coalescingConfig.getRecoveryBatchSize());
+        }, (rs, rowNum) -> rs.getLong(1));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        List<Message> messages = messageRepository.findWithConversationByIdIn(ids);
+
+        // Mensajes ya depurados de messages: no hay nada que responder
+        Set<Long> missing = new HashSet<>(ids);
+        messages.forEach(message -> missing.remove(message.getId()));
+        if (!missing.isEmpty()) {
+            pendingReplyRepository.deleteAllById(missing);
+            log.warn("{} respuestas pendientes sin su mensaje entrante, descartadas", missing.size());
+        }
+        return messages;
+    }
+}
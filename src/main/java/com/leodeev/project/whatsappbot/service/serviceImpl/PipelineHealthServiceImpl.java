@@ -0,0 +1,194 @@
+package com.leodeev.project.whatsappbot.service.serviceImpl;
+
+import com.leodeev.project.whatsappbot.config.PipelineHealthConfig;
+import com.leodeev.project.whatsappbot.dto.response.PipelineLoad;
+import com.leodeev.project.whatsappbot.service.InboundCoalescingService;
+import com.leodeev.project.whatsappbot.service.InboundJournalService;
+import com.leodeev.project.whatsappbot.service.PipelineHealthService;
+import com.leodeev.project.whatsappbot.util.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Implementación de la salud y saturación del pipeline
+ * SOLID: Single Responsibility Principle - Solo reúne señales de carga
+ *
+ * El cuello de botella es la cola detrás de OpenAI, no la CPU: esta clase
+ * publica el retraso de los mensajes sin respuesta, las llamadas en curso frente
+ * al límite adaptativo, la espera por conexiones de Hikari y el outbox, como
+ * métricas (chatbot.ingest.*, chatbot.upstream.*, chatbot.outbox.*) y en
+ * /actuator/pipeline. El indicador de salud "pipeline" usa los mismos valores.
+ *
+ * El outbox es compartido: todas las réplicas informan el mismo tamaño. Se
+ * consulta cada pipeline.health.outbox-refresh-ms, no en cada lectura, y queda
+ * solo como métrica: readiness se decide con señales propias de la réplica
+ * (diario y cola de respuestas). Un outbox atrasado sacaría de servicio a todas
+ * las réplicas a la vez y sacarlas no lo vacía más rápido.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PipelineHealthServiceImpl implements PipelineHealthService, SmartInitializingSingleton {
+
+    private static final String OUTBOX_SQL = "SELECT count(*), min(created_at) FROM message_outbox";
+
+    private final InboundJournalService inboundJournalService;
+    private final InboundCoalescingService inboundCoalescingService;
+    private final AdaptiveConcurrencyLimiter openAiLimiter;
+    private final AdaptiveConcurrencyLimiter whatsAppLimiter;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final PipelineHealthConfig healthConfig;
+
+    private volatile long outboxBacklog;
+    private volatile LocalDateTime outboxOldestAt;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        TimeGauge.builder("chatbot.ingest.lag", this, TimeUnit.MILLISECONDS, service -> service.ingestLag().toMillis())
+                .description("Tiempo sin respuesta del mensaje aceptado más antiguo (diario o cola de respuestas)")
+                .register(meterRegistry);
+        Gauge.builder("chatbot.ingest.pending", inboundCoalescingService,
+                        coalescing -> coalescing.getBacklog().pendingMessages())
+                .description("Mensajes aceptados aún sin respuesta completa")
+                .register(meterRegistry);
+        Gauge.builder("chatbot.ingest.replies", inboundCoalescingService,
+                        coalescing -> coalescing.getBacklog().queuedReplies())
+                .description("Respuestas esperando un hilo")
+                .tag("state", "queued")
+                .register(meterRegistry);
+        Gauge.builder("chatbot.ingest.replies", inboundCoalescingService,
+                        coalescing -> coalescing.getBacklog().activeReplies())
+                .description("Respuestas en curso")
+                .tag("state", "active")
+                .register(meterRegistry);
+
+        registerLimiter("openai", openAiLimiter);
+        registerLimiter("whatsapp", whatsAppLimiter);
+
+        Gauge.builder("chatbot.outbox.backlog", this, service -> service.outboxBacklog)
+                .description("Envíos pendientes en el outbox")
+                .register(meterRegistry);
+        TimeGauge.builder("chatbot.outbox.lag", this, TimeUnit.MILLISECONDS, service -> service.outboxLag().toMillis())
+                .description("Antigüedad del envío pendiente más antiguo del outbox")
+                .register(meterRegistry);
+        Gauge.builder("chatbot.pipeline.ready", this, service -> service.getLoad().getReasons().isEmpty() ? 1 : 0)
+                .description("1 si el retraso está bajo los umbrales de readiness")
+                .register(meterRegistry);
+    }
+
+    private void registerLimiter(String upstream, AdaptiveConcurrencyLimiter limiter) {
+        registerLimiterGauge("chatbot.upstream.inflight", "Llamadas en curso", upstream, limiter,
+                AdaptiveConcurrencyLimiter::getInFlight);
+        registerLimiterGauge("chatbot.upstream.waiting", "Llamadas esperando turno", upstream, limiter,
+                AdaptiveConcurrencyLimiter::getWaiting);
+        registerLimiterGauge("chatbot.upstream.limit", "Límite adaptativo de llamadas simultáneas", upstream, limiter,
+                AdaptiveConcurrencyLimiter::getLimit);
+    }
+
+    private void registerLimiterGauge(String name, String description, String upstream,
+                                      AdaptiveConcurrencyLimiter limiter,
+                                      ToDoubleFunction<AdaptiveConcurrencyLimiter> value) {
+        Gauge.builder(name, limiter, value)
+                .description(description)
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Leer el tamaño del outbox (una consulta agregada sobre una tabla que se vacía al enviar)
+     */
+    @Scheduled(fixedDelayString = "${pipeline.health.outbox-refresh-ms:5000}")
+    public void refreshOutboxBacklog() {
+        try {
+            jdbcTemplate.query(OUTBOX_SQL, rs -> {
+                outboxBacklog = rs.getLong(1);
+                Timestamp oldest = rs.getTimestamp(2);
+                outboxOldestAt = oldest != null ? oldest.toLocalDateTime() : null;
+            });
+        } catch (Exception e) {
+            log.warn("No se pudo leer el tamaño del outbox: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public PipelineLoad getLoad() {
+        InboundCoalescingService.Backlog backlog = inboundCoalescingService.getBacklog();
+        Duration journalLag = inboundJournalService.getOldestPendingAge();
+        Duration ingestLag = max(journalLag, backlog.oldestAge());
+
+        List<String> reasons = new ArrayList<>();
+        if (ingestLag.compareTo(healthConfig.getMaxIngestLag()) > 0) {
+            reasons.add("Mensajes sin respuesta hace " + ingestLag.toMillis() + " ms (máximo "
+                    + healthConfig.getMaxIngestLag().toMillis() + " ms)");
+        }
+
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+        return PipelineLoad.builder()
+                .journalLagBytes(inboundJournalService.getLagBytes())
+                .journalLagMs(journalLag.toMillis())
+                .openBursts(backlog.openBursts())
+                .queuedReplies(backlog.queuedReplies())
+                .activeReplies(backlog.activeReplies())
+                .pendingMessages(backlog.pendingMessages())
+                .ingestLagMs(ingestLag.toMillis())
+                .aiInFlight(openAiLimiter.getInFlight())
+                .aiWaiting(openAiLimiter.getWaiting())
+                .aiLimit(openAiLimiter.getLimit())
+                .whatsappInFlight(whatsAppLimiter.getInFlight())
+                .whatsappWaiting(whatsAppLimiter.getWaiting())
+                .whatsappLimit(whatsAppLimiter.getLimit())
+                .dbActiveConnections(gaugeValue("hikaricp.connections.active"))
+                .dbMaxConnections(gaugeValue("hikaricp.connections.max"))
+                .dbPendingThreads(gaugeValue("hikaricp.connections.pending"))
+                .dbAcquireMaxMs(acquire != null ? acquire.max(TimeUnit.MILLISECONDS) : null)
+                .outboxBacklog(outboxBacklog)
+                .outboxLagMs(outboxLag().toMillis())
+                .reasons(reasons)
+                .build();
+    }
+
+    private Duration ingestLag() {
+        return max(inboundJournalService.getOldestPendingAge(), inboundCoalescingService.getBacklog().oldestAge());
+    }
+
+    /**
+     * Antigüedad del envío más antiguo según la última lectura (crece entre lecturas)
+     */
+    private Duration outboxLag() {
+        LocalDateTime oldest = outboxOldestAt;
+        if (oldest == null) {
+            return Duration.ZERO;
+        }
+        Duration lag = Duration.between(oldest, LocalDateTime.now());
+        return lag.isNegative() ? Duration.ZERO : lag;
+    }
+
+    /**
+     * Métrica de Hikari registrada por Spring Boot; null si el pool aún no existe
+     */
+    private Integer gaugeValue(String name) {
+        Gauge gauge = meterRegistry.find(name).gauge();
+        return gauge != null ? (int) gauge.value() : null;
+    }
+
+    private static Duration max(Duration a, Duration b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+}
@@ -1,14 +1,18 @@
 package com.leodeev.project.whatsappbot.service.serviceImpl;
 
+import com.leodeev.project.whatsappbot.config.PaginationConfig;
 import com.leodeev.project.whatsappbot.dto.request.ProductRequest;
+import com.leodeev.project.whatsappbot.dto.response.PageResponse;
 import com.leodeev.project.whatsappbot.dto.response.ProductResponse;
 import com.leodeev.project.whatsappbot.entity.Product;
 import com.leodeev.project.whatsappbot.exception.ResourceNotFoundException;
 import com.leodeev.project.whatsappbot.mapper.ProductMapper;
 import com.leodeev.project.whatsappbot.repository.ProductRepository;
 import com.leodeev.project.whatsappbot.service.ProductService;
+import com.leodeev.project.whatsappbot.util.CursorCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,6 +30,7 @@ public class ProductServiceImpl implements ProductService {
     
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final PaginationConfig paginationConfig;
     
     /**
      * Crear un nuevo producto
@@ -62,16 +67,23 @@ public class ProductServiceImpl implements ProductService {
     }
     
     /**
-     * Obtener todos los productos
+     * Obtener todos los productos (paginado por cursor)
      */
     @Override
     @Transactional(readOnly = true)
-    public List<ProductResponse> getAllProducts() {
-        log.info("Fetching all products");
-        
-        List<Product> products = productRepository.findAll();
-        
-        return productMapper.toResponseList(products);
+    public PageResponse<ProductResponse> getAllProducts(String cursor, Integer size) {
+        int pageSize = paginationConfig.resolveSize(size);
+        CursorCodec.Cursor after = CursorCodec.decode(cursor);
+        log.info("Fetching products page, size: {}, after ID: {}", pageSize, after != null ? after.id() : null);
+        
+        // Se pide una fila extra para saber si hay más páginas
+        Limit limit = Limit.of(pageSize + 1);
+        List<Product> products = after == null
+                ? productRepository.findPage(limit)
+                : productRepository.findPageAfter(after.id(), limit);
+        
+        return PageResponse.of(products, pageSize, productMapper::toResponse,
+                product -> CursorCodec.encode(product.getId()));
     }
     
     /**
@@ -80,7 +92,7 @@ public class ProductServiceImpl implements ProductService {
     @Override
     @Transactional(readOnly = true)
     public List<ProductResponse> getActiveProducts() {
-        log.info("Fetching active products");
+        log.debug("Fetching active products");
         
         List<Product> products = productRepository.findByActiveTrue();
         
@@ -0,0 +1,81 @@
+package com.leodeev.project.whatsappbot.service.serviceImpl;
+
+import com.leodeev.project.whatsappbot.config.SendRateLimitConfig;
+import com.leodeev.project.whatsappbot.exception.RateLimitExceededException;
+import com.leodeev.project.whatsappbot.service.SendRateLimitService;
+import com.leodeev.project.whatsappbot.util.TokenBucket;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementación del limitador de tasa de envío
+ * SOLID: Single Responsibility Principle - Solo reparte permisos de envío
+ *
+ * Meta limita los mensajes por segundo de cada número según su nivel de
+ * throughput: un token bucket por phone number id, compartido por todos los
+ * caminos de envío (respuestas de IA, envíos manuales, plantillas).
+ * El límite es por instancia: con varias réplicas, repartir la tasa del nivel.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SendRateLimitServiceImpl implements SendRateLimitService {
+
+    private final SendRateLimitConfig sendRateLimitConfig;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public void acquire(String phoneNumberId) {
+        Duration wait = reserve(phoneNumberId);
+        if (wait.isZero()) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait.toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RateLimitExceededException("Espera de permiso de envío interrumpida");
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(String phoneNumberId) {
+        return !Boolean.TRUE.equals(sendRateLimitConfig.getEnabled()) || bucket(phoneNumberId).tryAcquire();
+    }
+
+    @Override
+    public Mono<Void> acquireAsync(String phoneNumberId) {
+        return Mono.defer(() -> {
+            Duration wait = reserve(phoneNumberId);
+            return wait.isZero() ? Mono.empty() : Mono.delay(wait).then();
+        });
+    }
+
+    private Duration reserve(String phoneNumberId) {
+        if (!Boolean.TRUE.equals(sendRateLimitConfig.getEnabled())) {
+            return Duration.ZERO;
+        }
+
+        Duration wait = bucket(phoneNumberId).reserve(sendRateLimitConfig.getMaxWait());
+        if (wait == null) {
+            throw new RateLimitExceededException("Tasa de envío superada para el número " + phoneNumberId);
+        }
+        return wait;
+    }
+
+    private TokenBucket bucket(String phoneNumberId) {
+        return buckets.computeIfAbsent(phoneNumberId, id -> {
+            int rate = sendRateLimitConfig.resolveRate(id);
+            log.info("Tasa de envío del número {}: {} mensajes/s", id, rate);
+            return new TokenBucket(rate, Math.max(1, rate * sendRateLimitConfig.getBurstSeconds()));
+        });
+    }
+}
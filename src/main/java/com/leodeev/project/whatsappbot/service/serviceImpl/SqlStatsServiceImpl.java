@@ -0,0 +1,219 @@
+package com.leodeev.project.whatsappbot.service.serviceImpl;
+
+import com.leodeev.project.whatsappbot.config.SqlMonitoringConfig;
+import com.leodeev.project.whatsappbot.dto.response.SqlFinding;
+import com.leodeev.project.whatsappbot.dto.response.SqlOperationStats;
+import com.leodeev.project.whatsappbot.dto.response.SqlStatsReport;
+import com.leodeev.project.whatsappbot.service.SqlStatsService;
+import com.leodeev.project.whatsappbot.util.LogRedactor;
+import com.leodeev.project.whatsappbot.util.QueryScope;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementación de las estadísticas de SQL por operación lógica
+ * SOLID: Single Responsibility Principle - Solo acumula y publica
+ *
+ * Al cerrarse cada operación se publican chatbot.sql.statements, chatbot.sql.rows
+ * {kind=read|written} y chatbot.sql.time por operación; las consultas repetidas y
+ * lentas suman chatbot.sql.findings{type} y quedan entre los hallazgos recientes.
+ * Todo vive en memoria de la réplica y se reinicia con ella.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SqlStatsServiceImpl implements SqlStatsService {
+
+    private static final String UNSCOPED_OPERATION = "unscoped";
+    private static final String OTHER_OPERATION = "other";
+    private static final int MAX_OPERATIONS = 200;
+    private static final int MAX_SQL_LENGTH = 500;
+
+    private final SqlMonitoringConfig sqlMonitoringConfig;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, OperationTotals> operations = new ConcurrentHashMap<>();
+    private final Deque<SqlFinding> recentFindings = new ArrayDeque<>();
+
+    @Override
+    public QueryScope open(String operation) {
+        return QueryScope.open(operation, this::record);
+    }
+
+    private void record(QueryScope scope) {
+        OperationTotals totals = totals(scope.getOperation());
+        totals.executions.increment();
+        totals.statements.add(scope.getStatements());
+        totals.maxStatements.accumulate(scope.getStatements());
+        totals.rowsRead.add(scope.getRowsRead());
+        totals.rowsWritten.add(scope.getRowsWritten());
+        totals.nanos.add(scope.getNanos());
+        totals.maxNanos.accumulate(scope.getNanos());
+
+        totals.statementsSummary.record(scope.getStatements());
+        totals.rowsReadSummary.record(scope.getRowsRead());
+        totals.rowsWrittenSummary.record(scope.getRowsWritten());
+        totals.dbTime.record(scope.getNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void repeatedQuery(String operation, String sql, int executions) {
+        OperationTotals totals = totals(operation);
+        totals.repeatedQueries.increment();
+        totals.repeatedCounter.increment();
+
+        SqlFinding finding = finding(SqlFinding.Type.REPEATED_QUERY, operation, sql);
+        finding.setExecutions(executions);
+        addFinding(finding);
+        log.warn("Consulta repetida {} veces en {} (posible N+1): {}", executions, operation, finding.getSql());
+    }
+
+    @Override
+    public void slowQuery(String operation, String sql, long elapsedMillis) {
+        OperationTotals totals = totals(operation != null ? operation : UNSCOPED_OPERATION);
+        totals.slowQueries.increment();
+        totals.slowCounter.increment();
+
+        SqlFinding finding = finding(SqlFinding.Type.SLOW_QUERY, operation, sql);
+        finding.setElapsedMs(elapsedMillis);
+        addFinding(finding);
+        log.warn("Consulta lenta ({} ms) en {}: {}", elapsedMillis, finding.getOperation(), finding.getSql());
+    }
+
+    @Override
+    public SqlStatsReport getReport() {
+        List<SqlOperationStats> stats = new ArrayList<>();
+        operations.forEach((operation, totals) -> {
+            long executions = totals.executions.sum();
+            long statements = totals.statements.sum();
+            double dbTimeMs = totals.nanos.sum() / 1_000_000.0;
+            stats.add(SqlOperationStats.builder()
+                    .operation(operation)
+                    .executions(executions)
+                    .statements(statements)
+                    .avgStatements(executions > 0 ? (double) statements / executions : 0.0)
+                    .maxStatements(totals.maxStatements.get())
+                    .rowsRead(totals.rowsRead.sum())
+                    .rowsWritten(totals.rowsWritten.sum())
+                    .dbTimeMs(dbTimeMs)
+                    .avgDbTimeMs(executions > 0 ? dbTimeMs / executions : 0.0)
+                    .maxDbTimeMs(totals.maxNanos.get() / 1_000_000.0)
+                    .repeatedQueries(totals.repeatedQueries.sum())
+                    .slowQueries(totals.slowQueries.sum())
+                    .build());
+        });
+        stats.sort(Comparator.comparing(SqlOperationStats::getDbTimeMs).reversed());
+
+        List<SqlFinding> findings;
+        synchronized (recentFindings) {
+            findings = new ArrayList<>(recentFindings);
+        }
+        return SqlStatsReport.builder()
+                .operations(stats)
+                .recentFindings(findings)
+                .build();
+    }
+
+    /**
+     * Totales de la operación; pasado el máximo de operaciones distintas se agrupan en "other"
+     */
+    private OperationTotals totals(String operation) {
+        OperationTotals totals = operations.get(operation);
+        if (totals != null) {
+            return totals;
+        }
+        String name = operations.size() < MAX_OPERATIONS ? operation : OTHER_OPERATION;
+        return operations.computeIfAbsent(name, key -> new OperationTotals(key, meterRegistry));
+    }
+
+    private SqlFinding finding(SqlFinding.Type type, String operation, String sql) {
+        // El SQL va con parámetros (?), pero un literal podría traer un teléfono
+        String text = sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) + "..." : sql;
+        return SqlFinding.builder()
+                .type(type)
+                .operation(operation != null ? operation : UNSCOPED_OPERATION)
+                .sql(LogRedactor.redact(text))
+                .detectedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private void addFinding(SqlFinding finding) {
+        synchronized (recentFindings) {
+            recentFindings.addFirst(finding);
+            while (recentFindings.size() > sqlMonitoringConfig.getRecentFindings()) {
+                recentFindings.removeLast();
+            }
+        }
+    }
+
+    /**
+     * Acumulados y métricas de una operación
+     */
+    private static final class OperationTotals {
+
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+        private final LongAdder rowsRead = new LongAdder();
+        private final LongAdder rowsWritten = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder repeatedQueries = new LongAdder();
+        private final LongAdder slowQueries = new LongAdder();
+
+        private final DistributionSummary statementsSummary;
+        private final DistributionSummary rowsReadSummary;
+        private final DistributionSummary rowsWrittenSummary;
+        private final Timer dbTime;
+        private final Counter repeatedCounter;
+        private final Counter slowCounter;
+
+        private OperationTotals(String operation, MeterRegistry meterRegistry) {
+            statementsSummary = DistributionSummary.builder("chatbot.sql.statements")
+                    .description("Sentencias SQL por operación")
+                    .tag("operation", operation)
+                    .register(meterRegistry);
+            rowsReadSummary = rows(operation, "read", meterRegistry);
+            rowsWrittenSummary = rows(operation, "written", meterRegistry);
+            dbTime = Timer.builder("chatbot.sql.time")
+                    .description("Tiempo total en la base de datos por operación")
+                    .tag("operation", operation)
+                    .register(meterRegistry);
+            repeatedCounter = finding(operation, "repeated_query", meterRegistry);
+            slowCounter = finding(operation, "slow_query", meterRegistry);
+        }
+
+        private static DistributionSummary rows(String operation, String kind, MeterRegistry meterRegistry) {
+            return DistributionSummary.builder("chatbot.sql.rows")
+                    .description("Filas leídas o modificadas por operación")
+                    .tag("operation", operation)
+                    .tag("kind", kind)
+                    .register(meterRegistry);
+        }
+
+        private static Counter finding(String operation, String type, MeterRegistry meterRegistry) {
+            return Counter.builder("chatbot.sql.findings")
+                    .description("Consultas repetidas (N+1) o lentas")
+                    .tag("operation", operation)
+                    .tag("type", type)
+                    .register(meterRegistry);
+        }
+    }
+}
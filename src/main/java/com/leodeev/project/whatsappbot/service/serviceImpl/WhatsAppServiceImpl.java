@@ -1,8 +1,11 @@
 package com.leodeev.project.whatsappbot.service.serviceImpl;
 
+import com.leodeev.project.whatsappbot.config.LogSamplingConfig;
+import com.leodeev.project.whatsappbot.config.ReplyChunkingConfig;
 import com.leodeev.project.whatsappbot.config.WhatsAppConfig;
 import com.leodeev.project.whatsappbot.dto.request.MessageRequest;
 import com.leodeev.project.whatsappbot.dto.request.WhatsAppWebhookRequest;
+import com.leodeev.project.whatsappbot.dto.response.AIResponse;
 import com.leodeev.project.whatsappbot.dto.response.WhatsAppMessageResponse;
 import com.leodeev.project.whatsappbot.entity.Conversation;
 import com.leodeev.project.whatsappbot.entity.Customer;
@@ -10,19 +13,44 @@ import com.leodeev.project.whatsappbot.entity.Message;
 import com.leodeev.project.whatsappbot.exception.WhatsAppException;
 import com.leodeev.project.whatsappbot.repository.CustomerRepository;
 import com.leodeev.project.whatsappbot.service.AIService;
+import com.leodeev.project.whatsappbot.service.AIUsageService;
 import com.leodeev.project.whatsappbot.service.ConversationService;
+import com.leodeev.project.whatsappbot.service.InboundCoalescingService;
 import com.leodeev.project.whatsappbot.service.MessageService;
+import com.leodeev.project.whatsappbot.service.MessageStatusService;
+import com.leodeev.project.whatsappbot.service.PendingReplyService;
+import com.leodeev.project.whatsappbot.service.SendRateLimitService;
+import com.leodeev.project.whatsappbot.service.SqlStatsService;
 import com.leodeev.project.whatsappbot.service.WhatsAppService;
+import com.leodeev.project.whatsappbot.util.AdaptiveConcurrencyLimiter;
+import com.leodeev.project.whatsappbot.util.FlightEvents;
+import com.leodeev.project.whatsappbot.util.LogRedactor;
+import com.leodeev.project.whatsappbot.util.MessageChunker;
+import com.leodeev.project.whatsappbot.util.PipelineMetrics;
+import com.leodeev.project.whatsappbot.util.PipelineMetrics.ReplySignal;
+import com.leodeev.project.whatsappbot.util.PipelineMetrics.Stage;
+import com.leodeev.project.whatsappbot.util.PipelineTracing;
+import com.leodeev.project.whatsappbot.util.QueryScope;
+import com.leodeev.project.whatsappbot.util.StageTimings;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Implementación del servicio de WhatsApp
@@ -34,20 +62,38 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class WhatsAppServiceImpl implements WhatsAppService {
     
+    private static final String AI_USAGE_OPERATION = "products_reply";
+    // Operaciones de SQL (chatbot.sql.* y /api/admin/sql-stats)
+    private static final String SQL_MESSAGE_OPERATION = "webhook_message";
+    private static final String SQL_REPLY_OPERATION = "ai_reply";
+    private static final String AI_FALLBACK_REPLY =
+            "Disculpa, estoy teniendo problemas para procesar tu mensaje. ¿Podrías intentarlo de nuevo?";
+    
     private final WhatsAppConfig whatsAppConfig;
     private final CustomerRepository customerRepository;
     private final ConversationService conversationService;
     private final MessageService messageService;
+    private final MessageStatusService messageStatusService;
     private final AIService aiService;
     private final WebClient.Builder webClientBuilder;
+    private final AdaptiveConcurrencyLimiter whatsAppLimiter;
+    private final SendRateLimitService sendRateLimitService;
+    private final ReplyChunkingConfig replyChunkingConfig;
+    private final TransactionTemplate transactionTemplate;
+    private final InboundCoalescingService inboundCoalescingService;
+    private final PipelineMetrics pipelineMetrics;
+    private final PipelineTracing pipelineTracing;
+    private final AIUsageService aiUsageService;
+    private final LogSamplingConfig logSamplingConfig;
+    private final SqlStatsService sqlStatsService;
+    private final PendingReplyService pendingReplyService;
     
     /**
      * Procesar webhook entrante de WhatsApp
      */
     @Override
-    @Transactional
     public void processWebhook(WhatsAppWebhookRequest request) {
-        log.info("Procesando webhook de WhatsApp");
+        log.debug("Procesando webhook de WhatsApp");
         
         if (request.getEntry() == null || request.getEntry().isEmpty()) {
             log.warn("Webhook sin entradas, ignorando");
@@ -72,15 +118,65 @@ public class WhatsAppServiceImpl implements WhatsAppService {
     private void processChange(WhatsAppWebhookRequest.Change change) {
         WhatsAppWebhookRequest.Value value = change.getValue();
         
-        if (value == null || value.getMessages() == null || value.getMessages().isEmpty()) {
+        if (value == null) {
+            return;
+        }
+        
+        // Estados de entrega/lectura: se combinan en memoria y se escriben por lotes
+        if (value.getStatuses() != null) {
+            for (WhatsAppWebhookRequest.Status status : value.getStatuses()) {
+                processStatus(status);
+            }
+        }
+        
+        if (value.getMessages() == null || value.getMessages().isEmpty()) {
             log.debug("No hay mensajes en este cambio");
             return;
         }
         
-        // Procesar cada mensaje
+        // Procesar cada mensaje (cada uno con su propia traza)
         for (WhatsAppWebhookRequest.IncomingMessage incomingMessage : value.getMessages()) {
-            processIncomingMessage(incomingMessage, value);
+            try (QueryScope ignored = sqlStatsService.open(SQL_MESSAGE_OPERATION)) {
+                pipelineTracing.inbound(incomingMessage.getId(), incomingMessage.getType(),
+                        () -> processIncomingMessage(incomingMessage, value));
+            }
+        }
+    }
+    
+    /**
+     * Registrar un callback de estado (sent, delivered, read, failed)
+     */
+    private void processStatus(WhatsAppWebhookRequest.Status status) {
+        Message.MessageStatus messageStatus;
+        try {
+            messageStatus = Message.MessageStatus.valueOf(status.getStatus().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            log.debug("Estado de WhatsApp no soportado: {}", status.getStatus());
+            return;
         }
+        
+        Instant sentAt = parseTimestamp(status.getTimestamp());
+        LocalDateTime timestamp = sentAt != null
+                ? LocalDateTime.ofInstant(sentAt, ZoneId.systemDefault())
+                : LocalDateTime.now();
+        
+        String errorMessage = null;
+        if (status.getErrors() != null && !status.getErrors().isEmpty()) {
+            WhatsAppWebhookRequest.StatusError error = status.getErrors().get(0);
+            errorMessage = error.getCode() + ": " + (error.getMessage() != null ? error.getMessage() : error.getTitle());
+        }
+        
+        messageStatusService.enqueue(status.getId(), messageStatus, timestamp, errorMessage);
+    }
+    
+    /**
+     * Timestamp de WhatsApp (segundos desde epoch, como texto); null si no viene o no es válido
+     */
+    private Instant parseTimestamp(String timestamp) {
+        if (timestamp == null || !timestamp.matches("\\d+")) {
+            return null;
+        }
+        return Instant.ofEpochSecond(Long.parseLong(timestamp));
     }
     
     /**
@@ -95,7 +191,10 @@ public class WhatsAppServiceImpl implements WhatsAppService {
             String messageId = incomingMessage.getId();
             String messageType = incomingMessage.getType();
             
-            log.info("Procesando mensaje entrante de: {}, tipo: {}", phoneNumber, messageType);
+            log.debug("Procesando mensaje entrante de: {}, tipo: {}", LogRedactor.phone(phoneNumber), messageType);
+            long acceptedAt = System.nanoTime();
+            StageTimings timings = new StageTimings();
+            Instant sentAt = parseTimestamp(incomingMessage.getTimestamp());
             
             // Obtener contenido del mensaje
             String messageContent = extractMessageContent(incomingMessage);
@@ -105,45 +204,54 @@ public class WhatsAppServiceImpl implements WhatsAppService {
                 return;
             }
             
-            // Obtener o crear cliente
-            Customer customer = getOrCreateCustomer(phoneNumber, value);
-            
-            // Obtener o crear conversación activa
-            Conversation conversation = conversationService.getOrCreateActiveConversation(customer);
-            
-            // Guardar mensaje entrante
-            Message inboundMessage = messageService.createInboundMessage(
-                    messageId,
-                    messageContent,
-                    phoneNumber,
-                    conversation
-            );
-            
-            log.info("Mensaje entrante guardado con ID: {}", inboundMessage.getId());
+            // Registrar el mensaje entrante en su propia transacción: no queda
+            // abierta mientras se genera la respuesta
+            AtomicLong persistStart = new AtomicLong();
+            Message inboundMessage = transactionTemplate.execute(status -> {
+                // WhatsApp reintenta el webhook y el diario puede repetir entradas: el ID se
+                // reserva en esta transacción (inbound_wamids) y los ya registrados se ignoran
+                if (!messageService.claimInboundMessageId(messageId)) {
+                    log.debug("Mensaje {} ya procesado, ignorando duplicado", messageId);
+                    return null;
+                }
+                
+                // Obtener o crear cliente
+                Customer customer = pipelineMetrics.time(Stage.CUSTOMER_RESOLVE, timings,
+                        () -> getOrCreateCustomer(phoneNumber, value));
+                
+                // Obtener o crear conversación activa
+                Conversation conversation = pipelineMetrics.time(Stage.CONVERSATION_RESOLVE, timings,
+                        () -> conversationService.getOrCreateActiveConversation(customer));
+                
+                // Guardar mensaje entrante (se mide hasta el commit) con su marca de respuesta
+                // pendiente: si la réplica cae antes de responder, otra pasada lo retoma
+                persistStart.set(System.nanoTime());
+                Message saved = messageService.createInboundMessage(
+                        messageId,
+                        messageContent,
+                        phoneNumber,
+                        conversation
+                );
+                pendingReplyService.markPending(saved);
+                return saved;
+            });
             
-            // Generar respuesta con IA
-            String aiResponse = generateAIResponse(messageContent);
+            if (inboundMessage == null) {
+                return;
+            }
+            pipelineMetrics.record(Stage.INBOUND_PERSIST, System.nanoTime() - persistStart.get(), timings);
             
-            // Enviar respuesta
-            WhatsAppMessageResponse whatsAppResponse = sendTextMessage(phoneNumber, aiResponse);
+            log.debug("Mensaje entrante guardado con ID: {}", inboundMessage.getId());
             
-            // Guardar mensaje saliente
-            Message outboundMessage = messageService.createOutboundMessage(
-                    aiResponse,
-                    phoneNumber,
-                    conversation
-            );
+            // Señal inmediata al cliente (leído + escribiendo...) mientras se genera la respuesta
+            signalReceipt(messageId, acceptedAt);
             
-            // Actualizar WhatsApp Message ID si la respuesta fue exitosa
-            if (whatsAppResponse != null && 
-                whatsAppResponse.getMessages() != null && 
-                !whatsAppResponse.getMessages().isEmpty()) {
-                
-                String whatsappMsgId = whatsAppResponse.getMessages().get(0).getId();
-                messageService.updateWhatsAppMessageId(outboundMessage.getId(), whatsappMsgId);
-            }
+            // Generar respuesta con IA al cerrarse la ráfaga del cliente (mensajes seguidos
+            // se responden juntos); cada parte va al outbox en cuanto se cierra
+            inboundCoalescingService.submit(phoneNumber, inboundMessage, messageContent, acceptedAt, sentAt,
+                    timings, replier(phoneNumber));
             
-            log.info("Mensaje procesado y respuesta enviada exitosamente");
+            log.debug("Mensaje procesado, respuesta en preparación");
             
         } catch (Exception e) {
             log.error("Error procesando mensaje entrante: {}", e.getMessage(), e);
@@ -151,6 +259,42 @@ public class WhatsAppServiceImpl implements WhatsAppService {
         }
     }
     
+    private Consumer<InboundCoalescingService.Burst> replier(String phoneNumber) {
+        return burst -> {
+            try (QueryScope ignored = sqlStatsService.open(SQL_REPLY_OPERATION)) {
+                queueAIReply(burst, phoneNumber);
+            }
+        };
+    }
+    
+    /**
+     * Volver a responder los mensajes guardados cuya respuesta nunca llegó al outbox
+     * Pasan por la ráfaga de su remitente como si acabaran de llegar
+     */
+    @Scheduled(initialDelayString = "${messages.coalescing.recovery-interval-ms:30000}",
+            fixedDelayString = "${messages.coalescing.recovery-interval-ms:30000}")
+    public void scheduledRecovery() {
+        try {
+            recoverPendingReplies();
+        } catch (Exception e) {
+            log.error("Error retomando respuestas pendientes: {}", e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public int recoverPendingReplies() {
+        List<Message> abandoned = pendingReplyService.claimAbandoned();
+        for (Message message : abandoned) {
+            String phoneNumber = message.getSenderPhone();
+            inboundCoalescingService.submit(phoneNumber, message, message.getContent(), System.nanoTime(), null,
+                    new StageTimings(), replier(phoneNumber));
+        }
+        if (!abandoned.isEmpty()) {
+            log.warn("Retomando {} mensajes entrantes sin respuesta en el outbox", abandoned.size());
+        }
+        return abandoned.size();
+    }
+    
     /**
      * Extraer contenido del mensaje según su tipo
      */
@@ -185,11 +329,11 @@ public class WhatsAppServiceImpl implements WhatsAppService {
      * Obtener o crear cliente
      */
     private Customer getOrCreateCustomer(String phoneNumber, WhatsAppWebhookRequest.Value value) {
-        log.info("Obteniendo o creando cliente para teléfono: {}", phoneNumber);
+        log.debug("Obteniendo o creando cliente para teléfono: {}", LogRedactor.phone(phoneNumber));
         
         return customerRepository.findByPhoneNumber(phoneNumber)
                 .orElseGet(() -> {
-                    log.info("Cliente no existe, creando nuevo");
+                    log.debug("Cliente no existe, creando nuevo");
                     
                     String profileName = null;
                     if (value.getContacts() != null && !value.getContacts().isEmpty()) {
@@ -210,24 +354,197 @@ public class WhatsAppServiceImpl implements WhatsAppService {
     }
     
     /**
-     * Generar respuesta con IA
+     * Generar respuesta con IA y encolarla por partes
+     * Con streaming, la primera parte se confirma (y el outbox la envía) mientras
+     * se generan las siguientes; el outbox respeta el orden por destinatario.
      */
-    private String generateAIResponse(String userMessage) {
-        log.info("Generando respuesta de IA para mensaje: {}", userMessage);
+    private void queueAIReply(InboundCoalescingService.Burst burst, String phoneNumber) {
+        String userMessage = burst.mergedContent();
+        Message inboundMessage = burst.lastMessage();
+        long acceptedAt = burst.acceptedAt();
+        Instant sentAt = burst.sentAt();
+        StageTimings timings = burst.timings();
+        log.debug("Generando respuesta de IA para mensaje: {}", LogRedactor.text(userMessage));
+        
+        MessageChunker chunker = new MessageChunker(
+                replyChunkingConfig.getMaxLength(), replyChunkingConfig.getSoftLength());
+        AtomicInteger chunkIndex = new AtomicInteger();
+        AtomicLong persistNanos = new AtomicLong();
+        LocalDateTime replyOriginAt = sentAt != null ? LocalDateTime.ofInstant(sentAt, ZoneId.systemDefault()) : null;
+        AtomicReference<RuntimeException> persistFailure = new AtomicReference<>();
+        Consumer<String> queueChunk = chunk -> {
+            int index = chunkIndex.getAndIncrement();
+            long start = System.nanoTime();
+            try {
+                messageService.queueOutboundMessage(chunk, phoneNumber, inboundMessage.getConversation(),
+                        inboundMessage.getId(), index, index == 0 ? replyOriginAt : null);
+            } catch (RuntimeException e) {
+                persistFailure.set(e);
+                throw e;
+            }
+            long elapsed = System.nanoTime() - start;
+            persistNanos.addAndGet(elapsed);
+            pipelineMetrics.record(Stage.OUTBOUND_PERSIST, elapsed, timings);
+            if (index == 0) {
+                pipelineMetrics.recordReplyLatency(ReplySignal.FIRST_CHUNK, acceptedAt);
+            }
+        };
         
+        AIResponse response;
         try {
             // Buscar productos relevantes
-            String productsContext = aiService.searchRelevantProducts(userMessage);
+            String productsContext = pipelineMetrics.time(Stage.RETRIEVAL, timings,
+                    () -> aiService.searchRelevantProducts(userMessage));
             
-            // Generar respuesta con contexto de productos
-            var aiResponse = aiService.generateResponseWithProducts(userMessage, productsContext);
-            
-            return aiResponse.getContent();
+            // Generar respuesta con contexto de productos; con streaming las partes se
+            // guardan durante la llamada y ese tiempo no se cuenta como tiempo de la IA
+            long aiStart = System.nanoTime();
+            if (Boolean.TRUE.equals(replyChunkingConfig.getStreaming())) {
+                response = aiService.streamResponseWithProducts(userMessage, productsContext,
+                        delta -> chunker.append(delta).forEach(queueChunk));
+                pipelineMetrics.record(Stage.AI_CALL, System.nanoTime() - aiStart - persistNanos.get(), timings);
+            } else {
+                response = aiService.generateResponseWithProducts(userMessage, productsContext);
+                pipelineMetrics.record(Stage.AI_CALL, System.nanoTime() - aiStart, timings);
+                chunker.append(response.getContent()).forEach(queueChunk);
+            }
+            chunker.finish().forEach(queueChunk);
             
         } catch (Exception e) {
+            // Si lo que falló es el outbox, el mensaje de error tampoco se podría guardar: el error sube
+            if (persistFailure.get() != null) {
+                throw persistFailure.get();
+            }
             log.error("Error generando respuesta de IA: {}", e.getMessage(), e);
-            return "Disculpa, estoy teniendo problemas para procesar tu mensaje. ¿Podrías intentarlo de nuevo?";
+            // Si ya salieron partes de la respuesta, el cliente no recibe además el mensaje de error
+            boolean fallback = chunkIndex.get() == 0;
+            if (fallback) {
+                queueChunk.accept(AI_FALLBACK_REPLY);
+            }
+            pendingReplyService.markAnswered(phoneNumber, inboundMessage.getId());
+            pipelineMetrics.recordReplyLatency(ReplySignal.COMPLETE, acceptedAt);
+            recordReplyEvent(burst, null, chunkIndex.get(), fallback);
+            logReplySummary(burst, phoneNumber, null, chunkIndex.get(), fallback);
+            return;
         }
+        
+        recordAIUsage(response, inboundMessage);
+        
+        boolean fallback = chunkIndex.get() == 0;
+        if (fallback) {
+            queueChunk.accept(AI_FALLBACK_REPLY);
+        }
+        pendingReplyService.markAnswered(phoneNumber, inboundMessage.getId());
+        pipelineMetrics.recordReplyLatency(ReplySignal.COMPLETE, acceptedAt);
+        recordReplyEvent(burst, response, chunkIndex.get(), fallback);
+        logReplySummary(burst, phoneNumber, response, chunkIndex.get(), fallback);
+    }
+    
+    /**
+     * Registrar el uso de tokens de la respuesta ya encolada
+     * Un error al guardarlo no debe convertir la respuesta en el mensaje de error
+     */
+    private void recordAIUsage(AIResponse response, Message inboundMessage) {
+        try {
+            Conversation conversation = inboundMessage.getConversation();
+            aiUsageService.record(AI_USAGE_OPERATION, response, conversation.getId(),
+                    conversation.getCustomer().getId(), inboundMessage.getId());
+        } catch (Exception e) {
+            log.warn("No se pudo registrar el uso de IA del mensaje ID: {}: {}", inboundMessage.getId(), e.getMessage());
+        }
+    }
+    
+    /**
+     * Evento de JFR de la respuesta (siempre, sin muestreo: sin grabación activa no cuesta nada)
+     */
+    private void recordReplyEvent(InboundCoalescingService.Burst burst, AIResponse response,
+                                  int chunks, boolean fallback) {
+        FlightEvents.ReplyEvent event = new FlightEvents.ReplyEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        
+        Message lastMessage = burst.lastMessage();
+        event.wamid = lastMessage.getWhatsappMessageId();
+        event.conversationId = lastMessage.getConversation().getId();
+        event.messages = burst.contents().size();
+        event.chunks = chunks;
+        if (response != null) {
+            event.model = response.getModel();
+            event.promptTokens = response.getPromptTokens() != null ? response.getPromptTokens() : 0;
+            event.completionTokens = response.getCompletionTokens() != null ? response.getCompletionTokens() : 0;
+        }
+        event.retrieval = burst.timings().millis(Stage.RETRIEVAL);
+        event.aiCall = burst.timings().millis(Stage.AI_CALL);
+        event.elapsed = System.nanoTime() - burst.acceptedAt();
+        event.fallback = fallback;
+        event.commit();
+    }
+    
+    /**
+     * Una línea por respuesta (mensaje o ráfaga) con los tiempos de cada etapa, en
+     * lugar de un log INFO por paso. Los campos van como pares clave-valor: en texto
+     * se agregan al mensaje y en JSON son campos propios.
+     * Las respuestas de contingencia y las lentas se registran siempre; el resto
+     * según logging.sampling.rates.reply.
+     */
+    private void logReplySummary(InboundCoalescingService.Burst burst, String phoneNumber, AIResponse response,
+                                 int chunks, boolean fallback) {
+        long totalNanos = System.nanoTime() - burst.acceptedAt();
+        boolean slow = totalNanos > logSamplingConfig.getSlowReply().toNanos();
+        if (!fallback && !slow && !logSamplingConfig.sample(LogSamplingConfig.Point.REPLY)) {
+            return;
+        }
+        
+        LoggingEventBuilder event = (fallback ? log.atWarn() : log.atInfo())
+                .setMessage(fallback ? "Respuesta de contingencia" : "Respuesta generada")
+                .addKeyValue("wamid", burst.lastMessage().getWhatsappMessageId())
+                .addKeyValue("from", LogRedactor.phone(phoneNumber))
+                .addKeyValue("messages", burst.contents().size())
+                .addKeyValue("chunks", chunks);
+        if (response != null) {
+            event.addKeyValue("model", response.getModel())
+                    .addKeyValue("prompt_tokens", response.getPromptTokens())
+                    .addKeyValue("completion_tokens", response.getCompletionTokens());
+        }
+        burst.timings().forEachMeasured((stage, millis) -> event.addKeyValue(stage + "_ms", millis));
+        event.addKeyValue("total_ms", TimeUnit.NANOSECONDS.toMillis(totalNanos)).log();
+    }
+    
+    /**
+     * Marcar el mensaje como leído y mostrar "escribiendo..." sin bloquear el hilo
+     * Es una señal opcional: un error solo se registra, la respuesta sigue su curso.
+     * WhatsApp quita el indicador al llegar la respuesta (o a los 25 segundos).
+     */
+    private void signalReceipt(String whatsappMessageId, long acceptedAt) {
+        WhatsAppConfig.ReadReceipt readReceipt = whatsAppConfig.getReadReceipt();
+        if (!Boolean.TRUE.equals(readReceipt.getEnabled())) {
+            return;
+        }
+        
+        String phoneNumberId = whatsAppConfig.getPhone().getNumber().getId();
+        
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("messaging_product", "whatsapp");
+        requestBody.put("status", "read");
+        requestBody.put("message_id", whatsappMessageId);
+        if (Boolean.TRUE.equals(readReceipt.getTypingIndicator())) {
+            requestBody.put("typing_indicator", Map.of("type", "text"));
+        }
+        
+        // También consume la tasa del número, pero espera su turno sin ocupar un hilo
+        pipelineTracing.observe("whatsapp.read_receipt", sendRateLimitService.acquireAsync(phoneNumberId)
+                        .then(webClientBuilder.build().post()
+                                .uri(messagesUrl(phoneNumberId))
+                                .header("Authorization", "Bearer " + whatsAppConfig.getAccessToken())
+                                .header("Content-Type", "application/json")
+                                .bodyValue(requestBody)
+                                .retrieve()
+                                .toBodilessEntity()))
+                .subscribe(
+                        ok -> pipelineMetrics.recordReplyLatency(ReplySignal.FIRST_SIGNAL, acceptedAt),
+                        error -> log.warn("No se pudo marcar como leído el mensaje {}: {}",
+                                whatsappMessageId, error.getMessage()));
     }
     
     /**
@@ -235,56 +552,103 @@ public class WhatsAppServiceImpl implements WhatsAppService {
      */
     @Override
     public WhatsAppMessageResponse sendTextMessage(String phoneNumber, String message) {
-        log.info("Enviando mensaje de texto a: {}", phoneNumber);
+        log.debug("Enviando mensaje de texto a: {}", LogRedactor.phone(phoneNumber));
+        
+        // Construir body del request
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("messaging_product", "whatsapp");
+        requestBody.put("to", phoneNumber);
+        requestBody.put("type", "text");
         
+        Map<String, String> textObject = new HashMap<>();
+        textObject.put("body", message);
+        requestBody.put("text", textObject);
+        
+        return postMessage(requestBody);
+    }
+    
+    /**
+     * Enviar mensaje de plantilla a WhatsApp
+     */
+    @Override
+    public WhatsAppMessageResponse sendTemplateMessage(String phoneNumber, String templateName, String languageCode) {
+        log.debug("Enviando plantilla {} a: {}", templateName, LogRedactor.phone(phoneNumber));
+        
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("messaging_product", "whatsapp");
+        requestBody.put("to", phoneNumber);
+        requestBody.put("type", "template");
+        requestBody.put("template", Map.of(
+                "name", templateName,
+                "language", Map.of("code", languageCode)));
+        
+        return postMessage(requestBody);
+    }
+    
+    /**
+     * Enviar un mensaje (texto, plantilla...) a la API de WhatsApp
+     * Todo envío pasa por aquí: tasa del número y límite de concurrencia
+     */
+    private WhatsAppMessageResponse postMessage(Map<String, Object> requestBody) {
+        return pipelineTracing.inSpan("whatsapp.send", span -> {
+            span.tag("whatsapp.message_type", String.valueOf(requestBody.get("type")));
+            WhatsAppMessageResponse response = doPostMessage(requestBody);
+            span.tag("whatsapp.message_id", response.getMessages().get(0).getId());
+            return response;
+        });
+    }
+    
+    private WhatsAppMessageResponse doPostMessage(Map<String, Object> requestBody) {
         try {
-            // Construir URL de la API
-            String url = String.format("%s/%s/messages",
-                    whatsAppConfig.getApi().getBase().getUrl(),
-                    whatsAppConfig.getPhone().getNumber().getId());
+            String phoneNumberId = whatsAppConfig.getPhone().getNumber().getId();
             
-            // Construir body del request
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("messaging_product", "whatsapp");
-            requestBody.put("to", phoneNumber);
-            requestBody.put("type", "text");
-            
-            Map<String, String> textObject = new HashMap<>();
-            textObject.put("body", message);
-            requestBody.put("text", textObject);
+            // Construir URL de la API
+            String url = messagesUrl(phoneNumberId);
             
             // Enviar request usando WebClient
             WebClient webClient = webClientBuilder.build();
             
-            WhatsAppMessageResponse response = webClient.post()
-                    .uri(url)
-                    .header("Authorization", "Bearer " + whatsAppConfig.getAccessToken())
-                    .header("Content-Type", "application/json")
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(WhatsAppMessageResponse.class)
-                    .onErrorResume(e -> {
-                        log.error("Error llamando a WhatsApp API: {}", e.getMessage(), e);
-                        return Mono.empty();
-                    })
-                    .block();
+            // Límite adaptativo: se reduce ante 429/503 o latencia creciente; el permiso de tasa del número
+            // (nivel de throughput) se toma ya con turno, así un rechazo por concurrencia no lo desperdicia
+            WhatsAppMessageResponse response = pipelineMetrics.time(Stage.SEND,
+                    () -> whatsAppLimiter.execute(() -> sendRateLimitService.acquire(phoneNumberId), () -> webClient.post()
+                            .uri(url)
+                            .header("Authorization", "Bearer " + whatsAppConfig.getAccessToken())
+                            .header("Content-Type", "application/json")
+                            .bodyValue(requestBody)
+                            .retrieve()
+                            .bodyToMono(WhatsAppMessageResponse.class)
+                            .block()));
             
-            log.info("Mensaje enviado exitosamente a WhatsApp");
+            // Sin ID de WhatsApp no hay forma de seguir el estado del mensaje
+            if (response == null || response.getMessages() == null || response.getMessages().isEmpty()) {
+                throw new WhatsAppException("Respuesta de WhatsApp sin ID de mensaje");
+            }
+            
+            if (logSamplingConfig.sample(LogSamplingConfig.Point.SEND)) {
+                log.info("Mensaje enviado exitosamente a WhatsApp: {}", response.getMessages().get(0).getId());
+            }
             
             return response;
             
+        } catch (WhatsAppException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error enviando mensaje a WhatsApp: {}", e.getMessage(), e);
             throw new WhatsAppException("Error enviando mensaje a WhatsApp", e);
         }
     }
     
+    private String messagesUrl(String phoneNumberId) {
+        return String.format("%s/%s/messages", whatsAppConfig.getApi().getBase().getUrl(), phoneNumberId);
+    }
+    
     /**
      * Enviar mensaje manual (desde API REST)
      */
     @Override
     public WhatsAppMessageResponse sendMessage(MessageRequest request) {
-        log.info("Enviando mensaje manual a: {}", request.getPhoneNumber());
+        log.info("Enviando mensaje manual a: {}", LogRedactor.phone(request.getPhoneNumber()));
         
         return sendTextMessage(request.getPhoneNumber(), request.getContent());
     }
@@ -294,7 +658,7 @@ public class WhatsAppServiceImpl implements WhatsAppService {
      */
     @Override
     public String verifyWebhook(String mode, String token, String challenge) {
-        log.info("Verificando webhook con mode: {}, token: {}", mode, token);
+        log.info("Verificando webhook con mode: {}", mode);
         
         String expectedToken = whatsAppConfig.getWebhook().getVerify().getToken();
         
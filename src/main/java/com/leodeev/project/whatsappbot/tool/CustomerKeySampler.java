@@ -0,0 +1,38 @@
+package com.leodeev.project.whatsappbot.tool;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Elige el cliente (teléfono sintético) de cada webhook reproducido
+ * UNIFORM: todos los clientes con la misma probabilidad
+ * ZIPF: el cliente k tiene probabilidad proporcional a 1/k^exponente (pocos
+ * clientes muy activos y una cola larga, como en producción)
+ */
+class CustomerKeySampler {
+
+    private final String phonePrefix;
+    private final int width;
+    private final double[] cumulative;
+
+    CustomerKeySampler(ReplayConfig.Distribution distribution, int customers, double exponent, String phonePrefix) {
+        this.phonePrefix = phonePrefix;
+        this.width = String.valueOf(customers).length();
+        this.cumulative = new double[customers];
+
+        double total = 0;
+        for (int k = 0; k < customers; k++) {
+            total += distribution == ReplayConfig.Distribution.ZIPF ? 1 / Math.pow(k + 1, exponent) : 1;
+            cumulative[k] = total;
+        }
+        for (int k = 0; k < customers; k++) {
+            cumulative[k] /= total;
+        }
+    }
+
+    String next() {
+        int index = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+        int customer = index >= 0 ? index : Math.min(-index - 1, cumulative.length - 1);
+        return phonePrefix + String.format("%0" + width + "d", customer);
+    }
+}
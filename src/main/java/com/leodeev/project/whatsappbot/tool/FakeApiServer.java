@@ -0,0 +1,122 @@
+package com.leodeev.project.whatsappbot.tool;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base de los servidores falsos: servidor HTTP del JDK, latencia log-normal
+ * e inyección de 429 y 500. Se pueden levantar desde FakeApisApplication o
+ * embebidos en una prueba (puerto 0 y getPort()).
+ *
+ * La latencia se modela con la mediana y el p99 configurados:
+ * mu = ln(mediana), sigma = ln(p99 / mediana) / 2.326
+ */
+@Slf4j
+public abstract class FakeApiServer {
+
+    private static final double Z_99 = 2.326;
+
+    protected final FakeApisConfig.Endpoint settings;
+    protected final JsonMapper jsonMapper;
+    protected final AtomicLong requests = new AtomicLong();
+
+    private final double mu;
+    private final double sigma;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    protected FakeApiServer(FakeApisConfig.Endpoint settings, JsonMapper jsonMapper) {
+        this.settings = settings;
+        this.jsonMapper = jsonMapper;
+        long median = Math.max(1, settings.getLatencyMedian().toNanos());
+        long p99 = Math.max(median, settings.getLatencyP99().toNanos());
+        this.mu = Math.log(median);
+        this.sigma = Math.log((double) p99 / median) / Z_99;
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", settings.getPort()), 1024);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                handleWithFaults(exchange);
+            } catch (Exception e) {
+                log.warn("Error en {}: {}", getClass().getSimpleName(), e.getMessage());
+            }
+        });
+        server.start();
+        log.info("{} escuchando en http://127.0.0.1:{}", getClass().getSimpleName(), getPort());
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Responder a una solicitud que pasó la inyección de fallas (la latencia ya se aplicó)
+     */
+    protected abstract void handle(HttpExchange exchange, byte[] body) throws IOException, InterruptedException;
+
+    /**
+     * Cuerpo de error en el formato de la API imitada
+     */
+    protected abstract Map<String, Object> errorBody(int status);
+
+    private void handleWithFaults(HttpExchange exchange) throws IOException, InterruptedException {
+        requests.incrementAndGet();
+        byte[] body;
+        try (InputStream input = exchange.getRequestBody()) {
+            body = input.readAllBytes();
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double roll = random.nextDouble();
+        if (roll < settings.getThrottleRate()) {
+            exchange.getResponseHeaders().add("Retry-After", String.valueOf(settings.getRetryAfter().toSeconds()));
+            sendJson(exchange, 429, errorBody(429));
+            return;
+        }
+
+        TimeUnit.NANOSECONDS.sleep((long) Math.exp(mu + sigma * random.nextGaussian()));
+
+        if (roll < settings.getThrottleRate() + settings.getErrorRate()) {
+            sendJson(exchange, 500, errorBody(500));
+            return;
+        }
+        handle(exchange, body);
+    }
+
+    protected void sendJson(HttpExchange exchange, int status, Object value) throws IOException {
+        byte[] json = jsonMapper.writeValueAsBytes(value);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(json);
+        }
+    }
+}
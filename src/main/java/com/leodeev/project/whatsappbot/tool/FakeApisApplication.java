@@ -0,0 +1,47 @@
+package com.leodeev.project.whatsappbot.tool;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Servidores falsos de Graph API y OpenAI (perfil "fakes")
+ * Para pruebas de carga de punta a punta sin red: la app se levanta con
+ * whatsapp.api.base.url y ai.openai.api.url apuntando a estos puertos y se
+ * alimenta con WebhookReplayApplication.
+ *
+ * ./mvnw spring-boot:run -Dspring-boot.run.main-class=com.leodeev.project.whatsappbot.tool.FakeApisApplication
+ *     -Dspring-boot.run.arguments="--fakes.openai.throttle-rate=0.05"
+ */
+@Profile("fakes")
+@Configuration
+@EnableConfigurationProperties(FakeApisConfig.class)
+public class FakeApisApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(FakeApisApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("fakes")
+                .run(args)
+                .registerShutdownHook();
+    }
+
+    @Bean
+    public JsonMapper fakesJsonMapper() {
+        return JsonMapper.builder().build();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public FakeGraphServer fakeGraphServer(FakeApisConfig fakeApisConfig, JsonMapper fakesJsonMapper) {
+        return new FakeGraphServer(fakeApisConfig.getGraph(), fakesJsonMapper);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public FakeOpenAiServer fakeOpenAiServer(FakeApisConfig fakeApisConfig, JsonMapper fakesJsonMapper) {
+        return new FakeOpenAiServer(fakeApisConfig.getOpenai(), fakesJsonMapper);
+    }
+}
@@ -0,0 +1,78 @@
+package com.leodeev.project.whatsappbot.tool;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuración de los servidores falsos de Graph API y OpenAI
+ * Lee las propiedades desde application-fakes.properties con prefijo "fakes"
+ */
+@Data
+@ConfigurationProperties(prefix = "fakes")
+public class FakeApisConfig {
+
+    private Endpoint graph = new Endpoint(18090, Duration.ofMillis(80), Duration.ofMillis(400));
+    private OpenAi openai = new OpenAi();
+
+    /**
+     * Comportamiento común: latencia log-normal (mediana y p99) e inyección de fallas
+     */
+    @Data
+    public static class Endpoint {
+
+        /**
+         * Puerto local (0 = libre, elegido al iniciar)
+         */
+        private Integer port;
+
+        /**
+         * Latencia antes de responder (en OpenAI con streaming: hasta el primer fragmento)
+         */
+        private Duration latencyMedian;
+        private Duration latencyP99;
+
+        /**
+         * Fracción de solicitudes que reciben 500
+         */
+        private Double errorRate = 0.0;
+
+        /**
+         * Fracción de solicitudes que reciben 429 con Retry-After
+         */
+        private Double throttleRate = 0.0;
+
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        public Endpoint() {
+        }
+
+        public Endpoint(Integer port, Duration latencyMedian, Duration latencyP99) {
+            this.port = port;
+            this.latencyMedian = latencyMedian;
+            this.latencyP99 = latencyP99;
+        }
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class OpenAi extends Endpoint {
+
+        /**
+         * Largo de la respuesta generada (caracteres)
+         */
+        private Integer replyLength = 1200;
+
+        /**
+         * Caracteres por fragmento en streaming y pausa entre fragmentos
+         */
+        private Integer deltaLength = 20;
+        private Duration deltaInterval = Duration.ofMillis(25);
+
+        public OpenAi() {
+            super(18091, Duration.ofMillis(400), Duration.ofSeconds(2));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.leodeev.project.whatsappbot.tool;
+
+import com.sun.net.httpserver.HttpExchange;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Imita POST /{phone-number-id}/messages de la Graph API de WhatsApp
+ * - Envíos (texto, plantilla): devuelve un wamid nuevo
+ * - Confirmación de lectura / indicador de escritura ("status": "read"): {"success": true}
+ */
+public class FakeGraphServer extends FakeApiServer {
+
+    public FakeGraphServer(FakeApisConfig.Endpoint settings, JsonMapper jsonMapper) {
+        super(settings, jsonMapper);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, byte[] body) throws IOException {
+        if (!exchange.getRequestURI().getPath().endsWith("/messages")) {
+            sendJson(exchange, 404, Map.of("error", Map.of("message", "Unknown path", "code", 100)));
+            return;
+        }
+
+        JsonNode request = jsonMapper.readTree(body);
+        if ("read".equals(request.path("status").stringValue(null))) {
+            sendJson(exchange, 200, Map.of("success", true));
+            return;
+        }
+
+        String recipient = request.path("to").stringValue("");
+        sendJson(exchange, 200, Map.of(
+                "messaging_product", "whatsapp",
+                "contacts", List.of(Map.of("input", recipient, "wa_id", recipient)),
+                "messages", List.of(Map.of("id", "wamid.FAKE." + requests.get()))));
+    }
+
+    /**
+     * Códigos de la Graph API: 130429 = límite de envío, 131000 = error genérico
+     */
+    @Override
+    protected Map<String, Object> errorBody(int status) {
+        return status == 429
+                ? Map.of("error", Map.of("message", "(#130429) Rate limit hit", "type", "OAuthException", "code", 130429))
+                : Map.of("error", Map.of("message", "(#131000) Something went wrong", "type", "OAuthException", "code", 131000));
+    }
+}
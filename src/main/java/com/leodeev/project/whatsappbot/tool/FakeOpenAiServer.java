@@ -0,0 +1,118 @@
+package com.leodeev.project.whatsappbot.tool;
+
+import com.sun.net.httpserver.HttpExchange;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imita POST /v1/chat/completions de OpenAI, con y sin streaming
+ * Con "stream": true responde Server-Sent Events: fragmentos de deltaLength
+ * caracteres cada deltaInterval, el fragmento final con finish_reason, el uso
+ * de tokens (stream_options.include_usage) y [DONE].
+ */
+public class FakeOpenAiServer extends FakeApiServer {
+
+    private static final String SENTENCE = "Tenemos el producto que buscas con envío a todo el país. ";
+
+    private final FakeApisConfig.OpenAi openAiSettings;
+
+    public FakeOpenAiServer(FakeApisConfig.OpenAi settings, JsonMapper jsonMapper) {
+        super(settings, jsonMapper);
+        this.openAiSettings = settings;
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, byte[] body) throws IOException, InterruptedException {
+        JsonNode request = jsonMapper.readTree(body);
+        String model = request.path("model").stringValue("gpt-4o-mini");
+        String reply = reply();
+        int completionTokens = Math.max(1, reply.length() / 4);
+        Map<String, Object> usage = usage(body.length / 4, completionTokens);
+
+        if (!request.path("stream").booleanValue(false)) {
+            sendJson(exchange, 200, Map.of(
+                    "model", model,
+                    "choices", List.of(Map.of(
+                            "index", 0,
+                            "message", Map.of("role", "assistant", "content", reply),
+                            "finish_reason", "stop")),
+                    "usage", usage));
+            return;
+        }
+
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream output = exchange.getResponseBody()) {
+            int step = openAiSettings.getDeltaLength();
+            for (int i = 0; i < reply.length(); i += step) {
+                if (i > 0) {
+                    TimeUnit.NANOSECONDS.sleep(openAiSettings.getDeltaInterval().toNanos());
+                }
+                String delta = reply.substring(i, Math.min(reply.length(), i + step));
+                event(output, chunk(model, Map.of("content", delta), null));
+            }
+            event(output, chunk(model, Map.of(), "stop"));
+            if (request.path("stream_options").path("include_usage").booleanValue(false)) {
+                event(output, Map.of("model", model, "choices", List.of(), "usage", usage));
+            }
+            output.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Uso de tokens aproximado (~4 bytes por token); como OpenAI, la caché de
+     * prompts solo aplica desde 1024 tokens y en bloques de 128
+     */
+    private static Map<String, Object> usage(int promptTokens, int completionTokens) {
+        int cachedTokens = promptTokens >= 1024 ? (promptTokens - 128) / 128 * 128 : 0;
+        return Map.of(
+                "prompt_tokens", promptTokens,
+                "completion_tokens", completionTokens,
+                "total_tokens", promptTokens + completionTokens,
+                "prompt_tokens_details", Map.of("cached_tokens", cachedTokens));
+    }
+
+    /**
+     * Formato de error de OpenAI
+     */
+    @Override
+    protected Map<String, Object> errorBody(int status) {
+        return status == 429
+                ? Map.of("error", Map.of("message", "Rate limit reached", "type", "requests", "code", "rate_limit_exceeded"))
+                : Map.of("error", Map.of("message", "The server had an error", "type", "server_error"));
+    }
+
+    private String reply() {
+        StringBuilder reply = new StringBuilder(openAiSettings.getReplyLength());
+        while (reply.length() < openAiSettings.getReplyLength()) {
+            reply.append(SENTENCE);
+            if (reply.length() % 500 < SENTENCE.length()) {
+                reply.append("\n\n");
+            }
+        }
+        return reply.substring(0, openAiSettings.getReplyLength()).trim();
+    }
+
+    private static Map<String, Object> chunk(String model, Map<String, String> delta, String finishReason) {
+        Map<String, Object> choice = new HashMap<>();
+        choice.put("index", 0);
+        choice.put("delta", delta);
+        choice.put("finish_reason", finishReason);
+        return Map.of("model", model, "choices", List.of(choice));
+    }
+
+    private void event(OutputStream output, Object data) throws IOException {
+        output.write("data: ".getBytes(StandardCharsets.UTF_8));
+        output.write(jsonMapper.writeValueAsBytes(data));
+        output.write("\n\n".getBytes(StandardCharsets.UTF_8));
+        output.flush();
+    }
+}
@@ -0,0 +1,102 @@
+package com.leodeev.project.whatsappbot.tool;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuración de la herramienta de reproducción de webhooks
+ * Lee las propiedades desde application-replay.properties con prefijo "replay"
+ */
+@Data
+@ConfigurationProperties(prefix = "replay")
+public class ReplayConfig {
+
+    /**
+     * Endpoint que recibe los webhooks
+     */
+    private String targetUrl = "http://localhost:8080/api/webhook";
+
+    /**
+     * Webhooks grabados (obligatorio): directorio del diario, que se lee sin
+     * modificarlo (mejor una copia: la app borra los segmentos ya procesados),
+     * o archivo NDJSON (un webhook por línea)
+     */
+    private String source;
+
+    /**
+     * Tamaño de segmento del diario en MB (el mismo que messages.journal.segment-size-mb)
+     */
+    private Integer journalSegmentSizeMb = 64;
+
+    /**
+     * Aceleración respecto a los timestamps grabados (10 = diez veces más rápido);
+     * 0 = sin pausas, tan rápido como permita la concurrencia
+     */
+    private Double speedup = 1.0;
+
+    /**
+     * Veces que se reproduce la grabación completa
+     */
+    private Integer loops = 1;
+
+    /**
+     * Máximo de solicitudes en curso
+     */
+    private Integer concurrency = 32;
+
+    /**
+     * Rampa: el máximo en curso crece de 1 a concurrency durante este tiempo (0 = constante)
+     */
+    private Duration rampUp = Duration.ZERO;
+
+    /**
+     * Distribución de clientes: ORIGINAL mantiene los teléfonos grabados;
+     * UNIFORM y ZIPF los reemplazan por customers claves sintéticas
+     */
+    private Distribution distribution = Distribution.ORIGINAL;
+
+    /**
+     * Cantidad de clientes sintéticos (UNIFORM y ZIPF)
+     */
+    private Integer customers = 1000;
+
+    /**
+     * Exponente de ZIPF: mayor = pocos clientes concentran más mensajes
+     */
+    private Double zipfExponent = 1.1;
+
+    /**
+     * Prefijo de los teléfonos sintéticos (se completa con el número de cliente)
+     */
+    private String phonePrefix = "5190";
+
+    /**
+     * Reescribir los wamid para que la app no los descarte como duplicados
+     */
+    private Boolean rewriteMessageIds = true;
+
+    /**
+     * Espera máxima de las respuestas al terminar de enviar
+     */
+    private Duration timeout = Duration.ofSeconds(30);
+
+    /**
+     * Actuator de la app (ej: http://localhost:8080/actuator/metrics): si se indica,
+     * el reporte incluye la latencia de respuesta medida por la app (chatbot.reply.latency)
+     */
+    private String metricsUrl;
+
+    /**
+     * App secret de la app destino (whatsapp.app.secret): si se indica, cada
+     * webhook se firma con X-Hub-Signature-256 como lo hace Meta
+     */
+    private String appSecret;
+
+    public enum Distribution {
+        ORIGINAL,
+        UNIFORM,
+        ZIPF
+    }
+}
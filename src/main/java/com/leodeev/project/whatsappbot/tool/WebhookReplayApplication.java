@@ -0,0 +1,38 @@
+package com.leodeev.project.whatsappbot.tool;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Herramienta de reproducción de webhooks grabados (perfil "replay")
+ * Reenvía al endpoint del webhook los payloads del diario de entrada o de un
+ * archivo NDJSON y reporta throughput y latencias. Para planificar capacidad
+ * y comparar versiones antes de un despliegue.
+ *
+ * No levanta base de datos ni servidor web: solo esta configuración.
+ * ./mvnw spring-boot:run -Dspring-boot.run.main-class=com.leodeev.project.whatsappbot.tool.WebhookReplayApplication
+ *     -Dspring-boot.run.arguments="--replay.source=journal-copia --replay.speedup=10"
+ */
+@Profile("replay")
+@Configuration
+@EnableConfigurationProperties(ReplayConfig.class)
+public class WebhookReplayApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(WebhookReplayApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("replay")
+                .run(args)
+                .close();
+    }
+
+    @Bean
+    public WebhookReplayRunner webhookReplayRunner(ReplayConfig replayConfig) {
+        return new WebhookReplayRunner(replayConfig, JsonMapper.builder().build());
+    }
+}
@@ -0,0 +1,312 @@
+package com.leodeev.project.whatsappbot.tool;
+
+import com.leodeev.project.whatsappbot.util.InboundJournal;
+import com.leodeev.project.whatsappbot.util.WebhookSignature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reproduce los webhooks grabados contra el endpoint y reporta los resultados
+ * SOLID: Single Responsibility Principle - Solo genera la carga y mide
+ *
+ * Ritmo: los webhooks se envían según el timestamp grabado de sus mensajes o
+ * estados, dividido por speedup. La latencia se mide desde el momento
+ * programado y no desde el envío real: si la herramienta se atrasa porque el
+ * servidor no da abasto, ese atraso cuenta como latencia (sin "coordinated
+ * omission"). Con speedup = 0 se mide desde el envío.
+ *
+ * Con el diario activado la app responde al guardar el webhook; la latencia
+ * hasta la respuesta al cliente se toma de chatbot.reply.latency (metricsUrl).
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class WebhookReplayRunner implements ApplicationRunner {
+
+    private static final int JOURNAL_READ_BATCH = 1000;
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final ReplayConfig replayConfig;
+    private final JsonMapper jsonMapper;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (replayConfig.getSource() == null || replayConfig.getSource().isBlank()) {
+            throw new IllegalStateException("Indicar replay.source: una copia del diario o un archivo NDJSON");
+        }
+
+        List<byte[]> recorded = load(Path.of(replayConfig.getSource()));
+        if (recorded.isEmpty()) {
+            log.warn("No hay webhooks grabados en {}", replayConfig.getSource());
+            return;
+        }
+
+        List<Planned> plan = plan(recorded);
+        log.info("Reproduciendo {} webhooks ({} grabados x {} vueltas) contra {}",
+                plan.size(), recorded.size(), replayConfig.getLoops(), replayConfig.getTargetUrl());
+
+        send(plan);
+        reportServerLatency();
+    }
+
+    /**
+     * Leer los webhooks grabados: directorio del diario (en solo lectura) o archivo NDJSON
+     */
+    private List<byte[]> load(Path source) throws Exception {
+        List<byte[]> payloads = new ArrayList<>();
+
+        if (Files.isDirectory(source)) {
+            try (InboundJournal journal = InboundJournal.openReadOnly(source,
+                    replayConfig.getJournalSegmentSizeMb() * 1024 * 1024)) {
+                long offset = journal.getFirstOffset();
+                List<InboundJournal.Entry> entries;
+                while (!(entries = journal.read(offset, JOURNAL_READ_BATCH)).isEmpty()) {
+                    entries.forEach(entry -> payloads.add(entry.payload()));
+                    offset = entries.get(entries.size() - 1).nextOffset();
+                }
+            }
+            return payloads;
+        }
+
+        for (String line : Files.readAllLines(source, StandardCharsets.UTF_8)) {
+            if (!line.isBlank()) {
+                payloads.add(line.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return payloads;
+    }
+
+    /**
+     * Calcular cuándo se envía cada webhook y reescribir clientes y wamid
+     */
+    private List<Planned> plan(List<byte[]> recorded) {
+        List<JsonNode> trees = recorded.stream().map(jsonMapper::readTree).toList();
+
+        // Desfase de cada webhook respecto al primero (no decreciente: el diario está en orden de llegada)
+        long[] offsets = new long[trees.size()];
+        Long first = null;
+        for (int i = 0; i < trees.size(); i++) {
+            Long timestamp = timestampOf(trees.get(i));
+            if (timestamp != null && first == null) {
+                first = timestamp;
+            }
+            long offset = timestamp == null || replayConfig.getSpeedup() <= 0 ? 0
+                    : (long) (TimeUnit.SECONDS.toNanos(timestamp - first) / replayConfig.getSpeedup());
+            offsets[i] = i == 0 ? offset : Math.max(offset, offsets[i - 1]);
+        }
+        long span = offsets[offsets.length - 1];
+        long loopGap = span / Math.max(1, offsets.length - 1);
+
+        CustomerKeySampler sampler = replayConfig.getDistribution() == ReplayConfig.Distribution.ORIGINAL ? null
+                : new CustomerKeySampler(replayConfig.getDistribution(), replayConfig.getCustomers(),
+                        replayConfig.getZipfExponent(), replayConfig.getPhonePrefix());
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+
+        List<Planned> plan = new ArrayList<>(trees.size() * replayConfig.getLoops());
+        for (int loop = 0; loop < replayConfig.getLoops(); loop++) {
+            for (int i = 0; i < trees.size(); i++) {
+                JsonNode tree = trees.get(i).deepCopy();
+                rewrite(tree, sampler == null ? null : sampler.next(), runId + "." + plan.size());
+                plan.add(new Planned(loop * (span + loopGap) + offsets[i], jsonMapper.writeValueAsBytes(tree)));
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Enviar respetando el ritmo y el máximo de solicitudes en curso
+     */
+    private void send(List<Planned> plan) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        URI target = URI.create(replayConfig.getTargetUrl());
+        String secret = replayConfig.getAppSecret();
+        boolean signed = secret != null && !secret.isBlank();
+        boolean paced = replayConfig.getSpeedup() > 0;
+
+        long[] latencies = new long[plan.size()];
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(plan.size());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < plan.size(); i++) {
+            Planned planned = plan.get(i);
+            long scheduled = start + planned.offsetNanos();
+            if (paced) {
+                parkUntil(scheduled);
+            }
+            while (inFlight.get() >= allowedInFlight(System.nanoTime() - start)) {
+                LockSupport.parkNanos(50_000);
+            }
+
+            inFlight.incrementAndGet();
+            long from = paced ? scheduled : System.nanoTime();
+            int index = i;
+            HttpRequest.Builder builder = HttpRequest.newBuilder(target)
+                    .header("Content-Type", "application/json")
+                    .timeout(replayConfig.getTimeout())
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(planned.payload()));
+            if (signed) {
+                builder.header(WebhookSignature.HEADER, WebhookSignature.sign(planned.payload(), secret));
+            }
+            HttpRequest request = builder.build();
+
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                // Los errores no entran en los percentiles (quedan en 0)
+                if (error != null || response.statusCode() / 100 != 2) {
+                    errors.incrementAndGet();
+                } else {
+                    latencies[index] = Math.max(1, System.nanoTime() - from);
+                }
+                inFlight.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        if (!done.await(replayConfig.getTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("{} solicitudes sin respuesta al cumplirse el timeout", done.getCount());
+        }
+        report(latencies, errors.get(), System.nanoTime() - start);
+    }
+
+    /**
+     * Máximo en curso según la rampa (lineal de 1 a concurrency)
+     */
+    private int allowedInFlight(long elapsedNanos) {
+        long rampNanos = replayConfig.getRampUp().toNanos();
+        if (rampNanos <= 0 || elapsedNanos >= rampNanos) {
+            return replayConfig.getConcurrency();
+        }
+        return Math.max(1, (int) (replayConfig.getConcurrency() * elapsedNanos / rampNanos));
+    }
+
+    private void report(long[] latencies, int errors, long elapsedNanos) {
+        long[] sorted = Arrays.stream(latencies).filter(latency -> latency > 0).sorted().toArray();
+        double seconds = elapsedNanos / 1e9;
+
+        log.info("Enviados: {}, errores: {}, duración: {} s, throughput: {} webhooks/s",
+                latencies.length, errors, String.format("%.2f", seconds),
+                String.format("%.1f", latencies.length / seconds));
+        if (sorted.length == 0) {
+            return;
+        }
+
+        StringBuilder line = new StringBuilder("Latencia hasta el 200 (ms):");
+        for (double percentile : PERCENTILES) {
+            long value = sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+            line.append(String.format(" p%s=%.1f", (int) (percentile * 100), value / 1e6));
+        }
+        line.append(String.format(" max=%.1f", sorted[sorted.length - 1] / 1e6));
+        log.info(line.toString());
+    }
+
+    /**
+     * Latencia medida por la app desde que aceptó el mensaje (ventana reciente de Micrometer)
+     */
+    private void reportServerLatency() {
+        if (replayConfig.getMetricsUrl() == null || replayConfig.getMetricsUrl().isBlank()) {
+            return;
+        }
+
+        HttpClient client = HttpClient.newHttpClient();
+        for (String stage : List.of("first_signal", "first_chunk", "complete")) {
+            StringBuilder line = new StringBuilder("Latencia en la app (").append(stage).append(", ms):");
+            for (double percentile : PERCENTILES) {
+                URI uri = URI.create(replayConfig.getMetricsUrl() + "/chatbot.reply.latency.percentile?tag=stage:"
+                        + stage + "&tag=phi:" + percentile);
+                try {
+                    HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(uri).build(),
+                            HttpResponse.BodyHandlers.ofByteArray());
+                    if (response.statusCode() != 200) {
+                        line.append(" sin datos");
+                        break;
+                    }
+                    double value = jsonMapper.readTree(response.body()).path("measurements").path(0).path("value").doubleValue();
+                    line.append(String.format(" p%s=%.1f", (int) (percentile * 100), value * 1000));
+                } catch (Exception e) {
+                    log.warn("No se pudo leer {}: {}", uri, e.getMessage());
+                    return;
+                }
+            }
+            log.info(line.toString());
+        }
+    }
+
+    /**
+     * Timestamp (segundos) del primer mensaje o estado del webhook
+     */
+    private static Long timestampOf(JsonNode tree) {
+        for (JsonNode entry : tree.path("entry")) {
+            for (JsonNode change : entry.path("changes")) {
+                JsonNode value = change.path("value");
+                for (String field : List.of("messages", "statuses")) {
+                    JsonNode timestamp = value.path(field).path(0).path("timestamp");
+                    if (timestamp.isString()) {
+                        return Long.parseLong(timestamp.stringValue());
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reemplazar el teléfono del cliente y hacer único el wamid de cada mensaje
+     */
+    private void rewrite(JsonNode tree, String phone, String suffix) {
+        for (JsonNode entry : tree.path("entry")) {
+            for (JsonNode change : entry.path("changes")) {
+                JsonNode value = change.path("value");
+                for (JsonNode message : value.path("messages")) {
+                    if (phone != null) {
+                        ((ObjectNode) message).put("from", phone);
+                    }
+                    if (Boolean.TRUE.equals(replayConfig.getRewriteMessageIds()) && message.path("id").isString()) {
+                        ((ObjectNode) message).put("id", message.path("id").stringValue() + "." + suffix);
+                    }
+                }
+                if (phone != null) {
+                    value.path("contacts").forEach(contact -> ((ObjectNode) contact).put("wa_id", phone));
+                    value.path("statuses").forEach(status -> ((ObjectNode) status).put("recipient_id", phone));
+                }
+            }
+        }
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * Webhook listo para enviar
+     * @param offsetNanos Desfase respecto al inicio de la reproducción
+     */
+    private record Planned(long offsetNanos, byte[] payload) {
+    }
+}
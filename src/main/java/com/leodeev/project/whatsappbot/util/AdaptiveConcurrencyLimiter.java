@@ -0,0 +1,275 @@
+package com.leodeev.project.whatsappbot.util;
+
+import com.leodeev.project.whatsappbot.exception.ConcurrencyLimitExceededException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Límite adaptativo de llamadas simultáneas a un servicio externo (AIMD)
+ * SOLID: Single Responsibility Principle - Solo regula la concurrencia
+ *
+ * - Aumento aditivo: cada respuesta rápida con el límite en uso suma 1/límite
+ *   (≈ +1 por cada "ventana" completa de llamadas).
+ * - Disminución multiplicativa: un 429/503/504 o timeout multiplica el límite
+ *   por backoffRatio; una latencia mayor que latencyTolerance veces la latencia
+ *   de referencia (promedio móvil lento) lo multiplica por 0.9.
+ * Las llamadas sin turno esperan como mucho maxWait y la cola está acotada
+ * por maxQueued: el exceso falla rápido en vez de acumular hilos bloqueados.
+ * En streaming la muestra de latencia es la del primer fragmento: la duración
+ * total depende del largo de la respuesta, no de la carga del servicio.
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double LATENCY_BACKOFF_RATIO = 0.9;
+    private static final double RTT_SMOOTHING = 0.05;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long maxWaitNanos;
+    private final int maxQueued;
+    private final double latencyTolerance;
+    private final double backoffRatio;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private double referenceRttNanos;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      Duration maxWait, int maxQueued, double latencyTolerance, double backoffRatio) {
+        this.name = name;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxQueued = maxQueued;
+        this.latencyTolerance = latencyTolerance;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * Ejecutar una llamada bloqueante dentro del límite
+     *
+     * @param call Llamada al servicio externo
+     * @return Resultado de la llamada
+     * @throws ConcurrencyLimitExceededException si no obtiene turno a tiempo
+     */
+    public <T> T execute(Supplier<T> call) {
+        return execute(() -> {
+        }, call);
+    }
+
+    /**
+     * Ejecutar una llamada bloqueante que además debe pasar otra admisión (ej: permiso de tasa)
+     * La admisión corre con el turno ya obtenido, así un rechazo por falta de turno no la consume;
+     * su espera no cuenta en la latencia que ajusta el límite
+     *
+     * @param admission Admisión previa a la llamada (puede bloquear)
+     * @param call Llamada al servicio externo
+     * @return Resultado de la llamada
+     * @throws ConcurrencyLimitExceededException si no obtiene turno a tiempo
+     */
+    public <T> T execute(Runnable admission, Supplier<T> call) {
+        long start = acquire();
+        Outcome outcome = Outcome.IGNORED;
+        try {
+            admission.run();
+            start = System.nanoTime();
+            T result = call.get();
+            outcome = Outcome.SUCCESS;
+            return result;
+        } catch (RuntimeException e) {
+            if (isOverload(e)) {
+                outcome = Outcome.DROPPED;
+            }
+            throw e;
+        } finally {
+            release(start, outcome);
+        }
+    }
+
+    /**
+     * Ejecutar una llamada en streaming dentro del límite
+     * El turno se ocupa hasta que termina el stream, pero la latencia que ajusta
+     * el límite se mide hasta que la llamada invoca firstChunk (tiempo al primer fragmento)
+     *
+     * @param call Llamada al servicio externo; recibe el aviso del primer fragmento
+     * @return Resultado de la llamada
+     * @throws ConcurrencyLimitExceededException si no obtiene turno a tiempo
+     */
+    public <T> T executeStreaming(Function<Runnable, T> call) {
+        long start = acquire();
+        long[] firstChunkAt = new long[1];
+        Outcome outcome = Outcome.IGNORED;
+        try {
+            T result = call.apply(() -> {
+                if (firstChunkAt[0] == 0) {
+                    firstChunkAt[0] = System.nanoTime();
+                }
+            });
+            outcome = Outcome.SUCCESS;
+            return result;
+        } catch (RuntimeException e) {
+            if (isOverload(e)) {
+                outcome = Outcome.DROPPED;
+            }
+            throw e;
+        } finally {
+            release(start, firstChunkAt[0] != 0 ? firstChunkAt[0] : System.nanoTime(), outcome);
+        }
+    }
+
+    /**
+     * Límite actual (llamadas simultáneas permitidas)
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Llamadas en curso
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Llamadas esperando turno
+     */
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long acquire() {
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) {
+                awaitTurn();
+            }
+            inFlight++;
+            return System.nanoTime();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(long start, Outcome outcome) {
+        release(start, System.nanoTime(), outcome);
+    }
+
+    private void release(long start, long sampledAt, Outcome outcome) {
+        long rtt = sampledAt - start;
+        lock.lock();
+        try {
+            int inFlightBefore = inFlight;
+            inFlight--;
+
+            switch (outcome) {
+                case SUCCESS -> onSample(rtt, inFlightBefore);
+                case DROPPED -> decrease(backoffRatio, "sobrecarga del servicio");
+                case IGNORED -> { }
+            }
+
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitTurn() {
+        if (waiting >= maxQueued) {
+            throw new ConcurrencyLimitExceededException(name + ": cola de espera llena (" + waiting + ")");
+        }
+
+        waiting++;
+        try {
+            long remaining = maxWaitNanos;
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    throw new ConcurrencyLimitExceededException(name + ": sin turno tras " + Duration.ofNanos(maxWaitNanos));
+                }
+                remaining = available.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrencyLimitExceededException(name + ": espera interrumpida");
+        } finally {
+            waiting--;
+        }
+    }
+
+    private void onSample(long rtt, int inFlightBefore) {
+        if (referenceRttNanos == 0) {
+            referenceRttNanos = rtt;
+        }
+
+        if (rtt > referenceRttNanos * latencyTolerance) {
+            decrease(LATENCY_BACKOFF_RATIO, "latencia en aumento");
+        } else if (inFlightBefore * 2 >= limit) {
+            // Solo crece si el límite se está usando
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+
+        referenceRttNanos += (rtt - referenceRttNanos) * RTT_SMOOTHING;
+    }
+
+    private void decrease(double ratio, String reason) {
+        double previous = limit;
+        limit = Math.max(minLimit, limit * ratio);
+        if ((int) previous != (int) limit) {
+            log.debug("Límite de concurrencia {}: {} -> {} ({})", name, (int) previous, (int) limit, reason);
+        }
+    }
+
+    /**
+     * 429/503/504 y timeouts indican que el servicio externo está saturado
+     */
+    static boolean isOverload(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof WebClientResponseException response) {
+                int status = response.getStatusCode().value();
+                return status == 429 || status == 503 || status == 504;
+            }
+            if (current instanceof TimeoutException) {
+                return true;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    enum Outcome {
+        SUCCESS,
+        DROPPED,
+        IGNORED
+    }
+}
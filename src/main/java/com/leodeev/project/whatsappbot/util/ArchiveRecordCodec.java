@@ -0,0 +1,134 @@
+package com.leodeev.project.whatsappbot.util;
+
+import com.leodeev.project.whatsappbot.dto.response.ArchivedConversation;
+import com.leodeev.project.whatsappbot.dto.response.ConversationResponse;
+import com.leodeev.project.whatsappbot.dto.response.MessageResponse;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codificación binaria de conversaciones archivadas dentro de un bloque
+ * Formato compacto (sin nombres de campos) porque se repite por cada registro
+ */
+final class ArchiveRecordCodec {
+
+    private ArchiveRecordCodec() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    static void write(DataOutput out, ArchivedConversation archived) throws IOException {
+        ConversationResponse conversation = archived.getConversation();
+        out.writeLong(conversation.getId());
+        out.writeLong(conversation.getCustomerId());
+        writeString(out, conversation.getCustomerPhoneNumber());
+        writeString(out, conversation.getCustomerName());
+        writeTimestamp(out, conversation.getStartedAt());
+        writeTimestamp(out, conversation.getEndedAt());
+        writeString(out, conversation.getStatus());
+        writeString(out, conversation.getTopic());
+        writeTimestamp(out, conversation.getCreatedAt());
+        writeTimestamp(out, conversation.getUpdatedAt());
+
+        out.writeInt(archived.getMessages().size());
+        for (MessageResponse message : archived.getMessages()) {
+            out.writeLong(message.getId());
+            writeString(out, message.getWhatsappMessageId());
+            writeString(out, message.getType());
+            writeString(out, message.getDirection());
+            writeString(out, message.getContent());
+            writeString(out, message.getSenderPhone());
+            writeString(out, message.getRecipientPhone());
+            writeString(out, message.getStatus());
+            writeString(out, message.getErrorMessage());
+            writeTimestamp(out, message.getSentAt());
+            writeTimestamp(out, message.getDeliveredAt());
+            writeTimestamp(out, message.getReadAt());
+        }
+    }
+
+    static ArchivedConversation read(DataInput in) throws IOException {
+        ConversationResponse conversation = ConversationResponse.builder()
+                .id(in.readLong())
+                .customerId(in.readLong())
+                .customerPhoneNumber(readString(in))
+                .customerName(readString(in))
+                .startedAt(readTimestamp(in))
+                .endedAt(readTimestamp(in))
+                .status(readString(in))
+                .topic(readString(in))
+                .createdAt(readTimestamp(in))
+                .updatedAt(readTimestamp(in))
+                .build();
+
+        int messageCount = in.readInt();
+        List<MessageResponse> messages = new ArrayList<>(messageCount);
+        for (int i = 0; i < messageCount; i++) {
+            messages.add(MessageResponse.builder()
+                    .id(in.readLong())
+                    .conversationId(conversation.getId())
+                    .whatsappMessageId(readString(in))
+                    .type(readString(in))
+                    .direction(readString(in))
+                    .content(readString(in))
+                    .senderPhone(readString(in))
+                    .recipientPhone(readString(in))
+                    .status(readString(in))
+                    .errorMessage(readString(in))
+                    .sentAt(readTimestamp(in))
+                    .deliveredAt(readTimestamp(in))
+                    .readAt(readTimestamp(in))
+                    .build());
+        }
+        conversation.setMessageCount(messageCount);
+
+        return ArchivedConversation.builder()
+                .conversation(conversation)
+                .messages(messages)
+                .build();
+    }
+
+    /**
+     * Longitud + UTF-8 (writeUTF limita a 64 KB y el contenido puede ser mayor); -1 = null
+     */
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeTimestamp(DataOutput out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readTimestamp(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+}
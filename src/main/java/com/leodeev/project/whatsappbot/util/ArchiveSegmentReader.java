@@ -0,0 +1,245 @@
+package com.leodeev.project.whatsappbot.util;
+
+import com.leodeev.project.whatsappbot.dto.response.ArchivedConversation;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Lector de un segmento del archivo frío
+ * SOLID: Single Responsibility Principle - Solo lee segmentos
+ *
+ * El índice se carga al abrir y cada consulta lee y descomprime únicamente
+ * los bloques candidatos a través de la fuente (ej: rangos de una columna bytea),
+ * sin traer el segmento completo. Un cliente que no está en el directorio de
+ * clientes se descarta sin leer nada. Es seguro entre hilos si la fuente lo es.
+ */
+public class ArchiveSegmentReader {
+
+    /**
+     * Lectura por rangos de los bytes de un segmento
+     */
+    @FunctionalInterface
+    public interface Source {
+        byte[] read(long offset, int length) throws IOException;
+    }
+
+    private final String name;
+    private final Source source;
+
+    // Índice disperso: una entrada por bloque
+    private final long[] blockOffsets;
+    private final int[] blockCompressedLengths;
+    private final int[] blockRawLengths;
+    private final long[] blockMinCustomerIds;
+    private final long[] blockMaxCustomerIds;
+
+    // Directorio ordenado conversationId -> bloque
+    private final long[] conversationIds;
+    private final int[] conversationBlocks;
+
+    // Clientes presentes, ordenados, e inicio más reciente (null en segmentos MAGIC_V1)
+    private final long[] customerIds;
+    private final LocalDateTime newestStartedAt;
+
+    private ArchiveSegmentReader(String name, long size, Source source) throws IOException {
+        this.name = name;
+        this.source = source;
+
+        if (size < ArchiveSegmentWriter.FOOTER_BYTES) {
+            throw new IOException("Segmento inválido: " + name);
+        }
+
+        ByteBuffer footer = ByteBuffer.wrap(readFully(size - ArchiveSegmentWriter.FOOTER_BYTES,
+                ArchiveSegmentWriter.FOOTER_BYTES));
+        long indexOffset = footer.getLong();
+        int indexLength = footer.getInt();
+        int magic = footer.getInt();
+        if (magic != ArchiveSegmentWriter.MAGIC && magic != ArchiveSegmentWriter.MAGIC_V1) {
+            throw new IOException("Segmento inválido: " + name);
+        }
+
+        DataInputStream index = new DataInputStream(new ByteArrayInputStream(readFully(indexOffset, indexLength)));
+
+        int blockCount = index.readInt();
+        blockOffsets = new long[blockCount];
+        blockCompressedLengths = new int[blockCount];
+        blockRawLengths = new int[blockCount];
+        blockMinCustomerIds = new long[blockCount];
+        blockMaxCustomerIds = new long[blockCount];
+        for (int i = 0; i < blockCount; i++) {
+            blockOffsets[i] = index.readLong();
+            blockCompressedLengths[i] = index.readInt();
+            blockRawLengths[i] = index.readInt();
+            blockMinCustomerIds[i] = index.readLong();
+            blockMaxCustomerIds[i] = index.readLong();
+        }
+
+        int conversationCount = index.readInt();
+        conversationIds = new long[conversationCount];
+        conversationBlocks = new int[conversationCount];
+        for (int i = 0; i < conversationCount; i++) {
+            conversationIds[i] = index.readLong();
+            conversationBlocks[i] = index.readInt();
+        }
+
+        if (magic == ArchiveSegmentWriter.MAGIC_V1) {
+            customerIds = null;
+            newestStartedAt = null;
+            return;
+        }
+        customerIds = new long[index.readInt()];
+        for (int i = 0; i < customerIds.length; i++) {
+            customerIds[i] = index.readLong();
+        }
+        newestStartedAt = LocalDateTime.ofEpochSecond(index.readLong(), index.readInt(), ZoneOffset.UTC);
+    }
+
+    /**
+     * Abrir un segmento leyendo solo su pie e índice
+     *
+     * @param name Nombre del segmento (para los mensajes de error)
+     * @param size Tamaño total del segmento en bytes
+     * @param source Lectura por rangos del segmento
+     */
+    public static ArchiveSegmentReader open(String name, long size, Source source) throws IOException {
+        return new ArchiveSegmentReader(name, size, source);
+    }
+
+    /**
+     * Abrir un segmento que ya está completo en memoria
+     */
+    public static ArchiveSegmentReader open(String name, byte[] segment) throws IOException {
+        return new ArchiveSegmentReader(name, segment.length,
+                (offset, length) -> Arrays.copyOfRange(segment, (int) offset, (int) offset + length));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getConversationCount() {
+        return conversationIds.length;
+    }
+
+    /**
+     * Inicio más reciente entre las conversaciones del segmento; vacío si el
+     * segmento no lo registra (formato anterior)
+     */
+    public Optional<LocalDateTime> getNewestStartedAt() {
+        return Optional.ofNullable(newestStartedAt);
+    }
+
+    /**
+     * false si el cliente seguro no está en el segmento (sin leer bloques)
+     */
+    public boolean mayContainCustomer(long customerId) {
+        return customerIds == null || Arrays.binarySearch(customerIds, customerId) >= 0;
+    }
+
+    /**
+     * Buscar una conversación por ID (búsqueda binaria en el directorio + un bloque)
+     */
+    public Optional<ArchivedConversation> findConversation(long conversationId) {
+        int position = Arrays.binarySearch(conversationIds, conversationId);
+        if (position < 0) {
+            return Optional.empty();
+        }
+
+        return readBlock(conversationBlocks[position]).stream()
+                .filter(archived -> archived.getConversation().getId() == conversationId)
+                .findFirst();
+    }
+
+    /**
+     * Conversaciones de un cliente, en orden de inicio ascendente
+     * Los bloques están ordenados por cliente: solo se leen los que cubren su rango
+     */
+    public List<ArchivedConversation> findByCustomer(long customerId) {
+        List<ArchivedConversation> result = new ArrayList<>();
+        if (!mayContainCustomer(customerId)) {
+            return result;
+        }
+
+        for (int block = firstBlockEndingAtOrAfter(customerId);
+             block < blockOffsets.length && blockMinCustomerIds[block] <= customerId;
+             block++) {
+            for (ArchivedConversation archived : readBlock(block)) {
+                if (archived.getConversation().getCustomerId() == customerId) {
+                    result.add(archived);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private int firstBlockEndingAtOrAfter(long customerId) {
+        int low = 0;
+        int high = blockMaxCustomerIds.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (blockMaxCustomerIds[middle] < customerId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private List<ArchivedConversation> readBlock(int block) {
+        byte[] raw = new byte[blockRawLengths[block]];
+        Inflater inflater = new Inflater();
+
+        try {
+            inflater.setInput(readFully(blockOffsets[block], blockCompressedLengths[block]));
+            int read = 0;
+            while (read < raw.length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, read, raw.length - read);
+                // Sin más entrada ni salida el bloque está truncado: reintentar no avanza nunca
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Bloque " + block + " truncado en el segmento " + name);
+                }
+                read += inflated;
+            }
+            if (read < raw.length) {
+                throw new IOException("Bloque " + block + " incompleto en el segmento " + name);
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+            int count = in.readInt();
+            List<ArchivedConversation> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                records.add(ArchiveRecordCodec.read(in));
+            }
+            return records;
+
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error leyendo el segmento " + name, e);
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Bloque corrupto en el segmento " + name, e));
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private byte[] readFully(long offset, int length) throws IOException {
+        byte[] bytes = source.read(offset, length);
+        if (bytes == null || bytes.length != length) {
+            throw new IOException("Lectura incompleta del segmento " + name + " en el offset " + offset);
+        }
+        return bytes;
+    }
+}
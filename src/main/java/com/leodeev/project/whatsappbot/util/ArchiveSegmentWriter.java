@@ -0,0 +1,144 @@
+package com.leodeev.project.whatsappbot.util;
+
+import com.leodeev.project.whatsappbot.dto.response.ArchivedConversation;
+import com.leodeev.project.whatsappbot.dto.response.ConversationResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Escritor de segmentos del archivo frío (inmutables, solo se agregan nuevos)
+ * SOLID: Single Responsibility Principle - Solo serializa segmentos
+ *
+ * Formato:
+ * [bloque 0][bloque 1]...[índice][pie]
+ * - Bloque: conversaciones ordenadas por (cliente, inicio), comprimidas con Deflate
+ * - Índice: por bloque (offset, tamaños, rango de clientes) = índice disperso,
+ *           un directorio (conversationId -> bloque) ordenado por ID, los IDs de
+ *           cliente presentes (ordenados) y el inicio más reciente del segmento
+ * - Pie: offset y tamaño del índice + número mágico (MAGIC_V1: sin clientes ni inicio)
+ */
+public class ArchiveSegmentWriter {
+
+    static final int MAGIC_V1 = 0x57415243;
+    static final int MAGIC = 0x57415244;
+    static final int FOOTER_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    static final Comparator<ConversationResponse> SEGMENT_ORDER = Comparator
+            .comparing(ConversationResponse::getCustomerId)
+            .thenComparing(ConversationResponse::getStartedAt)
+            .thenComparing(ConversationResponse::getId);
+
+    private ArchiveSegmentWriter() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Serializar un segmento completo
+     *
+     * @param conversations Conversaciones a archivar (se ordenan por cliente y fecha)
+     * @param blockSize Conversaciones por bloque comprimido
+     * @return Bytes del segmento, listos para guardarse tal cual
+     */
+    public static byte[] write(List<ArchivedConversation> conversations, int blockSize) throws IOException {
+        List<ArchivedConversation> sorted = new ArrayList<>(conversations);
+        sorted.sort(Comparator.comparing(ArchivedConversation::getConversation, SEGMENT_ORDER));
+
+        ByteArrayOutputStream segment = new ByteArrayOutputStream();
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream indexOut = new DataOutputStream(index);
+        long[][] directory = new long[sorted.size()][];
+
+        int blockCount = (sorted.size() + blockSize - 1) / blockSize;
+        indexOut.writeInt(blockCount);
+        long offset = 0;
+
+        for (int block = 0; block < blockCount; block++) {
+            List<ArchivedConversation> records = sorted.subList(
+                    block * blockSize, Math.min(sorted.size(), (block + 1) * blockSize));
+
+            byte[] raw = encodeBlock(records);
+            byte[] compressed = compress(raw);
+            segment.write(compressed);
+
+            indexOut.writeLong(offset);
+            indexOut.writeInt(compressed.length);
+            indexOut.writeInt(raw.length);
+            indexOut.writeLong(records.get(0).getConversation().getCustomerId());
+            indexOut.writeLong(records.get(records.size() - 1).getConversation().getCustomerId());
+            offset += compressed.length;
+
+            for (int i = 0; i < records.size(); i++) {
+                directory[block * blockSize + i] = new long[]{records.get(i).getConversation().getId(), block};
+            }
+        }
+
+        Arrays.sort(directory, Comparator.comparingLong(entry -> entry[0]));
+        indexOut.writeInt(directory.length);
+        for (long[] entry : directory) {
+            indexOut.writeLong(entry[0]);
+            indexOut.writeInt((int) entry[1]);
+        }
+
+        // Ya ordenados por cliente: los distintos salen en orden
+        long[] customerIds = sorted.stream()
+                .mapToLong(archived -> archived.getConversation().getCustomerId())
+                .distinct()
+                .toArray();
+        indexOut.writeInt(customerIds.length);
+        for (long customerId : customerIds) {
+            indexOut.writeLong(customerId);
+        }
+
+        LocalDateTime newest = sorted.stream()
+                .map(archived -> archived.getConversation().getStartedAt())
+                .max(Comparator.naturalOrder())
+                .orElse(LocalDateTime.MIN);
+        indexOut.writeLong(newest.toEpochSecond(ZoneOffset.UTC));
+        indexOut.writeInt(newest.getNano());
+        indexOut.flush();
+
+        index.writeTo(segment);
+
+        ByteBuffer footer = ByteBuffer.allocate(FOOTER_BYTES);
+        footer.putLong(offset).putInt(index.size()).putInt(MAGIC);
+        segment.write(footer.array());
+
+        return segment.toByteArray();
+    }
+
+    private static byte[] encodeBlock(List<ArchivedConversation> records) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeInt(records.size());
+        for (ArchivedConversation record : records) {
+            ArchiveRecordCodec.write(out, record);
+        }
+        out.flush();
+
+        return bytes.toByteArray();
+    }
+
+    private static byte[] compress(byte[] raw) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(raw.length / 4 + 64);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (OutputStream out = new DeflaterOutputStream(bytes, deflater)) {
+            out.write(raw);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,100 @@
+package com.leodeev.project.whatsappbot.util;
+
+import com.leodeev.project.whatsappbot.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Codificador de cursores opacos para paginación keyset
+ * SOLID: Single Responsibility Principle - Solo codifica/decodifica cursores
+ *
+ * Un cursor guarda la clave de ordenamiento de la última fila devuelta:
+ * (timestamp, id) para mensajes y conversaciones, solo id para productos.
+ * El cliente lo recibe en Base64 URL-safe y no debe interpretarlo.
+ */
+public class CursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Constructor privado para evitar instanciación
+     */
+    private CursorCodec() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Codificar cursor compuesto (timestamp, id)
+     *
+     * @param timestamp Marca de tiempo de la última fila
+     * @param id ID de la última fila (desempate)
+     * @return Cursor opaco
+     */
+    public static String encode(LocalDateTime timestamp, Long id) {
+        return toBase64(timestamp + SEPARATOR + id);
+    }
+
+    /**
+     * Codificar cursor simple (solo id)
+     *
+     * @param id ID de la última fila
+     * @return Cursor opaco
+     */
+    public static String encode(Long id) {
+        return toBase64(String.valueOf(id));
+    }
+
+    /**
+     * Decodificar un cursor
+     *
+     * @param cursor Cursor opaco recibido del cliente (puede ser null)
+     * @return Cursor decodificado, o null si no se envió cursor (primera página)
+     */
+    public static Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = raw.indexOf(SEPARATOR);
+
+            if (separatorIndex < 0) {
+                return new Cursor(null, Long.parseLong(raw));
+            }
+
+            LocalDateTime timestamp = LocalDateTime.parse(raw.substring(0, separatorIndex));
+            Long id = Long.parseLong(raw.substring(separatorIndex + 1));
+            return new Cursor(timestamp, id);
+
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Cursor de paginación inválido: " + cursor, e);
+        }
+    }
+
+    private static String toBase64(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Clave de ordenamiento decodificada
+     *
+     * @param timestamp Marca de tiempo (null en cursores de solo id)
+     * @param id ID de la fila
+     */
+    public record Cursor(LocalDateTime timestamp, Long id) {
+
+        /**
+         * Exige que el cursor sea compuesto (timestamp, id)
+         */
+        public Cursor requireTimestamp() {
+            if (timestamp == null) {
+                throw new InvalidCursorException("El cursor no corresponde a este listado");
+            }
+            return this;
+        }
+    }
+}
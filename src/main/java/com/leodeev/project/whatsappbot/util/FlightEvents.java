@@ -0,0 +1,127 @@
+package com.leodeev.project.whatsappbot.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Eventos de Java Flight Recorder del camino webhook → respuesta
+ * SOLID: Single Responsibility Principle - Solo define los eventos
+ *
+ * Sin una grabación activa, commit() no hace nada y el JIT elimina el evento:
+ * se pueden dejar siempre encendidos. No guardan la pila (menos costo) ni el
+ * contenido de los mensajes. En JDK Mission Control aparecen bajo "Chatbot".
+ */
+public class FlightEvents {
+
+    public static final String STAGE = "chatbot.Stage";
+    public static final String AI_CALL = "chatbot.AICall";
+    public static final String REPLY = "chatbot.Reply";
+
+    /**
+     * Constructor privado para evitar instanciación
+     */
+    private FlightEvents() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Una etapa medida por PipelineMetrics; la duración va en elapsed porque
+     * varias etapas se miden por partes antes de registrarse
+     */
+    @Name(STAGE)
+    @Label("Pipeline Stage")
+    @Category("Chatbot")
+    @StackTrace(false)
+    public static class StageEvent extends Event {
+
+        @Label("Stage")
+        public String stage;
+
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        public long elapsed;
+    }
+
+    /**
+     * Una llamada a OpenAI (la duración del evento incluye la espera del límite de concurrencia)
+     */
+    @Name(AI_CALL)
+    @Label("AI Call")
+    @Category("Chatbot")
+    @StackTrace(false)
+    public static class AICallEvent extends Event {
+
+        @Label("Model")
+        public String model;
+
+        @Label("Streaming")
+        public boolean streaming;
+
+        @Label("Prompt Tokens")
+        public int promptTokens;
+
+        @Label("Completion Tokens")
+        public int completionTokens;
+
+        @Label("Cached Tokens")
+        public int cachedTokens;
+
+        @Label("Finish Reason")
+        public String finishReason;
+
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+
+    /**
+     * Una respuesta completa a un mensaje (o ráfaga) de un cliente
+     */
+    @Name(REPLY)
+    @Label("Reply")
+    @Category("Chatbot")
+    @StackTrace(false)
+    @Description("Desde que se aceptó el primer mensaje hasta que se encoló la última parte")
+    public static class ReplyEvent extends Event {
+
+        @Label("WhatsApp Message ID")
+        public String wamid;
+
+        @Label("Conversation ID")
+        public long conversationId;
+
+        @Label("Messages")
+        public int messages;
+
+        @Label("Chunks")
+        public int chunks;
+
+        @Label("Model")
+        public String model;
+
+        @Label("Prompt Tokens")
+        public int promptTokens;
+
+        @Label("Completion Tokens")
+        public int completionTokens;
+
+        @Label("Retrieval")
+        @Timespan(Timespan.MILLISECONDS)
+        public long retrieval;
+
+        @Label("AI Call")
+        @Timespan(Timespan.MILLISECONDS)
+        public long aiCall;
+
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        public long elapsed;
+
+        @Label("Fallback")
+        public boolean fallback;
+    }
+}
@@ -0,0 +1,439 @@
+package com.leodeev.project.whatsappbot.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Diario local de solo-agregar (append-only) en segmentos mapeados en memoria
+ * SOLID: Single Responsibility Principle - Solo persiste y relee entradas
+ *
+ * Formato de un segmento (journal-{offset base}.seg, tamaño fijo):
+ * [largo int][crc32c int][payload]... - largo 0 = sin escribir, -1 = fin del segmento
+ * Los offsets son globales: offset = base del segmento + posición, y cada
+ * segmento empieza en un múltiplo de segmentSize.
+ *
+ * Durabilidad (sync = true): append espera a que su entrada esté en disco. El
+ * primer hilo que espera hace el force() de todo lo escrito y los demás esperan
+ * ese mismo force (group commit): un fsync cubre a todos los que llegaron
+ * mientras el anterior estaba en curso.
+ *
+ * El lector procesa desde el checkpoint; commit() guarda el checkpoint y borra
+ * los segmentos ya procesados. Al abrir, una entrada incompleta al final (caída
+ * a mitad de escritura) se descarta por su CRC.
+ *
+ * openReadOnly es para leer el diario de otro proceso (ej: la herramienta de
+ * reproducción): mapea los segmentos en solo lectura, no limpia la cola ni crea
+ * segmentos o checkpoint, y no permite append ni commit.
+ */
+public class InboundJournal implements Closeable {
+
+    static final int HEADER_BYTES = Integer.BYTES * 2;
+    private static final int END_OF_SEGMENT = -1;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean sync;
+    private final boolean readOnly;
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final FileChannel checkpointChannel;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private final Condition available = lock.newCondition();
+
+    private long writeOffset;
+    private long durableOffset;
+    private long checkpoint;
+    private boolean flushing;
+
+    private InboundJournal(Path directory, int segmentSize, boolean sync, boolean readOnly, FileChannel checkpointChannel) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+        this.readOnly = readOnly;
+        this.checkpointChannel = checkpointChannel;
+    }
+
+    /**
+     * Abrir (o crear) el diario y recuperar la posición de escritura
+     *
+     * @param directory Directorio de los segmentos
+     * @param segmentSize Tamaño de cada segmento en bytes
+     * @param sync Esperar el fsync en cada append
+     */
+    public static InboundJournal open(Path directory, int segmentSize, boolean sync) throws IOException {
+        Files.createDirectories(directory);
+        FileChannel checkpointChannel = FileChannel.open(directory.resolve("checkpoint"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        InboundJournal journal = new InboundJournal(directory, segmentSize, sync, false, checkpointChannel);
+        journal.recover();
+        return journal;
+    }
+
+    /**
+     * Abrir un diario existente solo para leerlo (no modifica nada en el directorio)
+     *
+     * @param directory Directorio de los segmentos
+     * @param segmentSize Tamaño de cada segmento en bytes (el mismo con que se escribió)
+     */
+    public static InboundJournal openReadOnly(Path directory, int segmentSize) throws IOException {
+        Path checkpoint = directory.resolve("checkpoint");
+        FileChannel checkpointChannel = Files.exists(checkpoint)
+                ? FileChannel.open(checkpoint, StandardOpenOption.READ)
+                : null;
+
+        InboundJournal journal = new InboundJournal(directory, segmentSize, false, true, checkpointChannel);
+        try {
+            journal.recover();
+        } catch (IOException | RuntimeException e) {
+            journal.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    /**
+     * Agregar una entrada
+     * @return Offset siguiente a la entrada (ya durable si sync = true)
+     */
+    public long append(byte[] payload) throws IOException {
+        requireWritable();
+        if (payload.length == 0 || payload.length > segmentSize - HEADER_BYTES * 2) {
+            throw new IllegalArgumentException("Entrada de " + payload.length + " bytes fuera de rango");
+        }
+
+        lock.lock();
+        try {
+            long end = write(payload);
+            if (!sync) {
+                durableOffset = end;
+                available.signalAll();
+                return end;
+            }
+
+            while (durableOffset < end) {
+                if (flushing) {
+                    flushed.await();
+                    continue;
+                }
+                flush();
+            }
+            return end;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrumpido esperando el fsync del diario", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Esperar hasta que haya entradas durables después de un offset
+     * @return true si hay entradas para leer
+     */
+    public boolean awaitEntries(long fromOffset, Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = timeout.toNanos();
+            while (durableOffset <= fromOffset) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = available.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Leer entradas durables desde un offset
+     * @param fromOffset Offset inicial (el checkpoint o el nextOffset de la última entrada leída)
+     * @param max Máximo de entradas
+     */
+    public List<Entry> read(long fromOffset, int max) {
+        long limit;
+        lock.lock();
+        try {
+            limit = durableOffset;
+        } finally {
+            lock.unlock();
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        long offset = fromOffset;
+        while (offset < limit && entries.size() < max) {
+            long base = baseOf(offset);
+            Segment segment = segments.get(base);
+            int position = (int) (offset - base);
+            int length = position + HEADER_BYTES <= segmentSize ? segment.buffer.getInt(position) : END_OF_SEGMENT;
+
+            if (length == END_OF_SEGMENT) {
+                offset = base + segmentSize;
+                continue;
+            }
+
+            byte[] payload = new byte[length];
+            segment.buffer.get(position + HEADER_BYTES, payload);
+            long next = offset + HEADER_BYTES + length;
+            entries.add(new Entry(offset, next, payload));
+            offset = next;
+        }
+        return entries;
+    }
+
+    /**
+     * Guardar el checkpoint (todo lo anterior ya se procesó) y borrar segmentos viejos
+     */
+    public void commit(long offset) throws IOException {
+        requireWritable();
+        ByteBuffer value = ByteBuffer.allocate(Long.BYTES).putLong(0, offset);
+        checkpointChannel.write(value, 0);
+        checkpoint = offset;
+
+        long currentBase = baseOf(writeOffsetSnapshot());
+        for (Map.Entry<Long, Segment> entry : segments.headMap(baseOf(offset), false).entrySet()) {
+            if (entry.getKey() < currentBase) {
+                segments.remove(entry.getKey());
+                entry.getValue().channel.close();
+                Files.deleteIfExists(segmentPath(entry.getKey()));
+            }
+        }
+    }
+
+    /**
+     * Primer offset aún en disco (puede ser anterior al checkpoint: los
+     * segmentos se borran completos)
+     */
+    public long getFirstOffset() {
+        return segments.isEmpty() ? checkpoint : segments.firstKey();
+    }
+
+    public long getCheckpoint() {
+        return checkpoint;
+    }
+
+    public long getWriteOffset() {
+        return writeOffsetSnapshot();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            for (Segment segment : segments.values()) {
+                if (!readOnly) {
+                    segment.buffer.force();
+                }
+                segment.channel.close();
+            }
+            if (checkpointChannel != null) {
+                if (!readOnly) {
+                    checkpointChannel.force(true);
+                }
+                checkpointChannel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Escribir la entrada en el segmento actual (rota si no cabe). Requiere el lock.
+     */
+    private long write(byte[] payload) throws IOException {
+        long base = baseOf(writeOffset);
+        int position = (int) (writeOffset - base);
+        int needed = HEADER_BYTES + payload.length;
+
+        if (position + needed > segmentSize) {
+            Segment full = segments.get(base);
+            if (position + Integer.BYTES <= segmentSize) {
+                full.buffer.putInt(position, END_OF_SEGMENT);
+            }
+            base += segmentSize;
+            segments.put(base, Segment.create(segmentPath(base), segmentSize));
+            position = 0;
+        }
+
+        MappedByteBuffer buffer = segments.get(base).buffer;
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        buffer.put(position + HEADER_BYTES, payload);
+        buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+        // El largo va al final: una entrada a medio escribir queda con largo 0 o CRC inválido
+        buffer.putInt(position, payload.length);
+
+        writeOffset = base + position + needed;
+        return writeOffset;
+    }
+
+    /**
+     * fsync de todo lo escrito hasta ahora; se libera el lock mientras dura. Requiere el lock.
+     */
+    private void flush() {
+        flushing = true;
+        long from = durableOffset;
+        long target = writeOffset;
+        List<Map.Entry<Long, Segment>> dirty = new ArrayList<>(segments.tailMap(baseOf(from), true).entrySet());
+        lock.unlock();
+        try {
+            // Solo el rango escrito desde el último fsync, no el segmento completo
+            for (Map.Entry<Long, Segment> entry : dirty) {
+                long base = entry.getKey();
+                int start = (int) (Math.max(from, base) - base);
+                int end = (int) (Math.min(target, base + segmentSize) - base);
+                if (end > start) {
+                    entry.getValue().buffer.force(start, end - start);
+                }
+            }
+        } finally {
+            lock.lock();
+            flushing = false;
+            durableOffset = Math.max(durableOffset, target);
+            flushed.signalAll();
+            available.signalAll();
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Long> bases;
+        try (Stream<Path> files = Files.list(directory)) {
+            bases = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+
+        ByteBuffer value = ByteBuffer.allocate(Long.BYTES);
+        boolean hasCheckpoint = checkpointChannel != null && checkpointChannel.read(value, 0) == Long.BYTES;
+
+        if (readOnly) {
+            for (long base : bases) {
+                segments.put(base, Segment.openReadOnly(segmentPath(base), segmentSize));
+            }
+            writeOffset = bases.isEmpty()
+                    ? (hasCheckpoint ? value.getLong(0) : 0)
+                    : scanTail(bases.get(bases.size() - 1));
+        } else if (bases.isEmpty()) {
+            long base = hasCheckpoint ? baseOf(value.getLong(0)) : 0;
+            segments.put(base, Segment.create(segmentPath(base), segmentSize));
+            writeOffset = hasCheckpoint ? value.getLong(0) : 0;
+        } else {
+            for (long base : bases) {
+                segments.put(base, Segment.create(segmentPath(base), segmentSize));
+            }
+            writeOffset = scanTail(bases.get(bases.size() - 1));
+        }
+
+        durableOffset = writeOffset;
+        checkpoint = hasCheckpoint ? value.getLong(0) : segments.isEmpty() ? writeOffset : segments.firstKey();
+    }
+
+    /**
+     * Buscar el final de las entradas válidas del último segmento y limpiar lo que
+     * sigue (en solo lectura no se limpia: el escritor puede seguir agregando)
+     */
+    private long scanTail(long base) {
+        MappedByteBuffer buffer = segments.get(base).buffer;
+        int position = 0;
+        while (position + HEADER_BYTES <= segmentSize) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > segmentSize) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+
+        if (!readOnly) {
+            buffer.put(position, new byte[segmentSize - position]);
+        }
+        return base + position;
+    }
+
+    private void requireWritable() {
+        if (readOnly) {
+            throw new IllegalStateException("Diario abierto en solo lectura: " + directory);
+        }
+    }
+
+    private long writeOffsetSnapshot() {
+        lock.lock();
+        try {
+            return writeOffset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long baseOf(long offset) {
+        return offset - offset % segmentSize;
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, base, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Entrada leída del diario
+     * @param offset Posición de la entrada
+     * @param nextOffset Posición siguiente (valor a guardar con commit al procesarla)
+     */
+    public record Entry(long offset, long nextOffset, byte[] payload) {
+    }
+
+    /**
+     * Segmento mapeado en memoria (el archivo se crea con su tamaño final)
+     */
+    private record Segment(FileChannel channel, MappedByteBuffer buffer) {
+
+        static Segment create(Path path, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        static Segment openReadOnly(Path path, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                if (channel.size() < size) {
+                    throw new IOException("El segmento " + path + " mide " + channel.size()
+                            + " bytes y se esperaban " + size + " (¿otro segment-size-mb?)");
+                }
+                return new Segment(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+    }
+}
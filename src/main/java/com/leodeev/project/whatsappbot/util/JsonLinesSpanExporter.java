@@ -0,0 +1,144 @@
+package com.leodeev.project.whatsappbot.util;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exportador de spans a un archivo local, un span por línea en JSON
+ * SOLID: Single Responsibility Principle - Solo serializa y escribe spans
+ *
+ * Permite revisar las trazas sin un colector (ej: jq 'select(.traceId == "...")').
+ * Los campos siguen los nombres de OTLP (traceId, parentSpanId, startTimeUnixNano...).
+ * Al superar maxBytes el archivo pasa a {nombre}.1 (se reemplaza el anterior).
+ */
+public class JsonLinesSpanExporter implements SpanExporter {
+
+    private final Path path;
+    private final long maxBytes;
+    private final JsonMapper jsonMapper;
+
+    private OutputStream output;
+    private long written;
+
+    public JsonLinesSpanExporter(Path path, long maxBytes, JsonMapper jsonMapper) throws IOException {
+        this.path = path;
+        this.maxBytes = maxBytes;
+        this.jsonMapper = jsonMapper;
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        open();
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        try {
+            for (SpanData span : spans) {
+                byte[] line = jsonMapper.writeValueAsBytes(toMap(span));
+                if (written > 0 && written + line.length + 1 > maxBytes) {
+                    rotate();
+                }
+                output.write(line);
+                output.write('\n');
+                written += line.length + 1;
+            }
+            output.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        try {
+            output.close();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    private void open() throws IOException {
+        output = new BufferedOutputStream(Files.newOutputStream(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+        written = Files.size(path);
+    }
+
+    private void rotate() throws IOException {
+        output.close();
+        Files.move(path, path.resolveSibling(path.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+
+    private static Map<String, Object> toMap(SpanData span) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("traceId", span.getTraceId());
+        json.put("spanId", span.getSpanId());
+        if (span.getParentSpanContext().isValid()) {
+            json.put("parentSpanId", span.getParentSpanId());
+        }
+        json.put("name", span.getName());
+        json.put("kind", span.getKind().name());
+        json.put("startTimeUnixNano", span.getStartEpochNanos());
+        json.put("endTimeUnixNano", span.getEndEpochNanos());
+        json.put("durationMs", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1e6);
+        json.put("service", span.getResource().getAttribute(AttributeKey.stringKey("service.name")));
+        json.put("attributes", attributes(span.getAttributes()));
+        json.put("status", span.getStatus().getStatusCode().name());
+        if (!span.getStatus().getDescription().isEmpty()) {
+            json.put("statusMessage", span.getStatus().getDescription());
+        }
+        if (!span.getEvents().isEmpty()) {
+            json.put("events", span.getEvents().stream().map(JsonLinesSpanExporter::event).toList());
+        }
+        if (!span.getLinks().isEmpty()) {
+            json.put("links", span.getLinks().stream().map(LinkData::getSpanContext)
+                    .map(JsonLinesSpanExporter::link).toList());
+        }
+        return json;
+    }
+
+    private static Map<String, Object> attributes(Attributes attributes) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        attributes.forEach((key, value) -> json.put(key.getKey(), value));
+        return json;
+    }
+
+    private static Map<String, Object> event(EventData event) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("name", event.getName());
+        json.put("timeUnixNano", event.getEpochNanos());
+        json.put("attributes", attributes(event.getAttributes()));
+        return json;
+    }
+
+    private static Map<String, Object> link(SpanContext context) {
+        return Map.of("traceId", context.getTraceId(), "spanId", context.getSpanId());
+    }
+}
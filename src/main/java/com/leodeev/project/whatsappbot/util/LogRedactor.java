@@ -0,0 +1,98 @@
+package com.leodeev.project.whatsappbot.util;
+
+/**
+ * Enmascarado de datos personales en los logs
+ * SOLID: Single Responsibility Principle - Solo enmascara
+ *
+ * Los teléfonos se muestran con los últimos 4 dígitos (*******0111) y el texto
+ * de los clientes nunca se escribe: solo su longitud. redact() es la red de
+ * seguridad del appender: enmascara cualquier secuencia de 8 o más dígitos
+ * (teléfonos con o sin +) en el mensaje ya formateado.
+ */
+public class LogRedactor {
+
+    private static final int MIN_DIGITS = 8;
+    private static final int VISIBLE_DIGITS = 4;
+
+    /**
+     * Constructor privado para evitar instanciación
+     */
+    private LogRedactor() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Teléfono con solo los últimos dígitos visibles
+     *
+     * @param phoneNumber Número de teléfono
+     * @return Número enmascarado
+     */
+    public static String phone(String phoneNumber) {
+        if (phoneNumber == null || phoneNumber.length() <= VISIBLE_DIGITS) {
+            return phoneNumber;
+        }
+        int hidden = phoneNumber.length() - VISIBLE_DIGITS;
+        return "*".repeat(hidden) + phoneNumber.substring(hidden);
+    }
+
+    /**
+     * Descripción del contenido de un mensaje sin el contenido
+     *
+     * @param content Texto del cliente o de la IA
+     * @return Longitud, ej: "[42 caracteres]"
+     */
+    public static String text(String content) {
+        return content == null ? "[vacío]" : "[" + content.length() + " caracteres]";
+    }
+
+    /**
+     * Enmascarar las secuencias largas de dígitos de un mensaje de log
+     * Sin secuencias largas devuelve el mismo String (sin copiar)
+     *
+     * @param message Mensaje formateado
+     * @return Mensaje enmascarado
+     */
+    public static String redact(String message) {
+        if (message == null) {
+            return null;
+        }
+
+        StringBuilder redacted = null;
+        int length = message.length();
+        int i = 0;
+        while (i < length) {
+            if (!isDigit(message.charAt(i))) {
+                i++;
+                continue;
+            }
+
+            int start = i;
+            while (i < length && isDigit(message.charAt(i))) {
+                i++;
+            }
+            if (i - start < MIN_DIGITS) {
+                continue;
+            }
+
+            // El enmascarado conserva la longitud: redacted.length() es la posición en message
+            if (redacted == null) {
+                redacted = new StringBuilder(length).append(message, 0, start);
+            } else {
+                redacted.append(message, redacted.length(), start);
+            }
+            for (int j = start; j < i - VISIBLE_DIGITS; j++) {
+                redacted.append('*');
+            }
+            redacted.append(message, i - VISIBLE_DIGITS, i);
+        }
+
+        if (redacted == null) {
+            return message;
+        }
+        return redacted.append(message, redacted.length(), length).toString();
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,117 @@
+package com.leodeev.project.whatsappbot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Divide respuestas largas en partes que WhatsApp acepta (máximo 4096 caracteres)
+ * SOLID: Single Responsibility Principle - Solo decide dónde cortar el texto
+ *
+ * Recibe el texto de forma incremental (streaming de la IA) y entrega cada parte
+ * en cuanto está cerrada. Los cortes se buscan, en este orden, en un fin de
+ * párrafo, un fin de oración y un espacio; solo si no hay ninguno se corta en
+ * el límite. Además, al superar softLength un fin de párrafo cierra la parte:
+ * así la primera parte sale sin esperar a que se generen 4096 caracteres.
+ *
+ * No es thread-safe: una instancia por respuesta.
+ */
+public class MessageChunker {
+
+    private final int maxLength;
+    private final int softLength;
+    private final StringBuilder buffer = new StringBuilder();
+
+    /**
+     * @param maxLength Largo máximo de una parte
+     * @param softLength Largo desde el cual un fin de párrafo cierra la parte
+     */
+    public MessageChunker(int maxLength, int softLength) {
+        if (maxLength < 2 || softLength < 1 || softLength > maxLength) {
+            throw new IllegalArgumentException("Límites inválidos: max=" + maxLength + ", soft=" + softLength);
+        }
+        this.maxLength = maxLength;
+        this.softLength = softLength;
+    }
+
+    /**
+     * Dividir un texto completo
+     */
+    public static List<String> split(String text, int maxLength, int softLength) {
+        MessageChunker chunker = new MessageChunker(maxLength, softLength);
+        List<String> chunks = new ArrayList<>(chunker.append(text));
+        chunks.addAll(chunker.finish());
+        return chunks;
+    }
+
+    /**
+     * Agregar texto generado
+     * @return Partes cerradas con este fragmento (puede estar vacía)
+     */
+    public List<String> append(String delta) {
+        if (delta == null || delta.isEmpty()) {
+            return List.of();
+        }
+        buffer.append(delta);
+
+        List<String> ready = new ArrayList<>();
+        while (buffer.length() > maxLength) {
+            emit(cutPoint(), ready);
+        }
+
+        int paragraph = buffer.lastIndexOf("\n\n");
+        if (paragraph >= softLength) {
+            emit(paragraph, ready);
+        }
+        return ready;
+    }
+
+    /**
+     * Cerrar la última parte al terminar la generación
+     */
+    public List<String> finish() {
+        List<String> ready = new ArrayList<>();
+        emit(buffer.length(), ready);
+        return ready;
+    }
+
+    /**
+     * Mejor corte dentro de los primeros maxLength caracteres. Párrafos y oraciones
+     * solo cuentan en la segunda mitad, para no dejar partes demasiado cortas.
+     */
+    private int cutPoint() {
+        int floor = maxLength / 2;
+
+        int paragraph = buffer.lastIndexOf("\n\n", maxLength - 2);
+        if (paragraph >= floor) {
+            return paragraph;
+        }
+
+        for (int i = maxLength - 1; i >= floor; i--) {
+            char c = buffer.charAt(i);
+            if (c == '\n' || (Character.isWhitespace(c) && isSentenceEnd(buffer.charAt(i - 1)))) {
+                return i;
+            }
+        }
+
+        for (int i = maxLength - 1; i > 0; i--) {
+            if (Character.isWhitespace(buffer.charAt(i))) {
+                return i;
+            }
+        }
+
+        // Sin espacios: corte duro sin partir un par surrogate (emojis)
+        return Character.isHighSurrogate(buffer.charAt(maxLength - 1)) ? maxLength - 1 : maxLength;
+    }
+
+    private void emit(int end, List<String> ready) {
+        String chunk = buffer.substring(0, end).strip();
+        buffer.delete(0, end);
+        if (!chunk.isEmpty()) {
+            ready.add(chunk);
+        }
+    }
+
+    private static boolean isSentenceEnd(char c) {
+        return c == '.' || c == '!' || c == '?' || c == ':' || c == ';';
+    }
+}
@@ -0,0 +1,156 @@
+package com.leodeev.project.whatsappbot.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers por etapa del camino webhook → respuesta
+ * SOLID: Single Responsibility Principle - Solo mide
+ *
+ * chatbot.pipeline.stage{stage=...}: cada etapa por separado, para saber si la
+ * lentitud viene de Postgres, la búsqueda de productos, OpenAI o la Graph API.
+ * chatbot.reply.e2e: desde el timestamp con el que el cliente envió el mensaje
+ * (resolución de segundos de WhatsApp) hasta el envío de la primera parte.
+ * chatbot.reply.latency{stage=...}: desde que se acepta el mensaje hasta cada
+ * señal al cliente (ReplySignal).
+ *
+ * Se publican como histogramas (Prometheus calcula los percentiles con
+ * histogram_quantile y se pueden sumar entre réplicas).
+ * Cada etapa también se emite como evento de JFR (FlightEvents.StageEvent).
+ */
+public class PipelineMetrics {
+
+    private static final Duration MIN_EXPECTED = Duration.ofMillis(1);
+    private static final Duration MAX_EXPECTED = Duration.ofMinutes(2);
+
+    private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+    private final Timer endToEnd;
+    private final Map<ReplySignal, Timer> replyLatency = new EnumMap<>(ReplySignal.class);
+
+    public PipelineMetrics(MeterRegistry meterRegistry) {
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, Timer.builder("chatbot.pipeline.stage")
+                    .description("Duración de cada etapa del procesamiento de un mensaje")
+                    .tag("stage", stage.tag)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(MIN_EXPECTED)
+                    .maximumExpectedValue(MAX_EXPECTED)
+                    .register(meterRegistry));
+        }
+        endToEnd = Timer.builder("chatbot.reply.e2e")
+                .description("Desde que el cliente envió el mensaje hasta que se envía la respuesta")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .register(meterRegistry);
+        for (ReplySignal signal : ReplySignal.values()) {
+            replyLatency.put(signal, Timer.builder("chatbot.reply.latency")
+                    .description("Tiempo desde que se acepta un mensaje entrante hasta cada señal al cliente")
+                    .tag("stage", signal.tag)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+    }
+
+    public <T> T time(Stage stage, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            record(stage, System.nanoTime() - start);
+        }
+    }
+
+    public void record(Stage stage, long nanos) {
+        stages.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+
+        FlightEvents.StageEvent event = new FlightEvents.StageEvent();
+        if (event.isEnabled()) {
+            event.stage = stage.tag;
+            event.elapsed = nanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Medir una etapa y sumarla también a los tiempos del mensaje
+     */
+    public <T> T time(Stage stage, StageTimings timings, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            record(stage, System.nanoTime() - start, timings);
+        }
+    }
+
+    public void record(Stage stage, long nanos, StageTimings timings) {
+        record(stage, nanos);
+        timings.add(stage, nanos);
+    }
+
+    /**
+     * @param customerSentAt Timestamp del mensaje del cliente (IncomingMessage.timestamp)
+     */
+    public void recordEndToEnd(Instant customerSentAt) {
+        Duration elapsed = Duration.between(customerSentAt, Instant.now());
+        // Reloj del servidor atrasado respecto a WhatsApp: no se registra una duración negativa
+        if (!elapsed.isNegative()) {
+            endToEnd.record(elapsed);
+        }
+    }
+
+    /**
+     * @param acceptedAt Momento en que se aceptó el mensaje entrante (System.nanoTime())
+     */
+    public void recordReplyLatency(ReplySignal signal, long acceptedAt) {
+        replyLatency.get(signal).record(System.nanoTime() - acceptedAt, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Señales al cliente medidas desde que se acepta su mensaje; para una ráfaga
+     * se mide desde el primer mensaje (incluye la ventana de agrupación)
+     */
+    public enum ReplySignal {
+        FIRST_SIGNAL("first_signal"),   // Leído / escribiendo...
+        FIRST_CHUNK("first_chunk"),     // Primera parte de la respuesta en el outbox
+        COMPLETE("complete");           // Respuesta completa en el outbox
+
+        private final String tag;
+
+        ReplySignal(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * Etapas medidas
+     */
+    public enum Stage {
+        CUSTOMER_RESOLVE("customer_resolve"),           // Buscar o crear el cliente
+        CONVERSATION_RESOLVE("conversation_resolve"),   // Buscar o crear la conversación activa
+        INBOUND_PERSIST("inbound_persist"),             // Insertar el mensaje entrante y confirmar la transacción
+        RETRIEVAL("retrieval"),                         // Contexto de productos para la IA
+        AI_CALL("ai_call"),                             // Llamada a OpenAI (sin el guardado de las partes)
+        OUTBOUND_PERSIST("outbound_persist"),           // Guardar una parte de la respuesta y su fila del outbox
+        SEND("send"),                                   // POST a la Graph API (incluye la espera por concurrencia)
+        STATUS_UPDATE("status_update");                 // Escribir un lote de callbacks de estado
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.leodeev.project.whatsappbot.util;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import io.micrometer.tracing.Link;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Trazas por mensaje del camino webhook → respuesta
+ * SOLID: Single Responsibility Principle - Solo abre, continúa y propaga spans
+ *
+ * Cada mensaje entrante (wamid) es la raíz de su propia traza; las consultas a
+ * Postgres (datasource-micrometer) y las llamadas HTTP a OpenAI y a la Graph API
+ * (WebClient observado) quedan como hijas del span activo.
+ *
+ * El contexto cruza los traspasos entre hilos de forma explícita: la ráfaga
+ * guarda el TraceContext de cada mensaje y la respuesta es hija del último
+ * (enlazada a los demás); el outbox guarda el traceparent W3C de la parte y el
+ * despachador continúa la traza al enviarla.
+ */
+public class PipelineTracing {
+
+    private static final String TRACEPARENT = "traceparent";
+
+    private final Tracer tracer;
+    private final Propagator propagator;
+    private final ObservationRegistry observationRegistry;
+
+    public PipelineTracing(Tracer tracer, Propagator propagator, ObservationRegistry observationRegistry) {
+        this.tracer = tracer;
+        this.propagator = propagator;
+        this.observationRegistry = observationRegistry;
+    }
+
+    /**
+     * Traza propia de un mensaje entrante; si hay un span activo (la solicitud del
+     * webhook) queda enlazado, no como padre
+     */
+    public void inbound(String whatsappMessageId, String messageType, Runnable work) {
+        Span.Builder builder = tracer.spanBuilder().name("whatsapp.inbound").setNoParent();
+        tag(builder, "whatsapp.message_id", whatsappMessageId);
+        tag(builder, "whatsapp.message_type", messageType);
+
+        Span current = tracer.currentSpan();
+        if (current != null) {
+            builder.addLink(new Link(current.context()));
+        }
+        run(builder.start(), span -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Respuesta a una ráfaga: hija del último mensaje y enlazada a los anteriores
+     * @param messages Contexto de cada mensaje de la ráfaga, en orden de llegada
+     */
+    public void reply(List<TraceContext> messages, Runnable work) {
+        Span.Builder builder = tracer.spanBuilder().name("chatbot.reply").tag("chatbot.burst.size", messages.size());
+        if (messages.isEmpty()) {
+            builder.setNoParent();
+        } else {
+            builder.setParent(messages.get(messages.size() - 1));
+            for (TraceContext message : messages.subList(0, messages.size() - 1)) {
+                builder.addLink(new Link(message));
+            }
+        }
+        run(builder.start(), span -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Span hijo del span activo
+     */
+    public <T> T inSpan(String name, Function<Span, T> work) {
+        return run(tracer.nextSpan().name(name).start(), work);
+    }
+
+    /**
+     * Continuar una traza guardada como traceparent (ej: en el outbox); sin él, traza nueva
+     */
+    public <T> T continueFrom(String traceParent, String name, Function<Span, T> work) {
+        Span.Builder builder = traceParent != null
+                ? propagator.extract(Map.of(TRACEPARENT, traceParent), Map::get)
+                : tracer.spanBuilder().setNoParent();
+        return run(builder.name(name).start(), work);
+    }
+
+    /**
+     * Observar una cadena reactiva que se suscribe en otro hilo: el span se abre
+     * aquí (hijo del activo) y viaja en el contexto de Reactor hasta WebClient
+     */
+    public <T> Mono<T> observe(String name, Mono<T> mono) {
+        Observation observation = Observation.start(name, observationRegistry);
+        return mono
+                .doOnError(observation::error)
+                .doFinally(signal -> observation.stop())
+                .contextWrite(Context.of(ObservationThreadLocalAccessor.KEY, observation));
+    }
+
+    /**
+     * Contexto del span activo; null si no hay
+     */
+    public TraceContext currentContext() {
+        Span current = tracer.currentSpan();
+        return current != null ? current.context() : null;
+    }
+
+    /**
+     * traceparent W3C del span activo, para guardarlo junto a trabajo que sigue en otro proceso o hilo
+     */
+    public String currentTraceParent() {
+        TraceContext context = currentContext();
+        if (context == null) {
+            return null;
+        }
+        Map<String, String> carrier = new HashMap<>();
+        propagator.inject(context, carrier, Map::put);
+        return carrier.get(TRACEPARENT);
+    }
+
+    private <T> T run(Span span, Function<Span, T> work) {
+        try (Tracer.SpanInScope scope = tracer.withSpan(span)) {
+            return work.apply(span);
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private static void tag(Span.Builder builder, String key, String value) {
+        if (value != null) {
+            builder.tag(key, value);
+        }
+    }
+}
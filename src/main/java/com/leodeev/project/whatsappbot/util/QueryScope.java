@@ -0,0 +1,142 @@
+package com.leodeev.project.whatsappbot.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Contadores de SQL de una operación lógica (un mensaje del webhook, una llamada REST)
+ * SOLID: Single Responsibility Principle - Solo acumula, no decide ni publica
+ *
+ * Se asocia al hilo que la abre: QueryStatsListener suma en ella cada sentencia
+ * ejecutada en ese hilo. Las operaciones anidadas se suman a la que las contiene
+ * al cerrarse. No es segura entre hilos: sentencias en otro hilo (ej: el cliente
+ * HTTP durante el streaming) no se atribuyen a la operación.
+ */
+public final class QueryScope implements AutoCloseable {
+
+    private static final ThreadLocal<QueryScope> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Sentencias distintas contadas para detectar repeticiones (N+1); el resto se ignora
+     */
+    private static final int MAX_DISTINCT_QUERIES = 256;
+
+    private final String operation;
+    private final QueryScope parent;
+    private final Consumer<QueryScope> onClose;
+
+    private int statements;
+    private long rowsRead;
+    private long rowsWritten;
+    private long nanos;
+    private long statementStart;
+    private Map<String, Integer> queryCounts;
+    private boolean closed;
+
+    private QueryScope(String operation, QueryScope parent, Consumer<QueryScope> onClose) {
+        this.operation = operation;
+        this.parent = parent;
+        this.onClose = onClose;
+    }
+
+    /**
+     * Abrir una operación en el hilo actual
+     * @param operation Nombre de la operación (tag de las métricas)
+     * @param onClose Recibe la operación al cerrarse
+     */
+    public static QueryScope open(String operation, Consumer<QueryScope> onClose) {
+        QueryScope scope = new QueryScope(operation, CURRENT.get(), onClose);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Operación abierta en el hilo actual (null fuera de una operación)
+     */
+    public static QueryScope current() {
+        return CURRENT.get();
+    }
+
+    public void statementStarted() {
+        statementStart = System.nanoTime();
+    }
+
+    /**
+     * Registrar una sentencia terminada
+     * @param rowsWritten Filas modificadas según el driver (0 para consultas)
+     */
+    public void statementFinished(long rowsWritten) {
+        statements++;
+        this.rowsWritten += rowsWritten;
+        if (statementStart != 0) {
+            nanos += System.nanoTime() - statementStart;
+            statementStart = 0;
+        }
+    }
+
+    public void rowRead() {
+        rowsRead++;
+    }
+
+    /**
+     * Contar una ejecución más de la misma consulta (mismo SQL, otros parámetros)
+     * @return Veces que se ejecutó en esta operación (0 si ya no se cuentan más consultas distintas)
+     */
+    public int countExecution(String sql) {
+        if (queryCounts == null) {
+            queryCounts = new HashMap<>();
+        }
+        Integer count = queryCounts.get(sql);
+        if (count == null) {
+            if (queryCounts.size() >= MAX_DISTINCT_QUERIES) {
+                return 0;
+            }
+            count = 0;
+        }
+        queryCounts.put(sql, count + 1);
+        return count + 1;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        if (parent != null) {
+            parent.statements += statements;
+            parent.rowsRead += rowsRead;
+            parent.rowsWritten += rowsWritten;
+            parent.nanos += nanos;
+            CURRENT.set(parent);
+        } else {
+            CURRENT.remove();
+        }
+        onClose.accept(this);
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    /**
+     * Tiempo total en la base de datos (suma de las sentencias)
+     */
+    public long getNanos() {
+        return nanos;
+    }
+}
@@ -0,0 +1,92 @@
+package com.leodeev.project.whatsappbot.util;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * Listener de datasource-proxy que atribuye cada sentencia a la operación del hilo
+ * SOLID: Single Responsibility Principle - Solo cuenta y detecta, el registro lo hace el Sink
+ *
+ * Por sentencia hace una lectura de ThreadLocal y, dentro de una operación, una
+ * búsqueda en un HashMap (el SQL de Hibernate se repite con los mismos String).
+ * Una consulta ejecutada repeatedQueryThreshold veces en la misma operación se informa
+ * una vez como N+1; una sentencia más lenta que slowQueryMillis se informa
+ * siempre, esté o no dentro de una operación.
+ */
+public class QueryStatsListener implements QueryExecutionListener {
+
+    private final Sink sink;
+    private final long slowQueryMillis;
+    private final int repeatedQueryThreshold;
+
+    public QueryStatsListener(Sink sink, long slowQueryMillis, int repeatedQueryThreshold) {
+        this.sink = sink;
+        this.slowQueryMillis = slowQueryMillis;
+        this.repeatedQueryThreshold = repeatedQueryThreshold;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryScope scope = QueryScope.current();
+        if (scope != null) {
+            scope.statementStarted();
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryScope scope = QueryScope.current();
+        String sql = queryInfoList.isEmpty() ? null : queryInfoList.get(0).getQuery();
+
+        if (scope != null) {
+            scope.statementFinished(rowsWritten(execInfo.getResult()));
+            if (sql != null && !execInfo.isBatch()) {
+                int executions = scope.countExecution(sql);
+                if (executions == repeatedQueryThreshold) {
+                    sink.repeatedQuery(scope.getOperation(), sql, executions);
+                }
+            }
+        }
+
+        if (execInfo.getElapsedTime() >= slowQueryMillis && sql != null) {
+            sink.slowQuery(scope != null ? scope.getOperation() : null, sql, execInfo.getElapsedTime());
+        }
+    }
+
+    /**
+     * Filas modificadas según el resultado de executeUpdate / executeBatch
+     */
+    private static long rowsWritten(Object result) {
+        if (result instanceof Integer count) {
+            return Math.max(count, 0);
+        }
+        if (result instanceof Long count) {
+            return Math.max(count, 0);
+        }
+        if (result instanceof int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                // Statement.SUCCESS_NO_INFO (-2): el driver no informa las filas
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        return 0;
+    }
+
+    /**
+     * Destino de los hallazgos (SqlStatsService)
+     */
+    public interface Sink {
+
+        void repeatedQuery(String operation, String sql, int executions);
+
+        /**
+         * @param operation Operación del hilo (null fuera de una operación)
+         */
+        void slowQuery(String operation, String sql, long elapsedMillis);
+    }
+}
@@ -0,0 +1,25 @@
+package com.leodeev.project.whatsappbot.util;
+
+import org.springframework.boot.json.JsonWriter;
+import org.springframework.boot.logging.structured.StructuredLoggingJsonMembersCustomizer;
+
+import java.util.Set;
+
+/**
+ * Enmascarado de teléfonos en los logs estructurados (logging.structured.json.customizer)
+ * SOLID: Single Responsibility Principle - Solo enmascara el mensaje
+ *
+ * Equivalente a RedactingMessageConverter para los formatos JSON de Spring Boot
+ * (ecs, logstash, gelf). Solo se procesan los campos del mensaje: los IDs de
+ * traza son hexadecimales y pueden tener secuencias largas de dígitos.
+ */
+public class RedactingJsonMembersCustomizer implements StructuredLoggingJsonMembersCustomizer<Object> {
+
+    private static final Set<String> MESSAGE_FIELDS = Set.of("message", "short_message", "full_message");
+
+    @Override
+    public void customize(JsonWriter.Members<Object> members) {
+        members.applyingValueProcessor(JsonWriter.ValueProcessor.of(String.class, LogRedactor::redact)
+                .whenHasPath(path -> path.name() != null && MESSAGE_FIELDS.contains(path.name())));
+    }
+}
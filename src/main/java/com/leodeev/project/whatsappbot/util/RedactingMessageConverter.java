@@ -0,0 +1,32 @@
+package com.leodeev.project.whatsappbot.util;
+
+import ch.qos.logback.classic.pattern.MessageConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import org.slf4j.event.KeyValuePair;
+
+import java.util.List;
+
+/**
+ * Reemplaza %m / %msg en el patrón de texto (logback-spring.xml)
+ * SOLID: Single Responsibility Principle - Solo da formato al mensaje
+ *
+ * Agrega los pares clave-valor del evento (log.atInfo().addKeyValue(...)) como
+ * "clave=valor", para que la línea de resumen por mensaje sea legible en texto
+ * igual que en JSON, y enmascara los teléfonos con LogRedactor.redact().
+ */
+public class RedactingMessageConverter extends MessageConverter {
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        String message = event.getFormattedMessage();
+        List<KeyValuePair> keyValuePairs = event.getKeyValuePairs();
+        if (keyValuePairs != null && !keyValuePairs.isEmpty()) {
+            StringBuilder builder = new StringBuilder(message);
+            for (KeyValuePair pair : keyValuePairs) {
+                builder.append(' ').append(pair.key).append('=').append(pair.value);
+            }
+            message = builder.toString();
+        }
+        return LogRedactor.redact(message);
+    }
+}
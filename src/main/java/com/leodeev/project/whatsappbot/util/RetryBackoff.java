@@ -0,0 +1,109 @@
+package com.leodeev.project.whatsappbot.util;
+
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongUnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Política de reintentos de envíos a la API de WhatsApp
+ * SOLID: Single Responsibility Principle - Solo calcula esperas y clasifica errores
+ *
+ * La espera crece exponencialmente con el número de intentos y se aplica
+ * "full jitter" (valor aleatorio entre 0 y el tope) para que los reintentos
+ * de varias réplicas no lleguen todos juntos a la API.
+ */
+public class RetryBackoff {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    // Códigos de Graph API por límite de tasa: llegan con HTTP 400 pero son transitorios
+    private static final Set<Integer> THROTTLING_CODES = Set.of(4, 80007, 130429, 131048, 131056);
+
+    private static final Pattern ERROR_CODE = Pattern.compile("\"code\"\\s*:\\s*(\\d+)");
+
+    /**
+     * Constructor privado para evitar instanciación
+     */
+    private RetryBackoff() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Espera antes del siguiente intento
+     *
+     * @param attempts Intentos ya realizados (1 tras el primer fallo)
+     * @param base Espera base
+     * @param max Espera máxima
+     * @return Espera aleatoria en [0, min(max, base * 2^(attempts-1))]
+     */
+    public static Duration delay(int attempts, Duration base, Duration max) {
+        return delay(attempts, base, max, bound -> ThreadLocalRandom.current().nextLong(bound + 1));
+    }
+
+    static Duration delay(int attempts, Duration base, Duration max, LongUnaryOperator random) {
+        int exponent = Math.max(0, Math.min(attempts - 1, 30));
+        long ceiling = Math.min(max.toMillis(), base.toMillis() << exponent);
+        return Duration.ofMillis(random.applyAsLong(Math.max(0, ceiling)));
+    }
+
+    /**
+     * Un error permanente no se corrige reintentando (número inválido, token, plantilla...)
+     * Son permanentes los 4xx, salvo 408, 429 y los códigos de límite de tasa de Graph API
+     *
+     * @param error Error del envío
+     * @return true si no debe reintentarse
+     */
+    public static boolean isPermanent(Throwable error) {
+        WebClientResponseException response = findResponseError(error);
+        if (response == null) {
+            // Timeouts, conexión rechazada, DNS: transitorios
+            return false;
+        }
+
+        int status = response.getStatusCode().value();
+        if (status < 400 || status >= 500 || status == 408 || status == 429) {
+            return false;
+        }
+
+        Matcher matcher = ERROR_CODE.matcher(response.getResponseBodyAsString());
+        return !(matcher.find() && THROTTLING_CODES.contains(Integer.parseInt(matcher.group(1))));
+    }
+
+    /**
+     * Texto del error para messages.error_message
+     *
+     * @param error Error del envío
+     * @return Estado HTTP y cuerpo de la respuesta, o el mensaje de la excepción
+     */
+    public static String describe(Throwable error) {
+        WebClientResponseException response = findResponseError(error);
+        String description;
+        if (response != null) {
+            description = response.getStatusCode().value() + ": " + response.getResponseBodyAsString();
+        } else {
+            Throwable root = error;
+            while (root.getCause() != null && root.getCause() != root) {
+                root = root.getCause();
+            }
+            description = root.getClass().getSimpleName() + ": " + root.getMessage();
+        }
+        return description.length() > MAX_ERROR_LENGTH ? description.substring(0, MAX_ERROR_LENGTH) : description;
+    }
+
+    private static WebClientResponseException findResponseError(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof WebClientResponseException response) {
+                return response;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return null;
+    }
+}
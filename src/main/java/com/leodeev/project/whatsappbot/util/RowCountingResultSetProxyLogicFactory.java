@@ -0,0 +1,36 @@
+package com.leodeev.project.whatsappbot.util;
+
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogic;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogicFactory;
+import net.ttddyy.dsproxy.proxy.SimpleResultSetProxyLogic;
+
+import java.sql.ResultSet;
+
+/**
+ * ResultSet de datasource-proxy que cuenta las filas leídas en la operación del hilo
+ * SOLID: Single Responsibility Principle - Solo cuenta filas
+ *
+ * La operación se toma al crear el ResultSet (el hilo que ejecutó la consulta):
+ * cada next() cuesta una comparación del nombre del método, sin ThreadLocal.
+ */
+public class RowCountingResultSetProxyLogicFactory implements ResultSetProxyLogicFactory {
+
+    @Override
+    public ResultSetProxyLogic create(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+        SimpleResultSetProxyLogic delegate = new SimpleResultSetProxyLogic(resultSet, connectionInfo, proxyConfig);
+        QueryScope scope = QueryScope.current();
+        if (scope == null) {
+            return delegate;
+        }
+
+        return (proxy, method, args) -> {
+            Object result = delegate.invoke(proxy, method, args);
+            if (Boolean.TRUE.equals(result) && "next".equals(method.getName())) {
+                scope.rowRead();
+            }
+            return result;
+        };
+    }
+}
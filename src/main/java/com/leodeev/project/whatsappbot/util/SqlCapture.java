@@ -0,0 +1,51 @@
+package com.leodeev.project.whatsappbot.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inspector de sentencias de Hibernate que permite capturar el SQL generado
+ * SOLID: Single Responsibility Principle - Solo captura SQL, no lo ejecuta ni lo analiza
+ *
+ * Se instala solo en la sesión que abre el asesor de índices, no en las demás.
+ * Fuera del modo captura deja pasar el SQL sin cambios (costo casi nulo).
+ * En modo captura, registra el SQL original del hilo actual y lo envuelve en
+ * "WHERE 1 = 0" para que la base de datos no lea ninguna fila al ejecutarlo.
+ * Solo debe usarse con consultas de lectura.
+ */
+public class SqlCapture implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> captured = CAPTURED.get();
+
+        if (captured == null) {
+            return sql;
+        }
+
+        captured.add(sql);
+        return "select * from (" + sql + ") advisor_probe where 1 = 0";
+    }
+
+    /**
+     * Iniciar captura en el hilo actual
+     */
+    public static void start() {
+        CAPTURED.set(new ArrayList<>());
+    }
+
+    /**
+     * Terminar captura en el hilo actual
+     *
+     * @return SQL capturado desde start(), en orden de ejecución
+     */
+    public static List<String> stop() {
+        List<String> captured = CAPTURED.get();
+        CAPTURED.remove();
+        return captured != null ? captured : List.of();
+    }
+}
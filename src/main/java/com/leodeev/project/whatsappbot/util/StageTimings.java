@@ -0,0 +1,52 @@
+package com.leodeev.project.whatsappbot.util;
+
+import com.leodeev.project.whatsappbot.util.PipelineMetrics.Stage;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Tiempos por etapa de un mensaje (o ráfaga) para la línea de resumen del log
+ * SOLID: Single Responsibility Principle - Solo acumula tiempos
+ *
+ * Las etapas del webhook y las de la respuesta corren en hilos distintos (y con
+ * streaming, el guardado de las partes en el hilo del cliente HTTP): cada etapa
+ * se suma de forma atómica.
+ */
+public class StageTimings {
+
+    private static final Stage[] STAGES = Stage.values();
+
+    private final AtomicLongArray nanos = new AtomicLongArray(STAGES.length);
+
+    public void add(Stage stage, long elapsedNanos) {
+        nanos.addAndGet(stage.ordinal(), elapsedNanos);
+    }
+
+    /**
+     * Sumar los tiempos de otro mensaje de la misma ráfaga
+     */
+    public void addAll(StageTimings other) {
+        for (int i = 0; i < STAGES.length; i++) {
+            nanos.addAndGet(i, other.nanos.get(i));
+        }
+    }
+
+    public long millis(Stage stage) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos.get(stage.ordinal()));
+    }
+
+    /**
+     * Recorrer las etapas medidas (las que no corrieron se omiten)
+     * @param consumer Recibe el tag de la etapa y su duración en ms
+     */
+    public void forEachMeasured(ObjLongConsumer<String> consumer) {
+        for (int i = 0; i < STAGES.length; i++) {
+            long elapsed = nanos.get(i);
+            if (elapsed > 0) {
+                consumer.accept(STAGES[i].tag(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.leodeev.project.whatsappbot.util;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket: tasa sostenida de permisos por segundo con ráfaga acotada
+ * SOLID: Single Responsibility Principle - Solo contabiliza permisos
+ *
+ * Los permisos se reservan: si no hay token disponible se descuenta igual
+ * (saldo negativo) y se devuelve cuánto esperar. Así el llamador decide cómo
+ * esperar (dormir un hilo o Mono.delay) y los turnos quedan en orden de llegada.
+ */
+public class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double capacity;
+    private final LongSupplier clock;
+
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double permitsPerSecond, double capacity) {
+        this(permitsPerSecond, capacity, System::nanoTime);
+    }
+
+    TokenBucket(double permitsPerSecond, double capacity, LongSupplier clock) {
+        if (permitsPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Tasa y capacidad deben ser positivas");
+        }
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = capacity;
+        this.clock = clock;
+        this.tokens = capacity;
+        this.lastRefill = clock.getAsLong();
+    }
+
+    /**
+     * Tomar un permiso solo si está disponible ahora (no bloquea)
+     *
+     * @return true si se obtuvo el permiso
+     */
+    public boolean tryAcquire() {
+        return reserve(Duration.ZERO) != null;
+    }
+
+    /**
+     * Reservar un permiso (no bloquea)
+     *
+     * @param maxWait Espera máxima aceptable
+     * @return Espera hasta poder usar el permiso, o null si supera maxWait (no se reserva)
+     */
+    public synchronized Duration reserve(Duration maxWait) {
+        refill();
+
+        if (tokens >= 1) {
+            tokens -= 1;
+            return Duration.ZERO;
+        }
+
+        long waitNanos = (long) Math.ceil((1 - tokens) / permitsPerNano);
+        if (waitNanos > maxWait.toNanos()) {
+            return null;
+        }
+
+        tokens -= 1;
+        return Duration.ofNanos(waitNanos);
+    }
+
+    private void refill() {
+        long now = clock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,73 @@
+package com.leodeev.project.whatsappbot.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * Firma de los webhooks de WhatsApp (cabecera X-Hub-Signature-256)
+ * SOLID: Single Responsibility Principle - Solo calcula y verifica la firma
+ *
+ * Meta firma el cuerpo tal cual llega con HMAC-SHA256 y el app secret:
+ * "sha256=" + hex. Se verifica sobre los bytes recibidos, antes de parsearlos.
+ */
+public class WebhookSignature {
+
+    public static final String HEADER = "X-Hub-Signature-256";
+
+    private static final String PREFIX = "sha256=";
+    private static final String ALGORITHM = "HmacSHA256";
+
+    /**
+     * Constructor privado para evitar instanciación
+     */
+    private WebhookSignature() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Valor de la cabecera para un cuerpo
+     *
+     * @param payload Cuerpo del webhook
+     * @param secret App secret
+     * @return "sha256=" + HMAC en hexadecimal
+     */
+    public static String sign(byte[] payload, String secret) {
+        return PREFIX + HexFormat.of().formatHex(hmac(payload, secret));
+    }
+
+    /**
+     * Verificar la cabecera recibida (comparación en tiempo constante)
+     *
+     * @param payload Cuerpo del webhook tal como llegó
+     * @param header Valor de X-Hub-Signature-256 (puede ser null)
+     * @param secret App secret
+     * @return true si la firma corresponde al cuerpo
+     */
+    public static boolean matches(byte[] payload, String header, String secret) {
+        if (header == null || !header.startsWith(PREFIX) || secret == null || secret.isEmpty()) {
+            return false;
+        }
+
+        byte[] provided;
+        try {
+            provided = HexFormat.of().parseHex(header.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(hmac(payload, secret), provided);
+    }
+
+    private static byte[] hmac(byte[] payload, String secret) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 no disponible", e);
+        }
+    }
+}
@@ -3,7 +3,7 @@ package com.leodeev.project.whatsappbot;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "whatsapp.app.secret=test-secret")
 class WhatsappbotApplicationTests {
 
 	@Test
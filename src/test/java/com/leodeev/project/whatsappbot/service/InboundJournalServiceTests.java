@@ -0,0 +1,132 @@
+package com.leodeev.project.whatsappbot.service;
+
+import com.leodeev.project.whatsappbot.config.InboundJournalConfig;
+import com.leodeev.project.whatsappbot.service.serviceImpl.InboundJournalServiceImpl;
+import com.leodeev.project.whatsappbot.util.InboundJournal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class InboundJournalServiceTests {
+
+	private static final byte[] WEBHOOK = "{\"object\":\"whatsapp_business_account\",\"entry\":[]}"
+			.getBytes(StandardCharsets.UTF_8);
+
+	@TempDir
+	Path directory;
+
+	private final WhatsAppService whatsAppService = mock(WhatsAppService.class);
+	private InboundJournalConfig config;
+	private InboundJournalServiceImpl service;
+
+	@BeforeEach
+	void setUp() {
+		config = new InboundJournalConfig();
+		config.setDirectory(directory.toString());
+		config.setSegmentSizeMb(1);
+		config.setSync(false);
+		config.setRetryDelay(Duration.ofMillis(10));
+		config.setMaxRetryDelay(Duration.ofMillis(20));
+
+		service = new InboundJournalServiceImpl(config, whatsAppService, JsonMapper.builder().build(), new SimpleMeterRegistry());
+		service.afterSingletonsInstantiated();
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		service.destroy();
+	}
+
+	@Test
+	void retriesAFailedWebhookAndThenAdvancesTheCheckpoint() throws Exception {
+		doThrow(new CannotGetJdbcConnectionException("la base no responde"))
+				.doThrow(new CannotGetJdbcConnectionException("la base no responde"))
+				.doNothing()
+				.when(whatsAppService).processWebhook(any());
+
+		service.accept(WEBHOOK);
+
+		await(() -> service.getLagBytes() == 0);
+		verify(whatsAppService, times(3)).processWebhook(any());
+		assertThat(service.getOldestPendingAge()).isEqualTo(Duration.ZERO);
+	}
+
+	@Test
+	void keepsFailedWebhooksInTheJournalOnShutdown() throws Exception {
+		doThrow(new CannotGetJdbcConnectionException("la base no responde")).when(whatsAppService).processWebhook(any());
+
+		service.accept(WEBHOOK);
+		service.accept(WEBHOOK);
+		// Un error transitorio se reintenta mucho más que maxAttempts: nada se descarta
+		await(() -> mockingDetails(whatsAppService).getInvocations().size() >= 20);
+		service.destroy();
+
+		try (InboundJournal journal = InboundJournal.open(directory, 1024 * 1024, false)) {
+			List<InboundJournal.Entry> pending = journal.read(journal.getCheckpoint(), 10);
+			assertThat(pending).hasSize(2);
+			assertThat(pending.get(1).nextOffset()).isEqualTo(journal.getWriteOffset());
+		}
+	}
+
+	@Test
+	void parksUnparseableWebhooksInTheDeadLetterFile() throws Exception {
+		doNothing().when(whatsAppService).processWebhook(any());
+
+		service.accept("no es json".getBytes(StandardCharsets.UTF_8));
+		service.accept(WEBHOOK);
+
+		await(() -> service.getLagBytes() == 0);
+		verify(whatsAppService, times(1)).processWebhook(any());
+		List<String> deadLetters = Files.readAllLines(directory.resolve("dead-letter.jsonl"));
+		assertThat(deadLetters).hasSize(1);
+		assertThat(deadLetters.get(0)).contains("\"offset\"").contains("\"payload\"");
+	}
+
+	@Test
+	void parksWebhooksThatKeepFailingAfterMaxAttempts() throws Exception {
+		config.setMaxAttempts(3);
+		doThrow(new IllegalStateException("dato inesperado"))
+				.doThrow(new IllegalStateException("dato inesperado"))
+				.doThrow(new IllegalStateException("dato inesperado"))
+				.doNothing()
+				.when(whatsAppService).processWebhook(any());
+
+		service.accept(WEBHOOK);
+		service.accept(WEBHOOK);
+
+		// El siguiente webhook no queda bloqueado detrás del que siempre falla
+		await(() -> service.getLagBytes() == 0);
+		verify(whatsAppService, times(4)).processWebhook(any());
+		List<String> deadLetters = Files.readAllLines(directory.resolve("dead-letter.jsonl"));
+		assertThat(deadLetters).hasSize(1);
+		assertThat(deadLetters.get(0)).contains("dato inesperado");
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("condición no alcanzada a tiempo").isLessThan(deadline);
+			Thread.sleep(10);
+		}
+	}
+}
@@ -0,0 +1,181 @@
+package com.leodeev.project.whatsappbot.service;
+
+import com.leodeev.project.whatsappbot.config.LogSamplingConfig;
+import com.leodeev.project.whatsappbot.config.OutboxConfig;
+import com.leodeev.project.whatsappbot.config.RetryConfig;
+import com.leodeev.project.whatsappbot.dto.response.WhatsAppMessageResponse;
+import com.leodeev.project.whatsappbot.service.serviceImpl.OutboxDispatcherServiceImpl;
+import com.leodeev.project.whatsappbot.util.PipelineMetrics;
+import com.leodeev.project.whatsappbot.util.PipelineTracing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * El reclamo por destinatario (una fila por teléfono) lo resuelve el SQL; aquí se
+ * verifica qué hace el despachador con cada resultado, sin base de datos
+ */
+class OutboxDispatcherServiceTests {
+
+	private static final String PHONE = "51999000111";
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final WhatsAppService whatsAppService = mock(WhatsAppService.class);
+	private final List<Statement> statements = new ArrayList<>();
+
+	private OutboxDispatcherServiceImpl dispatcher;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		OutboxConfig outboxConfig = new OutboxConfig();
+		outboxConfig.setConcurrency(2);
+
+		dispatcher = new OutboxDispatcherServiceImpl(jdbcTemplate,
+				new TransactionTemplate(mock(PlatformTransactionManager.class)), whatsAppService, outboxConfig,
+				new RetryConfig(), new PipelineMetrics(new SimpleMeterRegistry()),
+				new PipelineTracing(Tracer.NOOP, Propagator.NOOP, ObservationRegistry.NOOP), new LogSamplingConfig());
+		dispatcher.afterSingletonsInstantiated();
+
+		when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class))).thenAnswer(invocation -> {
+			statements.add(Statement.capture(invocation.getArgument(0), invocation.getArgument(1)));
+			return 1;
+		});
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		dispatcher.destroy();
+	}
+
+	@Test
+	void transientFailureStaysInTheOutboxWithBackoff() throws Exception {
+		claims(new Claimed(1L, "uno", 0));
+		when(whatsAppService.sendTextMessage(PHONE, "uno")).thenThrow(new IllegalStateException("timeout"));
+
+		assertThat(dispatcher.dispatch()).isZero();
+
+		// Sigue en el outbox (bloquea los siguientes envíos al teléfono) con el próximo intento en locked_until
+		Statement retry = statement("UPDATE message_outbox o SET locked_until = s.next_attempt_at");
+		assertThat(retry.arrays().get(0)).containsExactly(1L);
+		assertThat(((Timestamp) retry.arrays().get(1)[0]).toLocalDateTime()).isAfterOrEqualTo(LocalDateTime.now().minusSeconds(1));
+		assertThat(statement("UPDATE messages m SET error_message").arrays().get(0)).containsExactly(10L);
+		assertThat(sqlOf(statements)).noneMatch(sql -> sql.contains("DELETE") || sql.contains("'FAILED'"));
+	}
+
+	@Test
+	void finishedSendsLeaveTheOutbox() throws Exception {
+		claims(new Claimed(1L, "uno", 0), new Claimed(2L, "dos", 4), new Claimed(3L, null, 0), new Claimed(4L, "cuatro", 0));
+		when(whatsAppService.sendTextMessage(PHONE, "uno")).thenThrow(permanentError());
+		when(whatsAppService.sendTextMessage(PHONE, "dos")).thenThrow(new IllegalStateException("timeout"));
+		when(whatsAppService.sendTextMessage(PHONE, "cuatro")).thenReturn(sent("wamid.cuatro"));
+
+		assertThat(dispatcher.dispatch()).isEqualTo(1);
+
+		// Error permanente, último intento y mensaje inexistente: FAILED sin reintento
+		assertThat(statement("SET status = 'FAILED'").arrays().get(0)).containsExactly(10L, 20L, 30L);
+		assertThat(statement("SET status = 'SENT'").arrays().get(2)).containsExactly("wamid.cuatro");
+		assertThat(statement("DELETE FROM message_outbox").arrays().get(0)).containsExactly(4L, 1L, 2L, 3L);
+		assertThat(sqlOf(statements)).noneMatch(sql -> sql.contains("s.next_attempt_at"));
+		verify(whatsAppService, times(3)).sendTextMessage(eq(PHONE), anyString());
+		verify(whatsAppService, never()).sendTextMessage(PHONE, null);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void claims(Claimed... rows) {
+		when(jdbcTemplate.query(contains("FOR UPDATE SKIP LOCKED"), any(PreparedStatementSetter.class), any(RowMapper.class)))
+				.thenAnswer(invocation -> {
+					RowMapper<Object> mapper = invocation.getArgument(2);
+					List<Object> claimed = new ArrayList<>();
+					for (Claimed row : rows) {
+						ResultSet rs = mock(ResultSet.class);
+						when(rs.getLong(1)).thenReturn(row.id());
+						when(rs.getLong(2)).thenReturn(row.id() * 10);
+						when(rs.getTimestamp(3)).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
+						when(rs.getString(4)).thenReturn(PHONE);
+						when(rs.getString(5)).thenReturn(row.content());
+						when(rs.getInt(8)).thenReturn(row.attempts());
+						claimed.add(mapper.mapRow(rs, claimed.size()));
+					}
+					return claimed;
+				});
+	}
+
+	private Statement statement(String fragment) {
+		return statements.stream()
+				.filter(statement -> statement.sql().contains(fragment))
+				.findFirst()
+				.orElseThrow(() -> new AssertionError("Sin sentencia con: " + fragment + " en " + sqlOf(statements)));
+	}
+
+	private static List<String> sqlOf(List<Statement> statements) {
+		return statements.stream().map(Statement::sql).toList();
+	}
+
+	private static RuntimeException permanentError() {
+		WebClientResponseException cause = WebClientResponseException.create(HttpStatus.BAD_REQUEST.value(), "Bad Request",
+				null, "{\"error\":{\"code\":131026}}".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+		return new RuntimeException("Error enviando mensaje a WhatsApp", cause);
+	}
+
+	private static WhatsAppMessageResponse sent(String whatsappMessageId) {
+		return WhatsAppMessageResponse.builder()
+				.messages(List.of(new WhatsAppMessageResponse.Message(whatsappMessageId)))
+				.build();
+	}
+
+	/**
+	 * Fila devuelta por el reclamo (content null = el mensaje ya no existe)
+	 */
+	private record Claimed(Long id, String content, int attempts) {
+	}
+
+	/**
+	 * Sentencia ejecutada con los arreglos de sus parámetros, en orden
+	 */
+	private record Statement(String sql, List<Object[]> arrays) {
+
+		static Statement capture(String sql, PreparedStatementSetter setter) throws Exception {
+			List<Object[]> arrays = new ArrayList<>();
+			Connection connection = mock(Connection.class);
+			when(connection.createArrayOf(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+				arrays.add(invocation.getArgument(1));
+				return null;
+			});
+			PreparedStatement ps = mock(PreparedStatement.class);
+			when(ps.getConnection()).thenReturn(connection);
+			setter.setValues(ps);
+			return new Statement(sql, arrays);
+		}
+	}
+}
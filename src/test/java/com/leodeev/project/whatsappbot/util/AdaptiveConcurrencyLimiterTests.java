@@ -0,0 +1,64 @@
+package com.leodeev.project.whatsappbot.util;
+
+import com.leodeev.project.whatsappbot.exception.ConcurrencyLimitExceededException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTests {
+
+	@Test
+	void halvesOnOverloadAndGrowsBackWhenUsed() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+				"test", 8, 1, 10, Duration.ofMillis(10), 10, 1000.0, 0.5);
+
+		assertThatThrownBy(() -> limiter.execute(() -> {
+			throw WebClientResponseException.create(HttpStatus.TOO_MANY_REQUESTS.value(), "Too Many Requests", null, null, null);
+		})).isInstanceOf(WebClientResponseException.class);
+		assertThat(limiter.getLimit()).isEqualTo(4);
+
+		// Otros errores no ajustan el límite
+		assertThatThrownBy(() -> limiter.execute(() -> {
+			throw new IllegalStateException("bad request");
+		})).isInstanceOf(IllegalStateException.class);
+		assertThat(limiter.getLimit()).isEqualTo(4);
+
+		// Con el límite en uso, ~límite respuestas rápidas suman 1
+		long[] starts = new long[4];
+		for (int round = 0; round < 3; round++) {
+			for (int i = 0; i < starts.length; i++) {
+				starts[i] = limiter.acquire();
+			}
+			for (long start : starts) {
+				limiter.release(start, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+			}
+		}
+		assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(5);
+		assertThat(limiter.getInFlight()).isZero();
+	}
+
+	@Test
+	void rejectsWhenNoTurnWithinDeadline() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+				"test", 1, 1, 1, Duration.ofMillis(20), 10, 2.0, 0.5);
+
+		long start = limiter.acquire();
+
+		assertThatThrownBy(() -> limiter.execute(() -> "ok"))
+				.isInstanceOf(ConcurrencyLimitExceededException.class);
+
+		// Sin turno la admisión (ej: permiso de tasa) no llega a consumirse
+		int[] admitted = new int[1];
+		assertThatThrownBy(() -> limiter.execute(() -> admitted[0]++, () -> "ok"))
+				.isInstanceOf(ConcurrencyLimitExceededException.class);
+		assertThat(admitted[0]).isZero();
+
+		limiter.release(start, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+		assertThat(limiter.execute(() -> "ok")).isEqualTo("ok");
+	}
+}
@@ -0,0 +1,118 @@
+package com.leodeev.project.whatsappbot.util;
+
+import com.leodeev.project.whatsappbot.dto.response.ArchivedConversation;
+import com.leodeev.project.whatsappbot.dto.response.ConversationResponse;
+import com.leodeev.project.whatsappbot.dto.response.MessageResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ArchiveSegmentTests {
+
+	private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 10, 0, 0, 123_000_000);
+
+	@Test
+	void readsBackConversationsWithTheirMessages() throws Exception {
+		byte[] segment = ArchiveSegmentWriter.write(List.of(conversation(7L, 3L, 0), conversation(2L, 1L, 1)), 64);
+
+		ArchiveSegmentReader reader = ArchiveSegmentReader.open("segment", segment);
+
+		ArchivedConversation archived = reader.findConversation(7L).orElseThrow();
+		assertThat(archived.getConversation().getCustomerId()).isEqualTo(3L);
+		assertThat(archived.getConversation().getStartedAt()).isEqualTo(START);
+		assertThat(archived.getConversation().getEndedAt()).isNull();
+		assertThat(archived.getMessages()).hasSize(2);
+		assertThat(archived.getMessages().get(1).getContent()).isEqualTo("respuesta á 7");
+		assertThat(archived.getMessages().get(1).getConversationId()).isEqualTo(7L);
+		assertThat(reader.findConversation(99L)).isEmpty();
+	}
+
+	@Test
+	void findsCustomerConversationsAcrossBlockBoundaries() throws Exception {
+		List<ArchivedConversation> conversations = new ArrayList<>();
+		for (long id = 1; id <= 40; id++) {
+			conversations.add(conversation(id, id % 4, (int) id));
+		}
+		byte[] segment = ArchiveSegmentWriter.write(conversations, 3);
+
+		ArchiveSegmentReader reader = ArchiveSegmentReader.open("segment", segment);
+
+		List<ArchivedConversation> found = reader.findByCustomer(2L);
+		assertThat(found).hasSize(10);
+		assertThat(found).allMatch(archived -> archived.getConversation().getCustomerId() == 2L);
+		assertThat(found.get(0).getConversation().getId()).isEqualTo(2L);
+		assertThat(reader.findByCustomer(9L)).isEmpty();
+		assertThat(reader.getConversationCount()).isEqualTo(40);
+		assertThat(reader.getNewestStartedAt()).contains(START.plusDays(40));
+	}
+
+	@Test
+	void skipsSegmentsWithoutTheCustomerWithoutReadingBlocks() throws Exception {
+		List<ArchivedConversation> conversations = new ArrayList<>();
+		for (long id = 1; id <= 40; id++) {
+			// Clientes pares: el 5 queda dentro del rango de un bloque pero no está en el segmento
+			conversations.add(conversation(id, (id % 5) * 2, (int) id));
+		}
+		byte[] segment = ArchiveSegmentWriter.write(conversations, 3);
+		AtomicInteger reads = new AtomicInteger();
+
+		ArchiveSegmentReader reader = ArchiveSegmentReader.open("segment", segment.length, (offset, length) -> {
+			reads.incrementAndGet();
+			return Arrays.copyOfRange(segment, (int) offset, (int) offset + length);
+		});
+		int readsToOpen = reads.get();
+
+		assertThat(reader.mayContainCustomer(5L)).isFalse();
+		assertThat(reader.findByCustomer(5L)).isEmpty();
+		assertThat(reads.get()).isEqualTo(readsToOpen);
+		assertThat(reader.findByCustomer(4L)).hasSize(8);
+		assertThat(reads.get()).isGreaterThan(readsToOpen);
+	}
+
+	@Test
+	void failsInsteadOfSpinningOnATruncatedBlock() throws Exception {
+		byte[] segment = ArchiveSegmentWriter.write(List.of(conversation(7L, 3L, 0)), 64);
+
+		// El índice declara la mitad de los bytes comprimidos del primer bloque
+		ByteBuffer bytes = ByteBuffer.wrap(segment);
+		int indexOffset = (int) bytes.getLong(segment.length - ArchiveSegmentWriter.FOOTER_BYTES);
+		int lengthPosition = indexOffset + Integer.BYTES + Long.BYTES;
+		bytes.putInt(lengthPosition, bytes.getInt(lengthPosition) / 2);
+
+		ArchiveSegmentReader reader = ArchiveSegmentReader.open("segment", segment);
+
+		assertThatThrownBy(() -> reader.findConversation(7L))
+				.isInstanceOf(UncheckedIOException.class)
+				.hasRootCauseMessage("Bloque 0 truncado en el segmento segment");
+	}
+
+	private ArchivedConversation conversation(Long id, Long customerId, int dayOffset) {
+		ConversationResponse conversation = ConversationResponse.builder()
+				.id(id)
+				.customerId(customerId)
+				.customerPhoneNumber("5190000000" + customerId)
+				.startedAt(START.plusDays(dayOffset))
+				.status("CLOSED")
+				.build();
+
+		List<MessageResponse> messages = List.of(
+				MessageResponse.builder().id(id * 10).type("TEXT").direction("INBOUND")
+						.content("hola " + id).sentAt(START.plusDays(dayOffset)).build(),
+				MessageResponse.builder().id(id * 10 + 1).type("TEXT").direction("OUTBOUND")
+						.content("respuesta á " + id).sentAt(START.plusDays(dayOffset).plusMinutes(1)).build());
+
+		return ArchivedConversation.builder()
+				.conversation(conversation)
+				.messages(messages)
+				.build();
+	}
+}
@@ -0,0 +1,44 @@
+package com.leodeev.project.whatsappbot.util;
+
+import com.leodeev.project.whatsappbot.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorCodecTests {
+
+	@Test
+	void roundTripsCompositeCursor() {
+		LocalDateTime sentAt = LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_897_000);
+
+		CursorCodec.Cursor cursor = CursorCodec.decode(CursorCodec.encode(sentAt, 42L));
+
+		assertThat(cursor.timestamp()).isEqualTo(sentAt);
+		assertThat(cursor.id()).isEqualTo(42L);
+	}
+
+	@Test
+	void roundTripsIdOnlyCursor() {
+		CursorCodec.Cursor cursor = CursorCodec.decode(CursorCodec.encode(7L));
+
+		assertThat(cursor.timestamp()).isNull();
+		assertThat(cursor.id()).isEqualTo(7L);
+	}
+
+	@Test
+	void missingCursorMeansFirstPage() {
+		assertThat(CursorCodec.decode(null)).isNull();
+		assertThat(CursorCodec.decode(" ")).isNull();
+	}
+
+	@Test
+	void rejectsTamperedCursor() {
+		assertThatThrownBy(() -> CursorCodec.decode("not-a-cursor"))
+				.isInstanceOf(InvalidCursorException.class);
+		assertThatThrownBy(() -> CursorCodec.decode(CursorCodec.encode(7L)).requireTimestamp())
+				.isInstanceOf(InvalidCursorException.class);
+	}
+}
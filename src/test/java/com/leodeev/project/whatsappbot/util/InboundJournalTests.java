@@ -0,0 +1,129 @@
+package com.leodeev.project.whatsappbot.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InboundJournalTests {
+
+	private static final int SEGMENT_SIZE = 256;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void replaysEntriesAfterTheCheckpointOnReopen() throws Exception {
+		try (InboundJournal journal = InboundJournal.open(directory, SEGMENT_SIZE, true)) {
+			long first = journal.append(bytes("uno"));
+			journal.append(bytes("dos"));
+			journal.append(bytes("tres"));
+			journal.commit(first);
+		}
+
+		try (InboundJournal journal = InboundJournal.open(directory, SEGMENT_SIZE, true)) {
+			List<InboundJournal.Entry> entries = journal.read(journal.getCheckpoint(), 10);
+
+			assertThat(entries).extracting(entry -> text(entry.payload())).containsExactly("dos", "tres");
+			assertThat(entries.get(1).nextOffset()).isEqualTo(journal.getWriteOffset());
+		}
+	}
+
+	@Test
+	void rotatesSegmentsAndDeletesProcessedOnes() throws Exception {
+		try (InboundJournal journal = InboundJournal.open(directory, SEGMENT_SIZE, false)) {
+			long position = journal.getCheckpoint();
+			for (int i = 0; i < 20; i++) {
+				journal.append(bytes("webhook número " + i));
+			}
+
+			List<InboundJournal.Entry> entries = journal.read(position, 100);
+			assertThat(entries).hasSize(20);
+			assertThat(text(entries.get(19).payload())).isEqualTo("webhook número 19");
+			assertThat(segmentCount()).isGreaterThan(1);
+
+			journal.commit(entries.get(19).nextOffset());
+			assertThat(segmentCount()).isEqualTo(1);
+			assertThat(journal.read(journal.getCheckpoint(), 100)).isEmpty();
+		}
+	}
+
+	@Test
+	void discardsATornEntryAtTheTail() throws Exception {
+		long end;
+		try (InboundJournal journal = InboundJournal.open(directory, SEGMENT_SIZE, true)) {
+			end = journal.append(bytes("completo"));
+			journal.append(bytes("a medias"));
+		}
+		try (RandomAccessFile file = new RandomAccessFile(segment().toFile(), "rw")) {
+			file.seek(end + InboundJournal.HEADER_BYTES);
+			file.write('X');
+		}
+
+		try (InboundJournal journal = InboundJournal.open(directory, SEGMENT_SIZE, true)) {
+			assertThat(journal.getWriteOffset()).isEqualTo(end);
+			journal.append(bytes("nuevo"));
+
+			assertThat(journal.read(0, 10)).extracting(entry -> text(entry.payload()))
+					.containsExactly("completo", "nuevo");
+		}
+	}
+
+	@Test
+	void readOnlyOpenDoesNotTouchTheDirectory() throws Exception {
+		long end;
+		try (InboundJournal journal = InboundJournal.open(directory, SEGMENT_SIZE, true)) {
+			journal.commit(journal.append(bytes("uno")));
+			end = journal.append(bytes("dos"));
+			journal.append(bytes("a medias"));
+		}
+		try (RandomAccessFile file = new RandomAccessFile(segment().toFile(), "rw")) {
+			file.seek(end + InboundJournal.HEADER_BYTES);
+			file.write('X');
+		}
+		byte[] before = Files.readAllBytes(segment());
+
+		try (InboundJournal journal = InboundJournal.openReadOnly(directory, SEGMENT_SIZE)) {
+			assertThat(journal.read(journal.getFirstOffset(), 10)).extracting(entry -> text(entry.payload()))
+					.containsExactly("uno", "dos");
+			assertThatThrownBy(() -> journal.append(bytes("tres"))).isInstanceOf(IllegalStateException.class);
+			assertThatThrownBy(() -> journal.commit(end)).isInstanceOf(IllegalStateException.class);
+		}
+
+		// La cola a medias sigue ahí: no se limpió ni se creó nada
+		assertThat(Files.readAllBytes(segment())).isEqualTo(before);
+		assertThat(segmentCount()).isEqualTo(1);
+		assertThatThrownBy(() -> InboundJournal.openReadOnly(directory.resolve("otro"), SEGMENT_SIZE))
+				.isInstanceOf(NoSuchFileException.class);
+		assertThat(directory.resolve("otro")).doesNotExist();
+	}
+
+	private long segmentCount() throws Exception {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(path -> path.toString().endsWith(".seg")).count();
+		}
+	}
+
+	private Path segment() throws Exception {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(path -> path.toString().endsWith(".seg")).findFirst().orElseThrow();
+		}
+	}
+
+	private static byte[] bytes(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String text(byte[] payload) {
+		return new String(payload, StandardCharsets.UTF_8);
+	}
+}
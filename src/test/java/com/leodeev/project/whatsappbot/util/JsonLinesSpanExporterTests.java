@@ -0,0 +1,64 @@
+package com.leodeev.project.whatsappbot.util;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonLinesSpanExporterTests {
+
+	private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void writesOneSpanPerLineWithItsParent() throws Exception {
+		Path file = directory.resolve("spans.jsonl");
+		try (SdkTracerProvider provider = provider(new JsonLinesSpanExporter(file, 1024 * 1024, jsonMapper))) {
+			Tracer tracer = provider.get("test");
+			Span parent = tracer.spanBuilder("whatsapp.inbound").setAttribute("whatsapp.message_id", "wamid.1").startSpan();
+			try (Scope scope = parent.makeCurrent()) {
+				tracer.spanBuilder("openai.chat").setAttribute("gen_ai.usage.output_tokens", 42L).startSpan().end();
+			}
+			parent.end();
+		}
+
+		List<JsonNode> spans = Files.readAllLines(file).stream().map(jsonMapper::readTree).toList();
+
+		assertThat(spans).extracting(span -> span.path("name").stringValue()).containsExactly("openai.chat", "whatsapp.inbound");
+		assertThat(spans.get(0).path("parentSpanId").stringValue()).isEqualTo(spans.get(1).path("spanId").stringValue());
+		assertThat(spans.get(0).path("traceId").stringValue()).isEqualTo(spans.get(1).path("traceId").stringValue());
+		assertThat(spans.get(0).path("attributes").path("gen_ai.usage.output_tokens").intValue()).isEqualTo(42);
+		assertThat(spans.get(1).has("parentSpanId")).isFalse();
+	}
+
+	@Test
+	void rotatesWhenTheFileIsFull() throws Exception {
+		Path file = directory.resolve("spans.jsonl");
+		try (SdkTracerProvider provider = provider(new JsonLinesSpanExporter(file, 600, jsonMapper))) {
+			for (int i = 0; i < 10; i++) {
+				provider.get("test").spanBuilder("span " + i).startSpan().end();
+			}
+		}
+
+		assertThat(Files.size(file)).isLessThanOrEqualTo(600);
+		assertThat(directory.resolve("spans.jsonl.1")).exists();
+		assertThat(Files.readAllLines(file).get(Files.readAllLines(file).size() - 1)).contains("span 9");
+	}
+
+	private static SdkTracerProvider provider(JsonLinesSpanExporter exporter) {
+		return SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(exporter)).build();
+	}
+}
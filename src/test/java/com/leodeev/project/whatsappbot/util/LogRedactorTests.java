@@ -0,0 +1,27 @@
+package com.leodeev.project.whatsappbot.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogRedactorTests {
+
+	@Test
+	void masksLongDigitRunsKeepingLastFour() {
+		assertThat(LogRedactor.redact("Enviando a 51999000111 y +5491122334455"))
+				.isEqualTo("Enviando a *******0111 y +*********4455");
+	}
+
+	@Test
+	void leavesShortNumbersUntouched() {
+		String message = "Outbox: 12 despachados, 1234567 ms, ID: 42";
+
+		assertThat(LogRedactor.redact(message)).isSameAs(message);
+	}
+
+	@Test
+	void describesContentWithoutIt() {
+		assertThat(LogRedactor.phone("51999000111")).isEqualTo("*******0111");
+		assertThat(LogRedactor.text("hola, tienen laptops?")).isEqualTo("[21 caracteres]");
+	}
+}
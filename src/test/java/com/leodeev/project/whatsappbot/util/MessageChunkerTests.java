@@ -0,0 +1,48 @@
+package com.leodeev.project.whatsappbot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageChunkerTests {
+
+	@Test
+	void splitsAtSentenceBoundariesWithinTheLimit() {
+		String text = "Primera oración bastante larga. Segunda oración también larga. Tercera y última oración.";
+
+		List<String> chunks = MessageChunker.split(text, 40, 40);
+
+		assertThat(chunks).containsExactly(
+				"Primera oración bastante larga.",
+				"Segunda oración también larga.",
+				"Tercera y última oración.");
+		assertThat(String.join(" ", chunks)).isEqualTo(text);
+	}
+
+	@Test
+	void prefersParagraphsAndHardCutsWithoutSpaces() {
+		assertThat(MessageChunker.split("Uno dos tres cuatro.\n\nCinco seis siete ocho.", 30, 30))
+				.containsExactly("Uno dos tres cuatro.", "Cinco seis siete ocho.");
+		assertThat(MessageChunker.split("a".repeat(25), 10, 10))
+				.containsExactly("a".repeat(10), "a".repeat(10), "a".repeat(5));
+	}
+
+	@Test
+	void streamingClosesParagraphsPastTheSoftLength() {
+		MessageChunker chunker = new MessageChunker(100, 10);
+		List<String> chunks = new ArrayList<>();
+
+		chunks.addAll(chunker.append("Hola, gracias por "));
+		assertThat(chunks).isEmpty();
+
+		chunks.addAll(chunker.append("escribir.\n\nTenemos"));
+		assertThat(chunks).containsExactly("Hola, gracias por escribir.");
+
+		chunks.addAll(chunker.append(" tres modelos."));
+		chunks.addAll(chunker.finish());
+		assertThat(chunks).containsExactly("Hola, gracias por escribir.", "Tenemos tres modelos.");
+	}
+}
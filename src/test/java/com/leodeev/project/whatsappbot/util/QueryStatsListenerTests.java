@@ -0,0 +1,77 @@
+package com.leodeev.project.whatsappbot.util;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryStatsListenerTests {
+
+	private static final String SELECT_ITEM = "select * from order_items where order_id=?";
+
+	private final List<String> findings = new ArrayList<>();
+
+	private final QueryStatsListener listener = new QueryStatsListener(new QueryStatsListener.Sink() {
+		@Override
+		public void repeatedQuery(String operation, String sql, int executions) {
+			findings.add("repeated " + operation + " " + executions);
+		}
+
+		@Override
+		public void slowQuery(String operation, String sql, long elapsedMillis) {
+			findings.add("slow " + operation + " " + elapsedMillis);
+		}
+	}, 500, 3);
+
+	@Test
+	void reportsRepeatedQueryOncePerOperation() {
+		List<QueryScope> closed = new ArrayList<>();
+		try (QueryScope ignored = QueryScope.open("GET /api/orders", closed::add)) {
+			for (int i = 0; i < 5; i++) {
+				execute(SELECT_ITEM, null, 1);
+			}
+		}
+
+		assertThat(findings).containsExactly("repeated GET /api/orders 3");
+		assertThat(closed).singleElement().satisfies(scope -> assertThat(scope.getStatements()).isEqualTo(5));
+		assertThat(QueryScope.current()).isNull();
+	}
+
+	@Test
+	void addsNestedOperationToItsParent() {
+		List<QueryScope> closed = new ArrayList<>();
+		try (QueryScope outer = QueryScope.open("POST /api/webhook", closed::add)) {
+			execute("insert into webhook_journal values (?)", 1, 1);
+			try (QueryScope ignored = QueryScope.open("webhook_message", closed::add)) {
+				execute("update customers set last_interaction=? where id=?", 1, 1);
+				execute("insert into messages values (?, ?)", new int[] {1, -2}, 1);
+			}
+			assertThat(QueryScope.current()).isSameAs(outer);
+		}
+
+		assertThat(closed).extracting(QueryScope::getOperation).containsExactly("webhook_message", "POST /api/webhook");
+		assertThat(closed.get(0).getRowsWritten()).isEqualTo(2);
+		assertThat(closed.get(1).getStatements()).isEqualTo(3);
+		assertThat(closed.get(1).getRowsWritten()).isEqualTo(3);
+	}
+
+	@Test
+	void reportsSlowQueryOutsideAnOperation() {
+		execute(SELECT_ITEM, null, 750);
+
+		assertThat(findings).containsExactly("slow null 750");
+	}
+
+	private void execute(String sql, Object result, long elapsedMillis) {
+		ExecutionInfo info = new ExecutionInfo();
+		List<QueryInfo> queries = List.of(new QueryInfo(sql));
+		listener.beforeQuery(info, queries);
+		info.setResult(result);
+		info.setElapsedTime(elapsedMillis);
+		listener.afterQuery(info, queries);
+	}
+}
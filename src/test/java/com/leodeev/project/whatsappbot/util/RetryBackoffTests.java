@@ -0,0 +1,41 @@
+package com.leodeev.project.whatsappbot.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryBackoffTests {
+
+	@Test
+	void delayDoublesUpToTheCap() {
+		Duration base = Duration.ofSeconds(2);
+		Duration max = Duration.ofSeconds(30);
+
+		// Sin jitter (siempre el tope) para ver la curva
+		assertThat(RetryBackoff.delay(1, base, max, bound -> bound)).isEqualTo(Duration.ofSeconds(2));
+		assertThat(RetryBackoff.delay(3, base, max, bound -> bound)).isEqualTo(Duration.ofSeconds(8));
+		assertThat(RetryBackoff.delay(10, base, max, bound -> bound)).isEqualTo(max);
+		assertThat(RetryBackoff.delay(100, base, max, bound -> bound)).isEqualTo(max);
+		assertThat(RetryBackoff.delay(4, base, max)).isBetween(Duration.ZERO, Duration.ofSeconds(16));
+	}
+
+	@Test
+	void classifiesPermanentErrors() {
+		assertThat(RetryBackoff.isPermanent(error(HttpStatus.BAD_REQUEST, "{\"error\":{\"code\":131026}}"))).isTrue();
+		assertThat(RetryBackoff.isPermanent(error(HttpStatus.BAD_REQUEST, "{\"error\":{\"code\":130429}}"))).isFalse();
+		assertThat(RetryBackoff.isPermanent(error(HttpStatus.TOO_MANY_REQUESTS, ""))).isFalse();
+		assertThat(RetryBackoff.isPermanent(error(HttpStatus.SERVICE_UNAVAILABLE, ""))).isFalse();
+		assertThat(RetryBackoff.isPermanent(new IllegalStateException("timeout"))).isFalse();
+	}
+
+	private static RuntimeException error(HttpStatus status, String body) {
+		WebClientResponseException cause = WebClientResponseException.create(
+				status.value(), status.getReasonPhrase(), null, body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+		return new RuntimeException("Error enviando mensaje a WhatsApp", cause);
+	}
+}
@@ -0,0 +1,29 @@
+package com.leodeev.project.whatsappbot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTests {
+
+	@Test
+	void allowsBurstThenSpacesPermitsAtTheRate() {
+		AtomicLong now = new AtomicLong();
+		TokenBucket bucket = new TokenBucket(10, 2, now::get);
+
+		assertThat(bucket.tryAcquire()).isTrue();
+		assertThat(bucket.tryAcquire()).isTrue();
+		assertThat(bucket.tryAcquire()).isFalse();
+
+		// Reservas en orden: 100 ms y 200 ms a 10 permisos/s
+		assertThat(bucket.reserve(Duration.ofSeconds(1))).isEqualTo(Duration.ofMillis(100));
+		assertThat(bucket.reserve(Duration.ofSeconds(1))).isEqualTo(Duration.ofMillis(200));
+		assertThat(bucket.reserve(Duration.ofMillis(250))).isNull();
+
+		now.addAndGet(Duration.ofMillis(300).toNanos());
+		assertThat(bucket.tryAcquire()).isTrue();
+	}
+}
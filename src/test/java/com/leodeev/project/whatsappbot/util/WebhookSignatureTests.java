@@ -0,0 +1,36 @@
+package com.leodeev.project.whatsappbot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookSignatureTests {
+
+	private static final String SECRET = "app-secret";
+
+	@Test
+	void acceptsOnlyTheSignatureOfTheReceivedBytes() {
+		byte[] payload = "{\"object\":\"whatsapp_business_account\"}".getBytes(StandardCharsets.UTF_8);
+		String header = WebhookSignature.sign(payload, SECRET);
+
+		assertThat(header).startsWith("sha256=").hasSize("sha256=".length() + 64);
+		assertThat(WebhookSignature.matches(payload, header, SECRET)).isTrue();
+		assertThat(WebhookSignature.matches(payload, header.toUpperCase().replace("SHA256=", "sha256="), SECRET)).isTrue();
+
+		byte[] tampered = "{\"object\":\"otro\"}".getBytes(StandardCharsets.UTF_8);
+		assertThat(WebhookSignature.matches(tampered, header, SECRET)).isFalse();
+		assertThat(WebhookSignature.matches(payload, header, "otro-secret")).isFalse();
+	}
+
+	@Test
+	void rejectsMissingOrMalformedHeaders() {
+		byte[] payload = "{}".getBytes(StandardCharsets.UTF_8);
+
+		assertThat(WebhookSignature.matches(payload, null, SECRET)).isFalse();
+		assertThat(WebhookSignature.matches(payload, "sha1=abcd", SECRET)).isFalse();
+		assertThat(WebhookSignature.matches(payload, "sha256=no-es-hex", SECRET)).isFalse();
+		assertThat(WebhookSignature.matches(payload, WebhookSignature.sign(payload, SECRET), "")).isFalse();
+	}
+}